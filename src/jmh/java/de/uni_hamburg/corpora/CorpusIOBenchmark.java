@@ -0,0 +1,49 @@
+package de.uni_hamburg.corpora;
+
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures reading a synthetic corpus of EXMARaLDA, ELAN and Coma files from disk
+ *
+ * @author Herbert Lange
+ * @version 20261017
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CorpusIOBenchmark {
+
+    @Param({"10", "100"})
+    public int transcriptions;
+
+    @Param({"50"})
+    public int events;
+
+    private Path dir;
+    private URL url;
+
+    @Setup
+    public void setup() throws Exception {
+        dir = Files.createTempDirectory("corpus-io-benchmark");
+        new SyntheticCorpus(42, transcriptions, events).write(dir);
+        url = dir.toUri().toURL();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        SyntheticCorpus.delete(dir);
+    }
+
+    @Benchmark
+    public Collection<CorpusData> read() throws Exception {
+        return new CorpusIO().read(url, new Report());
+    }
+}
@@ -0,0 +1,287 @@
+package de.uni_hamburg.corpora;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Generates reproducible synthetic corpora for the benchmarks, consisting of EXMARaLDA basic transcriptions, ELAN
+ * files and a Coma file referencing the transcriptions. The content only depends on the seed and the sizes, so
+ * results can be compared between runs without access to real corpora.
+ *
+ * @author Herbert Lange
+ * @version 20261017
+ */
+public class SyntheticCorpus {
+
+    private static final String[] SYLLABLES = {"ka", "ti", "mo", "ra", "nu", "se", "lo", "pe", "wi", "da", "ŋa",
+            "tʃu", "ɨm", "bə", "ol"};
+    private static final String[] GLOSSES = {"1SG", "2SG", "3SG", "PL", "PST", "FUT", "NEG", "LOC", "ACC", "GEN"};
+    private static final String[] PUNCTUATION = {".", "?", "!"};
+    private static final String[] SPEAKERS = {"SPK0", "SPK1"};
+
+    private final long seed;
+    private final int transcriptions;
+    private final int events;
+
+    /**
+     * Creates a generator
+     * @param seed the seed for the random content
+     * @param transcriptions the number of EXMARaLDA and ELAN files each
+     * @param events the number of events or annotations per speaker in each file
+     */
+    public SyntheticCorpus(long seed, int transcriptions, int events) {
+        this.seed = seed;
+        this.transcriptions = transcriptions;
+        this.events = events;
+    }
+
+    /**
+     * Writes the complete corpus to a directory
+     * @param dir the directory, created if it does not exist
+     * @return the path of the Coma file
+     * @throws IOException if writing fails
+     */
+    public Path write(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < transcriptions; i++) {
+            String name = "synthetic_" + i;
+            names.add(name);
+            Files.writeString(dir.resolve(name + ".exb"), exb(i), StandardCharsets.UTF_8);
+            Files.writeString(dir.resolve(name + ".eaf"), eaf(i), StandardCharsets.UTF_8);
+        }
+        Path coma = dir.resolve("synthetic.coma");
+        Files.writeString(coma, coma(names), StandardCharsets.UTF_8);
+        return coma;
+    }
+
+    /**
+     * Generates a list of words
+     * @param count the number of words
+     * @return the words, possibly containing duplicates
+     */
+    public List<String> words(int count) {
+        Random random = new Random(seed);
+        List<String> words = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            words.add(word(random));
+        }
+        return words;
+    }
+
+    /**
+     * Generates an EXMARaLDA basic transcription with a transcription and a gloss tier per speaker
+     * @param index the number of the file
+     * @return the XML document
+     */
+    public String exb(int index) {
+        Random random = new Random(seed + index);
+        StringBuilder sb = new StringBuilder();
+        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<basic-transcription>\n<head>\n")
+                .append("<meta-information><project-name>Synthetic</project-name><transcription-name>synthetic_")
+                .append(index).append("</transcription-name><referenced-file url=\"synthetic_").append(index)
+                .append(".wav\"/><ud-meta-information/><comment/><transcription-convention>HIAT")
+                .append("</transcription-convention></meta-information>\n<speakertable>\n");
+        for (String speaker : SPEAKERS) {
+            sb.append("<speaker id=\"").append(speaker).append("\"><abbreviation>").append(speaker)
+                    .append("</abbreviation><sex value=\"u\"/><languages-used/><l1/><l2/>")
+                    .append("<ud-speaker-information/><comment/></speaker>\n");
+        }
+        sb.append("</speakertable>\n</head>\n<basic-body>\n<common-timeline>\n");
+        int timelineItems = events * SPEAKERS.length + 1;
+        for (int t = 0; t < timelineItems; t++) {
+            sb.append("<tli id=\"T").append(t).append("\" time=\"").append(t * 1.5).append("\"/>\n");
+        }
+        sb.append("</common-timeline>\n");
+        List<String[]> utterances = new ArrayList<>();
+        for (int e = 0; e < events * SPEAKERS.length; e++) {
+            utterances.add(utterance(random));
+        }
+        for (int s = 0; s < SPEAKERS.length; s++) {
+            for (String category : new String[]{"v", "ge"}) {
+                sb.append("<tier id=\"TIE").append(s).append(category).append("\" speaker=\"").append(SPEAKERS[s])
+                        .append("\" category=\"").append(category).append("\" type=\"")
+                        .append(category.equals("v") ? "t" : "a").append("\" display-name=\"")
+                        .append(SPEAKERS[s]).append(" [").append(category).append("]\">\n");
+                // Speakers take turns
+                for (int e = s; e < events * SPEAKERS.length; e += SPEAKERS.length) {
+                    sb.append("<event start=\"T").append(e).append("\" end=\"T").append(e + 1).append("\">")
+                            .append(category.equals("v") ? utterances.get(e)[0] : utterances.get(e)[1])
+                            .append("</event>\n");
+                }
+                sb.append("</tier>\n");
+            }
+        }
+        sb.append("</basic-body>\n</basic-transcription>\n");
+        return sb.toString();
+    }
+
+    /**
+     * Generates an ELAN file with a time-aligned transcription tier and a symbolically associated gloss tier per
+     * speaker
+     * @param index the number of the file
+     * @return the XML document
+     */
+    public String eaf(int index) {
+        Random random = new Random(seed + index);
+        StringBuilder sb = new StringBuilder();
+        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<ANNOTATION_DOCUMENT AUTHOR=\"\" ")
+                .append("DATE=\"2026-10-17T00:00:00+00:00\" FORMAT=\"3.0\" VERSION=\"3.0\" ")
+                .append("xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" ")
+                .append("xsi:noNamespaceSchemaLocation=\"http://www.mpi.nl/tools/elan/EAFv3.0.xsd\">\n")
+                .append("<HEADER MEDIA_FILE=\"\" TIME_UNITS=\"milliseconds\"/>\n<TIME_ORDER>\n");
+        int timeSlots = events * SPEAKERS.length + 1;
+        for (int t = 0; t < timeSlots; t++) {
+            sb.append("<TIME_SLOT TIME_SLOT_ID=\"ts").append(t).append("\" TIME_VALUE=\"").append(t * 1500)
+                    .append("\"/>\n");
+        }
+        sb.append("</TIME_ORDER>\n");
+        List<String[]> utterances = new ArrayList<>();
+        for (int e = 0; e < events * SPEAKERS.length; e++) {
+            utterances.add(utterance(random));
+        }
+        int annotation = 0;
+        for (int s = 0; s < SPEAKERS.length; s++) {
+            String speaker = SPEAKERS[s];
+            sb.append("<TIER LINGUISTIC_TYPE_REF=\"Transcription\" PARTICIPANT=\"").append(speaker)
+                    .append("\" TIER_ID=\"tx@").append(speaker).append("\">\n");
+            int first = annotation;
+            for (int e = s; e < events * SPEAKERS.length; e += SPEAKERS.length) {
+                sb.append("<ANNOTATION><ALIGNABLE_ANNOTATION ANNOTATION_ID=\"a").append(annotation++)
+                        .append("\" TIME_SLOT_REF1=\"ts").append(e).append("\" TIME_SLOT_REF2=\"ts").append(e + 1)
+                        .append("\"><ANNOTATION_VALUE>").append(utterances.get(e)[0])
+                        .append("</ANNOTATION_VALUE></ALIGNABLE_ANNOTATION></ANNOTATION>\n");
+            }
+            sb.append("</TIER>\n<TIER LINGUISTIC_TYPE_REF=\"Gloss\" PARENT_REF=\"tx@").append(speaker)
+                    .append("\" PARTICIPANT=\"").append(speaker).append("\" TIER_ID=\"gl@").append(speaker)
+                    .append("\">\n");
+            int ref = first;
+            for (int e = s; e < events * SPEAKERS.length; e += SPEAKERS.length) {
+                sb.append("<ANNOTATION><REF_ANNOTATION ANNOTATION_ID=\"a").append(annotation++)
+                        .append("\" ANNOTATION_REF=\"a").append(ref++).append("\"><ANNOTATION_VALUE>")
+                        .append(utterances.get(e)[1]).append("</ANNOTATION_VALUE></REF_ANNOTATION></ANNOTATION>\n");
+            }
+            sb.append("</TIER>\n");
+        }
+        sb.append("<LINGUISTIC_TYPE GRAPHIC_REFERENCES=\"false\" LINGUISTIC_TYPE_ID=\"Transcription\" ")
+                .append("TIME_ALIGNABLE=\"true\"/>\n")
+                .append("<LINGUISTIC_TYPE CONSTRAINTS=\"Symbolic_Association\" GRAPHIC_REFERENCES=\"false\" ")
+                .append("LINGUISTIC_TYPE_ID=\"Gloss\" TIME_ALIGNABLE=\"false\"/>\n")
+                .append("<CONSTRAINT DESCRIPTION=\"1-1 association with a parent annotation\" ")
+                .append("STEREOTYPE=\"Symbolic_Association\"/>\n</ANNOTATION_DOCUMENT>\n");
+        return sb.toString();
+    }
+
+    /**
+     * Generates a Coma file with a communication and a speaker per transcription
+     * @param names the names of the transcriptions, without file ending
+     * @return the XML document
+     */
+    public String coma(List<String> names) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<Corpus ")
+                .append("xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" Id=\"synthetic\" ")
+                .append("Name=\"Synthetic corpus\" uniqueSpeakerDistinction=\"//speaker/abbreviation\" ")
+                .append("xsi:noNamespaceSchemaLocation=\"http://www.exmaralda.org/xml/comacorpus.xsd\">\n")
+                .append("<Description><Key Name=\"HZSK:corpusprefix\">syn</Key></Description>\n<CorpusData>\n");
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i);
+            sb.append("<Communication Id=\"CID").append(i).append("\" Name=\"").append(name).append("\">\n")
+                    .append("<Setting><Person>SID0</Person><Person>SID1</Person></Setting>\n")
+                    .append("<Transcription Id=\"TID").append(i).append("\"><Name>").append(name)
+                    .append("</Name><Filename>").append(name).append(".exb</Filename><NSLink>").append(name)
+                    .append(".exb</NSLink><Description><Key Name=\"segmented\">false</Key></Description>")
+                    .append("<Availability><Available>false</Available><ObtainingInformation/></Availability>")
+                    .append("</Transcription>\n</Communication>\n");
+        }
+        for (int s = 0; s < SPEAKERS.length; s++) {
+            sb.append("<Speaker Id=\"SID").append(s).append("\"><Sigle>").append(SPEAKERS[s])
+                    .append("</Sigle><Pseudo>").append(SPEAKERS[s]).append("</Pseudo><KnownHuman>true")
+                    .append("</KnownHuman><Sex>unknown</Sex><Description/></Speaker>\n");
+        }
+        sb.append("</CorpusData>\n</Corpus>\n");
+        return sb.toString();
+    }
+
+    /**
+     * Copies a real file several times, e.g. to scale up a corpus matching a corpus documentation
+     * @param template the file to be copied
+     * @param dir the target directory, created if it does not exist
+     * @param count the number of copies
+     * @return the paths of the copies
+     * @throws IOException if copying fails
+     */
+    public static List<Path> copies(Path template, Path dir, int count) throws IOException {
+        Files.createDirectories(dir);
+        String name = template.getFileName().toString();
+        String base = name.contains(".") ? name.substring(0, name.lastIndexOf('.')) : name;
+        String ending = name.contains(".") ? name.substring(name.lastIndexOf('.')) : "";
+        List<Path> paths = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Path copy = dir.resolve(base + "_" + i + ending);
+            Files.copy(template, copy, StandardCopyOption.REPLACE_EXISTING);
+            paths.add(copy);
+        }
+        return paths;
+    }
+
+    /**
+     * Deletes a directory created for a benchmark
+     * @param dir the directory
+     * @throws IOException if deleting fails
+     */
+    public static void delete(Path dir) throws IOException {
+        if (dir == null || !Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path p : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(p);
+            }
+        }
+    }
+
+    /**
+     * Generates a random word
+     */
+    private static String word(Random random) {
+        StringBuilder sb = new StringBuilder();
+        int syllables = 1 + random.nextInt(4);
+        for (int i = 0; i < syllables; i++) {
+            sb.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Generates an utterance and its glosses
+     * @return the transcription and the glosses, both with a trailing space like EXMARaLDA events
+     */
+    private static String[] utterance(Random random) {
+        StringBuilder text = new StringBuilder();
+        StringBuilder glosses = new StringBuilder();
+        int words = 2 + random.nextInt(8);
+        for (int w = 0; w < words; w++) {
+            text.append(word(random));
+            glosses.append(GLOSSES[random.nextInt(GLOSSES.length)]);
+            if (random.nextBoolean()) {
+                glosses.append('-').append(GLOSSES[random.nextInt(GLOSSES.length)]);
+            }
+            if (w < words - 1) {
+                text.append(' ');
+                glosses.append(' ');
+            }
+        }
+        text.append(PUNCTUATION[random.nextInt(PUNCTUATION.length)]).append(' ');
+        glosses.append(' ');
+        return new String[]{text.toString(), glosses.toString()};
+    }
+}
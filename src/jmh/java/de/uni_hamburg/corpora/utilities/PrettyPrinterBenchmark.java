@@ -0,0 +1,37 @@
+package de.uni_hamburg.corpora.utilities;
+
+import de.uni_hamburg.corpora.SyntheticCorpus;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures pretty printing a synthetic EXMARaLDA transcription
+ *
+ * @author Herbert Lange
+ * @version 20261017
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PrettyPrinterBenchmark {
+
+    @Param({"100", "1000"})
+    public int events;
+
+    private String xml;
+    private PrettyPrinter pp;
+
+    @Setup
+    public void setup() {
+        xml = new SyntheticCorpus(42, 1, events).exb(0);
+        pp = new PrettyPrinter();
+    }
+
+    @Benchmark
+    public String indent() throws Exception {
+        return pp.indent(xml, "event");
+    }
+}
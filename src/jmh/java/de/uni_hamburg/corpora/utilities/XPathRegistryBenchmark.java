@@ -0,0 +1,64 @@
+package de.uni_hamburg.corpora.utilities;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.jdom2.filter.Filters;
+import org.jdom2.input.SAXBuilder;
+import org.jdom2.xpath.XPathBuilder;
+import org.jdom2.xpath.XPathExpression;
+import org.jdom2.xpath.jaxen.JaxenXPathFactory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares compiling an XPath expression for each lookup with reusing a compiled expression from the registry
+ * and passing the changing value as a variable. Each invocation looks up the events of every tier in an
+ * EXMARaLDA file.
+ *
+ * @author Herbert Lange
+ * @version 20261017
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class XPathRegistryBenchmark {
+
+    @Param({"src/test/java/de/uni_hamburg/corpora/resources/example/HardTalk.exb"})
+    public String file;
+
+    private Document doc;
+    private final List<String> tierIds = new ArrayList<>();
+
+    @Setup
+    public void setup() throws Exception {
+        doc = new SAXBuilder().build(new File(file));
+        for (Element tier : doc.getRootElement().getChild("basic-body").getChildren("tier")) {
+            tierIds.add(tier.getAttributeValue("id"));
+        }
+    }
+
+    @Benchmark
+    public void compilePerCall(Blackhole bh) {
+        for (String id : tierIds) {
+            XPathExpression<Element> xpath = new XPathBuilder<>(String.format("//tier[@id='%s']/event", id),
+                    Filters.element()).compileWith(new JaxenXPathFactory());
+            bh.consume(xpath.evaluate(doc));
+        }
+    }
+
+    @Benchmark
+    public void registryWithVariable(Blackhole bh) {
+        XPathExpression<Element> xpath = XPathRegistry.compile("//tier[@id=$id]/event", Filters.element(), "id");
+        for (String id : tierIds) {
+            xpath.setVariable("id", id);
+            bh.consume(xpath.evaluate(doc));
+        }
+    }
+}
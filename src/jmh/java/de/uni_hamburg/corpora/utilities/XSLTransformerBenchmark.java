@@ -0,0 +1,39 @@
+package de.uni_hamburg.corpora.utilities;
+
+import de.uni_hamburg.corpora.SyntheticCorpus;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures applying the NSLC check stylesheet to a synthetic EXMARaLDA transcription
+ *
+ * @author Herbert Lange
+ * @version 20261017
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class XSLTransformerBenchmark {
+
+    @Param({"100", "1000"})
+    public int events;
+
+    private String xml;
+    private XSLTransformer xt;
+
+    @Setup
+    public void setup() throws Exception {
+        xml = new SyntheticCorpus(42, 1, events).exb(0);
+        xt = new XSLTransformer();
+        xt.setParameter("filename", "synthetic_0");
+        xt.setParameter("UTTERANCEENDSYMBOL", "[.!?…:]");
+    }
+
+    @Benchmark
+    public String transform() throws Exception {
+        return xt.transformWithResource(xml, "/xsl/nslc-checks.xsl");
+    }
+}
@@ -0,0 +1,53 @@
+package de.uni_hamburg.corpora.utilities.quest;
+
+import de.uni_hamburg.corpora.SyntheticCorpus;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures looking up words in a dictionary automaton built from synthetic words. Half of the looked up words
+ * are in the dictionary
+ *
+ * @author Herbert Lange
+ * @version 20261017
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DictionaryAutomatonBenchmark {
+
+    @Param({"1000", "10000"})
+    public int dictionarySize;
+
+    private DictionaryAutomaton da;
+    private CompactDictionaryAutomaton cda;
+    private List<String> lookups;
+
+    @Setup
+    public void setup() {
+        List<String> words = new SyntheticCorpus(42, 0, 0).words(dictionarySize);
+        da = new DictionaryAutomaton(words);
+        cda = new CompactDictionaryAutomaton(words);
+        lookups = new SyntheticCorpus(43, 0, 0).words(500);
+        lookups.addAll(words.subList(0, 500));
+    }
+
+    @Benchmark
+    public void match(Blackhole bh) {
+        for (String word : lookups) {
+            bh.consume(da.match(word));
+        }
+    }
+
+    @Benchmark
+    public void matchCompact(Blackhole bh) {
+        for (String word : lookups) {
+            bh.consume(cda.match(word));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package de.uni_hamburg.corpora.utilities.quest;
+
+import de.uni_hamburg.corpora.SyntheticCorpus;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures finding all dictionary words within Levenshtein distance one of a pattern, comparing the universal
+ * Levenshtein automaton with the bit-parallel one. The bit-parallel automaton is also measured for distance two
+ *
+ * @author Herbert Lange
+ * @version 20261017
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UniversalLevenshteinAutomatonK1Benchmark {
+
+    @Param({"1000", "10000"})
+    public int dictionarySize;
+
+    private DictionaryAutomaton da;
+    private CompactDictionaryAutomaton cda;
+    private List<String> patterns;
+
+    @Setup
+    public void setup() {
+        List<String> words = new SyntheticCorpus(42, 0, 0).words(dictionarySize);
+        da = new DictionaryAutomaton(words);
+        cda = new CompactDictionaryAutomaton(words);
+        patterns = new SyntheticCorpus(43, 0, 0).words(20);
+    }
+
+    @Benchmark
+    public void matchDictionary(Blackhole bh) {
+        for (String pattern : patterns) {
+            bh.consume(UniversalLevenshteinAutomatonK1.matchDictionary(pattern, da));
+        }
+    }
+
+    @Benchmark
+    public void matchCompactDictionary(Blackhole bh) {
+        for (String pattern : patterns) {
+            bh.consume(UniversalLevenshteinAutomatonK1.matchDictionary(pattern, cda));
+        }
+    }
+
+    @Benchmark
+    public void bitParallelK1(Blackhole bh) {
+        for (String pattern : patterns) {
+            bh.consume(BitParallelLevenshteinAutomaton.matchDictionary(pattern, 1, cda));
+        }
+    }
+
+    @Benchmark
+    public void bitParallelK2(Blackhole bh) {
+        for (String pattern : patterns) {
+            bh.consume(BitParallelLevenshteinAutomaton.matchDictionary(pattern, 2, cda));
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package de.uni_hamburg.corpora.validation;
+
+import de.uni_hamburg.corpora.EXMARaLDATranscriptionData;
+import de.uni_hamburg.corpora.Report;
+import de.uni_hamburg.corpora.SyntheticCorpus;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures the XSLT based checks on a synthetic EXMARaLDA transcription
+ *
+ * @author Herbert Lange
+ * @version 20261017
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class XSLTCheckerBenchmark {
+
+    @Param({"100", "1000"})
+    public int events;
+
+    private Path dir;
+    private EXMARaLDATranscriptionData cd;
+    private XSLTChecker checker;
+
+    @Setup
+    public void setup() throws Exception {
+        dir = Files.createTempDirectory("xslt-checker-benchmark");
+        new SyntheticCorpus(42, 1, events).write(dir);
+        cd = new EXMARaLDATranscriptionData(dir.resolve("synthetic_0.exb").toUri().toURL());
+        checker = new XSLTChecker(new Properties());
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        SyntheticCorpus.delete(dir);
+    }
+
+    @Benchmark
+    public Report check() throws Exception {
+        return checker.function(cd, false);
+    }
+}
@@ -0,0 +1,68 @@
+package de.uni_hamburg.corpora.validation.quest;
+
+import de.uni_hamburg.corpora.Corpus;
+import de.uni_hamburg.corpora.CorpusIO;
+import de.uni_hamburg.corpora.Report;
+import de.uni_hamburg.corpora.SyntheticCorpus;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures the RefCo transcription and gloss checks. The content has to match the corpus documentation, so the
+ * corpus consists of copies of the ELAN file documented by the test spreadsheet instead of generated files
+ *
+ * @author Herbert Lange
+ * @version 20261017
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class RefcoCheckerBenchmark {
+
+    private static final String RESOURCES = "src/test/java/de/uni_hamburg/corpora/validation/quest/resources/";
+
+    @Param({"1", "10"})
+    public int copies;
+
+    @Param({"false", "true"})
+    public String detailedLocations;
+
+    private Path dir;
+    private Corpus corpus;
+    private Properties props;
+
+    @Setup
+    public void setup() throws Exception {
+        dir = Files.createTempDirectory("refco-checker-benchmark");
+        SyntheticCorpus.copies(Paths.get(RESOURCES, "T1_15-12-2013_Levetbao_Aven_Waet-Masta_1089.eaf"), dir,
+                copies);
+        URL url = dir.toUri().toURL();
+        corpus = new Corpus("refco", url, new CorpusIO().read(url, new Report()));
+        props = new Properties();
+        props.setProperty("refco-file",
+                Paths.get(RESOURCES, "CorpusDocumentation_nisv1234_JocelynAznar_Nisvai.fods").toAbsolutePath()
+                        .toString());
+        props.setProperty("refco-config-path-absolute", "true");
+        props.setProperty("skip-documentation-check", "true");
+        props.setProperty("detailed-locations", detailedLocations);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        SyntheticCorpus.delete(dir);
+    }
+
+    @Benchmark
+    public Report check() throws Exception {
+        // The checker collects its results across calls, so a new one is needed for each run
+        return new RefcoChecker(props).function(corpus, false);
+    }
+}
@@ -13,6 +13,7 @@ import de.uni_hamburg.corpora.conversion.Converter;
 
 import de.uni_hamburg.corpora.CorpusFunction;
 import de.uni_hamburg.corpora.Report;
+import de.uni_hamburg.corpora.utilities.CorpusFileIndex;
 import de.idsmannheim.lza.utilities.publication.mapper.MapFile;
 import de.idsmannheim.lza.utilities.publication.mapper.MapRecord;
 import de.idsmannheim.lza.utilities.publication.mapper.MapRootRecord;
@@ -24,6 +25,7 @@ import gov.loc.repository.bagit.hash.StandardSupportedAlgorithms;
 import gov.loc.repository.bagit.writer.ManifestWriter;
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URISyntaxException;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
@@ -35,6 +37,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
@@ -46,10 +49,6 @@ import javax.xml.transform.TransformerException;
 import javax.xml.xpath.XPathExpressionException;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
-import org.apache.commons.io.filefilter.DirectoryFileFilter;
-import org.apache.commons.io.filefilter.FileFileFilter;
-import org.apache.commons.io.filefilter.NotFileFilter;
-import org.apache.commons.io.filefilter.SuffixFileFilter;
 import org.exmaralda.partitureditor.fsm.FSMException;
 import org.exmaralda.partitureditor.jexmaralda.JexmaraldaException;
 import org.jdom2.JDOMException;
@@ -160,7 +159,7 @@ public class FolderToBasicSIP extends Converter implements CorpusFunction {
             }
         // Copy all files
         LOG.info("Copy files to output");
-        for (File file : FileUtils.listFiles(path.toFile(), FileFileFilter.FILE, DirectoryFileFilter.DIRECTORY)) {
+        for (File file : listFiles(path, null, null)) {
             if (props.getProperty("create-hard-links", "False").equalsIgnoreCase("true")) {
                 Path link = Path.of(file.toString().replace(path.toString(), outputPath.toString())).normalize().toAbsolutePath();
                 Files.createDirectories(link.getParent());
@@ -213,10 +212,7 @@ public class FolderToBasicSIP extends Converter implements CorpusFunction {
      * @return a set of all found CMDI files
      */
     Set<File> listMetadataFiles(Path metadataPath) {
-        return new HashSet<>(
-                FileUtils.listFiles(metadataPath.toFile(), 
-                    new SuffixFileFilter(".cmdi"), DirectoryFileFilter.INSTANCE)
-        );
+        return new HashSet<>(listFiles(metadataPath, "**.cmdi", null));
     }
 
     /**
@@ -225,10 +221,26 @@ public class FolderToBasicSIP extends Converter implements CorpusFunction {
      * @return The set of all content files
      */
     Set<File> listContentFiles(Path path) {
-        return new HashSet<>(
-                FileUtils.listFiles(path.toFile(), 
-                    new NotFileFilter(new SuffixFileFilter(".cmdi")), DirectoryFileFilter.INSTANCE)
-        );
+        return new HashSet<>(listFiles(path, null, "**.cmdi"));
+    }
+
+    /**
+     * Lists the files in a folder and all its subfolders using the shared file index
+     * @param path The folder
+     * @param include The glob pattern files have to match, null for all files
+     * @param exclude The glob pattern files must not match, null for none
+     * @return The list of files, relative to the folder if it is relative
+     */
+    List<File> listFiles(Path path, String include, String exclude) {
+        CorpusFileIndex index = CorpusFileIndex.get(path);
+        IOException rootError = index.getErrors().get(index.getRoot());
+        if (rootError != null) {
+            throw new UncheckedIOException(rootError);
+        }
+        // Keep the files below the given path, the file names are later matched against it
+        return index.getFiles(include, exclude).stream()
+                .map((f) -> path.resolve(index.getRoot().relativize(f)).toFile())
+                .collect(Collectors.toList());
     }
 
     /**
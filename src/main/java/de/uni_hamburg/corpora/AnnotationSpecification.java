@@ -5,9 +5,6 @@ import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.logging.Level;
@@ -18,7 +15,6 @@ import javax.xml.xpath.XPathExpressionException;
 import org.apache.commons.io.FilenameUtils;
 import org.jdom2.Document;
 import org.jdom2.JDOMException;
-import org.jdom2.input.SAXBuilder;
 import org.xml.sax.SAXException;
 
 /**
@@ -32,6 +28,8 @@ import org.xml.sax.SAXException;
 public class AnnotationSpecification implements CorpusData, XMLData {
 
     String originalstring;
+    // The file content shared with all clones, the document is copied on first use
+    private CorpusDataSnapshot snapshot;
     Document jdom;
     URL url;
     URL parenturl;
@@ -45,19 +43,26 @@ public class AnnotationSpecification implements CorpusData, XMLData {
     public AnnotationSpecification(URL url) {
         try {
             this.url = url;
-            SAXBuilder builder = new SAXBuilder();
-            jdom = builder.build(url);
-            originalstring = new String(Files.readAllBytes(Paths.get(url.toURI())), StandardCharsets.UTF_8);
-            URI uri = url.toURI();
-            URI parentURI = uri.getPath().endsWith("/") ? uri.resolve("..") : uri.resolve(".");
-            parenturl = parentURI.toURL();
-            filename = FilenameUtils.getName(url.getPath());
-            filenamewithoutending = FilenameUtils.getBaseName(url.getPath());
-        } catch (JDOMException | IOException | URISyntaxException ex) {
+            load(CorpusDataSnapshot.read(url));
+        } catch (IOException | URISyntaxException ex) {
             Logger.getLogger(AnnotationSpecification.class.getName()).log(Level.SEVERE, null, ex);
         }
     }
 
+    /**
+     * Takes the content from a snapshot. The document is only copied from the snapshot when it is first used
+     */
+    private void load(CorpusDataSnapshot s) throws URISyntaxException, IOException {
+        snapshot = s;
+        jdom = null;
+        originalstring = s.getString();
+        URI uri = url.toURI();
+        URI parentURI = uri.getPath().endsWith("/") ? uri.resolve("..") : uri.resolve(".");
+        parenturl = parentURI.toURL();
+        filename = FilenameUtils.getName(url.getPath());
+        filenamewithoutending = FilenameUtils.getBaseName(url.getPath());
+    }
+
     @Override
     public URL getURL() {
         return url;
@@ -106,6 +111,9 @@ public class AnnotationSpecification implements CorpusData, XMLData {
 
     @Override
     public Document getJdom() {
+        if (jdom == null && snapshot != null) {
+            jdom = snapshot.getDocument(AnnotationSpecification.class);
+        }
         return jdom;
     }
 
@@ -116,11 +124,17 @@ public class AnnotationSpecification implements CorpusData, XMLData {
 
     @Override
     public Object clone() {
-        try {
-            return super.clone();
-        } catch (CloneNotSupportedException e) {
-            return new AnnotationSpecification(this.url);
+        if (snapshot != null && snapshot.isCurrent()) {
+            try {
+                AnnotationSpecification copy = new AnnotationSpecification();
+                copy.url = url;
+                copy.load(snapshot);
+                return copy;
+            } catch (IOException | URISyntaxException ex) {
+                Logger.getLogger(AnnotationSpecification.class.getName()).log(Level.SEVERE, null, ex);
+            }
         }
+        return new AnnotationSpecification(this.url);
     }
 
     @Override
@@ -10,9 +10,6 @@ import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.util.*;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -22,7 +19,6 @@ import javax.xml.xpath.XPathExpressionException;
 import org.apache.commons.io.FilenameUtils;
 import org.jdom2.Document;
 import org.jdom2.JDOMException;
-import org.jdom2.input.SAXBuilder;
 import org.xml.sax.SAXException;
 
 /**
@@ -38,6 +34,8 @@ public class CMDIMetadata implements CorpusData, XMLData, Metadata {
     Document jdom;
     URL url;
     String originalstring;
+    // The file content shared with all clones, the document is copied on first use
+    private CorpusDataSnapshot snapshot;
     URL parenturl;
     String filename;
     String filenamewithoutending;
@@ -49,19 +47,26 @@ public class CMDIMetadata implements CorpusData, XMLData, Metadata {
     public CMDIMetadata(URL url) {
         try {
             this.url = url;
-            SAXBuilder builder = new SAXBuilder();
-            jdom = builder.build(url);
-            originalstring = new String(Files.readAllBytes(Paths.get(url.toURI())), StandardCharsets.UTF_8);
-            URI uri = url.toURI();
-            URI parentURI = uri.getPath().endsWith("/") ? uri.resolve("..") : uri.resolve(".");
-            parenturl = parentURI.toURL();
-            filename = FilenameUtils.getName(url.getPath());
-            filenamewithoutending = FilenameUtils.getBaseName(url.getPath());
-        } catch (JDOMException | IOException | URISyntaxException ex) {
+            load(CorpusDataSnapshot.read(url));
+        } catch (IOException | URISyntaxException ex) {
             Logger.getLogger(CMDIMetadata.class.getName()).log(Level.SEVERE, null, ex);
         }
     }
 
+    /**
+     * Takes the content from a snapshot. The document is only copied from the snapshot when it is first used
+     */
+    private void load(CorpusDataSnapshot s) throws URISyntaxException, IOException {
+        snapshot = s;
+        jdom = null;
+        originalstring = s.getString();
+        URI uri = url.toURI();
+        URI parentURI = uri.getPath().endsWith("/") ? uri.resolve("..") : uri.resolve(".");
+        parenturl = parentURI.toURL();
+        filename = FilenameUtils.getName(url.getPath());
+        filenamewithoutending = FilenameUtils.getBaseName(url.getPath());
+    }
+
     @Override
     public URL getURL() {
         return url;
@@ -104,6 +109,9 @@ public class CMDIMetadata implements CorpusData, XMLData, Metadata {
 
     @Override
     public Document getJdom() {
+        if (jdom == null && snapshot != null) {
+            jdom = snapshot.getDocument(CMDIMetadata.class);
+        }
         return jdom;
     }
 
@@ -129,6 +137,16 @@ public class CMDIMetadata implements CorpusData, XMLData, Metadata {
 
     @Override
     public Object clone() {
+        if (snapshot != null && snapshot.isCurrent()) {
+            try {
+                CMDIMetadata copy = new CMDIMetadata();
+                copy.url = url;
+                copy.load(snapshot);
+                return copy;
+            } catch (IOException | URISyntaxException ex) {
+                Logger.getLogger(CMDIMetadata.class.getName()).log(Level.SEVERE, null, ex);
+            }
+        }
         return new CMDIMetadata(this.url);
     }
 
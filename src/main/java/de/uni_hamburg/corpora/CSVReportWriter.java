@@ -0,0 +1,60 @@
+package de.uni_hamburg.corpora;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes a report as CSV file using double quotes as delimiters.
+ *
+ * @author Herbert Lange
+ * @version 20261017
+ */
+public class CSVReportWriter extends ReportWriter {
+
+    /**
+     * Creates a new CSV report writer
+     * @param out the writer the report is written to
+     * @param basedirectory the prefix to be removed from all paths or null to keep paths as they are
+     * @param errorsOnly if only severe items are written
+     */
+    public CSVReportWriter(Writer out, String basedirectory, boolean errorsOnly) {
+        super(out, basedirectory, errorsOnly);
+    }
+
+    @Override
+    protected void writeStart() throws IOException {
+        out.write("Type\"Function\"FIlename:line.column\"Error\"Fix\"Original\n");
+    }
+
+    @Override
+    protected void writeItem(ReportItem error, int index) throws IOException {
+        switch (error.getSeverity()) {
+            case CRITICAL:
+                out.write("Critical\"");
+                break;
+            case WARNING:
+                out.write("Warning\"");
+                break;
+            case NOTE:
+                out.write("Note\"");
+                break;
+            case UNKNOWN:
+                out.write("Unknown\"");
+                break;
+            default:
+                out.write("Other\"");
+                break;
+        }
+        out.write(relativise(error.getFunction()) + "\"");
+        out.write(relativise(error.getLocation()) + "\"");
+        out.write(relativise(error.getWhat()) + "\"");
+        out.write(relativise(error.getHowto()) + "\"");
+        out.write(relativise(error.getLocalisedMessage()) + "\"");
+        out.write(relativise(error.getStackTrace()) + "\n");
+    }
+
+    @Override
+    protected void writeEnd(String summaryLines) {
+        // The summary is not part of the table
+    }
+}
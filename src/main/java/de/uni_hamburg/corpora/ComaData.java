@@ -7,22 +7,18 @@ package de.uni_hamburg.corpora;
 
 import org.exmaralda.coma.root.Coma;
 import de.uni_hamburg.corpora.utilities.PrettyPrinter;
+import de.uni_hamburg.corpora.utilities.XPathRegistry;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URISyntaxException;
 import java.net.URL;
-import java.nio.charset.StandardCharsets;
 import java.util.Collection;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.util.Collections;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.jdom2.Document;
 import org.jdom2.JDOMException;
 import org.jdom2.filter.Filters;
-import org.jdom2.input.SAXBuilder;
-import org.jdom2.xpath.XPathFactory;
 import org.xml.sax.SAXException;
 import java.net.URI;
 import java.util.ArrayList;
@@ -31,9 +27,7 @@ import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.TransformerException;
 import javax.xml.xpath.XPathExpressionException;
 import org.jdom2.Element;
-import org.jdom2.xpath.XPathBuilder;
 import org.jdom2.xpath.XPathExpression;
-import org.jdom2.xpath.jaxen.JaxenXPathFactory;
 import org.apache.commons.io.FilenameUtils;
 import org.exmaralda.partitureditor.jexmaralda.JexmaraldaException;
 
@@ -53,6 +47,8 @@ public class ComaData implements Metadata, CorpusData, XMLData {
     URL url;
     Document readcomaasjdom = new Document();
     String originalstring;
+    // The file content shared with all clones
+    private CorpusDataSnapshot snapshot;
     String filename;
     String filenamewithoutending;
 
@@ -66,7 +62,6 @@ public class ComaData implements Metadata, CorpusData, XMLData {
     String corpusname;
 
     public ArrayList<URL> referencedCorpusDataURLs = new ArrayList<>();
-    private final XPathFactory xpathFactory = new JaxenXPathFactory();
 
     public ComaData() {
     }
@@ -74,19 +69,26 @@ public class ComaData implements Metadata, CorpusData, XMLData {
     public ComaData(URL url) throws SAXException, JexmaraldaException {
         try {
             this.url = url;
-            SAXBuilder builder = new SAXBuilder();
-            readcomaasjdom = builder.build(url);
-            originalstring = new String(Files.readAllBytes(Paths.get(url.toURI())), StandardCharsets.UTF_8);
-            URI uri = url.toURI();
-            URI parentURI = uri.getPath().endsWith("/") ? uri.resolve("..") : uri.resolve(".");
-            CORPUS_BASEDIRECTORY = parentURI.toURL();
-            filename = FilenameUtils.getName(url.getPath());
-            filenamewithoutending = FilenameUtils.getBaseName(url.getPath());
+            load(CorpusDataSnapshot.read(url));
         } catch (JDOMException | IOException | URISyntaxException ex) {
             Logger.getLogger(ComaData.class.getName()).log(Level.SEVERE, null, ex);
         }
     }
 
+    /**
+     * Takes the content from a snapshot. The document is used by most methods, so it is copied right away
+     */
+    private void load(CorpusDataSnapshot s) throws JDOMException, IOException, URISyntaxException {
+        snapshot = s;
+        readcomaasjdom = s.getDocument();
+        originalstring = s.getString();
+        URI uri = url.toURI();
+        URI parentURI = uri.getPath().endsWith("/") ? uri.resolve("..") : uri.resolve(".");
+        CORPUS_BASEDIRECTORY = parentURI.toURL();
+        filename = FilenameUtils.getName(url.getPath());
+        filenamewithoutending = FilenameUtils.getBaseName(url.getPath());
+    }
+
 
     /*public void updateReadcomaasjdom() throws SAXException, JexmaraldaException, MalformedURLException, JDOMException, IOException {
         String xmlString = 
@@ -132,7 +134,7 @@ public class ComaData implements Metadata, CorpusData, XMLData {
     public Collection<URL> getAllBasicTranscriptionURLs() throws MalformedURLException {
         URL resulturl;
         ArrayList<URL> resulturls = new ArrayList<>();
-        XPathExpression<Element> xpath = new XPathBuilder<Element>(BASIC_FILE_XPATH, Filters.element()).compileWith(xpathFactory);
+        XPathExpression<Element> xpath = XPathRegistry.compile(BASIC_FILE_XPATH, Filters.element());
         List<Element> transcriptionList = xpath.evaluate(readcomaasjdom);
         for (Element nslink : transcriptionList) {
         	//String fullTranscriptionName = CORPUS_BASEDIRECTORY.toURI().getPath() + nslink.getText();
@@ -145,7 +147,7 @@ public class ComaData implements Metadata, CorpusData, XMLData {
 
     public ArrayList<String> getAllBasicTranscriptionFilenames() {
     	ArrayList<String> result = new ArrayList<>();
-    	XPathExpression<Element> xpath = new XPathBuilder<Element>(BASIC_FILE_XPATH, Filters.element()).compileWith(xpathFactory);
+    	XPathExpression<Element> xpath = XPathRegistry.compile(BASIC_FILE_XPATH, Filters.element());
     	List<Element> transcriptionList = xpath.evaluate(readcomaasjdom);
     	for (Element nslink : transcriptionList) {
     		// currentElement = nslink;
@@ -161,7 +163,7 @@ public class ComaData implements Metadata, CorpusData, XMLData {
     public Collection<URL> getAllSegmentedTranscriptionURLs() throws MalformedURLException {
         URL resulturl;
         ArrayList<URL> resulturls = new ArrayList<>();
-        XPathExpression<Element> xpath = new XPathBuilder<Element>(SEGMENTED_FILE_XPATH, Filters.element()).compileWith(xpathFactory);
+        XPathExpression<Element> xpath = XPathRegistry.compile(SEGMENTED_FILE_XPATH, Filters.element());
         List<Element> transcriptionList = xpath.evaluate(readcomaasjdom);
         for (Element nslink : transcriptionList) {
         	//String fullTranscriptionName = CORPUS_BASEDIRECTORY.toURI().getPath() + nslink.getText();
@@ -175,7 +177,7 @@ public class ComaData implements Metadata, CorpusData, XMLData {
     public Collection<URL> getAllURLs() throws MalformedURLException {
         URL resulturl;
         ArrayList<URL> resulturls = new ArrayList<>();
-        XPathExpression<Element> xpath = new XPathBuilder<Element>(ALL_FILE_XPATH, Filters.element()).compileWith(xpathFactory);
+        XPathExpression<Element> xpath = XPathRegistry.compile(ALL_FILE_XPATH, Filters.element());
         List<Element> transcriptionList = xpath.evaluate(readcomaasjdom);
         for (Element nslink : transcriptionList) {
         	//String fullTranscriptionName = CORPUS_BASEDIRECTORY.toURI().getPath() + nslink.getText();
@@ -242,7 +244,7 @@ public class ComaData implements Metadata, CorpusData, XMLData {
     }
 
     public String getCorpusName() throws JDOMException {
-        XPathExpression<Element> xpath = new XPathBuilder<>(CORPUSNAME_XPATH, Filters.element()).compileWith(xpathFactory);
+        XPathExpression<Element> xpath = XPathRegistry.compile(CORPUSNAME_XPATH, Filters.element());
         Element name = xpath.evaluateFirst(readcomaasjdom);
         corpusname = name.getText();
         return corpusname;
@@ -253,23 +255,33 @@ public class ComaData implements Metadata, CorpusData, XMLData {
     }
     
     public List<Element> getCommunications() {
-    	XPathExpression<Element> xpath = new XPathBuilder<>("//Communication", Filters.element()).compileWith(xpathFactory);
+    	XPathExpression<Element> xpath = XPathRegistry.compile("//Communication", Filters.element());
     	return xpath.evaluate(readcomaasjdom);
     }
     
     public Element getCorpusDescription() {
-    	XPathExpression<Element> xpath = new XPathBuilder<>("/Corpus/Description",  Filters.element()).compileWith(xpathFactory);
+    	XPathExpression<Element> xpath = XPathRegistry.compile("/Corpus/Description", Filters.element());
     	return xpath.evaluateFirst(readcomaasjdom);
     }
     
         
     public Element getCorpusData() throws JDOMException{
-    	XPathExpression<Element> xpath = new XPathBuilder<Element>("/Corpus/CorpusData",  Filters.element()).compileWith(xpathFactory);
+    	XPathExpression<Element> xpath = XPathRegistry.compile("/Corpus/CorpusData", Filters.element());
     	return xpath.evaluateFirst(readcomaasjdom);
     }
 
     @Override
     public Object clone() {
+        if (snapshot != null && snapshot.isCurrent()) {
+            try {
+                ComaData copy = new ComaData();
+                copy.url = url;
+                copy.load(snapshot);
+                return copy;
+            } catch (JDOMException | IOException | URISyntaxException ex) {
+                Logger.getLogger(ComaData.class.getName()).log(Level.SEVERE, null, ex);
+            }
+        }
         try {
             return new ComaData(this.url);
         } catch (SAXException | JexmaraldaException ex) {
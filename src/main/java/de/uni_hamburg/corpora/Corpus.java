@@ -5,6 +5,7 @@
  */
 package de.uni_hamburg.corpora;
 
+import de.uni_hamburg.corpora.utilities.XPathRegistry;
 import java.net.URL;
 import java.util.Collection;
 import java.io.IOException;
@@ -12,15 +13,15 @@ import java.net.MalformedURLException;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.lang3.StringUtils;
 import org.exmaralda.partitureditor.jexmaralda.JexmaraldaException;
 import org.jdom2.JDOMException;
 import org.jdom2.filter.Filters;
-import org.jdom2.xpath.XPathBuilder;
 import org.jdom2.xpath.XPathExpression;
-import org.jdom2.xpath.XPathFactory;
-import org.jdom2.xpath.jaxen.JaxenXPathFactory;
 import org.xml.sax.SAXException;
 
 /**
@@ -29,7 +30,7 @@ import org.xml.sax.SAXException;
  *
  * Last updated
  * @author Herbert Lange
- * @version 20240405
+ * @version 20261017
  */
 public class Corpus {
 
@@ -51,7 +52,6 @@ public class Corpus {
     Collection<CorpusData> cdc = new HashSet<>();
     URL basedirectory;
     String corpusname;
-    private final XPathFactory xpathFactory = new JaxenXPathFactory();
 
     public Corpus() {
     }
@@ -86,6 +86,35 @@ public class Corpus {
         cdc.add(coma);
     }
 
+    /**
+     * Creates a corpus from a coma file without reading the referenced files. The corpus only keeps handles
+     * to the files and the collections materialize the files through the cache while being iterated, so the
+     * memory needed does not grow with the size of the corpus
+     * @param coma the coma file
+     * @param clcds the corpus data types that should be considered
+     * @param cache the cache used to materialize the corpus data
+     */
+    public Corpus(ComaData coma, Collection<Class<? extends CorpusData>> clcds, CorpusDataCache cache) throws URISyntaxException, IOException, JDOMException {
+        CorpusIO cio = new CorpusIO();
+        basedirectory = coma.getParentURL();
+        corpusname = coma.getCorpusName();
+        Map<URL, CorpusDataHandle> handles = new LinkedHashMap<>();
+        for (URL url : coma.getReferencedCorpusDataURLs()) {
+            if (!handles.containsKey(url)) {
+                CorpusDataHandle handle = cio.readHandle(url, clcds);
+                if (handle != null) {
+                    handles.put(url, handle);
+                }
+            }
+        }
+        comadata = coma;
+        addCorpusDataHandles(handles.values(), cache);
+        //we don't need to check it because we know it
+        List<CorpusDataHandle> all = new ArrayList<>(handles.values());
+        all.add(new CorpusDataHandle(coma));
+        cdc = new LazyCorpusDataCollection<>(all, cache);
+    }
+
     public Corpus(String corpusName, URL baseDir, Collection<CorpusData> cdc) throws MalformedURLException, SAXException, JexmaraldaException {
         this(cdc);
         basedirectory = baseDir ;
@@ -99,8 +128,15 @@ public class Corpus {
         // We don't have a name
         corpusname = "" ;
         // Get the common prefix of all parent urls
-        String commonPrefix =
+        String commonPrefix;
+        if (cdc instanceof LazyCorpusDataCollection) {
+            // Avoid reading all files just to get their locations
+            commonPrefix = StringUtils.getCommonPrefix(((LazyCorpusDataCollection<?>) cdc).getHandles().stream()
+                    .map((h) -> String.valueOf(h.getParentURL())).toArray(String[]::new));
+        } else {
+            commonPrefix =
                 StringUtils.getCommonPrefix(cdc.stream().map((cd) -> cd.getParentURL().toString()).toArray(String[]::new));
+        }
         // Convert to basedirectory
         if (commonPrefix.isEmpty())
             commonPrefix = "file:///" ;
@@ -108,6 +144,11 @@ public class Corpus {
     }
 
     private void addCorpusDataCollection(Collection<CorpusData> cdc) {
+        if (cdc instanceof LazyCorpusDataCollection) {
+            LazyCorpusDataCollection<CorpusData> lazy = (LazyCorpusDataCollection<CorpusData>) cdc;
+            addCorpusDataHandles(lazy.getHandles(), lazy.getCache());
+            return;
+        }
         for (CorpusData cd : cdc) {
             if (cd instanceof ContentData) {
                 contentdata.add((ContentData) cd);
@@ -138,6 +179,53 @@ public class Corpus {
         }
     }
 
+    /**
+     * Sorts handles into the categories in the same way as addCorpusDataCollection sorts the corpus data
+     * and replaces the collections by lazy ones
+     */
+    private void addCorpusDataHandles(Collection<CorpusDataHandle> handles, CorpusDataCache cache) {
+        List<CorpusDataHandle> content = new ArrayList<>();
+        List<CorpusDataHandle> basic = new ArrayList<>();
+        List<CorpusDataHandle> segmented = new ArrayList<>();
+        List<CorpusDataHandle> elan = new ArrayList<>();
+        List<CorpusDataHandle> flextext = new ArrayList<>();
+        List<CorpusDataHandle> meta = new ArrayList<>();
+        List<CorpusDataHandle> cmdi = new ArrayList<>();
+        List<CorpusDataHandle> annotation = new ArrayList<>();
+        for (CorpusDataHandle handle : handles) {
+            Class<? extends CorpusData> type = handle.getType();
+            if (ContentData.class.isAssignableFrom(type)) {
+                content.add(handle);
+                if (EXMARaLDATranscriptionData.class.isAssignableFrom(type)) {
+                    basic.add(handle);
+                } else if (EXMARaLDASegmentedTranscriptionData.class.isAssignableFrom(type)) {
+                    segmented.add(handle);
+                } else if (ELANData.class.isAssignableFrom(type)) {
+                    elan.add(handle);
+                } else if (FlextextData.class.isAssignableFrom(type)) {
+                    flextext.add(handle);
+                }
+            } else if (Metadata.class.isAssignableFrom(type)) {
+                //can only be CMDI since it's a coma file...
+                meta.add(handle);
+                if (CMDIMetadata.class.isAssignableFrom(type)) {
+                    cmdi.add(handle);
+                } else if (AnnotationSpecification.class.isAssignableFrom(type)) {
+                    annotation.add(handle);
+                }
+            }
+            // Recordings, additional data and config parameters are not corpus data yet
+        }
+        contentdata = new LazyCorpusDataCollection<>(content, cache);
+        basictranscriptiondata = new LazyCorpusDataCollection<>(basic, cache);
+        segmentedtranscriptiondata = new LazyCorpusDataCollection<>(segmented, cache);
+        elandata = new LazyCorpusDataCollection<>(elan, cache);
+        flextextdata = new LazyCorpusDataCollection<>(flextext, cache);
+        metadata = new LazyCorpusDataCollection<>(meta, cache);
+        cmdidata = new LazyCorpusDataCollection<>(cmdi, cache);
+        annotationspecification = new LazyCorpusDataCollection<>(annotation, cache);
+    }
+
     public Collection<CorpusData> getCorpusData() {
         return cdc;
     }
@@ -256,35 +344,35 @@ public class Corpus {
 
     //TODO make this more sustainable, it is very INEL specific
     String getCorpusSentenceNumber() {
-        XPathExpression<Double> xpath = new XPathBuilder<>("sum(//Transcription/Description/Key[@Name = '# HIAT:u'])", Filters.fdouble()).compileWith(xpathFactory);
+        XPathExpression<Double> xpath = XPathRegistry.compile("sum(//Transcription/Description/Key[@Name = '# HIAT:u'])", Filters.fdouble());
         double DoubleValue = xpath.evaluateFirst(comadata.getJdom());
         int IntValue = (int) DoubleValue;
         return String.valueOf(IntValue);
     }
 
     String getCorpusTranscriptionNumber() {
-        XPathExpression<Double> xpath = new XPathBuilder<>("count(//Transcription/Description/Key[@Name = 'segmented' and text() = 'false'])", Filters.fdouble()).compileWith(xpathFactory);
+        XPathExpression<Double> xpath = XPathRegistry.compile("count(//Transcription/Description/Key[@Name = 'segmented' and text() = 'false'])", Filters.fdouble());
         double DoubleValue = xpath.evaluateFirst(comadata.getJdom());
         int IntValue = (int) DoubleValue;
         return String.valueOf(IntValue);
     }
 
     String getCorpusSpeakerNumber() {
-        XPathExpression<Double> xpath = new XPathBuilder<>("count(//Speaker)", Filters.fdouble()).compileWith(xpathFactory);
+        XPathExpression<Double> xpath = XPathRegistry.compile("count(//Speaker)", Filters.fdouble());
         double DoubleValue = xpath.evaluateFirst(comadata.getJdom());
         int IntValue = (int) DoubleValue;
         return String.valueOf(IntValue);
     }
 
     String getCorpusCommunicationNumber() {
-        XPathExpression<Double> xpath = new XPathBuilder<>("count(//Communication)", Filters.fdouble()).compileWith(xpathFactory);
+        XPathExpression<Double> xpath = XPathRegistry.compile("count(//Communication)", Filters.fdouble());
         double DoubleValue = xpath.evaluateFirst(comadata.getJdom());
         int IntValue = (int) DoubleValue;
         return String.valueOf(IntValue);
     }
 
     String getCorpusWords()  {
-        XPathExpression<Double> xpath = new XPathBuilder<>("sum(//Transcription/Description/Key[@Name = '# HIAT:w'])", Filters.fdouble()).compileWith(xpathFactory);
+        XPathExpression<Double> xpath = XPathRegistry.compile("sum(//Transcription/Description/Key[@Name = '# HIAT:w'])", Filters.fdouble());
         double DoubleValue = xpath.evaluateFirst(comadata.getJdom());
         int IntValue = (int) DoubleValue;
         return String.valueOf(IntValue);
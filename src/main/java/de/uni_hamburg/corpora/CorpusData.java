@@ -84,6 +84,13 @@ public interface CorpusData {
      */
     Collection<String> getFileExtensions();
 
+    /**
+     * Creates an independent copy of the corpus data with the content of the file on disk. Implementations
+     * should share the content already read with the copy instead of reading the file again, see
+     * CorpusDataSnapshot.
+     *
+     * @return the copy
+     */
     Object clone() ;
 
     Location getLocation(String token) throws JDOMException;
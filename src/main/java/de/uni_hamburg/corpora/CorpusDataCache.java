@@ -0,0 +1,208 @@
+package de.uni_hamburg.corpora;
+
+import java.io.IOException;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Memory-bounded cache for corpus data materialized from handles. The most recently used documents are kept
+ * in memory until their estimated size exceeds the configured limit. Documents evicted from this part of the
+ * cache are only softly referenced, so they can be reused as long as the garbage collector does not need the
+ * memory. Documents whose files changed on disk since they were read are read again.
+ *
+ * @author Herbert Lange
+ * @version 20261017
+ */
+public class CorpusDataCache {
+
+    // Rough factor between the size of a file on disk and the memory needed for the string and the parsed
+    // document trees
+    static final int MEMORY_PER_FILE_BYTE = 8;
+
+    private static class Entry {
+        final CorpusData data;
+        final long size;
+        final long lastModified;
+
+        Entry(CorpusData data, long size, long lastModified) {
+            this.data = data;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        long estimatedBytes() {
+            return Math.max(1, size) * MEMORY_PER_FILE_BYTE;
+        }
+    }
+
+    // Soft reference remembering its key so it can be removed once it was cleared
+    private static class EvictedEntry extends SoftReference<Entry> {
+        final URL url;
+
+        EvictedEntry(URL url, Entry entry, ReferenceQueue<Entry> queue) {
+            super(entry, queue);
+            this.url = url;
+        }
+    }
+
+    private final long maxBytes;
+    private long usedBytes = 0;
+    // The strongly referenced documents in access order
+    private final LinkedHashMap<URL, Entry> recent = new LinkedHashMap<>(16, 0.75f, true);
+    // The documents evicted from the recent ones
+    private final Map<URL, EvictedEntry> evicted = new HashMap<>();
+    private final ReferenceQueue<Entry> cleared = new ReferenceQueue<>();
+    // The files which could not be read, in the order they were found
+    private final Map<URL, IOException> unreadable = new LinkedHashMap<>();
+
+    /**
+     * Creates a cache
+     * @param maxBytes the estimated number of bytes of documents to keep in memory
+     */
+    public CorpusDataCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Gets the estimated number of bytes used by the strongly referenced documents
+     * @return the estimated memory usage
+     */
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    /**
+     * Gets the corpus data for a handle, either from the cache or by reading the file. Files which cannot be read
+     * are remembered as unreadable
+     * @param handle the handle
+     * @return the corpus data
+     * @throws IOException if the file cannot be read
+     */
+    public CorpusData get(CorpusDataHandle handle) throws IOException {
+        if (handle.isPinned()) {
+            return handle.load();
+        }
+        URL url = handle.getURL();
+        long[] attributes = currentAttributes(handle);
+        synchronized (this) {
+            Entry entry = recent.get(url);
+            if (entry == null) {
+                EvictedEntry ref = evicted.remove(url);
+                entry = ref == null ? null : ref.get();
+                if (entry != null) {
+                    add(url, entry);
+                }
+            }
+            if (entry != null && entry.size == attributes[0] && entry.lastModified == attributes[1]) {
+                return entry.data;
+            }
+        }
+        // Read outside of the lock so several files can be read in parallel
+        Entry entry;
+        try {
+            entry = new Entry(handle.load(), attributes[0], attributes[1]);
+        }
+        catch (IOException e) {
+            synchronized (this) {
+                unreadable.putIfAbsent(url, e);
+            }
+            throw e;
+        }
+        synchronized (this) {
+            remove(url);
+            unreadable.remove(url);
+            add(url, entry);
+        }
+        return entry.data;
+    }
+
+    /**
+     * Checks if reading a file failed before
+     * @param url the location of the file
+     * @return true if the file could not be read
+     */
+    public synchronized boolean isUnreadable(URL url) {
+        return unreadable.containsKey(url);
+    }
+
+    /**
+     * Gets the files which could not be read
+     * @return the problems when reading the files, by file
+     */
+    public synchronized Map<URL, IOException> getUnreadable() {
+        return new LinkedHashMap<>(unreadable);
+    }
+
+    /**
+     * Removes a document from the cache, e.g. after it has been changed. A file which could not be read is tried
+     * again
+     * @param url the location of the document
+     */
+    public synchronized void invalidate(URL url) {
+        remove(url);
+        unreadable.remove(url);
+    }
+
+    /**
+     * Removes all documents from the cache
+     */
+    public synchronized void clear() {
+        recent.clear();
+        evicted.clear();
+        unreadable.clear();
+        usedBytes = 0;
+    }
+
+    private void add(URL url, Entry entry) {
+        recent.put(url, entry);
+        usedBytes += entry.estimatedBytes();
+        // Evict the least recently used documents but always keep the newest one
+        Iterator<Map.Entry<URL, Entry>> it = recent.entrySet().iterator();
+        while (usedBytes > maxBytes && recent.size() > 1 && it.hasNext()) {
+            Map.Entry<URL, Entry> eldest = it.next();
+            if (eldest.getKey().equals(url)) {
+                continue;
+            }
+            it.remove();
+            usedBytes -= eldest.getValue().estimatedBytes();
+            evicted.put(eldest.getKey(), new EvictedEntry(eldest.getKey(), eldest.getValue(), cleared));
+        }
+        // Forget about documents the garbage collector already removed
+        EvictedEntry ref;
+        while ((ref = (EvictedEntry) cleared.poll()) != null) {
+            evicted.remove(ref.url, ref);
+        }
+    }
+
+    private void remove(URL url) {
+        Entry old = recent.remove(url);
+        if (old != null) {
+            usedBytes -= old.estimatedBytes();
+        }
+        evicted.remove(url);
+    }
+
+    // Gets the current size and modification time of the file, falling back to the values of the handle
+    private static long[] currentAttributes(CorpusDataHandle handle) {
+        try {
+            Path path = Paths.get(handle.getURL().toURI());
+            return new long[]{Files.size(path), Files.getLastModifiedTime(path).toMillis()};
+        }
+        catch (IOException | URISyntaxException | IllegalArgumentException e) {
+            return new long[]{handle.getSize(), handle.getLastModified()};
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package de.uni_hamburg.corpora;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Lightweight reference to a corpus data file that has not necessarily been read yet. A handle only knows the
+ * location, the type, the size and the modification time of the file. The content is only materialized when
+ * it is needed, usually through a CorpusDataCache.
+ *
+ * A handle can also be created for corpus data that is already in memory, e.g. the coma file of a corpus. Such
+ * a handle is pinned and always returns the same object.
+ *
+ * @author Herbert Lange
+ * @version 20261017
+ */
+public class CorpusDataHandle {
+
+    private final URL url;
+    private final Class<? extends CorpusData> type;
+    private final long size;
+    private final long lastModified;
+    // The corpus data if it always has to be kept in memory
+    private final CorpusData pinned;
+
+    /**
+     * Creates a handle for a file that has not been read yet
+     * @param url the location of the file
+     * @param type the corpus data type used to read the file
+     * @param size the size of the file in bytes
+     * @param lastModified the modification time of the file in milliseconds
+     */
+    public CorpusDataHandle(URL url, Class<? extends CorpusData> type, long size, long lastModified) {
+        this.url = url;
+        this.type = type;
+        this.size = size;
+        this.lastModified = lastModified;
+        this.pinned = null;
+    }
+
+    /**
+     * Creates a pinned handle for corpus data that is already in memory
+     * @param cd the corpus data
+     */
+    public CorpusDataHandle(CorpusData cd) {
+        this.url = cd.getURL();
+        this.type = cd.getClass();
+        this.size = 0;
+        this.lastModified = 0;
+        this.pinned = cd;
+    }
+
+    /**
+     * Creates a handle for a local file by looking up its size and modification time
+     * @param url the location of the file
+     * @param type the corpus data type used to read the file
+     * @return the handle
+     * @throws IOException if the file attributes cannot be read
+     * @throws URISyntaxException if the URL cannot be converted to a path
+     */
+    public static CorpusDataHandle fromURL(URL url, Class<? extends CorpusData> type) throws IOException, URISyntaxException {
+        Path path = Paths.get(url.toURI());
+        return new CorpusDataHandle(url, type, Files.size(path), Files.getLastModifiedTime(path).toMillis());
+    }
+
+    public URL getURL() {
+        return url;
+    }
+
+    public Class<? extends CorpusData> getType() {
+        return type;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    public boolean isPinned() {
+        return pinned != null;
+    }
+
+    /**
+     * Gets the URL of the folder containing the file, computed the same way as in the corpus data classes
+     * @return the parent URL or null if it cannot be computed
+     */
+    public URL getParentURL() {
+        try {
+            URI uri = url.toURI();
+            URI parentURI = uri.getPath().endsWith("/") ? uri.resolve("..") : uri.resolve(".");
+            return parentURI.toURL();
+        }
+        catch (URISyntaxException | IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads the file as a new corpus data object, or returns the corpus data for pinned handles
+     * @return the corpus data
+     * @throws IOException if the corpus data object cannot be created
+     */
+    public CorpusData load() throws IOException {
+        if (pinned != null) {
+            return pinned;
+        }
+        try {
+            return type.getDeclaredConstructor(URL.class).newInstance(url);
+        }
+        catch (NoSuchMethodException | InstantiationException | IllegalAccessException | InvocationTargetException e) {
+            throw new IOException("Cannot read " + url + " as " + type.getSimpleName(), e);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package de.uni_hamburg.corpora;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.jdom2.Document;
+import org.jdom2.JDOMException;
+import org.jdom2.input.SAXBuilder;
+
+/**
+ * The content of a corpus file as read from disk, shared by a corpus data object and all its clones.
+ *
+ * Cloning corpus data used to read and parse the file again for every clone. Instead, the clones share one
+ * snapshot: the content is immutable and only read once, and the document is only parsed once. Because JDOM
+ * documents cannot be made read-only, each corpus data object gets its own deep copy of the document when it
+ * first asks for it, so changes made by one corpus function are never seen by the others, and objects that never
+ * use the document do not pay for a copy.
+ *
+ * A snapshot is only valid as long as the file did not change. Files written by CorpusIO, including changes kept
+ * by CorpusWriteBack, invalidate their snapshots explicitly, other changes are detected by the modification time
+ * and size, in which case clones read the file again like before.
+ *
+ * @author Herbert Lange
+ * @version 20261017
+ */
+public class CorpusDataSnapshot {
+
+    // The number of times each file was written through CorpusIO
+    private static final Map<Path, Long> versions = new ConcurrentHashMap<>();
+
+    private final URL url;
+    private final Path path;
+    private final byte[] content;
+    private final FileTime lastModified;
+    private final long size;
+    private final long version;
+    // The string is derived on first use
+    private volatile String string = null;
+    // The builder used for parsing, only kept until the document is parsed
+    private SAXBuilder builder;
+    // The parsed document, never handed out directly but only copied
+    private Document document = null;
+    // The problem when parsing the document
+    private Exception parseError = null;
+
+    private CorpusDataSnapshot(URL url, Path path, byte[] content, BasicFileAttributes attributes, long version,
+                               SAXBuilder builder) {
+        this.url = url;
+        this.path = path;
+        this.content = content;
+        this.lastModified = attributes.lastModifiedTime();
+        this.size = attributes.size();
+        this.version = version;
+        this.builder = builder;
+    }
+
+    /**
+     * Reads a file into a new snapshot
+     * @param url the location of the file
+     * @return the snapshot
+     * @throws IOException if the file cannot be read
+     * @throws URISyntaxException if the URL does not describe a file
+     */
+    public static CorpusDataSnapshot read(URL url) throws IOException, URISyntaxException {
+        return read(url, new SAXBuilder());
+    }
+
+    /**
+     * Reads a file into a new snapshot
+     * @param url the location of the file
+     * @param builder the builder used when the document is needed
+     * @return the snapshot
+     * @throws IOException if the file cannot be read
+     * @throws URISyntaxException if the URL does not describe a file
+     */
+    public static CorpusDataSnapshot read(URL url, SAXBuilder builder) throws IOException, URISyntaxException {
+        Path path = Paths.get(url.toURI()).toAbsolutePath().normalize();
+        // Get the version and attributes first so a concurrent change makes the snapshot outdated instead of
+        // being missed
+        long version = versions.getOrDefault(path, 0L);
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        // Changes which have not been written yet replace the content on disk
+        byte[] pending = CorpusWriteBack.readPendingContent(path);
+        byte[] content = pending == null ? Files.readAllBytes(path) : pending;
+        return new CorpusDataSnapshot(url, path, content, attributes, version, builder);
+    }
+
+    /**
+     * Marks all snapshots of a file as outdated, e.g. after writing the file
+     * @param path the file
+     */
+    public static void invalidate(Path path) {
+        versions.merge(path.toAbsolutePath().normalize(), 1L, Long::sum);
+    }
+
+    public URL getURL() {
+        return url;
+    }
+
+    /**
+     * Checks if the snapshot still describes the file on disk
+     * @return true if the file has not been changed since it was read
+     */
+    public boolean isCurrent() {
+        if (versions.getOrDefault(path, 0L) != version) {
+            return false;
+        }
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            return attributes.size() == size && attributes.lastModifiedTime().equals(lastModified);
+        }
+        catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Gets the content of the file, decoded as UTF-8
+     * @return the content
+     */
+    public String getString() {
+        String current = string;
+        if (current == null) {
+            current = new String(content, StandardCharsets.UTF_8);
+            string = current;
+        }
+        return current;
+    }
+
+    /**
+     * Gets a private copy of the document. The file is only parsed once per snapshot
+     * @return the copy of the document
+     * @throws JDOMException if the file is not well-formed
+     * @throws IOException if the file cannot be parsed
+     */
+    public Document getDocument() throws JDOMException, IOException {
+        synchronized (this) {
+            if (document == null && parseError == null) {
+                try {
+                    // Parse from the bytes to respect the encoding declared in the file, the system id allows to
+                    // resolve relative references like when parsing the URL
+                    document = builder.build(new ByteArrayInputStream(content), url.toString());
+                }
+                catch (JDOMException | IOException e) {
+                    parseError = e;
+                }
+                builder = null;
+            }
+            if (parseError instanceof JDOMException) {
+                throw (JDOMException) parseError;
+            }
+            else if (parseError != null) {
+                throw (IOException) parseError;
+            }
+            return document.clone();
+        }
+    }
+
+    /**
+     * Gets a private copy of the document, logging problems instead of throwing them
+     * @param logger the class to log problems for
+     * @return the copy of the document or null if it cannot be parsed
+     */
+    public Document getDocument(Class<?> logger) {
+        try {
+            return getDocument();
+        }
+        catch (JDOMException | IOException e) {
+            Logger.getLogger(logger.getName()).log(Level.SEVERE, "Exception while reading file: ", e);
+            return null;
+        }
+    }
+}
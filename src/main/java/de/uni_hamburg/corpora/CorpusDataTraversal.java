@@ -0,0 +1,176 @@
+package de.uni_hamburg.corpora;
+
+import de.uni_hamburg.corpora.utilities.EafStreamReader;
+import de.uni_hamburg.corpora.utilities.ExbStreamReader;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import org.xml.sax.SAXException;
+
+/**
+ * Drives several visitors by a single pass over a file. A visitor failing with an exception does not affect
+ * the others, it just does not receive the rest of the file.
+ *
+ * @author Herbert Lange
+ * @version 20261017
+ */
+public class CorpusDataTraversal {
+
+    private CorpusDataTraversal() {
+    }
+
+    /**
+     * Checks if a file can be streamed to visitors
+     * @param cd the file
+     * @return true for EXMARaLDA basic and segmented transcriptions and ELAN files
+     */
+    public static boolean canTraverse(CorpusData cd) {
+        return cd instanceof EXMARaLDATranscriptionData || cd instanceof EXMARaLDASegmentedTranscriptionData
+                || cd instanceof ELANData;
+    }
+
+    /**
+     * Streams a file once and passes its content to all visitors
+     * @param cd the file
+     * @param visitors the visitors
+     * @return for each visitor the exception it failed with or null if it saw the whole file
+     * @throws IOException if the file cannot be read
+     * @throws SAXException if the file is not well-formed
+     */
+    public static List<RuntimeException> traverse(CorpusData cd, List<? extends CorpusDataVisitor> visitors)
+            throws IOException, SAXException {
+        Multicast multicast = new Multicast(visitors);
+        if (cd instanceof ELANData) {
+            EafStreamReader.read(cd, multicast);
+        }
+        else if (canTraverse(cd)) {
+            ExbStreamReader.read(cd, multicast);
+        }
+        else {
+            throw new IllegalArgumentException("Files of type " + cd.getClass().getSimpleName()
+                    + " cannot be streamed");
+        }
+        return multicast.failures;
+    }
+
+    /**
+     * Forwards all content to a list of visitors. Only the callbacks are forwarded, the reports are collected
+     * from the individual visitors
+     */
+    private static class Multicast implements ExbStreamReader.Handler, EafStreamReader.Handler {
+
+        private final List<? extends CorpusDataVisitor> visitors;
+        private final List<RuntimeException> failures;
+        // The visitors that asked for the text of the current tier
+        private final boolean[] wantsText;
+
+        Multicast(List<? extends CorpusDataVisitor> visitors) {
+            this.visitors = visitors;
+            this.failures = new ArrayList<>(Collections.nCopies(visitors.size(), null));
+            this.wantsText = new boolean[visitors.size()];
+        }
+
+        private void forward(Consumer<CorpusDataVisitor> call) {
+            for (int i = 0; i < visitors.size(); i++) {
+                if (failures.get(i) == null) {
+                    try {
+                        call.accept(visitors.get(i));
+                    }
+                    catch (RuntimeException e) {
+                        failures.set(i, e);
+                    }
+                }
+            }
+        }
+
+        private boolean anyWantsText(Predicate<CorpusDataVisitor> needsText) {
+            boolean any = false;
+            for (int i = 0; i < visitors.size(); i++) {
+                wantsText[i] = false;
+                if (failures.get(i) == null) {
+                    try {
+                        wantsText[i] = needsText.test(visitors.get(i));
+                    }
+                    catch (RuntimeException e) {
+                        failures.set(i, e);
+                    }
+                }
+                any |= wantsText[i];
+            }
+            return any;
+        }
+
+        private void forwardEndTier(BiConsumer<CorpusDataVisitor, String> call, String text) {
+            for (int i = 0; i < visitors.size(); i++) {
+                if (failures.get(i) == null) {
+                    try {
+                        call.accept(visitors.get(i), wantsText[i] ? text : null);
+                    }
+                    catch (RuntimeException e) {
+                        failures.set(i, e);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void timelineItem(String id, String time) {
+            forward((v) -> v.timelineItem(id, time));
+        }
+
+        @Override
+        public void startTier(ExbStreamReader.Tier tier) {
+            forward((v) -> v.startTier(tier));
+        }
+
+        @Override
+        public void event(ExbStreamReader.Tier tier, ExbStreamReader.Event event) {
+            forward((v) -> v.event(tier, event));
+        }
+
+        @Override
+        public boolean needsText(ExbStreamReader.Tier tier) {
+            return anyWantsText((v) -> v.needsText(tier));
+        }
+
+        @Override
+        public void endTier(ExbStreamReader.Tier tier, String text) {
+            forwardEndTier((v, t) -> v.endTier(tier, t), text);
+        }
+
+        @Override
+        public void segmentChain(String id, String start, String end) {
+            forward((v) -> v.segmentChain(id, start, end));
+        }
+
+        @Override
+        public void timeSlot(String id, String value) {
+            forward((v) -> v.timeSlot(id, value));
+        }
+
+        @Override
+        public void startTier(EafStreamReader.Tier tier) {
+            forward((v) -> v.startTier(tier));
+        }
+
+        @Override
+        public void annotation(EafStreamReader.Tier tier, EafStreamReader.Annotation annotation) {
+            forward((v) -> v.annotation(tier, annotation));
+        }
+
+        @Override
+        public boolean needsText(EafStreamReader.Tier tier) {
+            return anyWantsText((v) -> v.needsText(tier));
+        }
+
+        @Override
+        public void endTier(EafStreamReader.Tier tier, String text) {
+            forwardEndTier((v, t) -> v.endTier(tier, t), text);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package de.uni_hamburg.corpora;
+
+import de.uni_hamburg.corpora.utilities.EafStreamReader;
+import de.uni_hamburg.corpora.utilities.ExbStreamReader;
+
+/**
+ * Receives the content of a single EXMARaLDA or ELAN file while it is streamed. Visitors of several corpus
+ * functions can share one pass over a file, see StreamingCorpusFunction and CorpusDataTraversal.
+ *
+ * @author Herbert Lange
+ * @version 20261017
+ */
+public interface CorpusDataVisitor extends ExbStreamReader.Handler, EafStreamReader.Handler {
+
+    /**
+     * Gets the results once the whole file has been visited. Only called once per visitor
+     * @return the report for the file
+     */
+    Report getReport();
+}
@@ -5,6 +5,7 @@
  */
 package de.uni_hamburg.corpora;
 
+import java.net.URL;
 import java.util.Collection;
 import java.util.Map;
 
@@ -12,7 +13,7 @@ import java.util.Map;
  *
  * @author fsnv625
  * @author Herbert Lange
- * @version 20230105
+ * @version 20261017
  */
 public interface CorpusFunction {
 
@@ -33,4 +34,25 @@ public String getDescription();
 public String getFunction();
 
 public Boolean getCanFix();
+
+/**
+ * Whether the function can be run on several files at the same time. A thread-safe function must not keep
+ * per-file state in fields and running it on a corpus has to be equivalent to running it on each of the
+ * usable files of the corpus separately
+ * @return true if the function may be run in parallel, false by default
+ */
+public default Boolean getIsThreadSafe() {
+    return false;
+}
+
+/**
+ * The files a function reads when it is run on a whole corpus. Functions declaring their inputs are only run
+ * again in incremental mode if one of these files changed. Thread-safe functions do not need to declare their
+ * inputs because they are cached for each file separately
+ * @param c the corpus
+ * @return the locations of all files the result depends on or null if they are not known
+ */
+public default Collection<URL> getInputs(Corpus c) {
+    return null;
+}
 }
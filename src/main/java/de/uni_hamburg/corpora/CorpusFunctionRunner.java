@@ -0,0 +1,425 @@
+package de.uni_hamburg.corpora;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.xml.sax.SAXException;
+
+/**
+ * Runs corpus functions on collections of corpus data or on a corpus, optionally distributing the files
+ * over a work-stealing thread pool.
+ *
+ * Only functions declaring themselves thread-safe (see CorpusFunction#getIsThreadSafe) are run in parallel,
+ * all others are run sequentially exactly as before. The reports of the individual files are merged in the
+ * order of the file URLs so the final report does not depend on the scheduling of the threads.
+ *
+ * If a result cache is set, checks on files that did not change since the last run are not run again but
+ * their cached results are used instead. Thread-safe functions are cached per file, other functions only if
+ * they declare their inputs.
+ *
+ * Several functions can also be run together so that thread-safe checks handle each file only once, see
+ * run(Corpus, List, boolean).
+ *
+ * Files of lazy collections (see LazyCorpusDataCollection) are only read through their cache when the function
+ * is run on them, and not kept afterwards, so the memory bound of the cache also holds while running functions.
+ *
+ * @author Herbert Lange
+ * @version 20261017
+ */
+public class CorpusFunctionRunner {
+
+    // The number of worker threads
+    private final int threads;
+    // The cache for incremental runs, null if everything is run
+    private ResultCache resultCache = null;
+
+    /**
+     * Creates a runner that runs everything sequentially
+     */
+    public CorpusFunctionRunner() {
+        this(1);
+    }
+
+    /**
+     * Creates a runner using a fixed number of threads
+     * @param threads the number of threads, values below 1 mean all available processors
+     */
+    public CorpusFunctionRunner(int threads) {
+        if (threads < 1)
+            this.threads = Runtime.getRuntime().availableProcessors();
+        else
+            this.threads = threads;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public ResultCache getResultCache() {
+        return resultCache;
+    }
+
+    /**
+     * Sets the cache used to skip checks on unchanged files
+     * @param resultCache the cache or null to run all checks
+     */
+    public void setResultCache(ResultCache resultCache) {
+        this.resultCache = resultCache;
+    }
+
+    /**
+     * Runs a corpus function on all suitable files in a collection. Each file is cloned before the function
+     * is applied so functions cannot influence each other. The clones share the content already read from
+     * disk as long as the files do not change
+     * @param cdc the collection of corpus data
+     * @param cf the corpus function
+     * @param fix if the function should fix problems
+     * @return the merged report
+     */
+    public Report run(Collection<CorpusData> cdc, CorpusFunction cf, boolean fix) {
+        return runOnFiles(getUsableHandles(cdc, List.of(cf)), getCache(cdc), cf, fix, true);
+    }
+
+    /**
+     * Runs a corpus function on a corpus. Thread-safe functions are run on the individual files of the corpus
+     * in parallel, all other functions are handed the whole corpus
+     * @param c the corpus
+     * @param cf the corpus function
+     * @param fix if the function should fix problems
+     * @return the merged report
+     */
+    public Report run(Corpus c, CorpusFunction cf, boolean fix) {
+        boolean perFile = isParallel(cf) || (isCached(fix) && Boolean.TRUE.equals(cf.getIsThreadSafe()));
+        if (!perFile) {
+            return runOnCorpus(c, cf, fix);
+        }
+        return runOnFiles(getUsableHandles(c.getCorpusData(), List.of(cf)), getCache(c.getCorpusData()), cf, fix,
+                false);
+    }
+
+    /**
+     * Runs several corpus functions on a collection of corpus data, visiting each file only once for all
+     * checks that can be run on single files, see run(Corpus, List, boolean)
+     * @param cdc the collection of corpus data
+     * @param cfs the corpus functions
+     * @param fix if the functions should fix problems
+     * @return the merged report in the order of the functions
+     */
+    public Report run(Collection<CorpusData> cdc, List<CorpusFunction> cfs, boolean fix) {
+        return runFused(null, cdc, cfs, fix);
+    }
+
+    /**
+     * Runs several corpus functions on a corpus. Thread-safe checks are fused: each file is handled once for
+     * all of them, and streaming functions share a single pass over the file instead of reading it once per
+     * function. All other functions, and all functions when fixing, are run one after the other as before.
+     * The report is the same as when running the functions one by one
+     * @param c the corpus
+     * @param cfs the corpus functions
+     * @param fix if the functions should fix problems
+     * @return the merged report in the order of the functions
+     */
+    public Report run(Corpus c, List<CorpusFunction> cfs, boolean fix) {
+        return runFused(c, c.getCorpusData(), cfs, fix);
+    }
+
+    /**
+     * Checks if a function will be run in parallel by this runner
+     * @param cf the corpus function
+     * @return true if the runner has more than one thread and the function is thread-safe
+     */
+    public boolean isParallel(CorpusFunction cf) {
+        return threads > 1 && Boolean.TRUE.equals(cf.getIsThreadSafe());
+    }
+
+    private boolean isCached(boolean fix) {
+        return resultCache != null && !fix;
+    }
+
+    private Report runOnCorpus(Corpus c, CorpusFunction cf, boolean fix) {
+        Collection<URL> inputs = isCached(fix) ? cf.getInputs(c) : null;
+        if (inputs == null) {
+            return cf.execute(c, fix);
+        }
+        Report cached = resultCache.lookup(cf, inputs);
+        if (cached != null) {
+            return cached;
+        }
+        ExmaErrorList.startRecording();
+        Report report;
+        try {
+            report = cf.execute(c, fix);
+        }
+        catch (RuntimeException e) {
+            ExmaErrorList.stopRecording();
+            throw e;
+        }
+        resultCache.store(cf, inputs, report, ExmaErrorList.stopRecording());
+        return report;
+    }
+
+    private Report runOnFiles(List<CorpusDataHandle> files, CorpusDataCache cache, CorpusFunction cf, boolean fix,
+                              boolean copy) {
+        Report report = new Report();
+        if (!isParallel(cf)) {
+            for (CorpusDataHandle handle : files) {
+                report.merge(runOnFile(handle, cache, cf, fix, copy));
+            }
+            return report;
+        }
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            List<ForkJoinTask<Report>> tasks = new ArrayList<>(files.size());
+            for (CorpusDataHandle handle : files) {
+                tasks.add(pool.submit(() -> runOnFile(handle, cache, cf, fix, copy)));
+            }
+            // Join in submission order to get a deterministic report
+            for (ForkJoinTask<Report> task : tasks) {
+                report.merge(task.join());
+            }
+        }
+        finally {
+            pool.shutdown();
+        }
+        return report;
+    }
+
+    private Report runOnFile(CorpusDataHandle handle, CorpusDataCache cache, CorpusFunction cf, boolean fix,
+                             boolean copy) {
+        CorpusData cd = load(handle, cache);
+        return cd == null ? new Report() : runOnFile(cd, cf, fix, copy);
+    }
+
+    private Report runOnFile(CorpusData cd, CorpusFunction cf, boolean fix, boolean copy) {
+        try {
+            if (isCached(fix)) {
+                Report cached = resultCache.lookup(cf, cd);
+                if (cached != null) {
+                    return cached;
+                }
+                ExmaErrorList.startRecording();
+                Report report;
+                try {
+                    report = cf.execute(copy ? (CorpusData) cd.clone() : cd, fix);
+                }
+                catch (RuntimeException e) {
+                    ExmaErrorList.stopRecording();
+                    throw e;
+                }
+                resultCache.store(cf, cd, report, ExmaErrorList.stopRecording());
+                return report;
+            }
+            CorpusData data = copy ? (CorpusData) cd.clone() : cd;
+            return cf.execute(data, fix);
+        }
+        catch (RuntimeException e) {
+            Report report = new Report();
+            report.addException(cf.getFunction(), e, cd, "Unexpected error when running function");
+            return report;
+        }
+    }
+
+    private Report runFused(Corpus c, Collection<CorpusData> cdc, List<CorpusFunction> cfs, boolean fix) {
+        List<CorpusFunction> fused = new ArrayList<>();
+        if (!fix) {
+            for (CorpusFunction cf : cfs) {
+                if (Boolean.TRUE.equals(cf.getIsThreadSafe())) {
+                    fused.add(cf);
+                }
+            }
+        }
+        // The reports of the fused functions, in the same order
+        List<Report> fusedReports = new ArrayList<>();
+        if (!fused.isEmpty()) {
+            List<CorpusDataHandle> files = getUsableHandles(cdc, fused);
+            CorpusDataCache cache = getCache(cdc);
+            // Files of collections are copied like when running the functions one by one
+            boolean copy = c == null;
+            List<List<Report>> fileReports = new ArrayList<>(files.size());
+            if (threads > 1) {
+                ForkJoinPool pool = new ForkJoinPool(threads);
+                try {
+                    List<ForkJoinTask<List<Report>>> tasks = new ArrayList<>(files.size());
+                    for (CorpusDataHandle handle : files) {
+                        tasks.add(pool.submit(() -> runFusedOnFile(handle, cache, fused, copy)));
+                    }
+                    for (ForkJoinTask<List<Report>> task : tasks) {
+                        fileReports.add(task.join());
+                    }
+                }
+                finally {
+                    pool.shutdown();
+                }
+            }
+            else {
+                for (CorpusDataHandle handle : files) {
+                    fileReports.add(runFusedOnFile(handle, cache, fused, copy));
+                }
+            }
+            // Merge the reports of each function in the order of the files
+            for (int i = 0; i < fused.size(); i++) {
+                Report report = new Report();
+                for (List<Report> reports : fileReports) {
+                    report.merge(reports.get(i));
+                }
+                fusedReports.add(report);
+            }
+        }
+        Report report = new Report();
+        int next = 0;
+        for (CorpusFunction cf : cfs) {
+            if (next < fused.size() && fused.get(next) == cf) {
+                report.merge(fusedReports.get(next++));
+            }
+            else if (c == null) {
+                report.merge(run(cdc, cf, fix));
+            }
+            else {
+                report.merge(run(c, cf, fix));
+            }
+        }
+        return report;
+    }
+
+    private List<Report> runFusedOnFile(CorpusDataHandle handle, CorpusDataCache cache, List<CorpusFunction> cfs,
+                                        boolean copy) {
+        CorpusData cd = load(handle, cache);
+        if (cd == null) {
+            List<Report> reports = new ArrayList<>(cfs.size());
+            for (int i = 0; i < cfs.size(); i++) {
+                reports.add(new Report());
+            }
+            return reports;
+        }
+        return runFusedOnFile(cd, cfs, copy);
+    }
+
+    /**
+     * Runs all usable checks on a single file, streaming the file once for all functions providing a visitor
+     * @return the report of each function, empty if the function cannot be used on the file
+     */
+    private List<Report> runFusedOnFile(CorpusData cd, List<CorpusFunction> cfs, boolean copy) {
+        List<Report> reports = new ArrayList<>(cfs.size());
+        for (int i = 0; i < cfs.size(); i++) {
+            reports.add(new Report());
+        }
+        CorpusData data;
+        try {
+            data = copy ? (CorpusData) cd.clone() : cd;
+        }
+        catch (RuntimeException e) {
+            for (int i = 0; i < cfs.size(); i++) {
+                if (cfs.get(i).getIsUsableFor().contains(cd.getClass())) {
+                    Report report = new Report();
+                    report.addException(cfs.get(i).getFunction(), e, cd, "Unexpected error when running function");
+                    reports.set(i, report);
+                }
+            }
+            return reports;
+        }
+        List<Integer> streamed = new ArrayList<>();
+        List<CorpusDataVisitor> visitors = new ArrayList<>();
+        for (int i = 0; i < cfs.size(); i++) {
+            CorpusFunction cf = cfs.get(i);
+            if (!cf.getIsUsableFor().contains(cd.getClass())) {
+                continue;
+            }
+            // Cached results are looked up for each function separately
+            if (cf instanceof StreamingCorpusFunction && !isCached(false) && CorpusDataTraversal.canTraverse(data)) {
+                try {
+                    visitors.add(((StreamingCorpusFunction) cf).createVisitor(data));
+                    streamed.add(i);
+                }
+                catch (RuntimeException e) {
+                    Report report = new Report();
+                    report.addException(cf.getFunction(), e, cd, "Unexpected error when running function");
+                    reports.set(i, report);
+                }
+            }
+            else {
+                reports.set(i, runOnFile(data, cf, false, false));
+            }
+        }
+        if (visitors.isEmpty()) {
+            return reports;
+        }
+        List<RuntimeException> failures;
+        try {
+            failures = CorpusDataTraversal.traverse(data, visitors);
+        }
+        catch (IOException | SAXException e) {
+            for (int i : streamed) {
+                Report report = new Report();
+                report.addException(cfs.get(i).getFunction(), e, cd, "Unknown parsing error");
+                reports.set(i, report);
+            }
+            return reports;
+        }
+        for (int j = 0; j < streamed.size(); j++) {
+            CorpusFunction cf = cfs.get(streamed.get(j));
+            RuntimeException failure = failures.get(j);
+            if (failure == null) {
+                try {
+                    reports.set(streamed.get(j), visitors.get(j).getReport());
+                    continue;
+                }
+                catch (RuntimeException e) {
+                    failure = e;
+                }
+            }
+            Report report = new Report();
+            report.addException(cf.getFunction(), failure, cd, "Unexpected error when running function");
+            reports.set(streamed.get(j), report);
+        }
+        return reports;
+    }
+
+    /**
+     * Gets the files usable by any of the functions, sorted by URL. Files of lazy collections are selected by the
+     * type of their handles, so they are not read
+     */
+    private static List<CorpusDataHandle> getUsableHandles(Collection<CorpusData> cdc, List<CorpusFunction> cfs) {
+        Stream<CorpusDataHandle> handles;
+        if (cdc instanceof LazyCorpusDataCollection) {
+            CorpusDataCache cache = getCache(cdc);
+            handles = ((LazyCorpusDataCollection<?>) cdc).getHandles().stream()
+                    .filter((h) -> !cache.isUnreadable(h.getURL()));
+        }
+        else {
+            handles = cdc.stream().map(CorpusDataHandle::new);
+        }
+        return handles.filter((h) -> cfs.stream().anyMatch((cf) -> cf.getIsUsableFor().contains(h.getType())))
+                .sorted(Comparator.comparing((CorpusDataHandle h) -> h.getURL().toString()))
+                .collect(Collectors.toList());
+    }
+
+    // Gets the cache used to read the files of a lazy collection, null for other collections
+    private static CorpusDataCache getCache(Collection<CorpusData> cdc) {
+        return cdc instanceof LazyCorpusDataCollection ? ((LazyCorpusDataCollection<?>) cdc).getCache() : null;
+    }
+
+    /**
+     * Reads the file of a handle, through the cache if there is one. Files which cannot be read are skipped like
+     * when iterating over a lazy collection, the cache remembers them to be reported
+     * @return the corpus data or null if the file cannot be read
+     */
+    private static CorpusData load(CorpusDataHandle handle, CorpusDataCache cache) {
+        try {
+            return cache == null ? handle.load() : cache.get(handle);
+        }
+        catch (IOException e) {
+            Logger.getLogger(CorpusFunctionRunner.class.getName()).log(Level.WARNING,
+                    handle.getURL() + " will not be read", e);
+            return null;
+        }
+    }
+}
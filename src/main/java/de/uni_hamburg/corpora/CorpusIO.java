@@ -1,25 +1,23 @@
 package de.uni_hamburg.corpora;
 
-import de.idsmannheim.lza.xmlmagic.XmlMagic;
+import de.uni_hamburg.corpora.utilities.CorpusFileIndex;
 import de.uni_hamburg.corpora.utilities.PrettyPrinter;
 import de.uni_hamburg.corpora.utilities.TypeConverter;
+import de.uni_hamburg.corpora.utilities.XMLStreamTools;
 
 import java.io.*;
 
 import static java.lang.System.out;
 
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Modifier;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLDecoder;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
-import java.util.stream.Collectors;
+import javax.xml.namespace.QName;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.TransformerException;
 import javax.xml.xpath.XPathExpressionException;
@@ -29,8 +27,6 @@ import org.exmaralda.partitureditor.jexmaralda.JexmaraldaException;
 import org.jdom2.Document;
 import org.jdom2.JDOMException;
 import org.jdom2.output.XMLOutputter;
-import org.jdom2.input.SAXBuilder;
-import org.reflections.Reflections;
 import org.xml.sax.SAXException;
 
 /**
@@ -46,16 +42,12 @@ public class CorpusIO {
     Collection<CorpusData> cdc = new HashSet<>();
     Collection<URL> alldata = new ArrayList<>();
     Collection<Class<? extends CorpusData>> allCorpusDataTypes = new ArrayList<>();
+    // The file extensions of the corpus data types, determined when first needed
+    private final Map<Class<? extends CorpusData>, Collection<String>> fileExtensions = new HashMap<>();
 
     public CorpusIO() {
-        // Use reflections to get all corpus data classes
-        Reflections reflections = new Reflections("de.uni_hamburg.corpora");
-        // Get all classes derived from CorpusData and add to list, using stream api
-        allCorpusDataTypes.addAll(reflections.getSubTypesOf(CorpusData.class).stream()
-                // But only select public classes that are not abstract
-                .filter((cd) -> Modifier.isPublic(cd.getModifiers()) && !Modifier.isAbstract(cd.getModifiers()))
-                // And convert the stream back to a set
-                .collect(Collectors.toSet()));
+        // All public, non-abstract corpus data classes, indexed at build time
+        allCorpusDataTypes.addAll(CorpusRegistry.getInstance().getCorpusDataTypes());
     }
 
     public String CorpusData2String(CorpusData cd) throws TransformerException, ParserConfigurationException, SAXException, IOException, JDOMException {
@@ -66,15 +58,21 @@ public class CorpusIO {
         write(cd.toSaveableString(), url);
     }
 
-    //TODO
+    /**
+     * Writes a string to a file. The file is written atomically, see writeAtomically. While a write-back is active
+     * changes to existing files are only written at the end of the run, see CorpusWriteBack
+     * @param s the content
+     * @param url the location of the file
+     * @throws IOException if the file cannot be written
+     */
     public void write(String s, URL url) throws IOException {
         //If URL is on fileserver only...
-        System.out.println("started writing document...");
         outappend("============================\n");
-        FileOutputStream fos = new FileOutputStream(url.getFile());
-        fos.write(s.getBytes(StandardCharsets.UTF_8));
-        fos.close();
-        System.out.println("Document written...");
+        CorpusWriteBack writeBack = CorpusWriteBack.getActive();
+        if (writeBack != null && writeBack.stage(Paths.get(url.getFile()), s)) {
+            return;
+        }
+        writeAtomically(s, url);
     }
 
     public void write(Document doc, URL url) throws IOException, TransformerException, ParserConfigurationException, SAXException, JDOMException {
@@ -92,6 +90,30 @@ public class CorpusIO {
         write(prettyCorpusData, url);
     }
 
+    /**
+     * Writes a string to a file atomically. The content is written to a temporary file next to the target first,
+     * which then replaces the target, so the file is never left partially written. Files already containing the
+     * content are not written again
+     * @param s the content
+     * @param url the location of the file
+     * @throws IOException if the file cannot be written
+     */
+    public void writeAtomically(String s, URL url) throws IOException {
+        CorpusWriteBack.writeFile(Paths.get(url.getFile()), s);
+    }
+
+    /**
+     * Writes a pretty-printed document to a file atomically
+     * @param doc the document
+     * @param url the location of the file
+     * @see #writeAtomically(String, URL)
+     */
+    public void writeAtomically(Document doc, URL url) throws IOException, TransformerException, ParserConfigurationException, SAXException, JDOMException {
+        XMLOutputter xmOut = new XMLOutputter();
+        PrettyPrinter pp = new PrettyPrinter();
+        writeAtomically(pp.indent(xmOut.outputString(doc), "event"), url);
+    }
+
     public void outappend(String a) {
         Calendar cal = Calendar.getInstance(TimeZone.getDefault());
         java.text.SimpleDateFormat sdf = new java.text.SimpleDateFormat("dd-MM-yyyy HH:mm:ss");
@@ -122,48 +144,15 @@ public class CorpusIO {
     //read a single file as a corpus data object from an url
     //only read it if it is needed
     public CorpusData readFileURL(URL url, Collection<Class<? extends CorpusData>> clcds) throws SAXException, JexmaraldaException, ClassNotFoundException, UnsupportedEncodingException {
-        if (new File(URLDecoder.decode(url.getFile(),"UTF-8")).isFile()) {
-            if (url.getPath().toLowerCase().contains("corpusservices_errors")) {
-                // Ignore
-            }
-            if (url.getPath().toLowerCase().endsWith("xml") && url.getPath().toLowerCase().contains("annotation") && clcds.contains(AnnotationSpecification.class)) {
-                return new AnnotationSpecification(url);
-            }
-            // An xml file is a CMDI file if it is:
-            // - an xml file
-            // - in a path containing cmdi
-            // - we expect CMDI files in one of the checkers
-            else if (url.getPath().toLowerCase().endsWith("xml")
-                    && url.getPath().toLowerCase().contains("cmdi") && clcds.contains(CMDIMetadata.class)) {
-                return new CMDIMetadata(url);
-            } else {
-                // TODO this method does not work properly e.g. for the suffix xml. Curent workaround: treat xml separately
-                if (url.getPath().toLowerCase().endsWith(".xml")) {
-                	SAXBuilder sb = new SAXBuilder();
-                	// TODO implement this properly
-                	try {
-                		XmlMagic magic = new XmlMagic(sb.build(url)); 
-                		out.println("Read " + url);
-                		
-                	}
-                	finally {
-                		return new UnspecifiedXMLData(url);
-                	}
-                }
-                for (Class<? extends CorpusData> c : clcds) {
-                    try {
-                        CorpusData cd = c.getDeclaredConstructor(URL.class).newInstance(url);
-                        for (String e : cd.getFileExtensions()) {
-                            // Check extension including the dot
-                            if (url.getPath().toLowerCase().endsWith("." + e)) {
-                                out.println("Read " + url);
-                                return cd;
-                            }
-                        }
-                    } catch (NoSuchMethodException | InvocationTargetException | InstantiationException | IllegalAccessException e) {
-                        e.printStackTrace();
-                    }
-                }
+        // Decide on the type first so only the matching class reads the file
+        Class<? extends CorpusData> type = getCorpusDataType(url, clcds);
+        if (type != null) {
+            try {
+                CorpusData cd = type.getDeclaredConstructor(URL.class).newInstance(url);
+                out.println("Read " + url);
+                return cd;
+            } catch (NoSuchMethodException | InvocationTargetException | InstantiationException | IllegalAccessException e) {
+                e.printStackTrace();
             }
         }
         // No suitable format found
@@ -172,25 +161,121 @@ public class CorpusIO {
     }
 
     /**
-     * Generates the list of all known file extensions for corpus data objects
-     * @author bba1792, Dr. Herbert lange
-     * @version 20210924
-     * @return the list of all known file extensions for corpus data objects
+     * Determines the corpus data type used for a file without reading it. The type is looked up by the file
+     * extension. Only for XML files that could be of several of the types, the root element is read
+     * @param url the location of the file
+     * @param clcds the corpus data types that should be considered
+     * @return the type or null if the file is not read as any of the types
+     * @throws UnsupportedEncodingException if the URL cannot be decoded
      */
-    private Collection<String> getAllExtensions() {
-        Set<String> allExts = new HashSet<>();
-        for (Class c : allCorpusDataTypes) {
+    public Class<? extends CorpusData> getCorpusDataType(URL url, Collection<Class<? extends CorpusData>> clcds) throws UnsupportedEncodingException {
+        File file = new File(URLDecoder.decode(url.getFile(),"UTF-8"));
+        if (!file.isFile()) {
+            return null;
+        }
+        String path = url.getPath().toLowerCase();
+        String extension = CorpusRegistry.getExtension(path);
+        // Files in paths containing annotation or cmdi are expected to be of that type
+        if (path.endsWith("xml") && path.contains("annotation") && clcds.contains(AnnotationSpecification.class)) {
+            return AnnotationSpecification.class;
+        } else if (path.endsWith("xml") && path.contains("cmdi") && clcds.contains(CMDIMetadata.class)) {
+            return CMDIMetadata.class;
+        } else if (extension.equals("xml")) {
+            return getXMLDataType(file, clcds);
+        }
+        CorpusRegistry registry = CorpusRegistry.getInstance();
+        for (Class<? extends CorpusData> c : registry.getCorpusDataTypes(extension)) {
+            if (clcds.contains(c)) {
+                return c;
+            }
+        }
+        // Types not known to the registry
+        for (Class<? extends CorpusData> c : clcds) {
+            if (registry.getFileExtensions(c) == null && getFileExtensions(c).contains(extension)) {
+                return c;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Determines the corpus data type of an XML file. Files are read as UnspecifiedXMLData unless the root element
+     * identifies them as annotation specification or CMDI metadata and these types are considered
+     */
+    private Class<? extends CorpusData> getXMLDataType(File file, Collection<Class<? extends CorpusData>> clcds) {
+        boolean annotation = clcds.contains(AnnotationSpecification.class);
+        boolean cmdi = clcds.contains(CMDIMetadata.class);
+        // Only look into the file if there is a choice
+        if (annotation || cmdi) {
             try {
-                // Create an actual object from the class using reflections to access the constructor
-                CorpusData cd = (CorpusData) c.getDeclaredConstructor().newInstance();
-                // Add all extensions. Also include the dot
-                allExts.addAll(cd.getFileExtensions().stream().map((e) -> "." + e).collect(Collectors.toList()));
-            } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException | InstantiationException e) {
-                // Basically do nothing in case of an exception
-                allExts.addAll(Collections.EMPTY_SET);
+                QName root = XMLStreamTools.peekRootElement(file.toPath());
+                if (root != null && annotation && root.getLocalPart().equals("annotation-specification")) {
+                    return AnnotationSpecification.class;
+                } else if (root != null && cmdi && root.getLocalPart().equals("CMD")) {
+                    return CMDIMetadata.class;
+                }
+            }
+            catch (IOException e) {
+                // Reading the file will fail later with a proper error message
+            }
+        }
+        return UnspecifiedXMLData.class;
+    }
+
+    /**
+     * Creates a handle for a file without reading it
+     * @param url the location of the file
+     * @param clcds the corpus data types that should be considered
+     * @return the handle or null if the file is not read as any of the types
+     * @throws IOException if the file attributes cannot be read
+     * @throws URISyntaxException if the URL cannot be converted to a path
+     */
+    public CorpusDataHandle readHandle(URL url, Collection<Class<? extends CorpusData>> clcds) throws IOException, URISyntaxException {
+        Class<? extends CorpusData> type = getCorpusDataType(url, clcds);
+        if (type == null) {
+            System.out.println(url + " will not be read");
+            return null;
+        }
+        return CorpusDataHandle.fromURL(url, type);
+    }
+
+    /**
+     * Lazily reads the files from a directory url that are specified in the Collection. Only handles for the files
+     * are created, the files themselves are read through the cache when the collection is iterated
+     * @param url the location of the directory or file
+     * @param chosencdc the corpus data types that should be considered
+     * @param report the report for problems while listing the files
+     * @param cache the cache used to materialize the corpus data
+     * @return the lazy collection of corpus data
+     * @throws URISyntaxException if an URL cannot be converted to a path
+     * @throws IOException if the files cannot be listed
+     */
+    public LazyCorpusDataCollection<CorpusData> readLazily(URL url, Collection<Class<? extends CorpusData>> chosencdc, Report report, CorpusDataCache cache) throws URISyntaxException, IOException {
+        Map<URL, CorpusDataHandle> handles = new LinkedHashMap<>();
+        Collection<URL> urls = URLtoList(url, report);
+        for (URL readurl : urls == null ? Collections.<URL>emptyList() : urls) {
+            CorpusDataHandle handle = readHandle(readurl, chosencdc);
+            if (handle != null) {
+                handles.putIfAbsent(readurl, handle);
             }
         }
-        return allExts ;
+        return new LazyCorpusDataCollection<>(handles.values(), cache);
+    }
+
+    private Collection<String> getFileExtensions(Class<? extends CorpusData> c) {
+        Collection<String> extensions = CorpusRegistry.getInstance().getFileExtensions(c);
+        if (extensions != null) {
+            return extensions;
+        }
+        synchronized (fileExtensions) {
+            return fileExtensions.computeIfAbsent(c, (k) -> {
+                try {
+                    return k.getDeclaredConstructor().newInstance().getFileExtensions();
+                } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException | InstantiationException e) {
+                    return Collections.emptySet();
+                }
+            });
+        }
     }
 
     //read a single file as a corpus data object from an url
@@ -297,27 +382,16 @@ public class CorpusIO {
 
     Collection<URL> listFiles(Path path, Report report) throws IOException {
         Collection<URL> recursed = new ArrayList<>();
-        try (DirectoryStream<Path> stream = Files.newDirectoryStream(path)) {
-            for (Path entry : stream) {
-                try {
-                    // If we are in a directory we call ourself recursively
-                    if (Files.isDirectory(entry)) {
-                        recursed.addAll(listFiles(entry, report));
-                    }
-                    // Otherwise we check the file extension if we know it
-                    // First getting the file name
-                    String sentry = entry.getFileName().toString().toLowerCase();
-                    // Getting all known extensions
-                    Collection<String> allExts = getAllExtensions();
-                    // Check if any of these extensions happens to be the final part of sentry
-                    // if yes we add the file to the list
-                    if (allExts.stream().map(sentry::endsWith).reduce(Boolean::logicalOr).orElse(false)) {
-                        recursed.add(entry.toUri().toURL());
-                    }
-                }
-                catch (IOException e) {
-                    report.addException("CorpusIO", e, "Exception when reading file " + entry);
-                }
+        // The files are listed once and shared with other components walking the same directory
+        CorpusFileIndex index = CorpusFileIndex.get(path);
+        for (Map.Entry<Path, IOException> e : index.getErrors().entrySet()) {
+            report.addException("CorpusIO", e.getValue(), "Exception when reading file " + e.getKey());
+        }
+        CorpusRegistry registry = CorpusRegistry.getInstance();
+        for (Path entry : index.getFiles()) {
+            // Add the file to the list if we know its extension
+            if (registry.hasKnownExtension(entry.getFileName().toString())) {
+                recursed.add(entry.toUri().toURL());
             }
         }
         return recursed;
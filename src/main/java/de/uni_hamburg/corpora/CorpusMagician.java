@@ -10,17 +10,20 @@ import de.uni_hamburg.corpora.visualization.ScoreHTML;
 import de.uni_hamburg.corpora.conversion.AddCSVMetadataToComa;
 import de.uni_hamburg.corpora.publication.HandlePidRegistration;
 import de.uni_hamburg.corpora.utilities.PrettyPrinter;
+import de.uni_hamburg.corpora.utilities.SchemaCache;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.Writer;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Modifier;
 import java.net.MalformedURLException;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
-import java.util.logging.Logger;
 import java.nio.file.Paths;
 import java.util.stream.Collectors;
 
@@ -38,8 +41,6 @@ import javax.xml.xpath.XPathExpressionException;
 import org.exmaralda.partitureditor.jexmaralda.JexmaraldaException;
 import org.jdom2.Document;
 import org.jdom2.JDOMException;
-import org.reflections.Reflections;
-import org.reflections.util.ConfigurationBuilder;
 import org.xml.sax.SAXException;
 
 /**
@@ -92,21 +93,23 @@ public class CorpusMagician {
     static String mode = "mode";
     //static URL reportlocation;
     static ArrayList<URL> reportlocations = new ArrayList<>();
+    // The writers streaming the report to the report locations, null until they are opened
+    static List<ReportWriter> reportWriters = null;
     static URL inputurl;
     static boolean isCorpus = false;
     static boolean isCollection = false;
+    //the number of threads used to run thread-safe functions
+    static int threads = 1;
+    // The cache used to load files lazily, null if all files are read when the corpus is created
+    static CorpusDataCache cache = null;
+    // If checks on unchanged files should be skipped
+    static boolean incremental = false;
+    static ResultCache resultCache = null;
+    // If checks on single files should be run together in one pass over each file
+    static boolean fused = false;
 
     // Here we can control which packages we want to include
-    public static String[] corpusFunctionPackages = {
-        "de.uni_hamburg.corpora.conversion",
-        "de.uni_hamburg.corpora.publication",
-        "de.uni_hamburg.corpora.validation",
-        "de.uni_hamburg.corpora.validation.quest",
-        "de.uni_hamburg.corpora.visualization",
-        "de.idsmannheim.lza.conversion",
-        "de.idsmannheim.lza.publication",
-        "de.idsmannheim.lza.validation",
-    }; 
+    public static String[] corpusFunctionPackages = CorpusRegistry.getCorpusFunctionPackages();
    public CorpusMagician() {
     }
 
@@ -121,6 +124,11 @@ public class CorpusMagician {
             createCommandLineOptions(args);
             //read the options specified on the commandline
             readCommandLineOptions();
+            //fixed files are written once at the end of the run
+            if (fixing) {
+                Path input = Paths.get(inputurl.toURI());
+                CorpusWriteBack.begin(Files.isDirectory(input) ? input : input.getParent());
+            }
             //convert strings from commandline to corpusfunction objects
             corpusfunctions = corpusFunctionStrings2Classes(chosencorpusfunctions);
             //find out which files the chosencorpusfunctions need as input
@@ -141,6 +149,16 @@ public class CorpusMagician {
                 corpuma.initDataWithURL(inputurl, neededcorpusdatatypes);
             else
                 throw new IOException("Input URL does not exist");
+            //the results of previous runs are stored in the curation folder
+            if (incremental) {
+                if (nocurationfolder) {
+                    System.out.println("Incremental mode needs the curation folder and is disabled");
+                } else {
+                    resultCache = new ResultCache(Paths.get(new URL(basedirectory + "curation/cache").toURI()), cfProperties);
+                }
+            }
+            //the reports are written while the functions are running
+            openReportWriters();
             //We can only init an corpus object if we know it's a structured corpus
             //now all chosen functions must be run
             //if we have the coma file, we just give Coma as Input and the Functions need to take care of using the
@@ -160,6 +178,11 @@ public class CorpusMagician {
             report.addException(ex, "Class not found");
         } catch (JDOMException ex) {
             report.addException(ex, "JDOM error");
+        } finally {
+            reportUnreadableFiles();
+            reportLanguageToolWarmUp();
+            //also write the fixes made so far if the run failed unexpectedly
+            finishWriteBack();
         }
         try {
             createReports();
@@ -209,7 +232,12 @@ public class CorpusMagician {
         if (CorpusIO.isDirectory(url)) {
             //TODO
             //only read the filetypes from clcds!
-            cdc = cio.read(url, clcds, report);
+            if (cache != null) {
+                cdc = cio.readLazily(url, clcds, report, cache);
+            }
+            else {
+                cdc = cio.read(url, clcds, report);
+            }
             basedirectory = url;
             if (isCorpus) {
                 corpus = new Corpus(corpusname, url, cdc);
@@ -228,7 +256,12 @@ public class CorpusMagician {
                 System.out.println("It's a corpus");
                 //TODO
                 //only read the filetypes from clcds!
-                corpus = new Corpus((ComaData) cdata, clcds);
+                if (cache != null) {
+                    corpus = new Corpus((ComaData) cdata, clcds, cache);
+                }
+                else {
+                    corpus = new Corpus((ComaData) cdata, clcds);
+                }
                 //otherwise it is a single file I want to check
             }
             else {
@@ -248,12 +281,9 @@ public class CorpusMagician {
     // which are neither abstract nor private
     public static Collection<String> getAllExistingCFs() {
         allExistingCFs = new ArrayList<>();
-        // Use reflections to get all corpus data classes
-        Reflections reflections = new Reflections("de.uni_hamburg.corpora");
-        // Get all classes derived from CorpusFunction
-        for (Class c : reflections.getSubTypesOf(CorpusFunction.class)) {
-            // Check if it is a proper class, ie public and not abstract
-            if (Modifier.isPublic(c.getModifiers()) && !Modifier.isAbstract(c.getModifiers())) {
+        // All public, non-abstract classes derived from CorpusFunction, indexed at build time
+        for (Class<? extends CorpusFunction> c : CorpusRegistry.getInstance().getCorpusFunctions()) {
+            if (c.getName().startsWith("de.uni_hamburg.corpora.")) {
                 allExistingCFs.add(c.getSimpleName());
             }
         }
@@ -718,15 +748,9 @@ public class CorpusMagician {
                 default:
                     // Try to cast the name to a corpus function anyway
                     try {
-                        // Use reflections to get all corpus data classes
-                        //Reflections reflections = new Reflections("de.uni_hamburg.corpora");
-                        // Reflections reflections = new Reflections("");
-                        
-                        Reflections reflections = new Reflections(new ConfigurationBuilder().forPackages(corpusFunctionPackages));
                         boolean checkFunctionName = false;
-                        // Get all classes derived from CorpusData
-                        for (Class<? extends CorpusFunction> cf : reflections.getSubTypesOf(CorpusFunction.class)) {
-                            Logger.getGlobal().info("Scanning " + cf.getName());
+                        // Get all classes derived from CorpusFunction, indexed at build time
+                        for (Class<? extends CorpusFunction> cf : CorpusRegistry.getInstance().getCorpusFunctions()) {
                             if (cf.getName().toLowerCase().endsWith(function.toLowerCase()) &&
                                     Arrays.asList(corpusFunctionPackages).contains(cf.getPackage().getName())) {
                                 try {
@@ -752,10 +776,48 @@ public class CorpusMagician {
         return cf2strcorpusfunctions;
     }
 
+    //reports the files skipped because they could not be read when the functions were run
+    static void reportUnreadableFiles() {
+        if (cache == null) {
+            return;
+        }
+        for (Map.Entry<URL, IOException> e : cache.getUnreadable().entrySet()) {
+            report.addException(e.getValue(), "The file " + e.getKey() + " could not be read and was skipped");
+        }
+    }
+
+    //reports the time needed to initialise LanguageTool once for the whole run instead of for one of the files
+    static void reportLanguageToolWarmUp() {
+        for (Map.Entry<String, Long> e : LanguageToolPool.getWarmUpMillis().entrySet()) {
+            report.addNote(LanguageToolChecker.class.getSimpleName(),
+                    String.format("LanguageTool warm-up for language %s took %d ms", e.getKey(), e.getValue()));
+        }
+    }
+
+    //writes the files changed by the fixing functions
+    static void finishWriteBack() {
+        CorpusWriteBack writeBack = CorpusWriteBack.getActive();
+        if (writeBack == null) {
+            return;
+        }
+        System.out.println("Writing " + writeBack.getPendingCount() + " fixed files");
+        for (Map.Entry<Path, IOException> e : writeBack.finish().entrySet()) {
+            //the report is not written if the run failed, so the problem is shown on the console as well
+            System.err.println("The fixed file " + e.getKey() + " could not be written: " + e.getValue());
+            report.addException(e.getValue(), "The fixed file " + e.getKey() + " could not be written");
+        }
+        System.out.println(writeBack.getWritten() + " files written, " + writeBack.getUnchanged() + " files unchanged");
+    }
+
     //run the chosen functions on the chosen corpus data
     Report runChosencorpusfunctions() {
+        //all checks on single files are run together on each file
+        if (fused && !fixing && isCollection) {
+            report.merge(createRunner().run(cdc, new ArrayList<>(corpusfunctions), false));
+        } else if (fused && !fixing && isCorpus) {
+            report.merge(createRunner().run(corpus, new ArrayList<>(corpusfunctions), false));
         //it's an unordered Collection of corpus data
-        if (isCollection) {
+        } else if (isCollection) {
             for (CorpusFunction function : corpusfunctions) {
                 if (fixing) {
                     report.merge(runCorpusFunction(cdc, function, true));
@@ -803,6 +865,14 @@ public class CorpusMagician {
 //        return runCorpusFunctions(corpus, cfc);
 //    }
 
+    //creates the runner for the corpus functions, reusing results of previous
+    //runs in incremental mode
+    CorpusFunctionRunner createRunner() {
+        CorpusFunctionRunner runner = new CorpusFunctionRunner(threads);
+        runner.setResultCache(resultCache);
+        return runner;
+    }
+
     //run one function on a corpus, that means all the files in the corpus
     //the funciton can run on
     public Report runCorpusFunction(Corpus c, CorpusFunction cf) {
@@ -812,7 +882,7 @@ public class CorpusMagician {
     //run one function on a corpus, that means all the files in the corpus
     //the funciton can run on
     public Report runCorpusFunction(Corpus c, CorpusFunction cf, boolean fix) {
-        return cf.execute(c,fix);
+        return createRunner().run(c, cf, fix);
     }
 
     //run one function on a corpus, that means all the files in the corpus
@@ -824,32 +894,11 @@ public class CorpusMagician {
     //run one function on a corpus, that means all the files in the corpus
     //the funciton can run on
     public Report runCorpusFunction(Collection<CorpusData> cdc, CorpusFunction cf, boolean fix) {
-        Report report = new Report();
         //find out on which objects this corpus function can run
         //choose those from the corpus
-        //and run the checks on those files recursively
-        Collection<Class<? extends CorpusData>> usableTypes = cf.getIsUsableFor();
-        //if the corpus files are an instance
-        //of the class cl, run the function
-//        for (CorpusData cd : cdc) {
-//            if (usableTypes.contains(cd.getClass())) {
-//                Report newReport = runCorpusFunction(cd, cf, fix);
-//                report.merge(newReport);
-//            }
-//        }
-        // Create a deep copy of the corpus documents
-        Collection<Object> tmpCdc = cdc.stream().map((cd) -> cd.clone()).collect(Collectors.toSet());
-        Iterator<Object> it = tmpCdc.iterator();
-        while (it.hasNext()) {
-            CorpusData cd = (CorpusData) it.next();
-            if (usableTypes.contains(cd.getClass())) {
-                report.merge(runCorpusFunction(cd, cf, fix)) ;
-            }
-            // Remove the corpus data after running the function
-            it.remove();
-        }
-
-        return report;
+        //and run the checks on deep copies of those files, in parallel if
+        //the function allows it
+        return createRunner().run(cdc, cf, fix);
     }
 
     //run one function on a corpus, that means all the files in the corpus
@@ -911,36 +960,71 @@ public class CorpusMagician {
         return chosencorpusfunctions;
     }
 
-    public static void createReports() throws IOException, TransformerException, ParserConfigurationException, SAXException, XPathExpressionException, JDOMException {
-        System.out.println(report.getFullReports());
-        String reportOutput;
+    /**
+     * Sets the number of threads used to run thread-safe corpus functions
+     * @param n the number of threads, values below 1 mean all available processors
+     */
+    public void setThreads(int n) {
+        CorpusMagician.threads = n;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Opens streaming writers for all report locations in a format supporting it and registers them with the
+     * report, so items are written as soon as they are added
+     * @throws IOException if a report file cannot be created
+     */
+    static void openReportWriters() throws IOException {
+        if (reportWriters != null) {
+            return;
+        }
+        reportWriters = new ArrayList<>();
+        String base = basedirectory == null ? null : basedirectory.toString();
         for (URL reportlocation : reportlocations) {
-            if (reportlocation.getFile().endsWith("html")) {
-            if (iserrorsonly) {
-                //ToDo
-                //reportOutput = ReportItem.generateDataTableHTML(report.getErrorStatistics(basedirectory), report.getSummaryLines());
-                reportOutput = ReportItem.generateDataTableHTML(report.getErrorStatistics(), report.getSummaryLines());
-            } else {
-                reportOutput = ReportItem.generateDataTableHTML(report.getRawStatistics(), report.getSummaryLines());
+            ReportWriter writer = ReportWriter.create(reportlocation, base, iserrorsonly);
+            if (writer != null) {
+                reportWriters.add(writer);
+                report.addListener(writer);
             }
-           } else if (reportlocation.getFile().endsWith("csv")) {
-            if (iserrorsonly) {
-                reportOutput = ReportItem.GenerateCSV(report.getErrorStatistics(), report.getSummaryLines());
-            } else {
-            reportOutput = ReportItem.GenerateCSV(report.getRawStatistics(), report.getSummaryLines());
+        }
+    }
+
+    public static void createReports() throws IOException, TransformerException, ParserConfigurationException, SAXException, XPathExpressionException, JDOMException {
+        // Print the report bucket by bucket instead of building one string for the whole report
+        System.out.print("All reports\n");
+        for (String bucket : report.getBuckets().keySet()) {
+            System.out.print(report.getFullReport(bucket));
+        }
+        System.out.println();
+        //the streaming writers only have to be completed
+        openReportWriters();
+        String summaryLines = report.getSummaryLines();
+        for (ReportWriter writer : reportWriters) {
+            report.removeListener(writer);
+            try {
+                writer.finish(summaryLines);
             }
-            } else {
-            //reportOutput = report.getSummaryLines() + "\n" + report.getErrorReports();
-            reportOutput = report.getSummaryLines() + "\n" + report.getFullReports();
+            finally {
+                writer.close();
             }
-            String absoluteReport = reportOutput;
-            if (absoluteReport != null && basedirectory != null && absoluteReport.contains(basedirectory.toString())) {
-                absoluteReport = reportOutput.replaceAll(basedirectory.toString(), "");
+        }
+        reportWriters = null;
+        //all other formats are written as plain text
+        String base = basedirectory == null ? null : basedirectory.toString();
+        for (URL reportlocation : reportlocations) {
+            if (ReportWriter.isSupported(reportlocation)) {
+                continue;
             }
-            if (absoluteReport != null) {
-                cio.write(absoluteReport, reportlocation);
+            try (Writer out = Files.newBufferedWriter(Paths.get(reportlocation.getFile()), StandardCharsets.UTF_8)) {
+                out.write(relativise(summaryLines, base));
+                out.write("\nAll reports\n");
+                for (String bucket : report.getBuckets().keySet()) {
+                    out.write(relativise(report.getFullReport(bucket), base));
+                }
             }
-            
         }
         //create the error list file
         if (!nocurationfolder) {
@@ -980,6 +1064,10 @@ public class CorpusMagician {
         }
     }
 
+    private static String relativise(String s, String base) {
+        return base == null ? s : s.replace(base, "");
+    }
+
     public static void readCommandLineOptions() throws MalformedURLException {
         String urlstring = cmd.getOptionValue("input");
         fixing = cmd.hasOption("f");
@@ -1010,6 +1098,26 @@ public class CorpusMagician {
         if (cmd.hasOption("report-limit")) {
             Report.reportLimit = Integer.parseInt(cmd.getOptionValue("report-limit"));
         }
+        if (cmd.hasOption("threads")) {
+            threads = Integer.parseInt(cmd.getOptionValue("threads"));
+            System.out.println("Running thread-safe functions with " + new CorpusFunctionRunner(threads).getThreads() + " threads");
+        }
+        if (cmd.hasOption("incremental")) {
+            incremental = true;
+        }
+        if (cmd.hasOption("fused")) {
+            fused = true;
+        }
+        if (cmd.hasOption("schema-cache")) {
+            SchemaCache.setCacheDirectory(Paths.get(cmd.getOptionValue("schema-cache")).toAbsolutePath());
+        }
+        if (cmd.hasOption("offline")) {
+            SchemaCache.setOffline(true);
+        }
+        if (cmd.hasOption("max-memory")) {
+            cache = new CorpusDataCache(Long.parseLong(cmd.getOptionValue("max-memory")) * 1024 * 1024);
+            System.out.println("Loading files lazily using at most " + cmd.getOptionValue("max-memory") + " MB for documents");
+        }
 
         //now add the functionsstrings to array
         String[] corpusfunctionarray = cmd.getOptionValues("c");
@@ -1098,6 +1206,48 @@ public class CorpusMagician {
                 .argName("REPORT LIMIT")
                 .build();
         options.addOption(reportLimit);
+
+        Option threadsOption = Option.builder("t")
+                .longOpt("threads")
+                .hasArg()
+                .desc("Number of threads used for functions that can run in parallel (0 for all processors)")
+                .argName("THREADS")
+                .build();
+        options.addOption(threadsOption);
+
+        Option maxMemoryOption = Option.builder("m")
+                .longOpt("max-memory")
+                .hasArg()
+                .desc("Loads files only when needed and keeps at most this many megabytes of documents in memory")
+                .argName("MEGABYTES")
+                .build();
+        options.addOption(maxMemoryOption);
+
+        Option incrementalOption = Option.builder("inc")
+                .longOpt("incremental")
+                .desc("Reuses the results of checks on files that did not change since the last run (stored in the curation folder)")
+                .build();
+        options.addOption(incrementalOption);
+
+        Option fusedOption = Option.builder("fu")
+                .longOpt("fused")
+                .desc("Runs all checks that work on single files together, reading each file only once")
+                .build();
+        options.addOption(fusedOption);
+
+        Option schemaCacheOption = Option.builder("sc")
+                .longOpt("schema-cache")
+                .hasArg()
+                .desc("Directory for local copies of XML schemas, which are used instead of downloading them")
+                .argName("FOLDER")
+                .build();
+        options.addOption(schemaCacheOption);
+
+        Option offlineOption = Option.builder("off")
+                .longOpt("offline")
+                .desc("Never downloads XML schemas, only bundled schemas and the ones in the schema cache are used")
+                .build();
+        options.addOption(offlineOption);
         CommandLineParser parser = new DefaultParser();
         HelpFormatter formatter = new HelpFormatter();
         formatter.setOptionComparator(null);
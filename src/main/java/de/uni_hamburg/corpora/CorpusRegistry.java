@@ -0,0 +1,331 @@
+package de.uni_hamburg.corpora;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import org.reflections.Reflections;
+import org.reflections.util.ConfigurationBuilder;
+
+/**
+ * Registry of all corpus data types, their file extensions and all corpus functions.
+ *
+ * Scanning the class path for implementations is slow, so the registry is generated at build time by running
+ * main in the process-classes phase, which writes an index to META-INF/corpus-services in the output directory.
+ * At run time only the index is read, which is shared by all CorpusIO objects. Indexes from several jars are
+ * merged. If no index can be found, e.g. when running from an IDE without the Maven build, the class path is
+ * scanned once instead.
+ *
+ * @author Herbert Lange
+ * @version 20261017
+ */
+public class CorpusRegistry {
+
+    // The location of the indexes in the class path
+    public static final String DATA_INDEX = "META-INF/corpus-services/corpus-data";
+    public static final String FUNCTION_INDEX = "META-INF/corpus-services/corpus-functions";
+
+    // The packages containing corpus functions
+    static final String[] FUNCTION_PACKAGES = {
+        "de.uni_hamburg.corpora.conversion",
+        "de.uni_hamburg.corpora.publication",
+        "de.uni_hamburg.corpora.validation",
+        "de.uni_hamburg.corpora.validation.quest",
+        "de.uni_hamburg.corpora.visualization",
+        "de.idsmannheim.lza.conversion",
+        "de.idsmannheim.lza.publication",
+        "de.idsmannheim.lza.validation",
+    };
+
+    // The package containing the corpus data types
+    private static final String DATA_PACKAGE = "de.uni_hamburg.corpora";
+
+    private static final Logger logger = Logger.getLogger(CorpusRegistry.class.getName());
+
+    // The corpus data types with their file extensions
+    private final Map<Class<? extends CorpusData>, Collection<String>> corpusDataTypes;
+    // The corpus data types by file extension, in lower case and without the dot
+    private final Map<String, List<Class<? extends CorpusData>>> extensionTable = new HashMap<>();
+    // The corpus functions
+    private final List<Class<? extends CorpusFunction>> corpusFunctions;
+    // If the registry was read from an index
+    private final boolean indexed;
+
+    // The registry is created when it is first used
+    private static class Holder {
+        static final CorpusRegistry INSTANCE = create();
+    }
+
+    private CorpusRegistry(Map<Class<? extends CorpusData>, Collection<String>> corpusDataTypes,
+                           List<Class<? extends CorpusFunction>> corpusFunctions, boolean indexed) {
+        this.corpusDataTypes = Collections.unmodifiableMap(corpusDataTypes);
+        for (Map.Entry<Class<? extends CorpusData>, Collection<String>> e : corpusDataTypes.entrySet()) {
+            for (String extension : e.getValue()) {
+                extensionTable.computeIfAbsent(extension.toLowerCase(), (k) -> new ArrayList<>()).add(e.getKey());
+            }
+        }
+        this.corpusFunctions = Collections.unmodifiableList(corpusFunctions);
+        this.indexed = indexed;
+    }
+
+    /**
+     * Gets the process-wide registry
+     * @return the registry
+     */
+    public static CorpusRegistry getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Gets the packages containing corpus functions
+     * @return a copy of the package names
+     */
+    public static String[] getCorpusFunctionPackages() {
+        return FUNCTION_PACKAGES.clone();
+    }
+
+    /**
+     * Gets all public, non-abstract corpus data types
+     * @return the corpus data types
+     */
+    public Collection<Class<? extends CorpusData>> getCorpusDataTypes() {
+        return corpusDataTypes.keySet();
+    }
+
+    /**
+     * Gets the file extensions of a corpus data type, without the dot
+     * @param c the corpus data type
+     * @return the extensions or null if the type is not in the registry
+     */
+    public Collection<String> getFileExtensions(Class<? extends CorpusData> c) {
+        return corpusDataTypes.get(c);
+    }
+
+    /**
+     * Gets the corpus data types using a file extension
+     * @param extension the extension without the dot, in lower case
+     * @return the types, empty if the extension is unknown
+     */
+    public List<Class<? extends CorpusData>> getCorpusDataTypes(String extension) {
+        return Collections.unmodifiableList(extensionTable.getOrDefault(extension, Collections.emptyList()));
+    }
+
+    /**
+     * Checks if a file name ends in the extension of any corpus data type
+     * @param fileName the file name
+     * @return if the extension is known
+     */
+    public boolean hasKnownExtension(String fileName) {
+        return !getCorpusDataTypes(getExtension(fileName)).isEmpty();
+    }
+
+    /**
+     * Gets the extension of a file name, i.e. the part after the last dot, in lower case
+     * @param fileName the file name or path
+     * @return the extension or an empty string if there is none
+     */
+    public static String getExtension(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        if (dot < 0 || fileName.indexOf('/', dot) >= 0) {
+            return "";
+        }
+        return fileName.substring(dot + 1).toLowerCase();
+    }
+
+    /**
+     * Gets all public, non-abstract corpus functions
+     * @return the corpus functions, sorted by name
+     */
+    public List<Class<? extends CorpusFunction>> getCorpusFunctions() {
+        return corpusFunctions;
+    }
+
+    /**
+     * Checks if the registry was read from an index instead of scanning the class path
+     * @return if an index was used
+     */
+    public boolean isIndexed() {
+        return indexed;
+    }
+
+    /**
+     * Reads the registry from the indexes in the class path or scans the class path if there are none
+     */
+    private static CorpusRegistry create() {
+        try {
+            CorpusRegistry registry = load(CorpusRegistry.class.getClassLoader());
+            if (registry != null) {
+                return registry;
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Cannot read corpus registry index", e);
+        }
+        logger.info("No corpus registry index found, scanning the class path");
+        return scan();
+    }
+
+    /**
+     * Reads the registry from the indexes in the class path
+     * @param loader the class loader used to find the indexes and to load the classes
+     * @return the registry or null if there are no indexes
+     * @throws IOException if an index cannot be read
+     */
+    static CorpusRegistry load(ClassLoader loader) throws IOException {
+        List<String[]> dataLines = readIndex(loader, DATA_INDEX);
+        List<String[]> functionLines = readIndex(loader, FUNCTION_INDEX);
+        if (dataLines.isEmpty() || functionLines.isEmpty()) {
+            return null;
+        }
+        Map<Class<? extends CorpusData>, Collection<String>> corpusDataTypes = new LinkedHashMap<>();
+        for (String[] line : dataLines) {
+            Class<? extends CorpusData> c = loadClass(loader, line[0], CorpusData.class);
+            if (c != null) {
+                corpusDataTypes.putIfAbsent(c, List.of(line).subList(1, line.length));
+            }
+        }
+        Set<Class<? extends CorpusFunction>> corpusFunctions = new LinkedHashSet<>();
+        for (String[] line : functionLines) {
+            Class<? extends CorpusFunction> c = loadClass(loader, line[0], CorpusFunction.class);
+            if (c != null) {
+                corpusFunctions.add(c);
+            }
+        }
+        return new CorpusRegistry(corpusDataTypes, sortByName(corpusFunctions), true);
+    }
+
+    /**
+     * Scans the class path for corpus data types and corpus functions
+     * @return the registry
+     */
+    static CorpusRegistry scan() {
+        String[] packages = new String[FUNCTION_PACKAGES.length + 1];
+        packages[0] = DATA_PACKAGE;
+        System.arraycopy(FUNCTION_PACKAGES, 0, packages, 1, FUNCTION_PACKAGES.length);
+        Reflections reflections = new Reflections(new ConfigurationBuilder().forPackages(packages));
+        Map<Class<? extends CorpusData>, Collection<String>> corpusDataTypes = new LinkedHashMap<>();
+        for (Class<? extends CorpusData> c : sortByName(reflections.getSubTypesOf(CorpusData.class))) {
+            if (isInstantiable(c)) {
+                corpusDataTypes.put(c, createFileExtensions(c));
+            }
+        }
+        List<Class<? extends CorpusFunction>> corpusFunctions = sortByName(
+                reflections.getSubTypesOf(CorpusFunction.class).stream().filter(CorpusRegistry::isInstantiable)
+                        .collect(Collectors.toList()));
+        return new CorpusRegistry(corpusDataTypes, corpusFunctions, false);
+    }
+
+    /**
+     * Writes the indexes for the registry
+     * @param outputDirectory the root of the class path, e.g. target/classes
+     * @throws IOException if the indexes cannot be written
+     */
+    public void writeIndex(Path outputDirectory) throws IOException {
+        Path dataIndex = outputDirectory.resolve(DATA_INDEX);
+        Files.createDirectories(dataIndex.getParent());
+        try (Writer out = Files.newBufferedWriter(dataIndex, StandardCharsets.UTF_8)) {
+            out.write("# Corpus data types and their file extensions, generated by " + getClass().getName() + "\n");
+            for (Map.Entry<Class<? extends CorpusData>, Collection<String>> e : corpusDataTypes.entrySet()) {
+                out.write(e.getKey().getName());
+                for (String extension : e.getValue()) {
+                    out.write(" " + extension);
+                }
+                out.write("\n");
+            }
+        }
+        try (Writer out = Files.newBufferedWriter(outputDirectory.resolve(FUNCTION_INDEX), StandardCharsets.UTF_8)) {
+            out.write("# Corpus functions, generated by " + getClass().getName() + "\n");
+            for (Class<? extends CorpusFunction> c : corpusFunctions) {
+                out.write(c.getName() + "\n");
+            }
+        }
+    }
+
+    /**
+     * Reads the lines from all copies of an index in the class path
+     */
+    private static List<String[]> readIndex(ClassLoader loader, String name) throws IOException {
+        List<String[]> lines = new ArrayList<>();
+        Enumeration<URL> urls = loader.getResources(name);
+        while (urls.hasMoreElements()) {
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(urls.nextElement().openStream(),
+                    StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    int comment = line.indexOf('#');
+                    if (comment >= 0) {
+                        line = line.substring(0, comment);
+                    }
+                    line = line.trim();
+                    if (!line.isEmpty()) {
+                        lines.add(line.split("\\s+"));
+                    }
+                }
+            }
+        }
+        return lines;
+    }
+
+    private static <T> Class<? extends T> loadClass(ClassLoader loader, String name, Class<T> type) {
+        try {
+            return Class.forName(name, false, loader).asSubclass(type);
+        } catch (ClassNotFoundException | ClassCastException | LinkageError e) {
+            logger.log(Level.WARNING, "Skipping " + name + " from corpus registry index", e);
+            return null;
+        }
+    }
+
+    private static boolean isInstantiable(Class<?> c) {
+        return Modifier.isPublic(c.getModifiers()) && !Modifier.isAbstract(c.getModifiers());
+    }
+
+    private static Collection<String> createFileExtensions(Class<? extends CorpusData> c) {
+        try {
+            return Collections.unmodifiableList(new ArrayList<>(
+                    c.getDeclaredConstructor().newInstance().getFileExtensions()));
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException | InstantiationException e) {
+            return Collections.emptyList();
+        }
+    }
+
+    private static <T> List<Class<? extends T>> sortByName(Collection<Class<? extends T>> classes) {
+        List<Class<? extends T>> sorted = new ArrayList<>(classes);
+        sorted.sort(Comparator.comparing(Class::getName));
+        return sorted;
+    }
+
+    /**
+     * Generates the registry indexes at build time
+     * @param args the output directory, i.e. the root of the class path
+     * @throws IOException if the indexes cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            throw new IllegalArgumentException("Usage: CorpusRegistry OUTPUT_DIRECTORY");
+        }
+        CorpusRegistry registry = scan();
+        registry.writeIndex(Paths.get(args[0]));
+        System.out.println("Indexed " + registry.getCorpusDataTypes().size() + " corpus data types and "
+                + registry.getCorpusFunctions().size() + " corpus functions");
+    }
+}
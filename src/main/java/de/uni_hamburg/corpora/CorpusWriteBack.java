@@ -0,0 +1,349 @@
+package de.uni_hamburg.corpora;
+
+import de.uni_hamburg.corpora.utilities.CorpusFileIndex;
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Collects the changes fixing functions make to corpus files and writes them back at the end of the run.
+ *
+ * While a write-back is active, CorpusIO does not replace existing files immediately but writes their new content
+ * to a temporary file next to the file, and only the location of the temporary file is kept in memory. Several
+ * fixes of the same file therefore result in a single replacement, and files whose new content is the same as on
+ * disk are not replaced at all. Corpus data read or cloned during the run sees the pending content (see
+ * CorpusDataSnapshot), only code reading the files directly from disk sees the old content until the write-back
+ * is finished.
+ *
+ * All files are written to a temporary file next to the target first, which then replaces the target, so a
+ * crash never leaves truncated files behind: either the old or the new content is on disk. Temporary files left
+ * behind by a crash are removed when the next write-back begins.
+ *
+ * @author Herbert Lange
+ * @version 20261017
+ */
+public class CorpusWriteBack {
+
+    // The write-back of the current run, null if files are written immediately
+    private static volatile CorpusWriteBack active = null;
+
+    // The names of the temporary files, see createTempFile
+    private static final Pattern TEMP_FILE = Pattern.compile("\\..+\\.[0-9a-z]+\\.tmp");
+
+    // The temporary file containing the latest content of each modified file
+    private final Map<Path, Path> pending = new ConcurrentHashMap<>();
+
+    // The number of files written and skipped when finishing
+    private int written = 0;
+    private int unchanged = 0;
+
+    private CorpusWriteBack() {
+    }
+
+    /**
+     * Starts collecting changes to corpus files
+     * @return the active write-back
+     */
+    public static synchronized CorpusWriteBack begin() {
+        if (active == null) {
+            active = new CorpusWriteBack();
+        }
+        return active;
+    }
+
+    /**
+     * Starts collecting changes to corpus files, removing the temporary files of earlier write-backs which did not
+     * finish
+     * @param directory the corpus directory to clean up
+     * @return the active write-back
+     * @throws IOException if the directory cannot be cleaned up
+     */
+    public static synchronized CorpusWriteBack begin(Path directory) throws IOException {
+        if (active == null && Files.isDirectory(directory)) {
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    if (TEMP_FILE.matcher(file.getFileName().toString()).matches() && Files.isRegularFile(file)) {
+                        Files.deleteIfExists(file);
+                    }
+                }
+            }
+        }
+        return begin();
+    }
+
+    /**
+     * Gets the active write-back
+     * @return the write-back or null if files are written immediately
+     */
+    public static CorpusWriteBack getActive() {
+        return active;
+    }
+
+    /**
+     * Reads the content of a file which has not been written yet
+     * @param path the file
+     * @return the pending content or null if there are no pending changes
+     * @throws IOException if the pending content cannot be read
+     */
+    public static byte[] readPendingContent(Path path) throws IOException {
+        CorpusWriteBack current = active;
+        if (current == null) {
+            return null;
+        }
+        Path target = normalize(path);
+        while (true) {
+            Path tmp = current.pending.get(target);
+            if (tmp == null) {
+                return null;
+            }
+            try {
+                return Files.readAllBytes(tmp);
+            }
+            catch (NoSuchFileException e) {
+                // Replaced by newer content or moved to the target in the meantime, so look again
+                if (current.pending.get(target) == tmp) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the new content of a file to a temporary file which replaces the file when the write-back is
+     * finished. Only changes to existing files are kept, new files are expected to be read by other tools and
+     * have to be written immediately
+     * @param path the file
+     * @param content the new content
+     * @return true if the content is kept, false if the file has to be written immediately
+     * @throws IOException if the temporary file cannot be written
+     */
+    public boolean stage(Path path, String content) throws IOException {
+        Path target = normalize(path);
+        if (!Files.isRegularFile(target)) {
+            return false;
+        }
+        Path tmp = writeTempFile(target, content, false);
+        Path old = pending.put(target, tmp);
+        if (old != null) {
+            Files.deleteIfExists(old);
+        }
+        // Clones have to see the new content
+        CorpusDataSnapshot.invalidate(target);
+        return true;
+    }
+
+    /**
+     * Writes all pending changes and stops collecting changes
+     * @return the problems when writing the files, by file
+     */
+    public Map<Path, IOException> finish() {
+        synchronized (CorpusWriteBack.class) {
+            if (active == this) {
+                active = null;
+            }
+        }
+        Map<Path, IOException> errors = new TreeMap<>();
+        for (Map.Entry<Path, Path> e : new TreeMap<>(pending).entrySet()) {
+            Path target = e.getKey();
+            Path tmp = e.getValue();
+            try {
+                if (Files.isRegularFile(target) && Files.mismatch(target, tmp) == -1) {
+                    unchanged++;
+                }
+                else {
+                    replace(tmp, target);
+                    written++;
+                    CorpusDataSnapshot.invalidate(target);
+                }
+            }
+            catch (IOException ex) {
+                errors.put(target, ex);
+            }
+            finally {
+                pending.remove(target, tmp);
+                try {
+                    Files.deleteIfExists(tmp);
+                }
+                catch (IOException ex) {
+                    errors.putIfAbsent(target, ex);
+                }
+            }
+        }
+        return errors;
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    public int getWritten() {
+        return written;
+    }
+
+    public int getUnchanged() {
+        return unchanged;
+    }
+
+    /**
+     * Writes a file atomically, unless it already has the content. The content is encoded as UTF-8 while
+     * writing it to a temporary file next to the target, which then replaces the target
+     * @param path the file
+     * @param content the new content
+     * @return true if the file was written, false if it already had the content
+     * @throws IOException if the file cannot be written
+     */
+    public static boolean writeFile(Path path, String content) throws IOException {
+        Path target = normalize(path);
+        boolean created = !Files.exists(target);
+        if (!created && hasContent(target, content)) {
+            return false;
+        }
+        Path tmp = writeTempFile(target, content, created);
+        try {
+            replace(tmp, target);
+        }
+        finally {
+            Files.deleteIfExists(tmp);
+        }
+        CorpusDataSnapshot.invalidate(target);
+        if (created) {
+            // New files are missing from the file index
+            CorpusFileIndex.invalidate(target);
+        }
+        return true;
+    }
+
+    /**
+     * Checks if a file has a content by encoding the content and comparing it to the file chunk by chunk
+     * @param file the file
+     * @param content the content
+     * @return true if the file contains exactly the content encoded as UTF-8
+     * @throws IOException if the file cannot be read
+     */
+    static boolean hasContent(Path file, String content) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return false;
+        }
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            // The same encoder as used when writing the file
+            try (Writer writer = new OutputStreamWriter(new ComparingOutputStream(in), StandardCharsets.UTF_8)) {
+                writer.write(content);
+            }
+            catch (ContentDiffersException e) {
+                return false;
+            }
+            return in.read() == -1;
+        }
+    }
+
+    /**
+     * Writes the content encoded as UTF-8 to a temporary file next to the target, with the permissions of the
+     * target
+     * @param target the file the content is meant for
+     * @param content the content
+     * @param created if the target does not exist yet
+     * @return the temporary file
+     * @throws IOException if the temporary file cannot be written
+     */
+    private static Path writeTempFile(Path target, String content, boolean created) throws IOException {
+        Path tmp = createTempFile(target);
+        try {
+            if (!created) {
+                try {
+                    Files.setPosixFilePermissions(tmp, Files.getPosixFilePermissions(target));
+                }
+                catch (UnsupportedOperationException e) {
+                    // Permissions are left as they are on other file systems
+                }
+            }
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(tmp),
+                    StandardCharsets.UTF_8))) {
+                writer.write(content);
+            }
+            return tmp;
+        }
+        catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+    }
+
+    // Replaces the target by the temporary file, atomically if the file system supports it
+    private static void replace(Path tmp, Path target) throws IOException {
+        try {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static Path createTempFile(Path target) throws IOException {
+        // Created without explicit permissions so new files get the same permissions as other new files
+        while (true) {
+            Path tmp = target.resolveSibling("." + target.getFileName() + "."
+                    + Long.toUnsignedString(ThreadLocalRandom.current().nextLong(), 36) + ".tmp");
+            try {
+                return Files.createFile(tmp);
+            }
+            catch (FileAlreadyExistsException e) {
+                // Try another name
+            }
+        }
+    }
+
+    private static Path normalize(Path path) {
+        return path.toAbsolutePath().normalize();
+    }
+
+    /**
+     * Signals the first difference between the file and the content
+     */
+    private static class ContentDiffersException extends IOException {
+    }
+
+    /**
+     * Compares all bytes written to the next bytes of a stream
+     */
+    private static class ComparingOutputStream extends OutputStream {
+
+        private final InputStream expected;
+
+        ComparingOutputStream(InputStream expected) {
+            this.expected = expected;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (expected.read() != (b & 0xff)) {
+                throw new ContentDiffersException();
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            byte[] actual = expected.readNBytes(len);
+            if (!Arrays.equals(actual, 0, actual.length, b, off, off + len)) {
+                throw new ContentDiffersException();
+            }
+        }
+    }
+}
@@ -10,19 +10,9 @@ package de.uni_hamburg.corpora;
 
 import de.uni_hamburg.corpora.utilities.PrettyPrinter;
 
-import java.nio.file.Files;
-import java.nio.file.Paths;
 
-import de.uni_hamburg.corpora.utilities.quest.XMLTools;
-import org.apache.commons.lang3.time.DurationFormatUtils;
-import org.jdom2.Attribute;
 import org.jdom2.Document;
 import org.jdom2.Element;
-import org.jdom2.filter.Filters;
-import org.jdom2.input.SAXBuilder;
-import org.jdom2.xpath.XPathBuilder;
-import org.jdom2.xpath.XPathFactory;
-import org.jdom2.xpath.jaxen.JaxenXPathFactory;
 import org.xml.sax.SAXException;
 import org.jdom2.JDOMException;
 import java.io.IOException;
@@ -31,6 +21,7 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.xml.parsers.ParserConfigurationException;
@@ -50,12 +41,16 @@ import org.apache.commons.io.FilenameUtils;
 public class ELANData implements CorpusData, ContentData, XMLData {
 
     URL url;
+    // Null until the document is copied from the snapshot on first use
     Document jdom = new Document();
     String originalstring;
+    // The file content shared with all clones
+    private CorpusDataSnapshot snapshot;
     URL parenturl;
     String filename;
     String filenamewithoutending;
-    private final XPathFactory xpathFactory = new JaxenXPathFactory();
+    // Built on demand and discarded when the document is replaced
+    private volatile ELANIndex index;
 
     public ELANData() {
     }
@@ -63,19 +58,26 @@ public class ELANData implements CorpusData, ContentData, XMLData {
     public ELANData(URL url) {
         try {
             this.url = url;
-            SAXBuilder builder = new SAXBuilder();
-            jdom = builder.build(url);
-            originalstring = Files.readString(Paths.get(url.toURI()));
-            URI uri = url.toURI();
-            URI parentURI = uri.getPath().endsWith("/") ? uri.resolve("..") : uri.resolve(".");
-            parenturl = parentURI.toURL();
-            filename = FilenameUtils.getName(url.getPath());
-            filenamewithoutending = FilenameUtils.getBaseName(url.getPath());
-        } catch (JDOMException | URISyntaxException | IOException ex) {
+            load(CorpusDataSnapshot.read(url));
+        } catch (URISyntaxException | IOException ex) {
             Logger.getLogger(ELANData.class.getName()).log(Level.SEVERE, null, ex);
         }
     }
 
+    /**
+     * Takes the content from a snapshot. The document is only copied from the snapshot when it is first used
+     */
+    private void load(CorpusDataSnapshot s) throws URISyntaxException, IOException {
+        snapshot = s;
+        jdom = null;
+        originalstring = s.getString();
+        URI uri = url.toURI();
+        URI parentURI = uri.getPath().endsWith("/") ? uri.resolve("..") : uri.resolve(".");
+        parenturl = parentURI.toURL();
+        filename = FilenameUtils.getName(url.getPath());
+        filenamewithoutending = FilenameUtils.getBaseName(url.getPath());
+    }
+
 
     //I just use the hzsk-corpus-services\src\main\java\de\ uni_hamburg\corpora\
     //utilities\PrettyPrinter.java here to pretty print the files, so they
@@ -97,6 +99,10 @@ public class ELANData implements CorpusData, ContentData, XMLData {
     }
 
     public Document getReadbtasjdom() {
+        if (jdom == null) {
+            Document doc = snapshot == null ? null : snapshot.getDocument(ELANData.class);
+            jdom = doc == null ? new Document() : doc;
+        }
         return jdom;
     }
 
@@ -127,6 +133,7 @@ public class ELANData implements CorpusData, ContentData, XMLData {
     @Override
     public void setJdom(Document doc) {
         jdom = doc;
+        index = null;
     }
 
     public void setReadbtasjdom(Document doc) {
@@ -150,9 +157,44 @@ public class ELANData implements CorpusData, ContentData, XMLData {
 
     @Override
     public Object clone() {
+        if (snapshot != null && snapshot.isCurrent()) {
+            try {
+                ELANData copy = new ELANData();
+                copy.url = url;
+                copy.load(snapshot);
+                return copy;
+            } catch (URISyntaxException | IOException ex) {
+                Logger.getLogger(ELANData.class.getName()).log(Level.SEVERE, null, ex);
+            }
+        }
         return new ELANData(this.url);
     }
 
+    /**
+     * Gets the index of the document, building it on first use
+     * @return the index
+     */
+    public ELANIndex getIndex() {
+        ELANIndex current = index;
+        if (current == null) {
+            synchronized (this) {
+                current = index;
+                if (current == null) {
+                    current = new ELANIndex(getJdom());
+                    index = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Discards the index, has to be called after the document has been modified in place
+     */
+    public void invalidateIndex() {
+        index = null;
+    }
+
     /**
      * Gives the location of a text token in a corpus document
      * @param token the token to be looked up
@@ -163,52 +205,12 @@ public class ELANData implements CorpusData, ContentData, XMLData {
         if (token == null || token.isEmpty())
             return new Location("unknown", "");
         String normalizedToken = token.replaceAll("\"", "'");
-        Element tier =
-                new XPathBuilder<>( String.format("/ANNOTATION_DOCUMENT/TIER[contains(string(.),\"%s\")]",
-                        normalizedToken), Filters.element()).compileWith(xpathFactory).evaluateFirst(getJdom());
-        if (tier != null) {
-            Attribute tier_id = tier.getAttribute("TIER_ID");
-            assert tier_id != null : "Tier id is null";
-            Element annotation_segment = null ;
-            for (Element e : tier.getChildren()) {
-                for (Element ee : e.getChildren()) {
-                    if (XMLTools.showAllText(e).contains(normalizedToken)) {
-                        annotation_segment = ee;
-                        break;
-                    }
-                }
-            }
-            assert annotation_segment != null : "Annotation segment is null";
-            String annotation_id = annotation_segment.getAttributeValue("ANNOTATION_ID");
-            if (!annotation_segment.getName().equals("ALIGNABLE_ANNOTATION")) {
-                // do nothing
-                if (annotation_segment.getName().equals("REF_ANNOTATION")) {
-                    // Resolve reference first
-                    annotation_segment =
-                            new XPathBuilder<>(String.format("//ALIGNABLE_ANNOTATION[@ANNOTATION_ID=\"%s\"]",
-                                    annotation_segment.getAttributeValue("ANNOTATION_REF")), Filters.element()).compileWith(xpathFactory).evaluateFirst(tier);
-                    assert annotation_segment != null : "Annotation segment is null after resolving reference";
-                } else {
-                    return new Location("Tier:" + tier_id.getValue(),
-                            "Segment:" + annotation_segment.getAttributeValue("ANNOTATION_ID="));
-                }
+        ELANIndex elanIndex = getIndex();
+        for (String tierId : elanIndex.getTierIds()) {
+            List<Element> annotations = elanIndex.findAnnotations(tierId, normalizedToken);
+            if (!annotations.isEmpty()) {
+                return elanIndex.getLocation(annotations.get(0));
             }
-            Attribute start_ref = annotation_segment.getAttribute("TIME_SLOT_REF1");
-            Attribute end_ref = annotation_segment.getAttribute("TIME_SLOT_REF2");
-            assert start_ref != null : "Start ref is null";
-            assert end_ref != null : "End ref is null";
-            Attribute start_time =
-                    new XPathBuilder<>( String.format("//TIME_SLOT[@TIME_SLOT_ID=\"%s\"]/@TIME_VALUE",
-                            start_ref.getValue()), Filters.attribute()).compileWith(xpathFactory).evaluateFirst(getJdom());
-            assert start_time != null : "Start time is null";
-            Attribute end_time =
-                    new XPathBuilder<>( String.format("//TIME_SLOT[@TIME_SLOT_ID=\"%s\"]/@TIME_VALUE",
-                            end_ref.getValue()), Filters.attribute()).compileWith(xpathFactory).evaluateFirst(getJdom());
-            assert end_time != null : "End time is null";
-            return new Location("Tier:" + tier_id.getValue(),
-                    "Segment:" + annotation_id + ", Time:" +
-                            DurationFormatUtils.formatDuration(start_time.getIntValue(), "mm:ss.SSSS") + "-" +
-                            DurationFormatUtils.formatDuration(end_time.getIntValue(), "mm:ss.SSSS"));
         }
         // Return unkown location if tier is not found
         return new Location("unknown", "");
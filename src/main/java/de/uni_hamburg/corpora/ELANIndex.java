@@ -0,0 +1,267 @@
+package de.uni_hamburg.corpora;
+
+import de.uni_hamburg.corpora.utilities.quest.XMLTools;
+import org.apache.commons.lang3.time.DurationFormatUtils;
+import org.jdom2.Document;
+import org.jdom2.Element;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index over an ELAN document to look up tiers, annotations and time slots without searching the whole
+ * document. The index is built in a single pass and reflects the document at that point, i.e. it has to be
+ * rebuilt if the document is modified. Once built it is read-only and can be shared between threads.
+ *
+ * @author Herbert Lange
+ * @version 20261017
+ */
+public class ELANIndex {
+
+    // All tiers in document order
+    private final List<Element> tierList = new ArrayList<>();
+    // Tier ids to tiers, in document order
+    private final Map<String, Element> tiers = new LinkedHashMap<>();
+    // Linguistic type ids to linguistic types
+    private final Map<String, Element> linguisticTypes = new HashMap<>();
+    // Annotation ids to the ALIGNABLE_ANNOTATION or REF_ANNOTATION elements
+    private final Map<String, Element> annotations = new HashMap<>();
+    // Annotation ids to the ids of the tiers containing them
+    private final Map<String, String> annotationTiers = new HashMap<>();
+    // Annotation ids to the annotations they are aligned by, i.e. the end of the chain of references
+    private final Map<String, Element> alignableAnnotations = new HashMap<>();
+    // Time slot ids to times in milliseconds, time slots without a time value are missing
+    private final Map<String, Long> timeSlots = new HashMap<>();
+    // Tier ids to the annotations in the tier, in document order
+    private final Map<String, List<Element>> tierAnnotations = new HashMap<>();
+    // Tier ids to the annotation values in the tier, in the same order as the annotations
+    private final Map<String, List<String>> tierValues = new HashMap<>();
+
+    /**
+     * Builds the index for an ELAN document
+     * @param doc the document
+     */
+    public ELANIndex(Document doc) {
+        if (doc == null || !doc.hasRootElement()) {
+            return;
+        }
+        Element root = doc.getRootElement();
+        for (Element timeOrder : root.getChildren("TIME_ORDER")) {
+            for (Element timeSlot : timeOrder.getChildren("TIME_SLOT")) {
+                String value = timeSlot.getAttributeValue("TIME_VALUE");
+                if (value != null) {
+                    try {
+                        timeSlots.put(timeSlot.getAttributeValue("TIME_SLOT_ID"), Long.parseLong(value.trim()));
+                    }
+                    catch (NumberFormatException e) {
+                        // Treated like a missing time value
+                    }
+                }
+            }
+        }
+        for (Element linguisticType : root.getChildren("LINGUISTIC_TYPE")) {
+            linguisticTypes.putIfAbsent(linguisticType.getAttributeValue("LINGUISTIC_TYPE_ID"), linguisticType);
+        }
+        for (Element tier : root.getChildren("TIER")) {
+            String tierId = tier.getAttributeValue("TIER_ID");
+            tierList.add(tier);
+            tiers.putIfAbsent(tierId, tier);
+            List<Element> tierAnnotationList = tierAnnotations.computeIfAbsent(tierId, (k) -> new ArrayList<>());
+            List<String> tierValueList = tierValues.computeIfAbsent(tierId, (k) -> new ArrayList<>());
+            for (Element annotationWrapper : tier.getChildren("ANNOTATION")) {
+                for (Element annotation : annotationWrapper.getChildren()) {
+                    String id = annotation.getAttributeValue("ANNOTATION_ID");
+                    if (id != null) {
+                        annotations.put(id, annotation);
+                        annotationTiers.put(id, tierId);
+                    }
+                    String value = XMLTools.showAllText(annotation);
+                    tierAnnotationList.add(annotation);
+                    tierValueList.add(value);
+                }
+            }
+        }
+        for (String id : annotations.keySet()) {
+            resolveAlignable(id);
+        }
+    }
+
+    /**
+     * Follows the chain of references of an annotation, remembering the result for all annotations on the way
+     * @param id the annotation id
+     * @return the alignable annotation or null if the chain is broken or circular
+     */
+    private Element resolveAlignable(String id) {
+        List<String> chain = new ArrayList<>();
+        Set<String> visited = new HashSet<>();
+        Element result = null;
+        String current = id;
+        while (current != null && visited.add(current)) {
+            if (alignableAnnotations.containsKey(current)) {
+                result = alignableAnnotations.get(current);
+                break;
+            }
+            Element annotation = annotations.get(current);
+            if (annotation == null) {
+                break;
+            }
+            chain.add(current);
+            if (annotation.getName().equals("ALIGNABLE_ANNOTATION")) {
+                result = annotation;
+                break;
+            }
+            current = annotation.getAttributeValue("ANNOTATION_REF");
+        }
+        for (String annotationId : chain) {
+            alignableAnnotations.put(annotationId, result);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the ids of all tiers
+     * @return the tier ids in document order
+     */
+    public Collection<String> getTierIds() {
+        return Collections.unmodifiableSet(tiers.keySet());
+    }
+
+    /**
+     * Gets all tiers, including tiers with duplicate or missing ids
+     * @return the tier elements in document order
+     */
+    public List<Element> getTiers() {
+        return Collections.unmodifiableList(tierList);
+    }
+
+    /**
+     * Gets a tier by its id
+     * @param tierId the tier id
+     * @return the tier element or null if there is no such tier
+     */
+    public Element getTier(String tierId) {
+        return tiers.get(tierId);
+    }
+
+    /**
+     * Gets a linguistic type by its id
+     * @param typeId the linguistic type id
+     * @return the linguistic type element or null if there is no such type
+     */
+    public Element getLinguisticType(String typeId) {
+        return linguisticTypes.get(typeId);
+    }
+
+    /**
+     * Gets an annotation by its id
+     * @param annotationId the annotation id
+     * @return the ALIGNABLE_ANNOTATION or REF_ANNOTATION element or null if there is no such annotation
+     */
+    public Element getAnnotation(String annotationId) {
+        return annotations.get(annotationId);
+    }
+
+    /**
+     * Gets the id of the tier containing an annotation
+     * @param annotationId the annotation id
+     * @return the tier id or null if there is no such annotation
+     */
+    public String getTierId(String annotationId) {
+        return annotationTiers.get(annotationId);
+    }
+
+    /**
+     * Gets the annotation an annotation is aligned by, resolving chains of references
+     * @param annotationId the annotation id
+     * @return the ALIGNABLE_ANNOTATION element, the annotation itself if it is alignable, or null if the
+     * reference cannot be resolved
+     */
+    public Element getAlignableAnnotation(String annotationId) {
+        return alignableAnnotations.get(annotationId);
+    }
+
+    /**
+     * Gets the time of a time slot
+     * @param timeSlotId the time slot id
+     * @return the time in milliseconds or null if the time slot does not exist or is not aligned
+     */
+    public Long getTime(String timeSlotId) {
+        return timeSlots.get(timeSlotId);
+    }
+
+    /**
+     * Gets all annotations in a tier
+     * @param tierId the tier id
+     * @return the ALIGNABLE_ANNOTATION and REF_ANNOTATION elements in document order
+     */
+    public List<Element> getAnnotations(String tierId) {
+        return Collections.unmodifiableList(tierAnnotations.getOrDefault(tierId, Collections.emptyList()));
+    }
+
+    /**
+     * Gets the values of all annotations in a tier
+     * @param tierId the tier id
+     * @return the annotation values in document order
+     */
+    public List<String> getAnnotationValues(String tierId) {
+        return Collections.unmodifiableList(tierValues.getOrDefault(tierId, Collections.emptyList()));
+    }
+
+    /**
+     * Finds the annotations in a tier containing a token anywhere in their value, also as part of a longer
+     * word. This is a linear scan over the annotation values kept for the tier, there is no index from tokens
+     * to annotations, but the text does not have to be extracted from the document again
+     * @param tierId the tier id
+     * @param token the token
+     * @return the matching annotations in document order
+     */
+    public List<Element> findAnnotations(String tierId, String token) {
+        if (token == null || token.isEmpty() || !tierValues.containsKey(tierId)) {
+            return Collections.emptyList();
+        }
+        List<Element> matches = new ArrayList<>();
+        List<Element> tierAnnotationList = tierAnnotations.get(tierId);
+        List<String> tierValueList = tierValues.get(tierId);
+        for (int i = 0; i < tierValueList.size(); i++) {
+            if (tierValueList.get(i).contains(token)) {
+                matches.add(tierAnnotationList.get(i));
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Gives the detailed location of an annotation, i.e. tier, segment and time if the annotation is aligned
+     * @param annotation the ALIGNABLE_ANNOTATION or REF_ANNOTATION element
+     * @return the location
+     */
+    public CorpusData.Location getLocation(Element annotation) {
+        String annotationId = annotation.getAttributeValue("ANNOTATION_ID");
+        String tierId = annotationTiers.get(annotationId);
+        if (tierId == null && annotation.getParentElement() != null
+                && annotation.getParentElement().getParentElement() != null) {
+            tierId = annotation.getParentElement().getParentElement().getAttributeValue("TIER_ID");
+        }
+        Element alignable = alignableAnnotations.get(annotationId);
+        Long start = null;
+        Long end = null;
+        if (alignable != null) {
+            start = timeSlots.get(alignable.getAttributeValue("TIME_SLOT_REF1"));
+            end = timeSlots.get(alignable.getAttributeValue("TIME_SLOT_REF2"));
+        }
+        if (start == null || end == null) {
+            return new CorpusData.Location("Tier:" + tierId, "Segment:" + annotationId);
+        }
+        return new CorpusData.Location("Tier:" + tierId,
+                "Segment:" + annotationId + ", Time:" +
+                        DurationFormatUtils.formatDuration(start, "mm:ss.SSSS") + "-" +
+                        DurationFormatUtils.formatDuration(end, "mm:ss.SSSS"));
+    }
+}
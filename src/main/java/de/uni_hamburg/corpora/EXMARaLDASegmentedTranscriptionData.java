@@ -10,8 +10,6 @@ import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -25,7 +23,6 @@ import org.jdom2.Document;
 import org.jdom2.Element;
 import org.jdom2.JDOMException;
 import org.jdom2.filter.Filters;
-import org.jdom2.input.SAXBuilder;
 import org.jdom2.xpath.XPathBuilder;
 import org.jdom2.xpath.XPathExpression;
 import org.jdom2.xpath.jaxen.JaxenXPathFactory;
@@ -44,6 +41,8 @@ public class EXMARaLDASegmentedTranscriptionData implements CorpusData, ContentD
     Document jdom;
     URL url;
     String originalstring;
+    // The file content shared with all clones, the document is copied on first use
+    private CorpusDataSnapshot snapshot;
     URL parenturl;
     String filename;
     String filenamewithoutending;
@@ -56,19 +55,26 @@ public class EXMARaLDASegmentedTranscriptionData implements CorpusData, ContentD
     public EXMARaLDASegmentedTranscriptionData(URL url) {
         try {
             this.url = url;
-            SAXBuilder builder = new SAXBuilder();
-            jdom = builder.build(url);
-            originalstring = Files.readString(Paths.get(url.toURI()));
-            URI uri = url.toURI();
-            URI parentURI = uri.getPath().endsWith("/") ? uri.resolve("..") : uri.resolve(".");
-            parenturl = parentURI.toURL();
-            filename = FilenameUtils.getName(url.getPath());
-            filenamewithoutending = FilenameUtils.getBaseName(url.getPath());
-        } catch (JDOMException | IOException | URISyntaxException ex) {
+            load(CorpusDataSnapshot.read(url));
+        } catch (IOException | URISyntaxException ex) {
             Logger.getLogger(EXMARaLDASegmentedTranscriptionData.class.getName()).log(Level.SEVERE, null, ex);
         }
     }
 
+    /**
+     * Takes the content from a snapshot. The document is only copied from the snapshot when it is first used
+     */
+    private void load(CorpusDataSnapshot s) throws URISyntaxException, IOException {
+        snapshot = s;
+        jdom = null;
+        originalstring = s.getString();
+        URI uri = url.toURI();
+        URI parentURI = uri.getPath().endsWith("/") ? uri.resolve("..") : uri.resolve(".");
+        parenturl = parentURI.toURL();
+        filename = FilenameUtils.getName(url.getPath());
+        filenamewithoutending = FilenameUtils.getBaseName(url.getPath());
+    }
+
     @Override
     public URL getURL() {
         return url;
@@ -102,6 +108,9 @@ public class EXMARaLDASegmentedTranscriptionData implements CorpusData, ContentD
 
     @Override
     public Document getJdom() {
+        if (jdom == null && snapshot != null) {
+            jdom = snapshot.getDocument(EXMARaLDASegmentedTranscriptionData.class);
+        }
         return jdom;
     }
 
@@ -128,12 +137,22 @@ public class EXMARaLDASegmentedTranscriptionData implements CorpusData, ContentD
     public List<Element> getSegmentCounts() {
         XPathExpression<Element> context = new XPathBuilder<>( "/segmented-transcription/head/meta-information/ud-meta-information/ud-information[starts-with(@attribute-name,'#')]",
                 Filters.element()).compileWith(new JaxenXPathFactory());
-        segmentCounts = context.evaluate(jdom);
+        segmentCounts = context.evaluate(getJdom());
         return segmentCounts;
     }
 
     @Override
     public Object clone() {
+        if (snapshot != null && snapshot.isCurrent()) {
+            try {
+                EXMARaLDASegmentedTranscriptionData copy = new EXMARaLDASegmentedTranscriptionData();
+                copy.url = url;
+                copy.load(snapshot);
+                return copy;
+            } catch (IOException | URISyntaxException ex) {
+                Logger.getLogger(EXMARaLDASegmentedTranscriptionData.class.getName()).log(Level.SEVERE, null, ex);
+            }
+        }
         return new EXMARaLDASegmentedTranscriptionData(this.url);
     }
 
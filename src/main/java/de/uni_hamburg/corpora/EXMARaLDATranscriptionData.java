@@ -12,11 +12,12 @@ import de.uni_hamburg.corpora.utilities.PrettyPrinter;
 import org.exmaralda.partitureditor.jexmaralda.BasicTranscription;
 import java.io.File;
 import java.io.PrintWriter;
-import java.nio.charset.StandardCharsets;
+import java.io.StringReader;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import org.jdom2.Document;
 import org.jdom2.input.SAXBuilder;
+import org.jdom2.output.XMLOutputter;
 import org.xml.sax.SAXException;
 import org.jdom2.JDOMException;
 import java.io.IOException;
@@ -39,9 +40,15 @@ import org.exmaralda.partitureditor.jexmaralda.JexmaraldaException;
  * written HZSK corpus services. Naming might change, depending on what it ends
  * up being implemented as. It seems to me like a bridge now, or just aggregate.
  *
+ * The file is only read once. The string, the JDOM document and the EXMARaLDA
+ * basic transcription are different views on the same content: each view is
+ * derived lazily from the most recently updated one and cached until one of
+ * the setters replaces the content. Clones share the content read from the
+ * file, see CorpusDataSnapshot.
+ *
  * Last updated
  * @author Herbert Lange
- * @version 20241004
+ * @version 20261017
  */
 public class EXMARaLDATranscriptionData implements CorpusData, ContentData, XMLData {
 
@@ -49,6 +56,10 @@ public class EXMARaLDATranscriptionData implements CorpusData, ContentData, XMLD
     URL url ;
     Document jdom = null;
     String originalstring;
+    // True if the string has to be regenerated from the JDOM document or the basic transcription
+    private boolean stringIsStale = false;
+    // The file content shared with all clones
+    private CorpusDataSnapshot snapshot;
     URL parenturl;
     String filename;
     String filenamewithoutending;
@@ -71,17 +82,25 @@ public class EXMARaLDATranscriptionData implements CorpusData, ContentData, XMLD
             //jdom = builder.build(url);
             //File f = new File(url.toURI());
             //loadFile(f);
-            originalstring = new String(Files.readAllBytes(Paths.get(url.toURI())), StandardCharsets.UTF_8);
-            URI uri = url.toURI();
-            URI parentURI = uri.getPath().endsWith("/") ? uri.resolve("..") : uri.resolve(".");
-            parenturl = parentURI.toURL();
-            filename = FilenameUtils.getName(url.getPath());
-            filenamewithoutending = FilenameUtils.getBaseName(url.getPath());
+            load(CorpusDataSnapshot.read(url));
         } catch (IOException | URISyntaxException ex) {
             Logger.getLogger(EXMARaLDATranscriptionData.class.getName()).log(Level.SEVERE, null, ex);
         }
     }
 
+    /**
+     * Takes the content from a snapshot. The views are only derived when they are first used
+     */
+    private void load(CorpusDataSnapshot s) throws URISyntaxException, IOException {
+        snapshot = s;
+        originalstring = s.getString();
+        URI uri = url.toURI();
+        URI parentURI = uri.getPath().endsWith("/") ? uri.resolve("..") : uri.resolve(".");
+        parenturl = parentURI.toURL();
+        filename = FilenameUtils.getName(url.getPath());
+        filenamewithoutending = FilenameUtils.getBaseName(url.getPath());
+    }
+
     /**
      * loads basic transcription from file. Some versions of exmaralda this
      * emits a harmless message to stdout.
@@ -92,7 +111,7 @@ public class EXMARaLDATranscriptionData implements CorpusData, ContentData, XMLD
         org.exmaralda.partitureditor.jexmaralda.sax.BasicTranscriptionSaxReader reader = new org.exmaralda.partitureditor.jexmaralda.sax.BasicTranscriptionSaxReader();
         BasicTranscription t = new BasicTranscription();
         t = reader.readFromFile(f.getAbsolutePath());
-        bt = t;
+        setEXMARaLDAbt(t);
         url = f.toURI().toURL();
     }
 
@@ -102,7 +121,7 @@ public class EXMARaLDATranscriptionData implements CorpusData, ContentData, XMLD
     public void updateJdomDoc() throws SAXException, JexmaraldaException, JDOMException, IOException {
         String xmlString = bt.toXML();
         SAXBuilder builder = new SAXBuilder();
-        jdom = builder.build(xmlString);
+        jdom = builder.build(new StringReader(xmlString));
     }
 
     /* 
@@ -174,20 +193,40 @@ public class EXMARaLDATranscriptionData implements CorpusData, ContentData, XMLD
 
     public Document getReadbtasjdom() throws JDOMException, IOException {
         if (jdom == null) {
+            String xmlString = toUnformattedString();
             SAXBuilder builder = new SAXBuilder();
-            jdom = builder.build(url);
-        };
+            if (snapshot != null && xmlString == snapshot.getString()) {
+                // The content is still the one of the file, so the document parsed once for all clones can be copied
+                jdom = snapshot.getDocument();
+            } else if (xmlString == null) {
+                jdom = builder.build(url);
+            } else {
+                jdom = builder.build(new StringReader(xmlString), url.toString());
+            }
+        }
         return jdom;
     }
 
     @Override
     public String toUnformattedString() {
+        if (stringIsStale) {
+            if (jdom != null) {
+                originalstring = new XMLOutputter().outputString(jdom);
+            } else if (bt != null) {
+                originalstring = bt.toXML(bt.getTierFormatTable());
+            }
+            stringIsStale = false;
+        }
         return originalstring;
     }
 
     @Override
     public void updateUnformattedString(String newUnformattedString) {
         originalstring = newUnformattedString;
+        stringIsStale = false;
+        // The other views have to be derived from the new string
+        jdom = null;
+        bt = null;
     }
 
     @Override
@@ -195,23 +234,47 @@ public class EXMARaLDATranscriptionData implements CorpusData, ContentData, XMLD
         return Collections.singleton("exb");
     }
 
+    /**
+     * Gets the basic transcription for this file. The transcription is only
+     * parsed once and then shared by all callers, so changes to it have to be
+     * committed using setEXMARaLDAbt to become visible in the other views.
+     * Callers who only need a modified version for themselves should work on
+     * a copy.
+     *
+     * @return the basic transcription or null if it cannot be parsed
+     */
     public BasicTranscription getEXMARaLDAbt() {
-        try {
-            File f = new File(url.toURI());
-            loadFile(f);
-            return bt;
-        } catch (SAXException | JexmaraldaException | MalformedURLException | URISyntaxException e) {
-            System.out.println("IO Exception caught in BasicTranscriptionData");
-            return null;
+        if (bt == null) {
+            try {
+                String xmlString = toUnformattedString();
+                if (xmlString == null) {
+                    File f = new File(url.toURI());
+                    loadFile(f);
+                } else {
+                    BasicTranscription t = new BasicTranscription();
+                    t.BasicTranscriptionFromString(xmlString);
+                    bt = t;
+                }
+            } catch (SAXException | JexmaraldaException | MalformedURLException | URISyntaxException e) {
+                System.out.println("IO Exception caught in BasicTranscriptionData");
+                return null;
+            }
         }
+        return bt;
     }
 
     public void setEXMARaLDAbt(BasicTranscription btn) {
+        // Make sure we keep the current content if the new transcription is missing
+        toUnformattedString();
         bt = btn;
+        if (bt != null) {
+            jdom = null;
+            stringIsStale = true;
+        }
     }
 
     public void setOriginalString(String s) {
-        originalstring = s;
+        updateUnformattedString(s);
     }
 
     @Override
@@ -226,7 +289,13 @@ public class EXMARaLDATranscriptionData implements CorpusData, ContentData, XMLD
 
     @Override
     public void setJdom(Document doc) {
+        // Make sure we keep the current content if the new document is missing
+        toUnformattedString();
         jdom = doc;
+        if (jdom != null) {
+            bt = null;
+            stringIsStale = true;
+        }
     }
 
     public void setReadbtasjdom(Document doc) {
@@ -250,6 +319,16 @@ public class EXMARaLDATranscriptionData implements CorpusData, ContentData, XMLD
 
     @Override
     public Object clone() {
+        if (snapshot != null && snapshot.isCurrent()) {
+            try {
+                EXMARaLDATranscriptionData copy = new EXMARaLDATranscriptionData();
+                copy.url = url;
+                copy.load(snapshot);
+                return copy;
+            } catch (IOException | URISyntaxException ex) {
+                Logger.getLogger(EXMARaLDATranscriptionData.class.getName()).log(Level.SEVERE, null, ex);
+            }
+        }
         return new EXMARaLDATranscriptionData(this.url);
     }
 
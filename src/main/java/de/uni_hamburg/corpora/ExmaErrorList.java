@@ -6,9 +6,11 @@
 
 package de.uni_hamburg.corpora;
 
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -27,6 +29,12 @@ public class ExmaErrorList {
      */
     private static Map<String, Collection<ExmaErrorListItem>> statistics;
 
+    /**
+     * the errors added by the current thread while recording, together with
+     * their statistics bucket.
+     */
+    private static final ThreadLocal<List<Map.Entry<String, ExmaErrorListItem>>> recorded = new ThreadLocal<>();
+
     /**
      * Create an empty error list.
      */
@@ -67,8 +75,35 @@ public class ExmaErrorList {
      * @todo change input filename to corpusdata object
      */
     public void addError(String statId, String fileName, String tierID, String eventStart, boolean done, String description) {
-        Collection<ExmaErrorListItem> stat = getOrCreateStatistic(statId);
-        stat.add(new ExmaErrorListItem(fileName, tierID, eventStart, done, description));
+        // Errors can be added from several threads when functions are run in parallel
+        synchronized (ExmaErrorList.class) {
+            Collection<ExmaErrorListItem> stat = getOrCreateStatistic(statId);
+            ExmaErrorListItem item = new ExmaErrorListItem(fileName, tierID, eventStart, done, description);
+            stat.add(item);
+            if (recorded.get() != null) {
+                recorded.get().add(new AbstractMap.SimpleEntry<>(statId, item));
+            }
+        }
+    }
+
+    /**
+     * Starts recording the errors added by the current thread, e.g. to be able
+     * to add them again when results are reused.
+     */
+    public static void startRecording() {
+        recorded.set(new ArrayList<>());
+    }
+
+    /**
+     * Stops recording the errors added by the current thread.
+     *
+     * @return the errors added since startRecording together with their
+     * statistics bucket
+     */
+    public static List<Map.Entry<String, ExmaErrorListItem>> stopRecording() {
+        List<Map.Entry<String, ExmaErrorListItem>> items = recorded.get();
+        recorded.remove();
+        return items == null ? new ArrayList<>() : items;
     }
 
     /**
@@ -9,11 +9,7 @@ package de.uni_hamburg.corpora;
 
 import de.uni_hamburg.corpora.utilities.PrettyPrinter;
 
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 import org.jdom2.Document;
-import org.jdom2.input.SAXBuilder;
 import org.xml.sax.SAXException;
 import org.jdom2.JDOMException;
 import java.io.IOException;
@@ -45,6 +41,8 @@ public class FlextextData implements CorpusData, ContentData, XMLData {
     URL url;
     Document jdom = new Document();
     String originalstring;
+    // The file content shared with all clones, the document is copied on first use
+    private CorpusDataSnapshot snapshot;
     URL parenturl;
     String filename;
     String filenamewithoutending;
@@ -55,19 +53,26 @@ public class FlextextData implements CorpusData, ContentData, XMLData {
     public FlextextData (URL url) {
         try {
             this.url = url;
-            SAXBuilder builder = new SAXBuilder();
-            jdom = builder.build(url);
-            originalstring = new String(Files.readAllBytes(Paths.get(url.toURI())), StandardCharsets.UTF_8);
-            URI uri = url.toURI();
-            URI parentURI = uri.getPath().endsWith("/") ? uri.resolve("..") : uri.resolve(".");
-            parenturl = parentURI.toURL();
-            filename = FilenameUtils.getName(url.getPath());
-            filenamewithoutending = FilenameUtils.getBaseName(url.getPath());
-        } catch (JDOMException | IOException | URISyntaxException ex) {
+            load(CorpusDataSnapshot.read(url));
+        } catch (IOException | URISyntaxException ex) {
             Logger.getLogger(FlextextData.class.getName()).log(Level.SEVERE, null, ex);
         }
     }
 
+    /**
+     * Takes the content from a snapshot. The document is only copied from the snapshot when it is first used
+     */
+    private void load(CorpusDataSnapshot s) throws URISyntaxException, IOException {
+        snapshot = s;
+        jdom = null;
+        originalstring = s.getString();
+        URI uri = url.toURI();
+        URI parentURI = uri.getPath().endsWith("/") ? uri.resolve("..") : uri.resolve(".");
+        parenturl = parentURI.toURL();
+        filename = FilenameUtils.getName(url.getPath());
+        filenamewithoutending = FilenameUtils.getBaseName(url.getPath());
+    }
+
     private String toPrettyPrintedXML() throws TransformerException, ParserConfigurationException, SAXException, IOException, JDOMException {
         PrettyPrinter pp = new PrettyPrinter();
         //String prettyCorpusData = pp.indent(bt.toXML(bt.getTierFormatTable()), "event");
@@ -84,6 +89,10 @@ public class FlextextData implements CorpusData, ContentData, XMLData {
     }
 
     public Document getReadbtasjdom() {
+        if (jdom == null) {
+            Document doc = snapshot == null ? null : snapshot.getDocument(FlextextData.class);
+            jdom = doc == null ? new Document() : doc;
+        }
         return jdom;
     }
 
@@ -137,6 +146,16 @@ public class FlextextData implements CorpusData, ContentData, XMLData {
 
     @Override
     public Object clone() {
+        if (snapshot != null && snapshot.isCurrent()) {
+            try {
+                FlextextData copy = new FlextextData();
+                copy.url = url;
+                copy.load(snapshot);
+                return copy;
+            } catch (IOException | URISyntaxException ex) {
+                Logger.getLogger(FlextextData.class.getName()).log(Level.SEVERE, null, ex);
+            }
+        }
         return new FlextextData(this.url);
     }
 
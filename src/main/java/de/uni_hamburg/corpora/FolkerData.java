@@ -23,6 +23,6 @@ public class FolkerData extends UnspecifiedXMLData implements XMLData, CorpusDat
 
     @Override
     public Object clone() {
-        return new FolkerData(this.url);
+        return shareSnapshot(new FolkerData(this.url));
     }
 }
@@ -0,0 +1,129 @@
+package de.uni_hamburg.corpora;
+
+import de.uni_hamburg.corpora.utilities.TypeConverter;
+import org.apache.commons.text.StringEscapeUtils;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.sql.Timestamp;
+
+/**
+ * Writes a report as HTML page with a table of all items. The table can be filtered and sorted using DataTables.
+ *
+ * @author Herbert Lange
+ * @version 20261017
+ */
+public class HTMLReportWriter extends ReportWriter {
+
+    /**
+     * Creates a new HTML report writer
+     * @param out the writer the report is written to
+     * @param basedirectory the prefix to be removed from all paths or null to keep paths as they are
+     * @param errorsOnly if only severe items are written
+     */
+    public HTMLReportWriter(Writer out, String basedirectory, boolean errorsOnly) {
+        super(out, basedirectory, errorsOnly);
+    }
+
+    @Override
+    protected void writeStart() throws IOException {
+        out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+        out.write("<html>\n   <head>\n");
+        out.write("<title>Corpus Check Report</title>\n");
+        out.write("<meta charset=\"utf-8\"></meta>\n");
+        //add JS libraries
+        writeResource("script", "/js/jquery/jquery-3.1.1.min.js");
+        writeResource("script", "/js/DataTables/jquery.dataTables-1.10.12.min.js");
+        writeResource("script", "/js/DataTables/dataTables-bootstrap.min.js");
+        writeResource("script", "/js/bootstrap/bootstrap-3.3.7.min.js");
+        //add CSS
+        writeResource("style", "/css/DataTables/dataTables.bootstrap.min.css");
+        writeResource("style", "/css/DataTables/buttons.dataTables.min.css");
+        writeResource("style", "/css/bootstrap/bootstrap-3.3.7.min.css");
+        //add custom CSS
+        out.write("<style>"+
+                "body{padding:15px;}"+
+                "#timestamp{margin-bottom:30px;}"+
+                ".critical{ background:#ffdddd; } "+
+                ".correct{ background:#ddffdd; } "+
+                ".other{ background:#ffd39e; } "+
+                ".warning{ background:#fafcc2; } "+
+                ".char_Cyrillic{ color:#b51d0d; } "+
+                ".char_Greek{ background:#022299; } "+
+                ".char_Armenian{ background:#ad7600; } "+
+                ".char_Georgian{ background:#9c026d; } "+
+                "</style>\n");
+        out.write("   </head>\n   <body>\n");
+        //add timestamp
+        out.write("   <div id='timestamp'>Generated: ");
+        Timestamp timestamp = new Timestamp(System.currentTimeMillis());
+        out.write(String.format("%s</div>\n", timestamp));
+        out.write("<table>\n  <thead><tr>" +
+                "<th>ID</th>" +
+                "<th>Type</th>"+
+                "<th>Function</th>"+
+                "<th>Filename:line.column</th>"+
+                "<th>Error</th>" +
+                "<th>Fix</th>"+
+                "<th>Original</th>" +
+                "</tr></thead>\n");
+        out.write("  <tbody>\n");
+    }
+
+    private void writeResource(String element, String resource) throws IOException {
+        out.write(String.format("<%s>%s</%s>\n", element,
+                TypeConverter.InputStream2String(ReportItem.class.getResourceAsStream(resource)), element));
+    }
+
+    @Override
+    protected void writeItem(ReportItem error, int index) throws IOException {
+        switch (error.getSeverity()) {
+            case CRITICAL:
+                out.write(String.format("<tr class='critical'><td>%d</td><td style='border-left: red solid " +
+                        "3px'>Critical</td><td>", index));
+                break;
+            case CORRECT:
+                out.write(String.format("<tr class='correct'><td>%d</td><td style='border-left: green solid " +
+                        "3px'>Correct</td><td>", index));
+                break;
+            case WARNING:
+                out.write(String.format("<tr class='warning'><td>%d</td><td style='border-left: yellow solid " +
+                        "3px'>Warning</td><td>", index));
+                break;
+            case NOTE:
+                out.write(String.format("<tr class='note'><td>%d</td><td style='border-left: green solid " +
+                        "3px'>Note</td><td>", index));
+                break;
+            case UNKNOWN:
+                out.write(String.format("<tr class='unknown'><td>%d</td><td style='border-left: orange solid " +
+                        "3px'>Unknown</td><td>", index));
+                break;
+            default:
+                out.write(String.format("<tr class='other'><td>%d</td><td " +
+                        "style='border-left: black solid 3px'>Other</td><td>", index));
+                break;
+        }
+        out.write(String.format("%s</td><td>", StringEscapeUtils.escapeHtml4(relativise(error.getFunction()))));
+        out.write(String.format("%s</td>", StringEscapeUtils.escapeHtml4(relativise(error.getLocation()))));
+        out.write(String.format("<td style='white-space: pre'>%s</td>",
+                StringEscapeUtils.escapeHtml4(relativise(error.getWhat())).replace("\n", "<br>")));
+        out.write(String.format("<td style='white-space: pre'>%s</td>",
+                StringEscapeUtils.escapeHtml4(relativise(error.getHowto())).replace("\n", "<br>")));
+        out.write(String.format("<td style='font-face: monospace; color: gray; border: gray solid 1px; " +
+                "white-space: pre;'>(%s)</td>\n",
+                StringEscapeUtils.escapeHtml4(relativise(error.getLocalisedMessage()))));
+        out.write(String.format("<!-- %s -->\n", StringEscapeUtils.escapeHtml4(relativise(error.getStackTrace()))));
+        out.write("</tr>");
+    }
+
+    @Override
+    protected void writeEnd(String summaryLines) throws IOException {
+        out.write("  </tbody>\n  </table>\n");
+        //initiate DataTable on <table>
+        out.write("<script>$(document).ready( function () {\n" +
+                "    $('table').DataTable({ 'iDisplayLength': 50 });\n" +
+                "} );</script>");
+        out.write(String.format("   <footer style='white-space: pre'>%s</footer>", summaryLines));
+        out.write("   </body>\n</html>");
+    }
+}
@@ -7,8 +7,8 @@
  */
 package de.uni_hamburg.corpora;
 
+import de.uni_hamburg.corpora.utilities.SchemaCache;
 import de.uni_hamburg.corpora.validation.ComaErrorReportGenerator;
-import java.net.URL;
 import java.io.File;
 import java.io.InputStream;
 import java.io.IOException;
@@ -27,9 +27,7 @@ import jakarta.servlet.http.HttpServletResponse;
 import javax.xml.transform.Source;
 import javax.xml.transform.stream.StreamSource;
 import javax.xml.validation.Schema;
-import javax.xml.validation.SchemaFactory;
 import javax.xml.validation.Validator;
-import javax.xml.XMLConstants;
 import org.xml.sax.SAXException;
 import org.exmaralda.partitureditor.jexmaralda.JexmaraldaException;
 
@@ -97,11 +95,8 @@ public class HzskValidationServlet extends HttpServlet {
             throws SAXException, IOException {
         // XXX: some validation depends on language of exception message
         Locale.setDefault(Locale.ENGLISH);
-        URL COMA_XSD = new URL("http://www.exmaralda.org/xml/comacorpus.xsd");
         Source xmlStream = new StreamSource(coma);
-        SchemaFactory schemaFactory =
-            SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
-        Schema schema = schemaFactory.newSchema(COMA_XSD);
+        Schema schema = SchemaCache.get("http://www.exmaralda.org/xml/comacorpus.xsd");
         Validator validator = schema.newValidator();
         ComaErrorReportGenerator eh = new ComaErrorReportGenerator();
         validator.setErrorHandler(eh);
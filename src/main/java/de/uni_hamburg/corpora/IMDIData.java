@@ -23,6 +23,6 @@ public class IMDIData extends UnspecifiedXMLData implements XMLData, CorpusData
 
     @Override
     public Object clone() {
-        return new IMDIData(this.url);
+        return shareSnapshot(new IMDIData(this.url));
     }
 }
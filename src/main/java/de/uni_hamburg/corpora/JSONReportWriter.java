@@ -0,0 +1,74 @@
+package de.uni_hamburg.corpora;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes a report as JSON array of report items. The items use the same field names as Report.dump, so the
+ * report can be read again using Report.load. Exceptions are only kept as message and stack trace, which are
+ * ignored when loading the report.
+ *
+ * @author Herbert Lange
+ * @version 20261017
+ */
+public class JSONReportWriter extends ReportWriter {
+
+    private final JsonGenerator generator;
+
+    /**
+     * Creates a new JSON report writer
+     * @param out the writer the report is written to
+     * @param basedirectory the prefix to be removed from all paths or null to keep paths as they are
+     * @param errorsOnly if only severe items are written
+     * @throws IOException if the JSON generator cannot be created
+     */
+    public JSONReportWriter(Writer out, String basedirectory, boolean errorsOnly) throws IOException {
+        super(out, basedirectory, errorsOnly);
+        generator = new JsonFactory().createGenerator(out);
+        // The writer is closed by the report writer
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.useDefaultPrettyPrinter();
+    }
+
+    @Override
+    protected void writeStart() throws IOException {
+        generator.writeStartArray();
+    }
+
+    @Override
+    protected void writeItem(ReportItem item, int index) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("severity", item.getSeverity().name());
+        generator.writeStringField("function", relativise(item.getFunction()));
+        generator.writeStringField("filename", relativise(item.getFilename()));
+        generator.writeStringField("lines", item.getLines());
+        generator.writeStringField("columns", item.getColumns());
+        generator.writeStringField("what", relativise(item.getWhat()));
+        generator.writeStringField("howto", relativise(item.getHowto()));
+        String message = item.getLocalisedMessage();
+        if (message != null && !message.isEmpty()) {
+            generator.writeStringField("message", relativise(message));
+        }
+        String stackTrace = item.getStackTrace();
+        if (!stackTrace.isEmpty()) {
+            generator.writeStringField("stackTrace", relativise(stackTrace));
+        }
+        generator.writeEndObject();
+    }
+
+    @Override
+    protected void writeEnd(String summaryLines) throws IOException {
+        // The summary can be computed from the items and is not written
+        generator.writeEndArray();
+        generator.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+        super.close();
+    }
+}
@@ -0,0 +1,93 @@
+package de.uni_hamburg.corpora;
+
+import java.io.IOException;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Read-only collection of corpus data that only keeps handles to the files. The corpus data objects are
+ * materialized through a CorpusDataCache while iterating, so code iterating over the collection only needs
+ * memory for the documents kept in the cache. Files that cannot be read anymore are skipped and remembered by the
+ * cache, so they can be reported (see CorpusDataCache.getUnreadable). The size only counts the files not known to
+ * be unreadable, so it can decrease while iterating if a file cannot be read for the first time.
+ *
+ * @author Herbert Lange
+ * @version 20261017
+ */
+public class LazyCorpusDataCollection<T extends CorpusData> extends AbstractCollection<T> {
+
+    private final List<CorpusDataHandle> handles;
+    private final CorpusDataCache cache;
+
+    /**
+     * Creates a lazy collection
+     * @param handles the handles of the corpus data, all of them have to be of type T
+     * @param cache the cache used to materialize the corpus data
+     */
+    public LazyCorpusDataCollection(Collection<CorpusDataHandle> handles, CorpusDataCache cache) {
+        this.handles = new ArrayList<>(handles);
+        this.cache = cache;
+    }
+
+    public List<CorpusDataHandle> getHandles() {
+        return Collections.unmodifiableList(handles);
+    }
+
+    public CorpusDataCache getCache() {
+        return cache;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (CorpusDataHandle handle : handles) {
+            if (!cache.isUnreadable(handle.getURL())) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            private final Iterator<CorpusDataHandle> it = handles.iterator();
+            private T next = null;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null && it.hasNext()) {
+                    CorpusDataHandle handle = it.next();
+                    if (cache.isUnreadable(handle.getURL())) {
+                        continue;
+                    }
+                    try {
+                        next = (T) cache.get(handle);
+                    }
+                    catch (IOException e) {
+                        Logger.getLogger(LazyCorpusDataCollection.class.getName()).log(Level.WARNING,
+                                handle.getURL() + " will not be read", e);
+                    }
+                }
+                return next != null;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                T current = next;
+                next = null;
+                return current;
+            }
+        };
+    }
+}
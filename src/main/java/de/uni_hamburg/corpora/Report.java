@@ -11,6 +11,7 @@ package de.uni_hamburg.corpora;
 
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import de.uni_hamburg.corpora.ReportItem.Severity;
@@ -20,6 +21,7 @@ import java.io.IOException;
 import java.text.MessageFormat;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.function.Consumer;
 
 import org.jdom2.JDOMException;
 
@@ -62,12 +64,33 @@ public class Report {
      */
     private final Map<String, List<ReportItem>> statistics = new HashMap<>();
 
+    /**
+     * the number of items per severity for each bucket, kept up to date with
+     * statistics so neither the report limit nor the summaries have to scan
+     * the buckets.
+     */
+    private final Map<String, SeverityCounts> counts = new HashMap<>();
+
+    /**
+     * the items of each bucket by severity, in the order they were added, so
+     * the items of one severity can be listed without scanning the bucket.
+     */
+    private final Map<String, Map<Severity, List<ReportItem>>> index = new HashMap<>();
+
+    /**
+     * listeners notified about every item added to the report, e.g. to write
+     * the report while it is still growing.
+     */
+    private final List<Consumer<ReportItem>> listeners = new ArrayList<>();
+
     /**
      * convenience function to create new statistic set if missing or get old.
      */
     private List<ReportItem> getOrCreateStatistic(String statId) {
         if (!statistics.containsKey(statId)) {
             statistics.put(statId, new ArrayList<>());
+            counts.put(statId, new SeverityCounts());
+            index.put(statId, new EnumMap<>(Severity.class));
         }
         return statistics.get(statId);
     }
@@ -86,39 +109,149 @@ public class Report {
      */
     public Report(String bucket, Collection<ReportItem> items) {
         getOrCreateStatistic(bucket).addAll(items);
+        SeverityCounts bucketCounts = counts.get(bucket);
+        for (ReportItem item : items) {
+            bucketCounts.add(item);
+            addToIndex(bucket, item);
+        }
     }
 
     /**
      * Merge two error reports. Efficiently adds statistics from other report to
-     * this one.
+     * this one. If the report limit is set, the merged items count towards it
+     * like items added directly, see addReportItem.
      */
     public void merge(Report sr) {
         for (Map.Entry<String, List<ReportItem>> kv
                 : sr.statistics.entrySet()) {
-            getOrCreateStatistic(kv.getKey()).addAll(kv.getValue());
+            List<ReportItem> stat = getOrCreateStatistic(kv.getKey());
+            SeverityCounts bucketCounts = counts.get(kv.getKey());
+            if (reportLimit == 0) {
+                stat.addAll(kv.getValue());
+                bucketCounts.add(sr.counts.get(kv.getKey()));
+                for (Map.Entry<Severity, List<ReportItem>> items : sr.index.get(kv.getKey()).entrySet()) {
+                    index.get(kv.getKey()).computeIfAbsent(items.getKey(), (k) -> new ArrayList<>())
+                            .addAll(items.getValue());
+                }
+                for (ReportItem item : kv.getValue()) {
+                    notifyListeners(item);
+                }
+            }
+            else {
+                for (ReportItem item : kv.getValue()) {
+                    addLimited(kv.getKey(), stat, bucketCounts, item);
+                }
+            }
         }
     }
 
+    /**
+     * Gets all items of the report sorted into their buckets
+     * @return the map from bucket names to the items in the bucket
+     */
+    public Map<String, List<ReportItem>> getBuckets() {
+        return Collections.unmodifiableMap(statistics);
+    }
+
     /**
      * Add a complete ReportItem in the root log. Not sure if this was meant to
      * work like this, I thought it may be needed to add ReportItems generated
      * by corpusFunctions?
      *
+     * If the report limit is set, good items are always added, but only as
+     * many bad items as the limit allows. The first bad item exceeding the
+     * limit is replaced by a critical note and all later bad items are dropped.
+     *
      * @see Report#addCritical(String, String)
      */
     public void addReportItem(String statId, ReportItem reportItem) {
-        Collection<ReportItem> stat = getOrCreateStatistic(statId);
-        if (reportLimit == 0 || stat.stream().filter((r) -> r.isBad()).count() < reportLimit) {
-            stat.add(reportItem);
+        List<ReportItem> stat = getOrCreateStatistic(statId);
+        addLimited(statId, stat, counts.get(statId), reportItem);
+    }
+
+    /**
+     * Adds an item to a bucket unless it is a bad item and the bucket already
+     * contains as many bad items as allowed by the report limit. The first bad
+     * item exceeding the limit is replaced by a critical note and all later
+     * bad items are dropped.
+     */
+    private void addLimited(String statId, List<ReportItem> stat, SeverityCounts bucketCounts,
+                            ReportItem reportItem) {
+        if (reportLimit == 0 || !reportItem.isBad() || bucketCounts.bad < reportLimit) {
+            add(statId, stat, bucketCounts, reportItem);
         }
-        else if (reportLimit > 0 && stat.stream().filter((r) -> r.isBad()).count() == reportLimit) {
-            stat.add(new ReportItem(Severity.CRITICAL,reportItem.getFunction(),
+        else if (reportLimit > 0 && bucketCounts.bad == reportLimit) {
+            add(statId, stat, bucketCounts, new ReportItem(Severity.CRITICAL,reportItem.getFunction(),
                     String.format("More than %d bad report items. Stopping now", reportLimit),
                     statId,"Fix issues and try again"));
             // Logger.getGlobal().info("EXCESS ITEMS FOR " + reportItem.getFunction());
         }
     }
 
+    private void add(String statId, List<ReportItem> stat, SeverityCounts bucketCounts, ReportItem reportItem) {
+        stat.add(reportItem);
+        bucketCounts.add(reportItem);
+        addToIndex(statId, reportItem);
+        notifyListeners(reportItem);
+    }
+
+    private void addToIndex(String statId, ReportItem reportItem) {
+        index.get(statId).computeIfAbsent(reportItem.getSeverity(), (k) -> new ArrayList<>()).add(reportItem);
+    }
+
+    /**
+     * Registers a listener for all items added to the report from now on.
+     * Items already in the report are passed to the listener immediately.
+     * @param listener the listener, e.g. a ReportWriter
+     */
+    public void addListener(Consumer<ReportItem> listener) {
+        for (List<ReportItem> items : statistics.values()) {
+            for (ReportItem item : items) {
+                listener.accept(item);
+            }
+        }
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener
+     * @param listener the listener
+     */
+    public void removeListener(Consumer<ReportItem> listener) {
+        listeners.remove(listener);
+    }
+
+    private void notifyListeners(ReportItem item) {
+        for (Consumer<ReportItem> listener : listeners) {
+            listener.accept(item);
+        }
+    }
+
+    /**
+     * Gets the number of items of a severity in a bucket without scanning the bucket
+     * @param statId the bucket
+     * @param severity the severity
+     * @return the number of items, 0 if the bucket does not exist
+     */
+    public int getCount(String statId, Severity severity) {
+        SeverityCounts bucketCounts = counts.get(statId);
+        return bucketCounts == null ? 0 : bucketCounts.get(severity);
+    }
+
+    /**
+     * Gets the items of a severity in a bucket without scanning the bucket
+     * @param statId the bucket
+     * @param severity the severity
+     * @return the items in the order they were added, empty if the bucket does not exist
+     */
+    public List<ReportItem> getItems(String statId, Severity severity) {
+        Map<Severity, List<ReportItem>> bucketIndex = index.get(statId);
+        if (bucketIndex == null || !bucketIndex.containsKey(severity)) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(bucketIndex.get(severity));
+    }
+
     /**
      * Add a critical error in the root log.
      *
@@ -357,22 +490,11 @@ public class Report {
      * Generate a one-line text-only message summarising the named bucket.
      */
     public String getSummaryLine(String statId) {
-        int good = 0;
-        int severe = 0;
-        int badish = 0;
+        SeverityCounts stats = counts.get(statId);
+        int good = stats.good();
+        int severe = stats.severe();
+        int badish = stats.bad - severe;
         int unk = 0;
-        Collection<ReportItem> stats = statistics.get(statId);
-        for (ReportItem s : stats) {
-            if (s.isSevere()) {
-                severe += 1;
-            } else if (s.isBad()) {
-                badish += 1;
-            } else if (s.isGood()) {
-                good += 1;
-            } else {
-                unk += 1;
-            }
-        }
         int totes = good + severe + badish + unk;
         return MessageFormat.format("  {0}: {1} %: {2} OK, {3} bad, "
                 + "{4} warnings and {5} unknown. "
@@ -384,27 +506,14 @@ public class Report {
      * Generate a one-line text-only message summarising the named bucket.
      */
     public String getAllAsSummaryLine() {
-        int good = 0;
-        int severe = 0;
-        int badish = 0;
-        int unk = 0;
-        Collection<ReportItem> stats = new ArrayList<>();
-        for (String statId : statistics.keySet()) {
-            //System.out.println("key : " + statId);
-            //System.out.println("value : " + statistics.get(statId));
-            stats.addAll(statistics.get(statId));
-        }
-        for (ReportItem s : stats) {
-            if (s.isSevere()) {
-                severe += 1;
-            } else if (s.isBad()) {
-                badish += 1;
-            } else if (s.isGood()) {
-                good += 1;
-            } else {
-                unk += 1;
-            }
+        SeverityCounts stats = new SeverityCounts();
+        for (SeverityCounts bucketCounts : counts.values()) {
+            stats.add(bucketCounts);
         }
+        int good = stats.good();
+        int severe = stats.severe();
+        int badish = stats.bad - severe;
+        int unk = 0;
         int totes = good + severe + badish + unk;
         if (totes > 0) {
             return MessageFormat.format("  {0}: {1} %: {2} OK, {3} bad, "
@@ -596,26 +705,11 @@ public class Report {
      * Generate a one-line text-only message summarising the named bucket.
      */
     public String getFixLine(String statId, Corpus corpus) throws JDOMException {
-        Collection<ReportItem> stats = statistics.get(statId);
-        int fix = 0;
-        int good = 0;
-        int severe = 0;
-        int badish = 0;
-        int unk = 0;
+        SeverityCounts stats = counts.get(statId);
+        int fix = stats.get(Severity.IFIXEDITFORYOU);
+        int good = stats.good() - fix;
+        int severe = stats.severe();
         String line = "";
-        for (ReportItem s : stats) {
-            if (s.isFix()) {
-                fix += 1;
-            } else if (s.isSevere()) {
-                severe += 1;
-            } else if (s.isBad()) {
-                badish += 1;
-            } else if (s.isGood()) {
-                good += 1;
-            } else {
-                unk += 1;
-            }
-        }
         //"2020-02-17T11:41:00Z"
         //now add the T that is needed for Kibana between date and time
         String patternDate = "yyyy-MM-dd";
@@ -653,26 +747,11 @@ public class Report {
      * Generate a one-line text-only message summarising the named bucket.
      */
     public String getFixLine(String statId) {
-        Collection<ReportItem> stats = statistics.get(statId);
-        int fix = 0;
-        int good = 0;
-        int severe = 0;
-        int badish = 0;
-        int unk = 0;
+        SeverityCounts stats = counts.get(statId);
+        int fix = stats.get(Severity.IFIXEDITFORYOU);
+        int good = stats.good() - fix;
+        int severe = stats.severe();
         String line = "";
-        for (ReportItem s : stats) {
-            if (s.isFix()) {
-                fix += 1;
-            } else if (s.isSevere()) {
-                severe += 1;
-            } else if (s.isBad()) {
-                badish += 1;
-            } else if (s.isGood()) {
-                good += 1;
-            } else {
-                unk += 1;
-            }
-        }
         //"2020-02-17T11:41:00Z"
         //now add the T that is needed for Kibana between date and time
         String patternDate = "yyyy-MM-dd";
@@ -715,6 +794,8 @@ public class Report {
         ObjectMapper mapper = new ObjectMapper();
         // Allows serialization even when getters are missing
         mapper.setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
+        // Reports written by JSONReportWriter contain additional information about exceptions
+        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
         File logFile = new File(filename);
         // If file is not empty, read it as a list of ReportItems
         if (logFile.length() != 0) {
@@ -729,4 +810,39 @@ public class Report {
         }
         return report;
     }
+
+    /**
+     * Number of items per severity in a bucket
+     */
+    private static final class SeverityCounts {
+        private final int[] bySeverity = new int[Severity.values().length];
+        // Items that are bad, i.e. the ones counting towards the report limit
+        private int bad = 0;
+
+        void add(ReportItem item) {
+            bySeverity[item.getSeverity().ordinal()]++;
+            if (item.isBad()) {
+                bad++;
+            }
+        }
+
+        void add(SeverityCounts other) {
+            for (int i = 0; i < bySeverity.length; i++) {
+                bySeverity[i] += other.bySeverity[i];
+            }
+            bad += other.bad;
+        }
+
+        int get(Severity severity) {
+            return bySeverity[severity.ordinal()];
+        }
+
+        int good() {
+            return get(Severity.CORRECT) + get(Severity.NOTE) + get(Severity.IFIXEDITFORYOU);
+        }
+
+        int severe() {
+            return get(Severity.CRITICAL) + get(Severity.MISSING) + get(Severity.UNKNOWN);
+        }
+    }
 }
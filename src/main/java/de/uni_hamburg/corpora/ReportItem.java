@@ -9,12 +9,12 @@
 
 package de.uni_hamburg.corpora;
 
-import de.uni_hamburg.corpora.utilities.TypeConverter;
 import org.apache.commons.text.StringEscapeUtils;
 import org.xml.sax.SAXParseException;
+import java.io.IOException;
 import java.io.StringWriter;
+import java.io.UncheckedIOException;
 import java.io.PrintWriter;
-import java.sql.Timestamp;
 import java.util.*;
 
 /**
@@ -281,6 +281,27 @@ public class ReportItem {
         return loc;
     }
 
+    /**
+     * The name of the file the error occurred in, if any.
+     */
+    public String getFilename() {
+        return this.filename;
+    }
+
+    /**
+     * The lines of the error, if any.
+     */
+    public String getLines() {
+        return this.lines;
+    }
+
+    /**
+     * The columns of the error, if any.
+     */
+    public String getColumns() {
+        return this.columns;
+    }
+
     /**
      * Description of the error.
      */
@@ -547,153 +568,31 @@ public class ReportItem {
      * errors based on severity.
      */
     public static String generateDataTableHTML(List<ReportItem> errors, String summarylines) {
-        
-        StringBuilder report = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
-        
-        report.append("<html>\n   <head>\n");
-        
-        report.append("<title>Corpus Check Report</title>\n");
-        report.append("<meta charset=\"utf-8\"></meta>\n");
-        
-        //add JS libraries
-        report.append(String.format("<script>%s</script>\n",
-                TypeConverter.InputStream2String(ReportItem.class.getResourceAsStream("/js/jquery" +
-                        "/jquery-3.1.1.min.js"))));
-        report.append(String.format("<script>%s</script>\n",
-                TypeConverter.InputStream2String(ReportItem.class.getResourceAsStream("/js" +
-                        "/DataTables/jquery.dataTables-1.10.12.min.js"))));
-        report.append(String.format("<script>%s</script>\n",
-                TypeConverter.InputStream2String(ReportItem.class.getResourceAsStream("/js" +
-                        "/DataTables/dataTables-bootstrap.min.js"))));
-        report.append(String.format("<script>%s</script>\n",
-                TypeConverter.InputStream2String(ReportItem.class.getResourceAsStream("/js" +
-                        "/bootstrap/bootstrap-3.3.7.min.js"))));
-        
-        //add CSS
-        report.append(String.format("<style>%s</style>\n",
-                TypeConverter.InputStream2String(ReportItem.class.getResourceAsStream("/css" +
-                        "/DataTables/dataTables.bootstrap.min.css"))));
-        report.append(String.format("<style>%s</style>\n",
-                TypeConverter.InputStream2String(ReportItem.class.getResourceAsStream("/css" +
-                        "/DataTables/buttons.dataTables.min.css"))));
-        report.append(String.format("<style>%s</style>\n",
-                TypeConverter.InputStream2String(ReportItem.class.getResourceAsStream("/css" +
-                                "/bootstrap/bootstrap-3.3.7.min.css"))));
-	
-        //add custom CSS
-        report.append("<style>"+
-                "body{padding:15px;}"+
-                "#timestamp{margin-bottom:30px;}"+
-                ".critical{ background:#ffdddd; } "+
-                ".correct{ background:#ddffdd; } "+
-                ".other{ background:#ffd39e; } "+
-                ".warning{ background:#fafcc2; } "+
-                ".char_Cyrillic{ color:#b51d0d; } "+
-                ".char_Greek{ background:#022299; } "+
-                ".char_Armenian{ background:#ad7600; } "+
-                ".char_Georgian{ background:#9c026d; } "+
-                "</style>\n");
-        report.append("   </head>\n   <body>\n");
-        
-        //add timestamp
-        report.append("   <div id='timestamp'>Generated: ");
-        Timestamp timestamp = new Timestamp(System.currentTimeMillis());
-        report.append(String.format("%s</div>\n", timestamp));
-        
-        report.append("<table>\n  <thead><tr>" +
-            "<th>ID</th>" +
-            "<th>Type</th>"+
-            "<th>Function</th>"+
-            "<th>Filename:line.column</th>"+
-            "<th>Error</th>" +
-            "<th>Fix</th>"+
-            "<th>Original</th>" +
-            "</tr></thead>\n");
-        report.append("  <tbody>\n");
-        for (ReportItem error : errors) {
-            switch (error.getSeverity()) {
-                case CRITICAL:
-                    report.append(String.format("<tr class='critical'><td>%d</td><td style='border-left: red solid " +
-                            "3px'>Critical</td><td>", errors.indexOf(error)));
-                    break;
-                case CORRECT:
-                    report.append(String.format("<tr class='correct'><td>%d</td><td style='border-left: green solid " +
-                            "3px'>Correct</td><td>", errors.indexOf(error)));
-                    break;
-                case WARNING:
-                    report.append(String.format("<tr class='warning'><td>%d</td><td style='border-left: yellow solid " +
-                            "3px'>Warning</td><td>", errors.indexOf(error)));
-                    break;
-                case NOTE:
-                    report.append(String.format("<tr class='note'><td>%d</td><td style='border-left: green solid " +
-                            "3px'>Note</td><td>", errors.indexOf(error)));
-                    break;
-                case UNKNOWN:
-                    report.append(String.format("<tr class='unknown'><td>%d</td><td style='border-left: orange solid " +
-                            "3px'>Unknown</td><td>", errors.indexOf(error)));
-                    break;
-                default:
-                    report.append(String.format("<tr class='other'><td>%d</td><td " +
-                            "style='border-left: black solid 3px'>Other</td><td>",errors.indexOf(error)));
-                    break;
-            }
-            report.append(String.format("%s</td><td>",StringEscapeUtils.escapeHtml4(error.getFunction())));
-            report.append(String.format("%s</td>", StringEscapeUtils.escapeHtml4(error.getLocation())));
-            report.append(String.format("<td style='white-space: pre'>%s</td>",
-                StringEscapeUtils.escapeHtml4(
-                        error.getWhat()).replace("\n", "<br>")));
-            report.append(String.format("<td style='white-space: pre'>%s</td>",
-                    StringEscapeUtils.escapeHtml4(error.getHowto()).replace("\n", "<br>")));
-            report.append(String.format("<td style='font-face: monospace; color: gray; border: gray solid 1px; " +
-                    "white-space: pre;'>(%s)</td>\n",StringEscapeUtils.escapeHtml4(error.getLocalisedMessage())));
-            report.append(String.format("<!-- %s -->\n",StringEscapeUtils.escapeHtml4(error.getStackTrace())));
-            report.append("</tr>");
+        StringWriter report = new StringWriter();
+        try (ReportWriter writer = new HTMLReportWriter(report, null, false)) {
+            errors.forEach(writer);
+            writer.finish(summarylines);
+        }
+        catch (IOException e) {
+            // Writing to a string does not fail
+            throw new UncheckedIOException(e);
         }
-        report.append("  </tbody>\n  </table>\n");
-        
-        //initiate DataTable on <table>
-        report.append("<script>$(document).ready( function () {\n" +
-                  "    $('table').DataTable({ 'iDisplayLength': 50 });\n" +
-
-                  "} );</script>");
-        
-        report.append(String.format("   <footer style='white-space: pre'>%s</footer>", summarylines));
-        report.append("   </body>\n</html>");
-        
         return report.toString();
     }
 
     /* Generate a CSV file with validation errors list with double quotes as delimeters*/
     public static String GenerateCSV (Collection<ReportItem> errors, String summarylines) {
-        StringBuilder report = new StringBuilder();
-        report.append("Type\"Function\"FIlename:line.column\"Error\"Fix\"Original\n");
-        for (ReportItem error : errors) {
-            switch (error.getSeverity()) {
-                case CRITICAL:
-                    report.append("Critical\"");
-                    break;
-                case WARNING:
-                    report.append("Warning\"");
-                    break;
-                case NOTE:
-                    report.append("Note\"");
-                    break;
-                case UNKNOWN:
-                    report.append("Unknown\"");
-                    break;
-                default:
-                    report.append("Other\"");
-                    break;
-            }
-            report.append(String.format("%s\"", error.getFunction()));
-            report.append(String.format("%s\"",error.getLocation()));
-            report.append(String.format("%s\"",error.getWhat()));
-            report.append(String.format("%s\"",error.getHowto()));
-            report.append(String.format("%s\"", error.getLocalisedMessage()));
-            report.append(String.format("%s\n", error.getStackTrace()));
+        StringWriter report = new StringWriter();
+        try (ReportWriter writer = new CSVReportWriter(report, null, false)) {
+            errors.forEach(writer);
+            writer.finish(summarylines);
+        }
+        catch (IOException e) {
+            // Writing to a string does not fail
+            throw new UncheckedIOException(e);
         }
         return report.toString();
-       }
+    }
 
     /**
      * Creates a new map from a string array of keys and an object array of values.
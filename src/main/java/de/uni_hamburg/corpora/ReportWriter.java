@@ -0,0 +1,179 @@
+package de.uni_hamburg.corpora;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.function.Consumer;
+
+/**
+ * Writes report items one by one as they arrive instead of building the complete report in memory first. A
+ * writer can be registered as a listener on a report to write the items while the checks are still running.
+ * Paths below the base directory are made relative for each item separately.
+ *
+ * Usage:
+ * <pre>
+ * try (ReportWriter writer = ReportWriter.create(location, basedirectory, false)) {
+ *     report.addListener(writer);
+ *     ... run the checks ...
+ *     writer.finish(report.getSummaryLines());
+ * }
+ * </pre>
+ *
+ * @author Herbert Lange
+ * @version 20261017
+ */
+public abstract class ReportWriter implements Consumer<ReportItem>, Closeable {
+
+    protected final Writer out;
+    // The prefix removed from all paths, can be null
+    private final String basedirectory;
+    // If only severe items are written
+    private final boolean errorsOnly;
+    // The number of items written so far
+    private int count = 0;
+    private boolean started = false;
+    private boolean finished = false;
+    // The first error when writing an item, items are accepted without being able to throw exceptions
+    private IOException error = null;
+
+    /**
+     * Creates a new report writer
+     * @param out the writer the report is written to
+     * @param basedirectory the prefix to be removed from all paths or null to keep paths as they are
+     * @param errorsOnly if only severe items are written
+     */
+    protected ReportWriter(Writer out, String basedirectory, boolean errorsOnly) {
+        this.out = out;
+        this.basedirectory = basedirectory == null || basedirectory.isEmpty() ? null : basedirectory;
+        this.errorsOnly = errorsOnly;
+    }
+
+    /**
+     * Creates a report writer for a file, using the format given by the extension
+     * @param location the location of the report file
+     * @param basedirectory the prefix to be removed from all paths or null to keep paths as they are
+     * @param errorsOnly if only severe items are written
+     * @return the writer or null if there is no streaming writer for the format
+     * @throws IOException if the file cannot be created
+     */
+    public static ReportWriter create(URL location, String basedirectory, boolean errorsOnly) throws IOException {
+        if (!isSupported(location)) {
+            return null;
+        }
+        String name = location.getFile().toLowerCase();
+        Path path = Paths.get(location.getFile());
+        Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+        if (name.endsWith("html")) {
+            return new HTMLReportWriter(writer, basedirectory, errorsOnly);
+        }
+        else if (name.endsWith("csv")) {
+            return new CSVReportWriter(writer, basedirectory, errorsOnly);
+        }
+        else {
+            return new JSONReportWriter(writer, basedirectory, errorsOnly);
+        }
+    }
+
+    /**
+     * Checks if a report can be streamed to a file, i.e. if it is HTML, CSV or JSON
+     * @param location the location of the report file
+     * @return if there is a streaming writer for the format
+     */
+    public static boolean isSupported(URL location) {
+        String name = location.getFile().toLowerCase();
+        return name.endsWith("html") || name.endsWith("csv") || name.endsWith("json");
+    }
+
+    /**
+     * Writes a single report item
+     * @param item the item
+     */
+    @Override
+    public void accept(ReportItem item) {
+        if (finished || error != null || (errorsOnly && !item.isSevere())) {
+            return;
+        }
+        try {
+            start();
+            writeItem(item, count++);
+        }
+        catch (IOException e) {
+            error = e;
+        }
+    }
+
+    /**
+     * Completes the report. Items arriving afterwards are ignored
+     * @param summaryLines the summary of the report
+     * @throws IOException if the report could not be written
+     */
+    public void finish(String summaryLines) throws IOException {
+        if (error != null) {
+            throw error;
+        }
+        if (!finished) {
+            start();
+            writeEnd(relativise(summaryLines));
+            finished = true;
+        }
+        out.flush();
+    }
+
+    /**
+     * Gets the number of items written so far
+     * @return the number of items
+     */
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void start() throws IOException {
+        if (!started) {
+            started = true;
+            writeStart();
+        }
+    }
+
+    /**
+     * Removes the base directory from a string
+     * @param s the string, e.g. a location or a message
+     * @return the string without the base directory
+     */
+    protected String relativise(String s) {
+        if (s == null || basedirectory == null) {
+            return s;
+        }
+        return s.replace(basedirectory, "");
+    }
+
+    /**
+     * Writes everything before the first item
+     * @throws IOException if writing fails
+     */
+    protected abstract void writeStart() throws IOException;
+
+    /**
+     * Writes a single item
+     * @param item the item
+     * @param index the position of the item in the report
+     * @throws IOException if writing fails
+     */
+    protected abstract void writeItem(ReportItem item, int index) throws IOException;
+
+    /**
+     * Writes everything after the last item
+     * @param summaryLines the summary of the report
+     * @throws IOException if writing fails
+     */
+    protected abstract void writeEnd(String summaryLines) throws IOException;
+}
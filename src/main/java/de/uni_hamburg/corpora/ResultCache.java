@@ -0,0 +1,262 @@
+package de.uni_hamburg.corpora;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.uni_hamburg.corpora.ReportItem.Severity;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeSet;
+
+import static de.uni_hamburg.corpora.CorpusMagician.exmaError;
+
+/**
+ * Persistent cache for the results of corpus functions used for incremental validation. The report items and
+ * the entries of the EXMARaLDA error list produced by a function are stored on disk, identified by the function,
+ * the properties used to configure it and the content hashes of the files it read. When the function would be
+ * run again on unchanged files the stored results are reused instead.
+ *
+ * Only results of checks are cached, runs fixing the data are never reused. Results containing exceptions are
+ * not cached either, so unexpected problems are always reported from a fresh run.
+ *
+ * @author Herbert Lange
+ * @version 20261017
+ */
+public class ResultCache {
+
+    // The format version, has to be changed if the format of the cache files changes
+    private static final String VERSION = "1";
+
+    /**
+     * A cached report item
+     */
+    public static class CachedItem {
+        public String bucket;
+        public Severity severity;
+        public String function;
+        public String filename;
+        public String description;
+        public String howto;
+        public String lines;
+        public String columns;
+    }
+
+    /**
+     * A cached entry of the EXMARaLDA error list
+     */
+    public static class CachedError {
+        public String bucket;
+        public String filename;
+        public String tier;
+        public String start;
+        public boolean done;
+        public String description;
+    }
+
+    /**
+     * The cached results of a single run of a function
+     */
+    public static class CachedResult {
+        public List<CachedItem> items = new ArrayList<>();
+        public List<CachedError> errors = new ArrayList<>();
+    }
+
+    private final Path folder;
+    private final String parameters;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    /**
+     * Creates a result cache
+     * @param folder the folder the cache files are stored in, e.g. in the curation folder
+     * @param properties the properties used to configure the corpus functions
+     */
+    public ResultCache(Path folder, Properties properties) {
+        this.folder = folder;
+        // Sort the properties so their order does not matter
+        StringBuilder params = new StringBuilder();
+        if (properties != null) {
+            for (String key : new TreeSet<>(properties.stringPropertyNames())) {
+                params.append(key).append('=').append(properties.getProperty(key)).append('\n');
+            }
+        }
+        this.parameters = params.toString();
+    }
+
+    public Path getFolder() {
+        return folder;
+    }
+
+    /**
+     * Gets the cached results of a function for a single file
+     * @param cf the corpus function
+     * @param cd the file
+     * @return the report with the cached items or null if there are no valid cached results
+     */
+    public Report lookup(CorpusFunction cf, CorpusData cd) {
+        return lookup(key(cf, Collections.singleton(cd.getURL())));
+    }
+
+    /**
+     * Gets the cached results of a function for a set of input files
+     * @param cf the corpus function
+     * @param inputs the locations of all files the results depend on
+     * @return the report with the cached items or null if there are no valid cached results
+     */
+    public Report lookup(CorpusFunction cf, Collection<URL> inputs) {
+        return lookup(key(cf, inputs));
+    }
+
+    /**
+     * Stores the results of a function for a single file
+     * @param cf the corpus function
+     * @param cd the file
+     * @param report the report of the function
+     * @param errors the entries added to the EXMARaLDA error list together with their buckets
+     */
+    public void store(CorpusFunction cf, CorpusData cd, Report report, List<Map.Entry<String, ExmaErrorListItem>> errors) {
+        store(key(cf, Collections.singleton(cd.getURL())), report, errors);
+    }
+
+    /**
+     * Stores the results of a function for a set of input files
+     * @param cf the corpus function
+     * @param inputs the locations of all files the results depend on
+     * @param report the report of the function
+     * @param errors the entries added to the EXMARaLDA error list together with their buckets
+     */
+    public void store(CorpusFunction cf, Collection<URL> inputs, Report report, List<Map.Entry<String, ExmaErrorListItem>> errors) {
+        store(key(cf, inputs), report, errors);
+    }
+
+    private Report lookup(String key) {
+        if (key == null) {
+            return null;
+        }
+        Path file = folder.resolve(key + ".json");
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        CachedResult result;
+        try {
+            result = mapper.readValue(file.toFile(), CachedResult.class);
+        }
+        catch (IOException e) {
+            // Broken cache files are just ignored and overwritten later
+            return null;
+        }
+        // Keep the order of the buckets
+        Map<String, List<ReportItem>> buckets = new LinkedHashMap<>();
+        for (CachedItem item : result.items) {
+            Map<ReportItem.Field, Object> params = new EnumMap<>(ReportItem.Field.class);
+            params.put(ReportItem.Field.Function, item.function);
+            params.put(ReportItem.Field.Description, item.description);
+            if (item.filename != null)
+                params.put(ReportItem.Field.Filename, item.filename);
+            if (item.howto != null)
+                params.put(ReportItem.Field.HowToFix, item.howto);
+            if (item.lines != null)
+                params.put(ReportItem.Field.Lines, item.lines);
+            if (item.columns != null)
+                params.put(ReportItem.Field.Columns, item.columns);
+            buckets.computeIfAbsent(item.bucket, (k) -> new ArrayList<>()).add(new ReportItem(item.severity, params));
+        }
+        Report report = new Report();
+        for (Map.Entry<String, List<ReportItem>> bucket : buckets.entrySet()) {
+            report.merge(new Report(bucket.getKey(), bucket.getValue()));
+        }
+        for (CachedError error : result.errors) {
+            exmaError.addError(error.bucket, error.filename, error.tier, error.start, error.done, error.description);
+        }
+        return report;
+    }
+
+    private void store(String key, Report report, List<Map.Entry<String, ExmaErrorListItem>> errors) {
+        if (key == null) {
+            return;
+        }
+        CachedResult result = new CachedResult();
+        for (Map.Entry<String, List<ReportItem>> bucket : report.getBuckets().entrySet()) {
+            for (ReportItem ri : bucket.getValue()) {
+                if (!ri.getStackTrace().isEmpty()) {
+                    // Do not cache unexpected problems
+                    return;
+                }
+                CachedItem item = new CachedItem();
+                item.bucket = bucket.getKey();
+                item.severity = ri.getSeverity();
+                item.function = ri.getFunction();
+                item.filename = ri.getFilename();
+                item.description = ri.getWhat();
+                item.howto = ri.getHowto();
+                item.lines = ri.getLines();
+                item.columns = ri.getColumns();
+                result.items.add(item);
+            }
+        }
+        for (Map.Entry<String, ExmaErrorListItem> e : errors) {
+            CachedError error = new CachedError();
+            error.bucket = e.getKey();
+            error.filename = e.getValue().getFileName();
+            error.tier = e.getValue().getTierID();
+            error.start = e.getValue().getEventStart();
+            error.done = e.getValue().isDone();
+            error.description = e.getValue().getDescription();
+            result.errors.add(error);
+        }
+        try {
+            Files.createDirectories(folder);
+            // Write to a temporary file first so a cache file is never read half-written
+            Path tmp = Files.createTempFile(folder, key, ".tmp");
+            mapper.writeValue(tmp.toFile(), result);
+            Files.move(tmp, folder.resolve(key + ".json"), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (IOException e) {
+            // The results are just not cached
+            System.out.println("Results could not be cached: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Computes the key identifying the results of a function run on a set of files
+     * @return the key or null if one of the files cannot be read
+     */
+    private String key(CorpusFunction cf, Collection<URL> inputs) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            md.update((VERSION + '\n' + cf.getClass().getName() + '\n' + parameters).getBytes(StandardCharsets.UTF_8));
+            // Sort the inputs so their order does not matter
+            TreeSet<String> locations = new TreeSet<>();
+            for (URL url : inputs) {
+                locations.add(url.toString());
+            }
+            for (String location : locations) {
+                md.update(location.getBytes(StandardCharsets.UTF_8));
+                md.update(MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(Paths.get(new URL(location).toURI()))));
+            }
+            StringBuilder hex = new StringBuilder();
+            for (byte b : md.digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        }
+        catch (NoSuchAlgorithmException | IOException | URISyntaxException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
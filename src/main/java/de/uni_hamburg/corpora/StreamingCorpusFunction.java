@@ -0,0 +1,19 @@
+package de.uni_hamburg.corpora;
+
+/**
+ * A corpus function that can check a file while it is streamed. When several of these functions are run on the
+ * same files, they are driven by a single pass over each file instead of reading it once per function.
+ *
+ * @author Herbert Lange
+ * @version 20261017
+ */
+public interface StreamingCorpusFunction extends CorpusFunction {
+
+    /**
+     * Creates the visitor checking a single file. Visiting the whole file has to result in the same report as
+     * running the function on the file without fixing
+     * @param cd the file to be checked
+     * @return the visitor for this file
+     */
+    CorpusDataVisitor createVisitor(CorpusData cd);
+}
@@ -24,6 +24,6 @@ public class TEIData extends UnspecifiedXMLData implements XMLData, CorpusData {
 
     @Override
     public Object clone() {
-        return new TEIData(this.url);
+        return shareSnapshot(new TEIData(this.url));
     }
 }
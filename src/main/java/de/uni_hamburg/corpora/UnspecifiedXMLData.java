@@ -10,9 +10,6 @@ import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.logging.Level;
@@ -39,6 +36,8 @@ public class UnspecifiedXMLData implements CorpusData, XMLData {
     Document jdom = null;
     URL url;
     String originalstring = null;
+    // The file content shared with all clones, read on first use
+    private CorpusDataSnapshot snapshot = null;
     URL parenturl;
     String filename;
     String filenamewithoutending;
@@ -74,7 +73,7 @@ public class UnspecifiedXMLData implements CorpusData, XMLData {
     public String toUnformattedString() {
         try {
             if (originalstring == null)
-                originalstring = new String(Files.readAllBytes(Paths.get(url.toURI())), StandardCharsets.UTF_8);
+                originalstring = getSnapshot().getString();
             return originalstring;
         }
         catch (URISyntaxException | IOException ex) {
@@ -102,12 +101,9 @@ public class UnspecifiedXMLData implements CorpusData, XMLData {
     @Override
     public Document getJdom() {
         if (jdom == null) {
-            SAXBuilder builder = new SAXBuilder();
             try {
-                builder.setExpandEntities(false);
-                builder.setEntityResolver(null);
-                jdom = builder.build(url);
-            } catch (JDOMException | IOException e) {
+                jdom = getSnapshot().getDocument();
+            } catch (JDOMException | IOException | URISyntaxException e) {
                 Logger.getLogger(UnspecifiedXMLData.class.getName()).log(Level.SEVERE, "Exception while reading file: ",
                         e);
             }
@@ -137,7 +133,30 @@ public class UnspecifiedXMLData implements CorpusData, XMLData {
 
     @Override
     public Object clone() {
-        return new UnspecifiedXMLData(this.url);
+        return shareSnapshot(new UnspecifiedXMLData(this.url));
+    }
+
+    /**
+     * Lets a clone share the content read from the file, as long as the file has not changed since
+     * @param copy the clone
+     * @return the clone
+     */
+    protected <T extends UnspecifiedXMLData> T shareSnapshot(T copy) {
+        CorpusDataSnapshot current = snapshot;
+        if (current != null && current.isCurrent()) {
+            copy.snapshot = current;
+        }
+        return copy;
+    }
+
+    private CorpusDataSnapshot getSnapshot() throws IOException, URISyntaxException {
+        if (snapshot == null) {
+            SAXBuilder builder = new SAXBuilder();
+            builder.setExpandEntities(false);
+            builder.setEntityResolver(null);
+            snapshot = CorpusDataSnapshot.read(url, builder);
+        }
+        return snapshot;
     }
 
     @Override
@@ -6,7 +6,6 @@
 
 package de.uni_hamburg.corpora.conversion;
 
-import de.uni_hamburg.corpora.utilities.TypeConverter;
 import de.uni_hamburg.corpora.utilities.XSLTransformer;
 import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerException;
@@ -25,12 +24,9 @@ public class CMDI2SolrXML {
     
     public String convert(String cmdiString) throws TransformerConfigurationException, TransformerException {
                         
-        // read the XSL stylesheet into a String
-        String xsl = TypeConverter.InputStream2String(getClass().getResourceAsStream(STYLESHEET_PATH));
-
         // perform XSLT transformation
         XSLTransformer xt = new XSLTransformer();
-        String result = xt.transform(cmdiString, xsl);
+        String result = xt.transformWithResource(cmdiString, STYLESHEET_PATH);
 
         return result;
          
@@ -12,16 +12,20 @@ import de.uni_hamburg.corpora.CorpusData;
 import de.uni_hamburg.corpora.CorpusFunction;
 import de.uni_hamburg.corpora.CorpusIO;
 import de.uni_hamburg.corpora.Report;
+import java.io.File;
 import java.io.IOException;
-import java.io.StringReader;
 import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.List;
 import java.util.Vector;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.exmaralda.partitureditor.fsm.FSMException;
 import org.exmaralda.partitureditor.jexmaralda.BasicTranscription;
 import org.exmaralda.partitureditor.jexmaralda.SegmentedTranscription;
-import de.uni_hamburg.corpora.utilities.XSLTransformer;
+import de.uni_hamburg.corpora.utilities.XSLTPipeline;
 
 import java.net.MalformedURLException;
 import java.net.URISyntaxException;
@@ -100,8 +104,19 @@ public class EXB2HIATISOTEI extends Converter implements CorpusFunction {
 
     Namespace teiNamespace = Namespace.getNamespace("tei", "http://www.tei-c.org/ns/1.0");
     
+    // the number of transcriptions of a corpus converted in parallel, 1 converts them one after another
+    int batchThreads = 1;
+
+    // the segmentation is created once per thread and reused for all its transcriptions, because HIATSegmentation
+    // is not known to be thread-safe. It still reads the FSM in every call of BasicToSegmented, EXMARaLDA offers no
+    // way to pass it an FSM which has already been parsed
+    private final ThreadLocal<HIATSegmentation> segmentation = ThreadLocal.withInitial(HIATSegmentation::new);
+
     public EXB2HIATISOTEI(Properties properties) {
         super(properties);
+        if (properties != null && properties.containsKey("batch-threads")) {
+            batchThreads = Integer.parseInt(properties.getProperty("batch-threads"));
+        }
     }
 
 
@@ -152,12 +167,18 @@ public class EXB2HIATISOTEI extends Converter implements CorpusFunction {
             // select communication elements in COMA xml
             XPathExpression<Element> xpath = new XPathBuilder<>("//Communication", Filters.element()).compileWith(xpathFactory);
             List<Element> communicationsList = xpath.evaluate(comaDoc);
-            // iterate through communications
+            // select basic transcriptions
+            XPathExpression<Element> transcriptionsXPath =
+                    new XPathBuilder<>("descendant::Transcription[ends-with(Filename,'.exb')]", Filters.element())
+                            .compileWith(xpathFactory);
+            List<Element> transcriptionsList = new ArrayList<>();
             for (Element communicationElement : communicationsList) {
-                // select basic transcriptions
-                List<Element> transcriptionsList =
-                        new XPathBuilder<>("descendant::Transcription[ends-with(Filename,'.exb')]", Filters.element())
-                		.compileWith(xpathFactory).evaluate(communicationElement);
+                transcriptionsList.addAll(transcriptionsXPath.evaluate(communicationElement));
+            }
+            if (batchThreads > 1) {
+                stats.merge(convertBatch(comaDoc, transcriptionsList, cd));
+            }
+            else {
                 // iterate through basic transcriptions
                 for (Element transcriptionElement : transcriptionsList) {
                     String transcriptID = transcriptionElement.getAttributeValue("Id");
@@ -167,50 +188,7 @@ public class EXB2HIATISOTEI extends Converter implements CorpusFunction {
                     URL exburl = new URL(fullPath);
                     //now use the method to get the iso tei version from the exb file
                     CorpusData cdc = cio.readFileURL(exburl);
-                    Document stdoc = cd2SegmentedTranscription(cdc);
-                    Document finalDoc = SegmentedTranscriptionToTEITranscription(stdoc,
-                            nameOfDeepSegmentation,
-                            nameOfFlategmentation,
-                            false, cd);
-                    //now add the coma id information
-                    // <idno type="AGD-ID">FOLK_E_00011_SE_01_T_04_DF_01</idno>
-                    Element transcriptIdnoElement = new Element("idno", teiNamespace);
-                    transcriptIdnoElement.setAttribute("type", "HZSK-ID");
-                    transcriptIdnoElement.setText(transcriptID);
-                    finalDoc.getRootElement().addContent(0, transcriptIdnoElement);
-
-                    XPathBuilder<Element> xp1 = new XPathBuilder<>("//tei:person", Filters.element());
-                    xp1.setNamespace(teiNamespace);
-                    List<Element> personL = xp1.compileWith(xpathFactory).evaluate(finalDoc);
-                    for (Element personE : personL) {
-                        // <person xml:id="SPK0" n="Sh" sex="2">
-                        String personSigle = personE.getAttributeValue("n");
-                        String xp2 = "//Speaker[Sigle='" + personSigle + "']";
-                        Element speakerE = new XPathBuilder<>("descendant::Transcription[ends-with(Filename,'.exb')]", Filters.element())
-                        		.compileWith(xpathFactory).evaluateFirst(comaDoc);
-                        String speakerID = speakerE.getAttributeValue("Id");
-                        Element speakerIdnoElement = new Element("idno", teiNamespace);
-                        speakerIdnoElement.setAttribute("type", "HZSK-ID");
-                        speakerIdnoElement.setText(speakerID);
-                        personE.addContent(0, speakerIdnoElement);
-
-                    }
-                    if (finalDoc != null) {
-                        System.out.println("Merged");
-                        //so is the language of the doc
-                        setDocLanguage(finalDoc, language);
-                        //now the completed document is saved
-                        //TODO save next to the old cd
-                        String filename = cdc.getURL().getFile();
-                        URL url = new URL("file://" + filename.substring(0, filename.lastIndexOf(".")) + "_tei.xml");
-                        System.out.println(url);
-                        cio.write(finalDoc, url);
-                        System.out.println("document written.");
-                        stats.addCorrect(function, cdc, "ISO TEI conversion of file was successful");
-                    } else {
-                        stats.addCritical(function, cdc, "ISO TEI conversion of file was not possible because of unknown error");
-                    }
-
+                    stats.merge(convertTranscription(comaDoc, transcriptID, cdc));
                 }
             }
 
@@ -238,6 +216,127 @@ public class EXB2HIATISOTEI extends Converter implements CorpusFunction {
         return stats;
     }
 
+    /**
+     * Converts a single transcription listed in a coma file, adding the ids from the coma file
+     * @param comaDoc the coma file
+     * @param transcriptID the id of the transcription in the coma file
+     * @param cdc the transcription
+     * @return the report
+     */
+    private Report convertTranscription(Document comaDoc, String transcriptID, CorpusData cdc) throws SAXException,
+            FSMException, JDOMException, IOException, TransformerException, ParserConfigurationException,
+            XPathExpressionException, URISyntaxException {
+        Report stats = new Report();
+        Document stdoc = cd2SegmentedTranscription(cdc);
+        Document finalDoc = SegmentedTranscriptionToTEITranscription(stdoc,
+                nameOfDeepSegmentation,
+                nameOfFlategmentation,
+                false, cdc);
+        //now add the coma id information
+        // <idno type="AGD-ID">FOLK_E_00011_SE_01_T_04_DF_01</idno>
+        Element transcriptIdnoElement = new Element("idno", teiNamespace);
+        transcriptIdnoElement.setAttribute("type", "HZSK-ID");
+        transcriptIdnoElement.setText(transcriptID);
+        finalDoc.getRootElement().addContent(0, transcriptIdnoElement);
+
+        XPathBuilder<Element> xp1 = new XPathBuilder<>("//tei:person", Filters.element());
+        xp1.setNamespace(teiNamespace);
+        List<Element> personL = xp1.compileWith(xpathFactory).evaluate(finalDoc);
+        for (Element personE : personL) {
+            // <person xml:id="SPK0" n="Sh" sex="2">
+            String personSigle = personE.getAttributeValue("n");
+            String xp2 = "//Speaker[Sigle='" + personSigle + "']";
+            Element speakerE = new XPathBuilder<>("descendant::Transcription[ends-with(Filename,'.exb')]", Filters.element())
+                    .compileWith(xpathFactory).evaluateFirst(comaDoc);
+            String speakerID = speakerE.getAttributeValue("Id");
+            Element speakerIdnoElement = new Element("idno", teiNamespace);
+            speakerIdnoElement.setAttribute("type", "HZSK-ID");
+            speakerIdnoElement.setText(speakerID);
+            personE.addContent(0, speakerIdnoElement);
+
+        }
+        if (finalDoc != null) {
+            System.out.println("Merged");
+            //so is the language of the doc
+            setDocLanguage(finalDoc, language);
+            //now the completed document is saved
+            //TODO save next to the old cd
+            String filename = cdc.getURL().getFile();
+            URL url = new URL("file://" + filename.substring(0, filename.lastIndexOf(".")) + "_tei.xml");
+            System.out.println(url);
+            // the document replaces an older version only once it is complete
+            cio.writeAtomically(finalDoc, url);
+            System.out.println("document written.");
+            stats.addCorrect(function, cdc, "ISO TEI conversion of file was successful");
+        } else {
+            stats.addCritical(function, cdc, "ISO TEI conversion of file was not possible because of unknown error");
+        }
+        return stats;
+    }
+
+    /**
+     * Converts the transcriptions listed in a coma file in parallel. Each transcription is converted on its own,
+     * i.e. a failing transcription is reported but does not stop the conversion of the others
+     * @param comaDoc the coma file
+     * @param transcriptions the Transcription elements from the coma file
+     * @param cd the coma file as corpus data
+     * @return the report for all transcriptions, in the order of the coma file
+     */
+    Report convertBatch(Document comaDoc, List<Element> transcriptions, CorpusData cd) throws MalformedURLException {
+        Report stats = new Report();
+        // an unusable FSM would make every single conversion fail
+        if (!FSM.isEmpty() && !new File(FSM).isFile()) {
+            stats.addCritical(function, cd, "Segmentation FSM not found: " + FSM);
+            return stats;
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(batchThreads, transcriptions.size())));
+        try {
+            List<Future<Report>> results = new ArrayList<>();
+            for (Element transcriptionElement : transcriptions) {
+                String transcriptID = transcriptionElement.getAttributeValue("Id");
+                URL exburl = new URL(cd.getParentURL() + "/" + transcriptionElement.getChildText("NSLink"));
+                results.add(pool.submit(() -> convertIsolated(comaDoc, transcriptID, exburl)));
+            }
+            for (Future<Report> result : results) {
+                try {
+                    stats.merge(result.get());
+                }
+                catch (ExecutionException ex) {
+                    stats.addException(function, ex.getCause(), cd, "ISO TEI conversion failed");
+                }
+                catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    stats.addException(function, ex, cd, "ISO TEI conversion was interrupted");
+                    break;
+                }
+            }
+        }
+        finally {
+            pool.shutdownNow();
+        }
+        return stats;
+    }
+
+    /**
+     * Converts a single transcription, reporting all errors instead of throwing them
+     */
+    private Report convertIsolated(Document comaDoc, String transcriptID, URL exburl) {
+        Report stats = new Report();
+        long start = System.nanoTime();
+        try {
+            // the file is known to be an exb, so there is no need to try all corpus data types
+            CorpusData cdc = new EXMARaLDATranscriptionData(exburl);
+            stats.merge(convertTranscription(comaDoc, transcriptID, cdc));
+            stats.addNote(function, cdc, String.format("Converted in %d ms",
+                    (System.nanoTime() - start) / 1000000));
+        }
+        catch (Exception ex) {
+            stats.addException(function, ex, String.format("ISO TEI conversion of %s failed after %d ms", exburl,
+                    (System.nanoTime() - start) / 1000000));
+        }
+        return stats;
+    }
+
     public Report convertEXB2MORPHEMEHIATISOTEI(CorpusData cd) throws SAXException, FSMException, JDOMException, IOException, TransformerException, ParserConfigurationException, XPathExpressionException, URISyntaxException {
         if (INEL) {
             TOKEN = true;
@@ -285,13 +384,14 @@ public class EXB2HIATISOTEI extends Converter implements CorpusFunction {
     public Document cd2SegmentedTranscription(CorpusData cd) throws SAXException, FSMException {
         //we create a BasicTranscription form the CorpusData
         EXMARaLDATranscriptionData btd = (EXMARaLDATranscriptionData) cd;
-        BasicTranscription bt = btd.getEXMARaLDAbt();
+        //work on a copy, the transcription is shared with other functions
+        BasicTranscription bt = btd.getEXMARaLDAbt().makeCopy();
         //normalize the exb (!)
         bt.normalize();
         System.out.println((cd.getURL()).getFile());
         System.out.println("started writing document...");
         //HIAT Segmentation
-        HIATSegmentation segmentation = new HIATSegmentation();
+        HIATSegmentation segmentation = this.segmentation.get();
         /*
                 //reading the internal FSM and writing it to TEMP folder because Exmaralda Segmentation only takes an external path
                 InputStream is = getClass().getResourceAsStream(FSM);
@@ -300,10 +400,8 @@ public class EXB2HIATISOTEI extends Converter implements CorpusFunction {
                 cio.write(fsmstring, url);
                 segmentation = new HIATSegmentation(url.getFile());
          */
-        //default HIAT segmentation
-        if (!FSM.isEmpty()) {
-            segmentation.pathToExternalFSM = FSM;
-        }
+        //default HIAT segmentation if no FSM is set, the segmentation may have been used with another FSM before
+        segmentation.pathToExternalFSM = FSM;
         //create a segmented exs
         SegmentedTranscription st = segmentation.BasicToSegmented(bt);
         System.out.println("Segmented transcription created");
@@ -317,26 +415,13 @@ public class EXB2HIATISOTEI extends Converter implements CorpusFunction {
             boolean includeFullText, CorpusData cd) throws JDOMException, IOException, TransformerException, ParserConfigurationException, SAXException, XPathExpressionException, URISyntaxException {
 
         Document finalDocument = null;
-        String skeleton_stylesheet = cio.readInternalResourceAsString(TEI_SKELETON_STYLESHEET_ISO);
-
-        String transform_stylesheet = cio.readInternalResourceAsString(SC_TO_TEI_U_STYLESHEET_ISO);
-
-        String sort_and_clean_stylesheet = cio.readInternalResourceAsString(SORT_AND_CLEAN_STYLESHEET_ISO);
-
-        String time_2_token_stylesheet = cio.readInternalResourceAsString(TIME2TOKEN_SPAN_REFERENCES);
-        String remove_time_stylesheet = cio.readInternalResourceAsString(REMOVE_TIME);
-        String spans_2_attributes_stylesheet = cio.readInternalResourceAsString(SPANS2_ATTRIBUTES);
-
+        // the stylesheets are read from the resources and compiled only once, the documents are passed to them
+        // without serializing and parsing them between the steps
         Document teiDocument;
 
-        XSLTransformer xslt = new XSLTransformer();
-        //transform wants an xml as string object and xsl as String Object
-        //System.out.println(skeleton_stylesheet);
-        String result
-                = xslt.transform(TypeConverter.JdomDocument2String(segmentedTranscription), skeleton_stylesheet);
-        if (result != null) {
-            //now we get a document of the first transformation, the iso tei skeleton
-            teiDocument = TypeConverter.String2JdomDocument(result);
+        //now we get a document of the first transformation, the iso tei skeleton
+        teiDocument = new XSLTPipeline().addStylesheet(TEI_SKELETON_STYLESHEET_ISO).transform(segmentedTranscription);
+        if (teiDocument != null) {
             System.out.println("STEP 1 completed.");
             //cio.write(teiDocument, new URL(intermediate1));
 
@@ -363,12 +448,7 @@ public class EXB2HIATISOTEI extends Converter implements CorpusFunction {
                 System.out.println("STEP 2 completed.");
                 //cio.write(teiDocument, new URL(intermediate2));
                 Document transformedDocument;
-                if (INEL) {
-                    xslt.setParameter("mode", "inel");
-                }
-                String result2
-                        = xslt.transform(TypeConverter.JdomDocument2String(teiDocument), transform_stylesheet);
-                transformedDocument = new SAXBuilder().build(new StringReader(result2));
+                transformedDocument = createPipeline(SC_TO_TEI_U_STYLESHEET_ISO).transform(teiDocument);
                 if (transformedDocument != null) {
                     //fix for issue #89
                     textNode = xp.evaluateFirst(transformedDocument);
@@ -411,8 +491,6 @@ public class EXB2HIATISOTEI extends Converter implements CorpusFunction {
                             https://github.com/EXMARaLDA/exmaralda/blob/master/src/org/exmaralda/tei/xml/time2tokenSpanReferences.xsl
                          */
                         //System.out.println("Document is: " + TypeConverter.JdomDocument2String(transformedDocument));
-                        String result4
-                                = xslt.transform(TypeConverter.JdomDocument2String(transformedDocument), time_2_token_stylesheet);
                         /*
                         (3) Das Löschen von "überflüssigen" <when> und <anchor>-Elementen,
                             also solchen, die im PE gebraucht wurden, um Annotationen zu
@@ -423,11 +501,9 @@ public class EXB2HIATISOTEI extends Converter implements CorpusFunction {
                             macht auch ein Stylesheet:
                             https://github.com/EXMARaLDA/exmaralda/blob/master/src/org/exmaralda/tei/xml/removeTimepointsWithoutAbsolute.xsl
                          */
-                        String result5
-                                = xslt.transform(result4, remove_time_stylesheet);
-                        String result6
-                                = xslt.transform(result5, spans_2_attributes_stylesheet);
-                        transformedDocument = new SAXBuilder().build(new StringReader(result6));
+                        //the three stylesheets are run as one pipeline, only the last result becomes a document
+                        transformedDocument = createPipeline(TIME2TOKEN_SPAN_REFERENCES, REMOVE_TIME,
+                                SPANS2_ATTRIBUTES).transform(transformedDocument);
 
                     }
                     //generate element ids
@@ -437,14 +513,10 @@ public class EXB2HIATISOTEI extends Converter implements CorpusFunction {
                         //Here the annotations are taken care of
                         //this is important for the INEL morpheme segmentations
                         //for the INEL transformation, the word IDs are generated earlier
-                        String result3
-                                = xslt.transform(TypeConverter.JdomDocument2String(transformedDocument), sort_and_clean_stylesheet);
-                        if (result3 != null) {
-                            finalDocument = new SAXBuilder().build(new StringReader(result3));
-                            //if (finalDocument != null) {
-                                //cio.write(finalDocument, new URL(intermediate5));
-                            //}
-                        }
+                        finalDocument = createPipeline(SORT_AND_CLEAN_STYLESHEET_ISO).transform(transformedDocument);
+                        //if (finalDocument != null) {
+                            //cio.write(finalDocument, new URL(intermediate5));
+                        //}
                     }
                 }
             }
@@ -452,6 +524,22 @@ public class EXB2HIATISOTEI extends Converter implements CorpusFunction {
         return finalDocument;
     }
 
+    /**
+     * Creates the pipeline for the steps after the skeleton, which depend on the mode of the conversion
+     * @param stylesheets the resource paths of the stylesheets
+     * @return the pipeline
+     */
+    private XSLTPipeline createPipeline(String... stylesheets) throws TransformerException {
+        XSLTPipeline pipeline = new XSLTPipeline();
+        for (String stylesheet : stylesheets) {
+            pipeline.addStylesheet(stylesheet);
+        }
+        if (INEL) {
+            pipeline.setParameter("mode", "inel");
+        }
+        return pipeline;
+    }
+
     /**
      * this method will take the segmented transcription and, for each speaker
      * contribution in the segmentation with the name 'nameOfDeepSegmentation'
@@ -811,4 +899,11 @@ public class EXB2HIATISOTEI extends Converter implements CorpusFunction {
         return "This class takes an exb as input and converts it into ISO standard TEI format. ";
     }
 
+    @Override
+    public Map<String, String> getParameters() {
+        Map<String, String> params = super.getParameters();
+        params.put("batch-threads", "Number of transcriptions of a corpus converted in parallel (default 1)");
+        return params;
+    }
+
 }
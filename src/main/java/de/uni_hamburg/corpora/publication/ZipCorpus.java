@@ -9,13 +9,16 @@ import de.uni_hamburg.corpora.Corpus;
 import de.uni_hamburg.corpora.CorpusData;
 import de.uni_hamburg.corpora.CorpusFunction;
 import de.uni_hamburg.corpora.Report;
+import de.uni_hamburg.corpora.utilities.CorpusFileIndex;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
@@ -109,7 +112,8 @@ public class ZipCorpus extends Publisher implements CorpusFunction {
     }
 
     /**
-     * Traverse a directory and get all files, and add the file into fileList
+     * Traverse a directory and get all files, and add the file into fileList. The directory is indexed again
+     * because files might have been created during the run, e.g. by converters
      *
      * @param node file or directory
      */
@@ -117,36 +121,47 @@ public class ZipCorpus extends Publisher implements CorpusFunction {
         Report stats = new Report();
         //add file only
         if (node.isFile()) {
-            if (AUDIO.equals("all")) {
-                if (node.getName().endsWith(".exb") || node.getName().endsWith(".exs") || node.getName().endsWith(".coma") || node.getName().endsWith(".pdf") || node.getName().endsWith(".wav") || node.getName().endsWith("tei.xml") || node.getName().endsWith(".mp3")) {
-                    System.out.println(node.getName());
-                    fileList.add(generateZipEntry(node.getAbsoluteFile().toString()));
-                    stats.addCorrect(function, comadata, node.getAbsoluteFile().toString() + " added to filelist");
-                }
-            } else if (AUDIO.equals("mp3")) {
-                if (node.getName().endsWith(".exb") || node.getName().endsWith(".exs") || node.getName().endsWith(".coma") || node.getName().endsWith(".pdf") || node.getName().endsWith(".mp3") || node.getName().endsWith("tei.xml")) {
-                    System.out.println(node.getName());
-                    fileList.add(generateZipEntry(node.getAbsoluteFile().toString()));
-                    stats.addCorrect(function, comadata, node.getAbsoluteFile().toString() + " added to filelist");
-                }
-            } else {
-                if (node.getName().endsWith(".exb") || node.getName().endsWith(".exs") || node.getName().endsWith(".coma") || node.getName().endsWith(".pdf") || node.getName().endsWith("tei.xml")) {
-                    System.out.println(node.getName());
-                    fileList.add(generateZipEntry(node.getAbsoluteFile().toString()));
-                    stats.addCorrect(function, comadata, node.getAbsoluteFile().toString() + " added to filelist");
-               }
-            }
+            addFile(node, stats);
         }
         if (node.isDirectory()) {
-            String[] subNote = node.list();
-            for (String filename : subNote) {
-                System.out.println(node.getName());
-                generateFileList(new File(node, filename));
+            CorpusFileIndex index = CorpusFileIndex.refresh(node.toPath());
+            for (Map.Entry<Path, IOException> e : index.getErrors().entrySet()) {
+                stats.addException(function, e.getValue(), comadata, "Cannot read " + e.getKey());
+            }
+            for (Path file : index.getFiles()) {
+                addFile(file.toFile(), stats);
             }
         }
         return stats;
     }
 
+    /**
+     * Adds a file into fileList if it is of one of the types to be zipped
+     *
+     * @param node the file
+     */
+    private void addFile(File node, Report stats) {
+        if (AUDIO.equals("all")) {
+            if (node.getName().endsWith(".exb") || node.getName().endsWith(".exs") || node.getName().endsWith(".coma") || node.getName().endsWith(".pdf") || node.getName().endsWith(".wav") || node.getName().endsWith("tei.xml") || node.getName().endsWith(".mp3")) {
+                System.out.println(node.getName());
+                fileList.add(generateZipEntry(node.getAbsoluteFile().toString()));
+                stats.addCorrect(function, comadata, node.getAbsoluteFile().toString() + " added to filelist");
+            }
+        } else if (AUDIO.equals("mp3")) {
+            if (node.getName().endsWith(".exb") || node.getName().endsWith(".exs") || node.getName().endsWith(".coma") || node.getName().endsWith(".pdf") || node.getName().endsWith(".mp3") || node.getName().endsWith("tei.xml")) {
+                System.out.println(node.getName());
+                fileList.add(generateZipEntry(node.getAbsoluteFile().toString()));
+                stats.addCorrect(function, comadata, node.getAbsoluteFile().toString() + " added to filelist");
+            }
+        } else {
+            if (node.getName().endsWith(".exb") || node.getName().endsWith(".exs") || node.getName().endsWith(".coma") || node.getName().endsWith(".pdf") || node.getName().endsWith("tei.xml")) {
+                System.out.println(node.getName());
+                fileList.add(generateZipEntry(node.getAbsoluteFile().toString()));
+                stats.addCorrect(function, comadata, node.getAbsoluteFile().toString() + " added to filelist");
+           }
+        }
+    }
+
     /**
      * Format the file path for zip
      *
@@ -0,0 +1,355 @@
+package de.uni_hamburg.corpora.utilities;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Index of all files and directories below a corpus directory together with their attributes.
+ *
+ * Walking a large corpus is slow, especially on network storage, and several components need the list of files.
+ * The index is created once per directory by walking the directory tree in parallel, one task per directory,
+ * and is shared by all components in the process. Indexes for subdirectories of an indexed directory are taken
+ * from the existing index instead of walking the disk again.
+ *
+ * The index reflects the file system at the time it was created. Components creating files should call
+ * invalidate, and components that need to see all files created during a run should use refresh.
+ *
+ * Symbolic links are followed like File.listFiles does, but each directory is only visited once.
+ *
+ * @author Herbert Lange
+ * @version 20261017
+ */
+public class CorpusFileIndex {
+
+    // The number of directories read in parallel. Listing directories is mostly waiting for the storage, so
+    // more threads than processors are useful
+    public static final int DEFAULT_PARALLELISM = Math.max(8, Runtime.getRuntime().availableProcessors());
+
+    // The indexes by root directory
+    private static final Map<Path, CorpusFileIndex> indexes = new ConcurrentHashMap<>();
+
+    // Locks to avoid walking the same directory several times in parallel
+    private static final Map<Path, Object> locks = new ConcurrentHashMap<>();
+
+    // The indexed directory, absolute and normalized
+    private final Path root;
+    // All files and directories below the root, sorted by path
+    private final NavigableMap<Path, BasicFileAttributes> entries;
+    // Problems while reading directories
+    private final Map<Path, IOException> errors;
+
+    private CorpusFileIndex(Path root, NavigableMap<Path, BasicFileAttributes> entries,
+                            Map<Path, IOException> errors) {
+        this.root = root;
+        this.entries = Collections.unmodifiableNavigableMap(entries);
+        this.errors = Collections.unmodifiableMap(errors);
+    }
+
+    /**
+     * Gets the shared index for a directory, creating it if necessary
+     * @param directory the directory
+     * @return the index
+     */
+    public static CorpusFileIndex get(Path directory) {
+        Path key = normalize(directory);
+        CorpusFileIndex cached = lookup(key);
+        if (cached != null) {
+            return cached;
+        }
+        Object lock = locks.computeIfAbsent(key, (k) -> new Object());
+        synchronized (lock) {
+            try {
+                // Check again, another thread might have created the index in the meantime
+                cached = lookup(key);
+                if (cached != null) {
+                    return cached;
+                }
+                CorpusFileIndex index = build(key, DEFAULT_PARALLELISM);
+                indexes.put(key, index);
+                return index;
+            }
+            finally {
+                locks.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Creates a new index for a directory, replacing the shared one
+     * @param directory the directory
+     * @return the new index
+     */
+    public static CorpusFileIndex refresh(Path directory) {
+        invalidate(directory);
+        return get(directory);
+    }
+
+    /**
+     * Removes all shared indexes which contain a path, e.g. after a file has been created or deleted
+     * @param path the changed file or directory
+     */
+    public static void invalidate(Path path) {
+        Path changed = normalize(path);
+        indexes.keySet().removeIf((k) -> changed.startsWith(k) || k.startsWith(changed));
+    }
+
+    /**
+     * Removes all shared indexes
+     */
+    public static void clear() {
+        indexes.clear();
+    }
+
+    /**
+     * Creates an index for a directory without sharing it
+     * @param directory the directory
+     * @param parallelism the number of directories read in parallel
+     * @return the index
+     */
+    public static CorpusFileIndex build(Path directory, int parallelism) {
+        Path start = normalize(directory);
+        Map<Path, BasicFileAttributes> found = new ConcurrentHashMap<>();
+        Map<Path, IOException> errors = new ConcurrentHashMap<>();
+        Set<Object> visited = ConcurrentHashMap.newKeySet();
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(start, BasicFileAttributes.class);
+            if (!attributes.isDirectory()) {
+                throw new NotDirectoryException(start.toString());
+            }
+            if (attributes.fileKey() != null) {
+                visited.add(attributes.fileKey());
+            }
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                pool.invoke(new DirectoryTask(start, found, errors, visited));
+            }
+            finally {
+                pool.shutdown();
+            }
+        }
+        catch (IOException e) {
+            errors.put(start, e);
+        }
+        return new CorpusFileIndex(start, new TreeMap<>(found), new TreeMap<>(errors));
+    }
+
+    /**
+     * Gets the indexed directory
+     * @return the directory, absolute and normalized
+     */
+    public Path getRoot() {
+        return root;
+    }
+
+    /**
+     * Gets all files below the directory, sorted by path
+     * @return the files
+     */
+    public List<Path> getFiles() {
+        return getFiles(null, null);
+    }
+
+    /**
+     * Gets the files below the directory matching glob patterns, e.g. **.exb. The patterns are matched against
+     * the path relative to the directory
+     * @param include the pattern files have to match, null for all files
+     * @param exclude the pattern files must not match, null to not exclude any files
+     * @return the files, sorted by path
+     */
+    public List<Path> getFiles(String include, String exclude) {
+        PathMatcher includeMatcher = include == null ? null : root.getFileSystem().getPathMatcher("glob:" + include);
+        PathMatcher excludeMatcher = exclude == null ? null : root.getFileSystem().getPathMatcher("glob:" + exclude);
+        List<Path> files = new ArrayList<>();
+        for (Map.Entry<Path, BasicFileAttributes> e : entries.entrySet()) {
+            if (e.getValue().isDirectory()) {
+                continue;
+            }
+            Path relative = root.relativize(e.getKey());
+            if ((includeMatcher == null || includeMatcher.matches(relative))
+                    && (excludeMatcher == null || !excludeMatcher.matches(relative))) {
+                files.add(e.getKey());
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Gets all directories below the directory, sorted by path
+     * @return the directories
+     */
+    public List<Path> getDirectories() {
+        List<Path> directories = new ArrayList<>();
+        for (Map.Entry<Path, BasicFileAttributes> e : entries.entrySet()) {
+            if (e.getValue().isDirectory()) {
+                directories.add(e.getKey());
+            }
+        }
+        return directories;
+    }
+
+    /**
+     * Gets all files and directories below the directory with their attributes
+     * @return the paths and attributes, sorted by path
+     */
+    public NavigableMap<Path, BasicFileAttributes> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Gets the attributes of a file as read when creating the index
+     * @param path the file
+     * @return the attributes or null if the file is not in the index
+     */
+    public BasicFileAttributes getAttributes(Path path) {
+        return entries.get(normalize(path));
+    }
+
+    /**
+     * Gets the problems while reading directories
+     * @return the exceptions by directory
+     */
+    public Map<Path, IOException> getErrors() {
+        return errors;
+    }
+
+    /**
+     * Converts a path in the index to a URI in the same way as File.toURI, but without accessing the disk again
+     * @param path the path
+     * @return the URI, ending in a slash for directories
+     */
+    public URI toURI(Path path) {
+        Path absolute = normalize(path);
+        BasicFileAttributes attributes = entries.get(absolute);
+        String p = absolute.toString();
+        if (File.separatorChar != '/') {
+            p = p.replace(File.separatorChar, '/');
+        }
+        if (!p.startsWith("/")) {
+            p = "/" + p;
+        }
+        if (attributes != null && attributes.isDirectory() && !p.endsWith("/")) {
+            p = p + "/";
+        }
+        if (p.startsWith("//")) {
+            p = "//" + p;
+        }
+        try {
+            return new URI("file", null, p, null);
+        }
+        catch (URISyntaxException e) {
+            // Cannot happen for absolute paths
+            return absolute.toUri();
+        }
+    }
+
+    private static Path normalize(Path path) {
+        return path.toAbsolutePath().normalize();
+    }
+
+    /**
+     * Gets the shared index for a directory, either directly or as part of the index of a parent directory
+     */
+    private static CorpusFileIndex lookup(Path directory) {
+        CorpusFileIndex cached = indexes.get(directory);
+        if (cached != null) {
+            return cached;
+        }
+        for (CorpusFileIndex parent : indexes.values()) {
+            if (directory.startsWith(parent.root)) {
+                BasicFileAttributes attributes = parent.entries.get(directory);
+                if (attributes != null && attributes.isDirectory()) {
+                    return parent.subIndex(directory);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Creates the index of a subdirectory from this index
+     */
+    private CorpusFileIndex subIndex(Path directory) {
+        NavigableMap<Path, BasicFileAttributes> subEntries = new TreeMap<>();
+        // The paths below the directory are sorted after it and next to each other, but not necessarily directly
+        // after it, e.g. a/b-c comes between a/b and a/b/c
+        boolean inside = false;
+        for (Map.Entry<Path, BasicFileAttributes> e : entries.tailMap(directory, false).entrySet()) {
+            if (e.getKey().startsWith(directory)) {
+                subEntries.put(e.getKey(), e.getValue());
+                inside = true;
+            }
+            else if (inside) {
+                break;
+            }
+        }
+        Map<Path, IOException> subErrors = new TreeMap<>();
+        for (Map.Entry<Path, IOException> e : errors.entrySet()) {
+            if (e.getKey().startsWith(directory)) {
+                subErrors.put(e.getKey(), e.getValue());
+            }
+        }
+        return new CorpusFileIndex(directory, subEntries, subErrors);
+    }
+
+    /**
+     * Reads one directory and forks tasks for all its subdirectories
+     */
+    private static class DirectoryTask extends RecursiveAction {
+
+        private final Path directory;
+        private final Map<Path, BasicFileAttributes> found;
+        private final Map<Path, IOException> errors;
+        private final Set<Object> visited;
+
+        DirectoryTask(Path directory, Map<Path, BasicFileAttributes> found, Map<Path, IOException> errors,
+                      Set<Object> visited) {
+            this.directory = directory;
+            this.found = found;
+            this.errors = errors;
+            this.visited = visited;
+        }
+
+        @Override
+        protected void compute() {
+            List<DirectoryTask> subtasks = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+                for (Path entry : stream) {
+                    try {
+                        BasicFileAttributes attributes = Files.readAttributes(entry, BasicFileAttributes.class);
+                        found.put(entry, attributes);
+                        // Do not follow links back into directories already visited
+                        if (attributes.isDirectory()
+                                && (attributes.fileKey() == null || visited.add(attributes.fileKey()))) {
+                            subtasks.add(new DirectoryTask(entry, found, errors, visited));
+                        }
+                    }
+                    catch (IOException e) {
+                        errors.put(entry, e);
+                    }
+                }
+            }
+            catch (IOException e) {
+                errors.put(directory, e);
+            }
+            invokeAll(subtasks);
+        }
+    }
+}
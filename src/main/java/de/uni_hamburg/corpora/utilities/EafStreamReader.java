@@ -0,0 +1,256 @@
+package de.uni_hamburg.corpora.utilities;
+
+import de.uni_hamburg.corpora.CorpusData;
+
+import java.io.IOException;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.xml.sax.SAXException;
+
+/**
+ * Streaming reader for ELAN annotation files. Instead of building a document tree the reader passes the parts of
+ * the file to a handler in document order, so read-only checkers only need memory for what they actually keep.
+ *
+ * @author Herbert Lange
+ * @version 20261017
+ */
+public class EafStreamReader {
+
+    /**
+     * A tier of an ELAN file
+     */
+    public static class Tier {
+        private final String id;
+        private final String linguisticTypeRef;
+        private final String participant;
+        private final String parentRef;
+
+        Tier(String id, String linguisticTypeRef, String participant, String parentRef) {
+            this.id = id;
+            this.linguisticTypeRef = linguisticTypeRef;
+            this.participant = participant;
+            this.parentRef = parentRef;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getLinguisticTypeRef() {
+            return linguisticTypeRef;
+        }
+
+        public String getParticipant() {
+            return participant;
+        }
+
+        public String getParentRef() {
+            return parentRef;
+        }
+    }
+
+    /**
+     * An alignable or reference annotation
+     */
+    public static class Annotation {
+        private final String id;
+        private final String ref;
+        private final String timeSlotRef1;
+        private final String timeSlotRef2;
+        private final String value;
+
+        Annotation(String id, String ref, String timeSlotRef1, String timeSlotRef2, String value) {
+            this.id = id;
+            this.ref = ref;
+            this.timeSlotRef1 = timeSlotRef1;
+            this.timeSlotRef2 = timeSlotRef2;
+            this.value = value;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        /**
+         * Gets the id of the annotation referred to
+         * @return the id or null for alignable annotations
+         */
+        public String getRef() {
+            return ref;
+        }
+
+        /**
+         * Gets the id of the start time slot
+         * @return the id or null for reference annotations
+         */
+        public String getTimeSlotRef1() {
+            return timeSlotRef1;
+        }
+
+        /**
+         * Gets the id of the end time slot
+         * @return the id or null for reference annotations
+         */
+        public String getTimeSlotRef2() {
+            return timeSlotRef2;
+        }
+
+        /**
+         * Gets the text of the annotation value
+         * @return the value or null if the annotation has no value
+         */
+        public String getValue() {
+            return value;
+        }
+    }
+
+    /**
+     * Receives the parts of an ELAN file. All methods do nothing by default
+     */
+    public interface Handler {
+
+        /**
+         * Called for each time slot
+         * @param id the id of the time slot
+         * @param value the time in milliseconds or null if the time slot is unaligned
+         */
+        default void timeSlot(String id, String value) {
+        }
+
+        /**
+         * Called at the start of each tier
+         * @param tier the tier
+         */
+        default void startTier(Tier tier) {
+        }
+
+        /**
+         * Called for each annotation in a tier
+         * @param tier the tier containing the annotation
+         * @param annotation the annotation
+         */
+        default void annotation(Tier tier, Annotation annotation) {
+        }
+
+        /**
+         * Decides if the text of a tier is needed in endTier
+         * @param tier the tier
+         * @return true if the text should be collected
+         */
+        default boolean needsText(Tier tier) {
+            return false;
+        }
+
+        /**
+         * Called at the end of each tier
+         * @param tier the tier
+         * @param text all text of the tier as given by XMLTools.showAllText or null if not requested in needsText
+         */
+        default void endTier(Tier tier, String text) {
+        }
+    }
+
+    private EafStreamReader() {
+    }
+
+    /**
+     * Reads an ELAN file and passes its parts to the handler
+     * @param cd the ELAN file
+     * @param handler the handler
+     * @throws IOException if the file cannot be read
+     * @throws SAXException if the file is not well-formed
+     */
+    public static void read(CorpusData cd, Handler handler) throws IOException, SAXException {
+        try {
+            XMLStreamReader reader = XMLStreamTools.createReader(cd);
+            try {
+                Tier tier = null;
+                XMLStreamTools.TextCollector tierText = null;
+                String annotationId = null;
+                String annotationRef = null;
+                String timeSlotRef1 = null;
+                String timeSlotRef2 = null;
+                boolean inAnnotation = false;
+                StringBuilder value = null;
+                while (reader.hasNext()) {
+                    switch (reader.next()) {
+                        case XMLStreamConstants.START_ELEMENT:
+                            if (tierText != null) {
+                                tierText.startElement();
+                            }
+                            String name = reader.getLocalName();
+                            if (name.equals("TIME_SLOT")) {
+                                handler.timeSlot(reader.getAttributeValue(null, "TIME_SLOT_ID"),
+                                        reader.getAttributeValue(null, "TIME_VALUE"));
+                            }
+                            else if (name.equals("TIER") && tier == null) {
+                                tier = new Tier(reader.getAttributeValue(null, "TIER_ID"),
+                                        reader.getAttributeValue(null, "LINGUISTIC_TYPE_REF"),
+                                        reader.getAttributeValue(null, "PARTICIPANT"),
+                                        reader.getAttributeValue(null, "PARENT_REF"));
+                                handler.startTier(tier);
+                                if (handler.needsText(tier)) {
+                                    tierText = new XMLStreamTools.TextCollector();
+                                    tierText.startElement();
+                                }
+                            }
+                            else if (tier != null && (name.equals("ALIGNABLE_ANNOTATION") || name.equals("REF_ANNOTATION"))) {
+                                inAnnotation = true;
+                                annotationId = reader.getAttributeValue(null, "ANNOTATION_ID");
+                                annotationRef = reader.getAttributeValue(null, "ANNOTATION_REF");
+                                timeSlotRef1 = reader.getAttributeValue(null, "TIME_SLOT_REF1");
+                                timeSlotRef2 = reader.getAttributeValue(null, "TIME_SLOT_REF2");
+                                value = null;
+                            }
+                            else if (inAnnotation && name.equals("ANNOTATION_VALUE") && value == null) {
+                                value = new StringBuilder();
+                            }
+                            break;
+                        case XMLStreamConstants.CHARACTERS:
+                        case XMLStreamConstants.CDATA:
+                        case XMLStreamConstants.SPACE:
+                            if (tierText != null) {
+                                tierText.characters(reader.getText());
+                            }
+                            if (value != null && inAnnotation) {
+                                value.append(reader.getText());
+                            }
+                            break;
+                        case XMLStreamConstants.END_ELEMENT:
+                            String text = tierText != null ? tierText.endElement() : null;
+                            String endName = reader.getLocalName();
+                            if (endName.equals("ANNOTATION_VALUE") && value != null) {
+                                // Stop collecting but keep the value for the annotation
+                                inAnnotation = false;
+                            }
+                            else if (endName.equals("ALIGNABLE_ANNOTATION") || endName.equals("REF_ANNOTATION")) {
+                                if (tier != null) {
+                                    handler.annotation(tier, new Annotation(annotationId, annotationRef, timeSlotRef1,
+                                            timeSlotRef2, value == null ? null : value.toString()));
+                                }
+                                inAnnotation = false;
+                                value = null;
+                            }
+                            else if (endName.equals("TIER") && tier != null
+                                    && (tierText == null || !tierText.isActive())) {
+                                handler.endTier(tier, text);
+                                tier = null;
+                                tierText = null;
+                            }
+                            break;
+                        default:
+                            break;
+                    }
+                }
+            }
+            finally {
+                reader.close();
+            }
+        }
+        catch (XMLStreamException e) {
+            // Treat it like any other parsing error
+            throw new SAXException(e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package de.uni_hamburg.corpora.utilities;
+
+import de.uni_hamburg.corpora.CorpusData;
+
+import java.io.IOException;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.xml.sax.SAXException;
+
+/**
+ * Streaming reader for EXMARaLDA basic and segmented transcriptions. Instead of building a document tree the
+ * reader passes the parts of the file to a handler in document order, so read-only checkers only need memory for
+ * what they actually keep.
+ *
+ * @author Herbert Lange
+ * @version 20261017
+ */
+public class ExbStreamReader {
+
+    /**
+     * A tier of a basic transcription
+     */
+    public static class Tier {
+        private final String id;
+        private final String speaker;
+        private final String category;
+        private final String type;
+        private final String displayName;
+
+        Tier(String id, String speaker, String category, String type, String displayName) {
+            this.id = id;
+            this.speaker = speaker;
+            this.category = category;
+            this.type = type;
+            this.displayName = displayName;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getSpeaker() {
+            return speaker;
+        }
+
+        public String getCategory() {
+            return category;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    /**
+     * An event in a tier of a basic transcription
+     */
+    public static class Event {
+        private final String start;
+        private final String end;
+        private final String text;
+
+        Event(String start, String end, String text) {
+            this.start = start;
+            this.end = end;
+            this.text = text;
+        }
+
+        public String getStart() {
+            return start;
+        }
+
+        public String getEnd() {
+            return end;
+        }
+
+        /**
+         * Gets the text content of the event, including the text of all elements contained in the event
+         * @return the text
+         */
+        public String getText() {
+            return text;
+        }
+    }
+
+    /**
+     * Receives the parts of a transcription. All methods do nothing by default
+     */
+    public interface Handler {
+
+        /**
+         * Called for each timeline item, both in the common timeline and in timeline forks
+         * @param id the id of the item
+         * @param time the time or null if the item has no absolute time
+         */
+        default void timelineItem(String id, String time) {
+        }
+
+        /**
+         * Called at the start of each tier of a basic transcription
+         * @param tier the tier
+         */
+        default void startTier(Tier tier) {
+        }
+
+        /**
+         * Called for each event in a tier
+         * @param tier the tier containing the event
+         * @param event the event
+         */
+        default void event(Tier tier, Event event) {
+        }
+
+        /**
+         * Decides if the text of a tier is needed in endTier
+         * @param tier the tier
+         * @return true if the text should be collected
+         */
+        default boolean needsText(Tier tier) {
+            return false;
+        }
+
+        /**
+         * Called at the end of each tier
+         * @param tier the tier
+         * @param text all text of the tier as given by XMLTools.showAllText or null if not requested in needsText
+         */
+        default void endTier(Tier tier, String text) {
+        }
+
+        /**
+         * Called for each segment chain of a segmented transcription, i.e. for each ts element directly
+         * contained in a segmentation
+         * @param id the id of the segment chain
+         * @param start the id of the start timeline item
+         * @param end the id of the end timeline item
+         */
+        default void segmentChain(String id, String start, String end) {
+        }
+    }
+
+    private ExbStreamReader() {
+    }
+
+    /**
+     * Reads an EXMARaLDA file and passes its parts to the handler
+     * @param cd the basic or segmented transcription
+     * @param handler the handler
+     * @throws IOException if the file cannot be read
+     * @throws SAXException if the file is not well-formed
+     */
+    public static void read(CorpusData cd, Handler handler) throws IOException, SAXException {
+        try {
+            XMLStreamReader reader = XMLStreamTools.createReader(cd);
+            try {
+                int depth = 0;
+                // Depth of the current segmentation element or -1 if outside of one
+                int segmentationDepth = -1;
+                Tier tier = null;
+                XMLStreamTools.TextCollector tierText = null;
+                String eventStart = null;
+                String eventEnd = null;
+                StringBuilder eventText = null;
+                while (reader.hasNext()) {
+                    switch (reader.next()) {
+                        case XMLStreamConstants.START_ELEMENT:
+                            depth++;
+                            if (tierText != null) {
+                                tierText.startElement();
+                            }
+                            String name = reader.getLocalName();
+                            if (name.equals("tli")) {
+                                handler.timelineItem(reader.getAttributeValue(null, "id"),
+                                        reader.getAttributeValue(null, "time"));
+                            }
+                            else if (name.equals("tier") && tier == null) {
+                                tier = new Tier(reader.getAttributeValue(null, "id"),
+                                        reader.getAttributeValue(null, "speaker"),
+                                        reader.getAttributeValue(null, "category"),
+                                        reader.getAttributeValue(null, "type"),
+                                        reader.getAttributeValue(null, "display-name"));
+                                handler.startTier(tier);
+                                if (handler.needsText(tier)) {
+                                    tierText = new XMLStreamTools.TextCollector();
+                                    tierText.startElement();
+                                }
+                            }
+                            else if (name.equals("event") && tier != null && eventText == null) {
+                                eventStart = reader.getAttributeValue(null, "start");
+                                eventEnd = reader.getAttributeValue(null, "end");
+                                eventText = new StringBuilder();
+                            }
+                            else if (name.equals("segmentation")) {
+                                segmentationDepth = depth;
+                            }
+                            else if (name.equals("ts") && segmentationDepth >= 0 && depth == segmentationDepth + 1) {
+                                handler.segmentChain(reader.getAttributeValue(null, "id"),
+                                        reader.getAttributeValue(null, "s"),
+                                        reader.getAttributeValue(null, "e"));
+                            }
+                            break;
+                        case XMLStreamConstants.CHARACTERS:
+                        case XMLStreamConstants.CDATA:
+                        case XMLStreamConstants.SPACE:
+                            if (tierText != null) {
+                                tierText.characters(reader.getText());
+                            }
+                            if (eventText != null) {
+                                eventText.append(reader.getText());
+                            }
+                            break;
+                        case XMLStreamConstants.END_ELEMENT:
+                            String text = tierText != null ? tierText.endElement() : null;
+                            String endName = reader.getLocalName();
+                            if (endName.equals("event") && eventText != null) {
+                                handler.event(tier, new Event(eventStart, eventEnd, eventText.toString()));
+                                eventText = null;
+                            }
+                            else if (endName.equals("tier") && tier != null
+                                    && (tierText == null || !tierText.isActive())) {
+                                handler.endTier(tier, text);
+                                tier = null;
+                                tierText = null;
+                            }
+                            else if (endName.equals("segmentation") && depth == segmentationDepth) {
+                                segmentationDepth = -1;
+                            }
+                            depth--;
+                            break;
+                        default:
+                            break;
+                    }
+                }
+            }
+            finally {
+                reader.close();
+            }
+        }
+        catch (XMLStreamException e) {
+            // Treat it like any other parsing error
+            throw new SAXException(e.getMessage(), e);
+        }
+    }
+}
@@ -53,9 +53,9 @@ public class PrettyPrinter {
     * @return	                 indented XML string
     */
     public String indent(String xml, String suppressedElements) throws TransformerException, ParserConfigurationException, UnsupportedEncodingException, SAXException, IOException, JDOMException {
-                    
-        String xslString = TypeConverter.InputStream2String(getClass().getResourceAsStream(xslLocation));
-        return indent(xml, suppressedElements, xslString);
+        
+        // the stylesheet is only read and compiled once
+        return prettyPrint(xml, suppressedElements, null, xslLocation);
       
     }
     
@@ -68,6 +68,20 @@ public class PrettyPrinter {
     * @return	                 indented XML string
     */
     public String indent(String xml, String suppressedElements, String xslString) throws TransformerException, ParserConfigurationException, UnsupportedEncodingException, SAXException, IOException, JDOMException {
+        return prettyPrint(xml, suppressedElements, xslString, null);
+    }
+    
+    
+    /**
+    * pretty-prints (indents) XML using either a stylesheet string or a stylesheet resource
+    * 
+    * @param xml                 The input XML string 
+    * @param suppressedElements  blank-separated list of QNames for elements to be disregarded for indentation
+    * @param xslString           the stylesheet as string, only used if xslResource is null
+    * @param xslResource         the resource path of the stylesheet or null
+    * @return	                 indented XML string
+    */
+    private String prettyPrint(String xml, String suppressedElements, String xslString, String xslResource) throws TransformerException, ParserConfigurationException, UnsupportedEncodingException, SAXException, IOException, JDOMException {
       
         
             // Turn xml string into a document
@@ -101,7 +115,10 @@ public class PrettyPrinter {
             
             // perform XSLT transformation
             String prettyXmlString;
-            if(xslString.equals("")){                
+            if(xslResource != null){
+                prettyXmlString = xt.transformWithResource(xmlString, xslResource);
+
+            } else if(xslString.equals("")){                
                 prettyXmlString = xt.transform(xmlString);
 
             } else{
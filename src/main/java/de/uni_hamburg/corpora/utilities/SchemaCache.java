@@ -0,0 +1,375 @@
+package de.uni_hamburg.corpora.utilities;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.xml.XMLConstants;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import org.w3c.dom.ls.LSInput;
+import org.w3c.dom.ls.LSResourceResolver;
+import org.xml.sax.SAXException;
+
+/**
+ * Process-wide cache of compiled XML schemas. Compiled schemas are thread-safe, so each schema is only compiled
+ * once and shared by all validations. Schemas are identified by their URI.
+ *
+ * Remote schemas are looked up in a local catalog before downloading them, both for the schema itself and all
+ * schemas it imports or includes:
+ * <ol>
+ *     <li>schemas bundled with corpus services, listed in /schemas/catalog.properties</li>
+ *     <li>copies in the cache directory, stored as host/path, e.g.
+ *     www.exmaralda.org/xml/comacorpus.xsd. The directory can be filled in advance for hosts without network
+ *     access</li>
+ *     <li>downloads, which are stored in the cache directory unless working offline</li>
+ * </ol>
+ * The cache directory can be set by the system property de.uni_hamburg.corpora.schemaCache and offline mode by
+ * de.uni_hamburg.corpora.schemaCache.offline=true.
+ *
+ * @author Herbert Lange
+ * @version 20261017
+ */
+public class SchemaCache {
+
+    private static final String CATALOG = "/schemas/catalog.properties";
+
+    // The compiled schemas
+    private static final Map<String, Schema> schemas = new ConcurrentHashMap<>();
+
+    // Locks to avoid compiling the same schema several times in parallel
+    private static final Map<String, Object> locks = new ConcurrentHashMap<>();
+
+    // Remote URIs of bundled schemas to their resource paths
+    private static final Properties catalog = loadCatalog();
+
+    private static volatile Path cacheDirectory = defaultCacheDirectory();
+
+    private static volatile boolean offline = Boolean.getBoolean("de.uni_hamburg.corpora.schemaCache.offline");
+
+    private SchemaCache() {
+    }
+
+    /**
+     * Gets the compiled version of a schema given by its URI
+     * @param uri the URI of the schema
+     * @return the compiled schema
+     * @throws SAXException if the schema cannot be compiled
+     * @throws IOException if the schema is neither available locally nor can be downloaded
+     */
+    public static Schema get(String uri) throws SAXException, IOException {
+        Schema cached = schemas.get(uri);
+        if (cached != null) {
+            return cached;
+        }
+        Object lock = locks.computeIfAbsent(uri, (k) -> new Object());
+        synchronized (lock) {
+            try {
+                // Check again, another thread might have compiled the schema in the meantime
+                cached = schemas.get(uri);
+                if (cached != null) {
+                    return cached;
+                }
+                URL local = resolve(uri);
+                Schema compiled = compile(local, uri);
+                schemas.put(uri, compiled);
+                return compiled;
+            }
+            finally {
+                locks.remove(uri);
+            }
+        }
+    }
+
+    /**
+     * Gets the compiled version of a schema stored as a resource on the class path
+     * @param resource the absolute path of the resource
+     * @return the compiled schema
+     * @throws SAXException if the schema cannot be compiled
+     * @throws IOException if the resource is missing
+     */
+    public static Schema fromResource(String resource) throws SAXException, IOException {
+        URL url = SchemaCache.class.getResource(resource);
+        if (url == null) {
+            throw new IOException("Schema not found: " + resource);
+        }
+        return get(url.toExternalForm());
+    }
+
+    /**
+     * Gives a local copy of a schema if possible. Local files and resources are returned unchanged, remote schemas
+     * are looked up in the catalog and the cache directory and downloaded into the cache directory otherwise
+     * @param uri the URI of the schema
+     * @return the URL to read the schema from
+     * @throws IOException if a remote schema is not available locally when working offline or cannot be downloaded
+     */
+    public static URL resolve(String uri) throws IOException {
+        String resource = catalog.getProperty(uri);
+        if (resource != null && SchemaCache.class.getResource(resource) != null) {
+            return SchemaCache.class.getResource(resource);
+        }
+        URI parsed;
+        try {
+            parsed = new URI(uri);
+        }
+        catch (URISyntaxException e) {
+            throw new IOException("Invalid schema URI: " + uri, e);
+        }
+        String scheme = parsed.getScheme();
+        if (scheme == null || !(scheme.equalsIgnoreCase("http") || scheme.equalsIgnoreCase("https"))) {
+            return parsed.toURL();
+        }
+        Path cached = getCachePath(parsed);
+        if (cached != null && Files.isRegularFile(cached)) {
+            return cached.toUri().toURL();
+        }
+        if (offline) {
+            throw new IOException("Schema not available offline: " + uri + (cached == null ? "" :
+                    " (expected in " + cached + ")"));
+        }
+        if (cached == null) {
+            return parsed.toURL();
+        }
+        Files.createDirectories(cached.getParent());
+        // Download to a temporary file first so other processes never see a partial schema
+        Path tmp = Files.createTempFile(cached.getParent(), cached.getFileName().toString(), ".part");
+        try (InputStream is = parsed.toURL().openStream()) {
+            Files.copy(is, tmp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(tmp, cached, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        finally {
+            Files.deleteIfExists(tmp);
+        }
+        return cached.toUri().toURL();
+    }
+
+    /**
+     * Sets the directory remote schemas are stored in
+     * @param dir the directory or null to not store schemas on disk
+     */
+    public static void setCacheDirectory(Path dir) {
+        cacheDirectory = dir;
+    }
+
+    /**
+     * Gets the directory remote schemas are stored in
+     * @return the directory or null if schemas are not stored on disk
+     */
+    public static Path getCacheDirectory() {
+        return cacheDirectory;
+    }
+
+    /**
+     * Sets if remote schemas may be downloaded
+     * @param isOffline true if only local copies of schemas may be used
+     */
+    public static void setOffline(boolean isOffline) {
+        offline = isOffline;
+    }
+
+    /**
+     * Gets the number of compiled schemas currently in the cache
+     * @return the size of the cache
+     */
+    public static int size() {
+        return schemas.size();
+    }
+
+    /**
+     * Removes all compiled schemas from the cache. Schemas stored on disk are kept
+     */
+    public static void clear() {
+        schemas.clear();
+    }
+
+    private static Schema compile(URL url, String uri) throws SAXException, IOException {
+        // Schema factories are not thread-safe, so each compilation uses its own
+        SchemaFactory factory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+        factory.setResourceResolver(new CatalogResolver());
+        try (InputStream is = url.openStream()) {
+            StreamSource source = new StreamSource(is);
+            // Relative imports and includes are resolved against the original location
+            source.setSystemId(isRemote(uri) ? uri : url.toExternalForm());
+            return factory.newSchema(source);
+        }
+    }
+
+    private static boolean isRemote(String uri) {
+        return uri.startsWith("http://") || uri.startsWith("https://");
+    }
+
+    /**
+     * Maps a remote URI to a file in the cache directory
+     * @return the path or null if there is no cache directory or the URI cannot be mapped safely
+     */
+    private static Path getCachePath(URI uri) {
+        Path dir = cacheDirectory;
+        if (dir == null || uri.getHost() == null) {
+            return null;
+        }
+        String path = uri.getPath() == null || uri.getPath().isEmpty() || uri.getPath().endsWith("/") ?
+                (uri.getPath() == null ? "" : uri.getPath()) + "index.xsd" : uri.getPath();
+        if (uri.getQuery() != null) {
+            path = path + "_" + Integer.toHexString(uri.getQuery().hashCode());
+        }
+        Path host = dir.resolve(uri.getHost()).normalize();
+        Path cached = host.resolve(path.replaceFirst("^/+", "")).normalize();
+        // Never leave the cache directory
+        if (!cached.startsWith(host)) {
+            return null;
+        }
+        return cached;
+    }
+
+    private static Path defaultCacheDirectory() {
+        String property = System.getProperty("de.uni_hamburg.corpora.schemaCache");
+        if (property != null && !property.isEmpty()) {
+            return Paths.get(property);
+        }
+        return Paths.get(System.getProperty("java.io.tmpdir"), "corpus-services-schemas");
+    }
+
+    private static Properties loadCatalog() {
+        Properties properties = new Properties();
+        try (InputStream is = SchemaCache.class.getResourceAsStream(CATALOG)) {
+            if (is != null) {
+                properties.load(is);
+            }
+        }
+        catch (IOException e) {
+            // Without a catalog all schemas are looked up in the cache directory or downloaded
+        }
+        return properties;
+    }
+
+    /**
+     * Resolves imported and included schemas using the catalog and the cache directory
+     */
+    private static class CatalogResolver implements LSResourceResolver {
+
+        @Override
+        public LSInput resolveResource(String type, String namespaceURI, String publicId, String systemId,
+                                       String baseURI) {
+            if (systemId == null) {
+                return null;
+            }
+            try {
+                String uri = baseURI == null ? systemId : new URI(baseURI).resolve(new URI(systemId)).toString();
+                if (!isRemote(uri)) {
+                    // Local files are read by the parser itself
+                    return null;
+                }
+                URL local = resolve(uri);
+                return new Input(publicId, uri, baseURI, local.openStream());
+            }
+            catch (URISyntaxException | IOException e) {
+                // Let the parser report the schema as missing
+                return null;
+            }
+        }
+    }
+
+    /**
+     * A schema document read from a local copy but keeping its original system id
+     */
+    private static class Input implements LSInput {
+
+        private String publicId;
+        private String systemId;
+        private String baseURI;
+        private InputStream byteStream;
+
+        Input(String publicId, String systemId, String baseURI, InputStream byteStream) {
+            this.publicId = publicId;
+            this.systemId = systemId;
+            this.baseURI = baseURI;
+            this.byteStream = byteStream;
+        }
+
+        @Override
+        public Reader getCharacterStream() {
+            return null;
+        }
+
+        @Override
+        public void setCharacterStream(Reader characterStream) {
+        }
+
+        @Override
+        public InputStream getByteStream() {
+            return byteStream;
+        }
+
+        @Override
+        public void setByteStream(InputStream byteStream) {
+            this.byteStream = byteStream;
+        }
+
+        @Override
+        public String getStringData() {
+            return null;
+        }
+
+        @Override
+        public void setStringData(String stringData) {
+        }
+
+        @Override
+        public String getSystemId() {
+            return systemId;
+        }
+
+        @Override
+        public void setSystemId(String systemId) {
+            this.systemId = systemId;
+        }
+
+        @Override
+        public String getPublicId() {
+            return publicId;
+        }
+
+        @Override
+        public void setPublicId(String publicId) {
+            this.publicId = publicId;
+        }
+
+        @Override
+        public String getBaseURI() {
+            return baseURI;
+        }
+
+        @Override
+        public void setBaseURI(String baseURI) {
+            this.baseURI = baseURI;
+        }
+
+        @Override
+        public String getEncoding() {
+            return null;
+        }
+
+        @Override
+        public void setEncoding(String encoding) {
+        }
+
+        @Override
+        public boolean getCertifiedText() {
+            return false;
+        }
+
+        @Override
+        public void setCertifiedText(boolean certifiedText) {
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package de.uni_hamburg.corpora.utilities;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.xml.transform.Templates;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.stream.StreamSource;
+
+/**
+ * Process-wide cache of compiled XSLT stylesheets. Compiling a stylesheet is expensive compared to applying it,
+ * so each stylesheet is only compiled once per transformer factory and the resulting Templates object, which
+ * is thread-safe, is shared by all transformations. Stylesheets are identified either by their resource path
+ * or by a hash of their content. The cache is bounded and evicts the least recently used stylesheet.
+ *
+ * @author Herbert Lange
+ * @version 20261017
+ */
+public class StylesheetCache {
+
+    // The maximum number of compiled stylesheets kept in memory
+    private static int maxSize = 64;
+
+    // The compiled stylesheets in access order
+    private static final Map<String, Templates> templates = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Templates> eldest) {
+            return size() > maxSize;
+        }
+    };
+
+    // Locks to avoid compiling the same stylesheet several times in parallel
+    private static final Map<String, Object> locks = new ConcurrentHashMap<>();
+
+    private StylesheetCache() {
+    }
+
+    /**
+     * Gets the compiled version of a stylesheet given as a string
+     * @param factory the transformer factory used to compile the stylesheet
+     * @param xsl the stylesheet
+     * @return the compiled stylesheet
+     * @throws TransformerConfigurationException if the stylesheet cannot be compiled
+     */
+    public static Templates fromString(TransformerFactory factory, String xsl) throws TransformerConfigurationException {
+        String key = factory.getClass().getName() + ":sha256:" + hash(xsl);
+        return get(factory, key, TypeConverter.String2StreamSource(xsl));
+    }
+
+    /**
+     * Gets the compiled version of a stylesheet stored as a resource on the class path. The resource is only read
+     * if the stylesheet is not yet in the cache
+     * @param factory the transformer factory used to compile the stylesheet
+     * @param resource the absolute path of the resource
+     * @return the compiled stylesheet
+     * @throws TransformerConfigurationException if the resource is missing or cannot be compiled
+     */
+    public static Templates fromResource(TransformerFactory factory, String resource) throws TransformerConfigurationException {
+        String key = factory.getClass().getName() + ":resource:" + resource;
+        Templates cached = lookup(key);
+        if (cached != null) {
+            return cached;
+        }
+        URL url = StylesheetCache.class.getResource(resource);
+        if (url == null) {
+            throw new TransformerConfigurationException("Stylesheet not found: " + resource);
+        }
+        String xsl;
+        try (InputStream is = url.openStream()) {
+            xsl = TypeConverter.InputStream2String(is);
+        }
+        catch (IOException e) {
+            throw new TransformerConfigurationException("Stylesheet could not be read: " + resource, e);
+        }
+        StreamSource source = TypeConverter.String2StreamSource(xsl);
+        // Allows relative includes and imports in the stylesheet
+        source.setSystemId(url.toExternalForm());
+        return get(factory, key, source);
+    }
+
+    /**
+     * Sets the maximum number of compiled stylesheets kept in the cache
+     * @param size the new maximum size
+     */
+    public static void setMaxSize(int size) {
+        synchronized (templates) {
+            maxSize = size;
+        }
+    }
+
+    /**
+     * Gets the number of compiled stylesheets currently in the cache
+     * @return the size of the cache
+     */
+    public static int size() {
+        synchronized (templates) {
+            return templates.size();
+        }
+    }
+
+    /**
+     * Removes all compiled stylesheets from the cache
+     */
+    public static void clear() {
+        synchronized (templates) {
+            templates.clear();
+        }
+    }
+
+    private static Templates lookup(String key) {
+        synchronized (templates) {
+            return templates.get(key);
+        }
+    }
+
+    private static Templates get(TransformerFactory factory, String key, StreamSource source) throws TransformerConfigurationException {
+        Templates cached = lookup(key);
+        if (cached != null) {
+            return cached;
+        }
+        Object lock = locks.computeIfAbsent(key, (k) -> new Object());
+        synchronized (lock) {
+            try {
+                // Check again, another thread might have compiled the stylesheet in the meantime
+                cached = lookup(key);
+                if (cached != null) {
+                    return cached;
+                }
+                Templates compiled = factory.newTemplates(source);
+                synchronized (templates) {
+                    templates.put(key, compiled);
+                }
+                return compiled;
+            }
+            finally {
+                locks.remove(key);
+            }
+        }
+    }
+
+    private static String hash(String s) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            StringBuilder hex = new StringBuilder();
+            for (byte b : md.digest(s.getBytes(StandardCharsets.UTF_8))) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        }
+        catch (NoSuchAlgorithmException e) {
+            // Every Java platform has to support SHA-256, fall back to the string itself otherwise
+            return s;
+        }
+    }
+}
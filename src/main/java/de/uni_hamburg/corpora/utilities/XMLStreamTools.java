@@ -0,0 +1,177 @@
+package de.uni_hamburg.corpora.utilities;
+
+import de.uni_hamburg.corpora.CorpusData;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.util.StreamReaderDelegate;
+
+/**
+ * Helpers shared by the streaming readers for corpus files
+ *
+ * @author Herbert Lange
+ * @version 20261017
+ */
+public class XMLStreamTools {
+
+    private static final XMLInputFactory factory = createFactory();
+
+    private XMLStreamTools() {
+    }
+
+    private static XMLInputFactory createFactory() {
+        XMLInputFactory f = XMLInputFactory.newInstance();
+        // Corpus files neither need DTDs nor external entities
+        f.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        f.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        // Get the text of an element in one piece
+        f.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return f;
+    }
+
+    /**
+     * Creates a stream reader for the content of a corpus file. The content in memory is used so the reader
+     * also sees changes not yet written to disk, otherwise the file is streamed from disk
+     * @param cd the corpus file
+     * @return the stream reader, which has to be closed to release the file
+     * @throws XMLStreamException if the reader cannot be created
+     * @throws IOException if the content is not in memory and the file cannot be read
+     */
+    public static XMLStreamReader createReader(CorpusData cd) throws XMLStreamException, IOException {
+        String content = cd.toUnformattedString();
+        if (content == null) {
+            // Let the parser detect the encoding. The file is read while streaming, so the stream stays open
+            // until the reader is closed
+            InputStream is = new BufferedInputStream(cd.getURL().openStream());
+            try {
+                return new ClosingStreamReader(factory.createXMLStreamReader(is), is);
+            }
+            catch (XMLStreamException | RuntimeException e) {
+                is.close();
+                throw e;
+            }
+        }
+        // A byte order mark read as part of the string is not allowed before the XML declaration
+        if (content.startsWith("\uFEFF")) {
+            content = content.substring(1);
+        }
+        return factory.createXMLStreamReader(new StringReader(content));
+    }
+
+    /**
+     * A stream reader which also closes the stream it reads from, which XMLStreamReader.close does not do
+     */
+    private static class ClosingStreamReader extends StreamReaderDelegate {
+
+        private final InputStream in;
+
+        ClosingStreamReader(XMLStreamReader reader, InputStream in) {
+            super(reader);
+            this.in = in;
+        }
+
+        @Override
+        public void close() throws XMLStreamException {
+            try {
+                super.close();
+            }
+            finally {
+                try {
+                    in.close();
+                }
+                catch (IOException e) {
+                    throw new XMLStreamException(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the name of the root element of an XML file without reading the rest of the file
+     * @param path the location of the file
+     * @return the name of the root element or null if the file is not well-formed before the root element
+     * @throws IOException if the file cannot be read
+     */
+    public static QName peekRootElement(Path path) throws IOException {
+        try (InputStream is = new BufferedInputStream(Files.newInputStream(path))) {
+            XMLStreamReader reader = factory.createXMLStreamReader(is);
+            try {
+                while (reader.hasNext()) {
+                    if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+                        return reader.getName();
+                    }
+                }
+            }
+            finally {
+                reader.close();
+            }
+        }
+        catch (XMLStreamException e) {
+            // Not an XML file we can recognize
+        }
+        return null;
+    }
+
+    /**
+     * Collects the text of an element in the same way as XMLTools.showAllText: the direct text of an element
+     * followed by the text of all children, separated by spaces and trimmed. Events of the stream have to be
+     * passed on while inside of the element.
+     */
+    public static class TextCollector {
+
+        private static class Frame {
+            final StringBuilder text = new StringBuilder();
+            final List<String> children = new ArrayList<>();
+        }
+
+        private final Deque<Frame> frames = new ArrayDeque<>();
+
+        /**
+         * Has to be called for each start element, including the one of the element itself
+         */
+        public void startElement() {
+            frames.push(new Frame());
+        }
+
+        /**
+         * Has to be called for all text
+         * @param text the text
+         */
+        public void characters(String text) {
+            if (!frames.isEmpty()) {
+                frames.peek().text.append(text);
+            }
+        }
+
+        /**
+         * Has to be called for each end element
+         * @return the text of the element if it was the outermost one, null otherwise
+         */
+        public String endElement() {
+            Frame frame = frames.pop();
+            String result = (frame.text + String.join(" ", frame.children)).trim();
+            if (frames.isEmpty()) {
+                return result;
+            }
+            frames.peek().children.add(result);
+            return null;
+        }
+
+        public boolean isActive() {
+            return !frames.isEmpty();
+        }
+    }
+}
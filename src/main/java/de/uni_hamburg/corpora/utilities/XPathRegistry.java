@@ -0,0 +1,127 @@
+package de.uni_hamburg.corpora.utilities;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import org.jdom2.Namespace;
+import org.jdom2.filter.Filter;
+import org.jdom2.xpath.XPathBuilder;
+import org.jdom2.xpath.XPathExpression;
+import org.jdom2.xpath.XPathFactory;
+import org.jdom2.xpath.jaxen.JaxenXPathFactory;
+
+/**
+ * Registry of compiled XPath expressions. Compiling an expression is much more expensive than evaluating it, so
+ * expressions used repeatedly are compiled once and reused. Values that change between calls should be passed
+ * as XPath variables instead of being formatted into the expression, e.g.
+ *
+ * <pre>
+ * XPathExpression&lt;Element&gt; xpath = XPathRegistry.compile("//TIER[@TIER_ID=$tier]", Filters.element(), "tier");
+ * xpath.setVariable("tier", tierId);
+ * List&lt;Element&gt; tiers = xpath.evaluate(doc);
+ * </pre>
+ *
+ * Compiled JDOM expressions are not thread-safe because of their variables, so each thread gets its own
+ * instances. The expressions must not be kept beyond the current call or passed to other threads.
+ *
+ * @author Herbert Lange
+ * @version 20261017
+ */
+public class XPathRegistry {
+
+    // The maximum number of expressions kept per thread, only reached if expressions are built from changing values
+    static final int MAX_EXPRESSIONS = 512;
+
+    private static final XPathFactory xpathFactory = new JaxenXPathFactory();
+
+    private static final ThreadLocal<Map<Key, XPathExpression<?>>> expressions = ThreadLocal.withInitial(() ->
+            new LinkedHashMap<Key, XPathExpression<?>>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, XPathExpression<?>> eldest) {
+                    return size() > MAX_EXPRESSIONS;
+                }
+            });
+
+    private XPathRegistry() {
+    }
+
+    /**
+     * Gets a compiled expression
+     * @param expression the XPath expression
+     * @param filter the filter for the results, e.g. Filters.element()
+     * @param variables the names of the variables used in the expression, their values have to be set before
+     *                  evaluating the expression
+     * @param <T> the type of the results
+     * @return the compiled expression, only to be used in the current thread
+     */
+    public static <T> XPathExpression<T> compile(String expression, Filter<T> filter, String... variables) {
+        return compile(expression, filter, Collections.emptyList(), variables);
+    }
+
+    /**
+     * Gets a compiled expression using namespace prefixes
+     * @param expression the XPath expression
+     * @param filter the filter for the results, e.g. Filters.element()
+     * @param namespaces the namespaces for the prefixes used in the expression
+     * @param variables the names of the variables used in the expression, their values have to be set before
+     *                  evaluating the expression
+     * @param <T> the type of the results
+     * @return the compiled expression, only to be used in the current thread
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> XPathExpression<T> compile(String expression, Filter<T> filter,
+                                                 Collection<Namespace> namespaces, String... variables) {
+        Key key = new Key(expression, filter, namespaces, variables);
+        Map<Key, XPathExpression<?>> cache = expressions.get();
+        XPathExpression<T> compiled = (XPathExpression<T>) cache.get(key);
+        if (compiled == null) {
+            XPathBuilder<T> builder = new XPathBuilder<>(expression, filter);
+            builder.setNamespaces(namespaces);
+            for (String variable : variables) {
+                builder.setVariable(variable, null);
+            }
+            compiled = builder.compileWith(xpathFactory);
+            cache.put(key, compiled);
+        }
+        return compiled;
+    }
+
+    /**
+     * Identifies an expression together with everything it was compiled with
+     */
+    private static final class Key {
+        private final String expression;
+        private final Filter<?> filter;
+        // Namespaces are equal if their URIs are, but the prefixes matter for the expression
+        private final List<String> namespaces;
+        private final List<String> variables;
+
+        Key(String expression, Filter<?> filter, Collection<Namespace> namespaces, String[] variables) {
+            this.expression = expression;
+            this.filter = filter;
+            this.namespaces = namespaces.stream().map((ns) -> ns.getPrefix() + "=" + ns.getURI())
+                    .collect(Collectors.toList());
+            this.variables = Arrays.asList(variables);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return expression.equals(other.expression) && filter.equals(other.filter)
+                    && namespaces.equals(other.namespaces) && variables.equals(other.variables);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(expression, filter, namespaces, variables);
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package de.uni_hamburg.corpora.utilities;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.xml.transform.Source;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.stream.StreamSource;
+import net.sf.saxon.s9api.Destination;
+import net.sf.saxon.s9api.Processor;
+import net.sf.saxon.s9api.QName;
+import net.sf.saxon.s9api.SAXDestination;
+import net.sf.saxon.s9api.SaxonApiException;
+import net.sf.saxon.s9api.XdmAtomicValue;
+import net.sf.saxon.s9api.XdmDestination;
+import net.sf.saxon.s9api.XdmNode;
+import net.sf.saxon.s9api.XdmValue;
+import net.sf.saxon.s9api.Xslt30Transformer;
+import net.sf.saxon.s9api.XsltExecutable;
+import org.jdom2.Document;
+import org.jdom2.transform.JDOMResult;
+import org.jdom2.transform.JDOMSource;
+
+/**
+ * Chain of XSLT stylesheets applied one after the other. In contrast to chaining calls to XSLTransformer, the
+ * intermediate results are kept as Saxon trees and never serialized and parsed again, e.g.
+ *
+ * <pre>
+ * Document tei = new XSLTPipeline()
+ *         .addStylesheet("/xsl/time2tokenSpanReferences.xsl")
+ *         .addStylesheet("/xsl/removeTimepointsWithoutAbsolute.xsl")
+ *         .transform(document);
+ * </pre>
+ *
+ * Parameters and xsl:message are handled as in XSLTransformer, i.e. parameters are passed to all stylesheets
+ * and messages become part of the exception if a transformation fails. All pipelines share one Saxon processor
+ * and the stylesheets compiled for it, which is required to pass trees from one stylesheet to the next.
+ *
+ * @author Herbert Lange
+ * @version 20261017
+ */
+public class XSLTPipeline {
+
+    // The processor all stylesheets are compiled for and all trees are built with
+    private static final Processor processor = new Processor(false);
+
+    // The compiled stylesheets by resource path
+    private static final Map<String, XsltExecutable> executables = new ConcurrentHashMap<>();
+
+    // Locks to avoid compiling the same stylesheet several times in parallel
+    private static final Map<String, Object> locks = new ConcurrentHashMap<>();
+
+    private final List<XsltExecutable> stages = new ArrayList<>();
+    private final Map<String, Object> parameters = new HashMap<>();
+
+    /**
+     * Adds a stylesheet stored as a resource on the class path at the end of the pipeline. The stylesheet is only
+     * compiled the first time it is used by any pipeline
+     * @param xslResource absolute resource path of the XSLT stylesheet
+     * @return the pipeline itself
+     * @throws TransformerConfigurationException if the stylesheet is missing or cannot be compiled
+     */
+    public XSLTPipeline addStylesheet(String xslResource) throws TransformerConfigurationException {
+        stages.add(compile(xslResource));
+        return this;
+    }
+
+    /**
+     * Set a single parameter for all stylesheets in the pipeline.
+     *
+     * @param parameterName Name of the parameter
+     * @param parameterValue Value of the parameter
+     * @return the pipeline itself
+     */
+    public XSLTPipeline setParameter(String parameterName, Object parameterValue) {
+        parameters.put(parameterName, parameterValue);
+        return this;
+    }
+
+    /**
+     * Gets the number of stylesheets in the pipeline
+     * @return the number of stylesheets
+     */
+    public int size() {
+        return stages.size();
+    }
+
+    /**
+     * Builds the tree used within the pipeline for a JDOM document, without serializing the document
+     * @param document the document
+     * @return the tree
+     * @throws TransformerException if the tree cannot be built
+     */
+    public static XdmNode toXdmNode(Document document) throws TransformerException {
+        return build(new JDOMSource(document));
+    }
+
+    /**
+     * Builds the tree used within the pipeline for an XML document
+     * @param source the XML document
+     * @return the tree
+     * @throws TransformerException if the document cannot be parsed
+     */
+    public static XdmNode build(Source source) throws TransformerException {
+        try {
+            return processor.newDocumentBuilder().build(source);
+        }
+        catch (SaxonApiException e) {
+            throw new TransformerException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Applies all stylesheets to a tree
+     * @param input the input tree
+     * @return the result of the last stylesheet, or the input if the pipeline is empty
+     * @throws TransformerException if one of the transformations fails
+     */
+    public XdmNode transform(XdmNode input) throws TransformerException {
+        XdmNode current = input;
+        for (XsltExecutable stage : stages) {
+            XdmDestination destination = new XdmDestination();
+            apply(stage, current, destination);
+            current = destination.getXdmNode();
+        }
+        return current;
+    }
+
+    /**
+     * Applies all stylesheets to a JDOM document. Only the final result is converted back to JDOM
+     * @param document the input document
+     * @return the result of the last stylesheet as a new document
+     * @throws TransformerException if one of the transformations fails
+     */
+    public Document transform(Document document) throws TransformerException {
+        if (stages.isEmpty()) {
+            return document.clone();
+        }
+        XdmNode current = toXdmNode(document);
+        // All but the last stylesheet produce trees, the last one builds the JDOM document directly
+        for (XsltExecutable stage : stages.subList(0, stages.size() - 1)) {
+            XdmDestination destination = new XdmDestination();
+            apply(stage, current, destination);
+            current = destination.getXdmNode();
+        }
+        JDOMResult result = new JDOMResult();
+        apply(stages.get(stages.size() - 1), current, new SAXDestination(result.getHandler()));
+        return result.getDocument();
+    }
+
+    private void apply(XsltExecutable stage, XdmNode input, Destination destination) throws TransformerException {
+        final StringBuilder messageOut = new StringBuilder();
+        Xslt30Transformer transformer = stage.load30();
+        //trying to get xsl:message into error reports
+        transformer.setMessageHandler((message) -> messageOut.append(message.getStringValue()).append("\n"));
+        try {
+            Map<QName, XdmValue> stylesheetParameters = new HashMap<>();
+            for (Map.Entry<String, Object> param : parameters.entrySet()) {
+                stylesheetParameters.put(new QName(param.getKey()), toXdmValue(param.getValue()));
+            }
+            transformer.setStylesheetParameters(stylesheetParameters);
+            // Like a JAXP transformation, global variables can refer to the input document
+            transformer.setGlobalContextItem(input);
+            transformer.applyTemplates(input, destination);
+        }
+        catch (SaxonApiException e) {
+            String message = messageOut.length() > 0 ? messageOut.toString() : e.getMessage();
+            throw new TransformerException(message, e);
+        }
+    }
+
+    private static XdmValue toXdmValue(Object value) {
+        if (value instanceof XdmValue) {
+            return (XdmValue) value;
+        }
+        return XdmAtomicValue.makeAtomicValue(value);
+    }
+
+    private static XsltExecutable compile(String xslResource) throws TransformerConfigurationException {
+        XsltExecutable cached = executables.get(xslResource);
+        if (cached != null) {
+            return cached;
+        }
+        Object lock = locks.computeIfAbsent(xslResource, (k) -> new Object());
+        synchronized (lock) {
+            try {
+                // Check again, another thread might have compiled the stylesheet in the meantime
+                cached = executables.get(xslResource);
+                if (cached != null) {
+                    return cached;
+                }
+                URL url = XSLTPipeline.class.getResource(xslResource);
+                if (url == null) {
+                    throw new TransformerConfigurationException("Stylesheet not found: " + xslResource);
+                }
+                try (InputStream is = url.openStream()) {
+                    // The system id allows relative includes and imports in the stylesheet
+                    XsltExecutable compiled = processor.newXsltCompiler().compile(
+                            new StreamSource(is, url.toExternalForm()));
+                    executables.put(xslResource, compiled);
+                    return compiled;
+                }
+                catch (IOException | SaxonApiException e) {
+                    throw new TransformerConfigurationException("Stylesheet could not be compiled: " + xslResource,
+                            e);
+                }
+            }
+            finally {
+                locks.remove(xslResource);
+            }
+        }
+    }
+}
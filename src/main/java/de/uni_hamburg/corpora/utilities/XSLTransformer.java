@@ -8,6 +8,7 @@ package de.uni_hamburg.corpora.utilities;
 import java.io.StringWriter;
 import java.util.HashMap;
 import java.util.Map;
+import javax.xml.transform.Templates;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerException;
@@ -51,7 +52,8 @@ public class XSLTransformer {
 
     /**
      * Returns a String object that represents the result of an XSLT
-     * transformation.
+     * transformation. The compiled stylesheet is cached, so the same
+     * stylesheet is only compiled once.
      *
      * @param xml XML as String object that is used as the basis for the XSLT
      * transformation
@@ -59,9 +61,23 @@ public class XSLTransformer {
      * @return the result of the XSLT transformation as String object
      */
     public String transform(String xml, String xsl) throws TransformerException {
-        StreamSource xslSource = TypeConverter.String2StreamSource(xsl);
         StreamSource xmlSource = TypeConverter.String2StreamSource(xml);
-        return transform(xmlSource, xslSource);
+        return transform(xmlSource, StylesheetCache.fromString(tranformerFactory, xsl));
+    }
+
+    /**
+     * Returns a String object that represents the result of an XSLT
+     * transformation using a stylesheet from the class path. The stylesheet
+     * is only read and compiled the first time it is used.
+     *
+     * @param xml XML as String object that is used as the basis for the XSLT
+     * transformation
+     * @param xslResource absolute resource path of the XSLT stylesheet
+     * @return the result of the XSLT transformation as String object
+     */
+    public String transformWithResource(String xml, String xslResource) throws TransformerException {
+        StreamSource xmlSource = TypeConverter.String2StreamSource(xml);
+        return transform(xmlSource, StylesheetCache.fromResource(tranformerFactory, xslResource));
     }
 
     /**
@@ -74,11 +90,29 @@ public class XSLTransformer {
      * @return the result of the XSLT transformation as String object
      */
     public String transform(StreamSource xmlSource, StreamSource xslSource) throws TransformerException {
+        if (xslSource != null) {
+            return transform(xmlSource, tranformerFactory.newTemplates(xslSource));
+        } else {
+            return transform(xmlSource, (Templates) null);
+        }
+    }
+
+    /**
+     * Returns a String object that represents the result of an XSLT
+     * transformation.
+     *
+     * @param xmlSource XML as StreamSource object that is used as the basis for
+     * the XSLT transformation
+     * @param templates the compiled XSLT stylesheet, null for the identity
+     * transformation
+     * @return the result of the XSLT transformation as String object
+     */
+    public String transform(StreamSource xmlSource, Templates templates) throws TransformerException {
         final StringWriter messageOut = new StringWriter();
         String result = null;
         try {
-            if(xslSource != null){
-                transformer = tranformerFactory.newTransformer(xslSource);
+            if(templates != null){
+                transformer = templates.newTransformer();
                 
                 //trying to get xsl:message into error reports            
                 // 20230831: Setting recovery policy does not seem possible in recent version of Saxon
@@ -128,7 +162,7 @@ public class XSLTransformer {
      * @return the result of the XSLT transformation as String object
      */
     public String transform(StreamSource xmlSource) throws TransformerException {
-        return transform(xmlSource, null);        
+        return transform(xmlSource, (Templates) null);
     }
     
     
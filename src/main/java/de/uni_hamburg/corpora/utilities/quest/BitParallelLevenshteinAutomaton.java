@@ -0,0 +1,191 @@
+package de.uni_hamburg.corpora.utilities.quest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Levenshtein automaton for a fixed pattern simulated using bit vectors, following
+ * Wu, Sun and Manber, Udi (1992): Fast text searching allowing errors
+ *
+ * In contrast to UniversalLevenshteinAutomatonK1, the characteristic vector of a character is an int-encoded bit
+ * vector precomputed once per pattern, and a state consists of one bit vector per number of errors, i.e. following
+ * a transition is a handful of shifts and ors instead of matching regular expressions. When searching a dictionary,
+ * only the transitions present in the dictionary automaton are followed and a branch is abandoned as soon as no
+ * prefix of the pattern is reachable anymore.
+ *
+ * Patterns are limited to 63 characters, no similar words are found for longer patterns.
+ *
+ * @author Herbert Lange
+ * @version 20261017
+ */
+public class BitParallelLevenshteinAutomaton {
+
+    // The longest supported pattern, bit i of a state represents having matched the first i characters
+    public static final int MAX_PATTERN_LENGTH = Long.SIZE - 1;
+
+    private final String pattern;
+    // The maximum number of errors
+    private final int k;
+    // The distinct characters in the pattern and their characteristic vectors, i.e. bit i + 1 is set if the
+    // character is at position i in the pattern
+    private final char[] chars;
+    private final long[] vectors;
+    // The bit representing the complete pattern
+    private final long acceptBit;
+
+    /**
+     * Creates the automaton for all words with a Levenshtein distance of at most k to a pattern
+     * @param pattern the pattern
+     * @param k the maximum number of errors, usually 1 or 2
+     */
+    public BitParallelLevenshteinAutomaton(String pattern, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Negative number of errors: " + k);
+        }
+        this.pattern = pattern;
+        this.k = k;
+        StringBuilder distinct = new StringBuilder();
+        long[] tmp = new long[Math.min(pattern.length(), MAX_PATTERN_LENGTH)];
+        for (int i = 0; i < tmp.length; i++) {
+            char c = pattern.charAt(i);
+            int index = distinct.indexOf(String.valueOf(c));
+            if (index < 0) {
+                index = distinct.length();
+                distinct.append(c);
+            }
+            tmp[index] |= 1L << (i + 1);
+        }
+        chars = distinct.toString().toCharArray();
+        vectors = new long[chars.length];
+        System.arraycopy(tmp, 0, vectors, 0, chars.length);
+        acceptBit = 1L << Math.min(pattern.length(), MAX_PATTERN_LENGTH);
+    }
+
+    /**
+     * Function to find all similar words (Levenshtein distance less or equal k) in a dictionary based on a pattern
+     *
+     * @param pattern the word to be compared to the dictionary
+     * @param k the maximum number of errors
+     * @param da the automaton representing the dictionary
+     * @return the list of all similar words in the dictionary
+     */
+    public static List<String> matchDictionary(String pattern, int k, CompactDictionaryAutomaton da) {
+        return new BitParallelLevenshteinAutomaton(pattern, k).matchDictionary(da);
+    }
+
+    /**
+     * Function to find all words in a dictionary similar to the pattern
+     *
+     * @param da the automaton representing the dictionary
+     * @return the list of all similar words in the dictionary, sorted
+     */
+    public List<String> matchDictionary(CompactDictionaryAutomaton da) {
+        if (pattern.length() > MAX_PATTERN_LENGTH) {
+            return Collections.emptyList();
+        }
+        List<String> matched = new ArrayList<>();
+        // Matching words are at most k characters longer than the pattern, so is the depth of the search
+        int maxDepth = pattern.length() + k;
+        long[][] states = new long[maxDepth + 1][];
+        states[0] = initialState();
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            states[depth] = new long[k + 1];
+        }
+        walk(da, da.getInitialState(), 0, states, new char[maxDepth], matched);
+        return matched;
+    }
+
+    /**
+     * Function to check if a word has a Levenshtein distance of at most k to the pattern
+     * @param word the word
+     * @return if the words are similar
+     */
+    public boolean match(String word) {
+        if (pattern.length() > MAX_PATTERN_LENGTH) {
+            return false;
+        }
+        long[] state = initialState();
+        long[] next = new long[k + 1];
+        for (int i = 0; i < word.length(); i++) {
+            if (!transition(state, word.charAt(i), next)) {
+                return false;
+            }
+            long[] tmp = state;
+            state = next;
+            next = tmp;
+        }
+        return isAccepting(state);
+    }
+
+    /**
+     * Depth-first search in the dictionary automaton in parallel with the Levenshtein automaton
+     */
+    private void walk(CompactDictionaryAutomaton da, int dictState, int depth, long[][] states, char[] word,
+                      List<String> matched) {
+        if (depth == word.length) {
+            return;
+        }
+        for (int t = da.getTransitionStart(dictState); t < da.getTransitionEnd(dictState); t++) {
+            char c = da.getLabel(t);
+            if (transition(states[depth], c, states[depth + 1])) {
+                word[depth] = c;
+                int target = da.getTarget(t);
+                if (da.isAcceptingState(target) && isAccepting(states[depth + 1])) {
+                    matched.add(new String(word, 0, depth + 1));
+                }
+                walk(da, target, depth + 1, states, word, matched);
+            }
+        }
+    }
+
+    /**
+     * Gets the initial state, i.e. up to k characters of the pattern can be skipped by deleting them
+     */
+    private long[] initialState() {
+        long[] state = new long[k + 1];
+        for (int d = 0; d <= k; d++) {
+            state[d] = d >= Long.SIZE - 1 ? -1L : (1L << (d + 1)) - 1;
+        }
+        return state;
+    }
+
+    /**
+     * Follows a transition from one state to the next
+     * @param state the current state, bit vector d for the positions in the pattern reachable with d errors
+     * @param c the next character of the word
+     * @param next the array for the next state
+     * @return false if there is no reachable position left, i.e. the word cannot be similar anymore
+     */
+    private boolean transition(long[] state, char c, long[] next) {
+        long vector = characteristicVector(c);
+        // Without errors the character has to match
+        next[0] = (state[0] << 1) & vector;
+        for (int d = 1; d <= k; d++) {
+            next[d] = ((state[d] << 1) & vector)
+                    // insertion of the character
+                    | state[d - 1]
+                    // substitution of the next pattern character by the character
+                    | (state[d - 1] << 1)
+                    // deletion of a pattern character
+                    | (next[d - 1] << 1);
+        }
+        // Bits beyond the end of the pattern do not mean anything
+        next[k] &= (acceptBit << 1) - 1;
+        return next[k] != 0;
+    }
+
+    private boolean isAccepting(long[] state) {
+        // The positions reachable with d errors are also reachable with more errors
+        return (state[k] & acceptBit) != 0;
+    }
+
+    private long characteristicVector(char c) {
+        for (int i = 0; i < chars.length; i++) {
+            if (chars[i] == c) {
+                return vectors[i];
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,109 @@
+package de.uni_hamburg.corpora.utilities.quest;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Frequency list of single code points, counted in primitive arrays instead of a map from strings to boxed
+ * integers. Can be converted into a regular FrequencyList, e.g. for output
+ *
+ * @author Herbert Lange
+ * @version 20261017
+ */
+public class CodePointFrequencyList {
+
+    // Marks unused slots, no valid code point is negative
+    private static final int FREE = -1;
+
+    // Open addressing hash table from code points to counts
+    private int[] keys = newKeys(64);
+    private int[] counts = new int[64];
+    private int size = 0;
+
+    /**
+     * Add a code point to the list, increasing its count by 1 if it was already in the list
+     * @param codePoint the code point
+     */
+    public void put(int codePoint) {
+        if (2 * (size + 1) > keys.length) {
+            resize();
+        }
+        int slot = find(keys, codePoint);
+        if (keys[slot] == FREE) {
+            keys[slot] = codePoint;
+            size++;
+        }
+        counts[slot]++;
+    }
+
+    /**
+     * Gets the count for a code point
+     * @param codePoint the code point
+     * @return its count, 0 if it is not in the list
+     */
+    public int get(int codePoint) {
+        int slot = find(keys, codePoint);
+        return keys[slot] == FREE ? 0 : counts[slot];
+    }
+
+    /**
+     * Gets the number of different code points in the list
+     * @return the number of code points
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if the list is empty
+     * @return true if empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Adds the counts of all code points accepted by a filter to a frequency list
+     * @param list the frequency list
+     * @param prefix string put in front of each code point
+     * @param filter the filter for the code points
+     */
+    public void addTo(FrequencyList list, String prefix, IntPredicate filter) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != FREE && filter.test(keys[slot])) {
+                String key = prefix + new String(Character.toChars(keys[slot]));
+                list.getMap().merge(key, counts[slot], Integer::sum);
+            }
+        }
+    }
+
+    private void resize() {
+        int[] newKeys = newKeys(keys.length * 2);
+        int[] newCounts = new int[newKeys.length];
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != FREE) {
+                int newSlot = find(newKeys, keys[slot]);
+                newKeys[newSlot] = keys[slot];
+                newCounts[newSlot] = counts[slot];
+            }
+        }
+        keys = newKeys;
+        counts = newCounts;
+    }
+
+    private static int find(int[] keys, int codePoint) {
+        int mask = keys.length - 1;
+        int hash = codePoint * 0x9E3779B9;
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while (keys[slot] != FREE && keys[slot] != codePoint) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int[] newKeys(int capacity) {
+        int[] keys = new int[capacity];
+        Arrays.fill(keys, FREE);
+        return keys;
+    }
+}
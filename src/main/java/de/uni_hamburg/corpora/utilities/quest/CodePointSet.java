@@ -0,0 +1,120 @@
+package de.uni_hamburg.corpora.utilities.quest;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable set of Unicode code points backed by a bit set, used for character classes such as all alphabetic
+ * characters. Membership is tested on ints, without creating a string for each character.
+ *
+ * The set of alphabetic characters is computed once, the first time it is used, and shared afterwards.
+ *
+ * @author Herbert Lange
+ * @version 20261017
+ */
+public class CodePointSet {
+
+    // The set without any code points
+    public static final CodePointSet EMPTY = new CodePointSet(new BitSet());
+
+    private final BitSet bits;
+
+    private CodePointSet(BitSet bits) {
+        this.bits = bits;
+    }
+
+    /**
+     * Holder for the alphabetic characters, initialised on first access
+     */
+    private static class Alphabetic {
+        static final CodePointSet SET = build();
+
+        private static CodePointSet build() {
+            BitSet bits = new BitSet(Character.MAX_CODE_POINT + 1);
+            for (int i = Character.MIN_CODE_POINT; i < Character.MAX_CODE_POINT; i++) {
+                if (Character.isAlphabetic(i)) {
+                    bits.set(i);
+                }
+            }
+            return new CodePointSet(bits);
+        }
+    }
+
+    /**
+     * Gets the set of all alphabetic characters in the unicode standard
+     * @return the shared set
+     */
+    public static CodePointSet alphabetic() {
+        return Alphabetic.SET;
+    }
+
+    /**
+     * Creates a set from graphemes, keeping only the graphemes consisting of a single code point
+     * @param graphemes the graphemes
+     * @return the set of code points
+     */
+    public static CodePointSet of(Collection<String> graphemes) {
+        BitSet bits = new BitSet();
+        for (String grapheme : graphemes) {
+            if (isSingleCodePoint(grapheme)) {
+                bits.set(grapheme.codePointAt(0));
+            }
+        }
+        return new CodePointSet(bits);
+    }
+
+    /**
+     * Checks if a string consists of exactly one code point
+     * @param s the string
+     * @return if the string is a single code point
+     */
+    public static boolean isSingleCodePoint(String s) {
+        return !s.isEmpty() && Character.charCount(s.codePointAt(0)) == s.length();
+    }
+
+    /**
+     * Checks if a code point is in the set
+     * @param codePoint the code point
+     * @return if it is in the set
+     */
+    public boolean contains(int codePoint) {
+        return codePoint >= 0 && bits.get(codePoint);
+    }
+
+    /**
+     * Checks if a string is a single code point in the set
+     * @param s the string
+     * @return if the string is a single code point and in the set
+     */
+    public boolean contains(String s) {
+        return isSingleCodePoint(s) && bits.get(s.codePointAt(0));
+    }
+
+    /**
+     * Creates the union of two sets
+     * @param other the other set
+     * @return a new set containing the code points of both sets
+     */
+    public CodePointSet union(CodePointSet other) {
+        BitSet union = (BitSet) bits.clone();
+        union.or(other.bits);
+        return new CodePointSet(union);
+    }
+
+    /**
+     * Gets the number of code points in the set
+     * @return the number of code points
+     */
+    public int size() {
+        return bits.cardinality();
+    }
+
+    /**
+     * Gets all code points in the set
+     * @return the code points in ascending order
+     */
+    public IntStream codePoints() {
+        return bits.stream();
+    }
+}
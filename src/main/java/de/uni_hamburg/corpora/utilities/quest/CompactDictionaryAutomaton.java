@@ -0,0 +1,515 @@
+package de.uni_hamburg.corpora.utilities.quest;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Compact implementation of an automaton representing a dictionary. In contrast to DictionaryAutomaton, the
+ * automaton is minimised, i.e. words sharing a suffix also share the states for the suffix (a directed acyclic
+ * word graph), and states are plain ints. The transitions of a state are stored as sorted ranges in two arrays,
+ * one for the characters and one for the target states, so following a transition is a binary search without
+ * any boxing or hashing.
+ *
+ * The automaton is immutable once built. It can be saved to a file and loaded again later, in which case the
+ * file is memory-mapped instead of being read into the heap:
+ *
+ * <pre>
+ * new CompactDictionaryAutomaton(new File("words.txt")).save(Paths.get("words.dawg"));
+ * ...
+ * CompactDictionaryAutomaton dict = CompactDictionaryAutomaton.open(new File("words.dawg"));
+ * </pre>
+ *
+ * @author Herbert Lange
+ * @version 20261017
+ */
+public class CompactDictionaryAutomaton {
+
+    // The result of a failed transition
+    public static final int NO_STATE = -1;
+
+    // Marks a file as saved automaton, the characters DAWG
+    private static final int MAGIC = 0x44415747;
+    // The version of the file format
+    private static final int VERSION = 1;
+    // Size of the header, i.e. magic number, version, number of states and number of transitions
+    private static final int HEADER_SIZE = 4 * Integer.BYTES;
+
+    // The transitions of state s are the indices firstTransition[s] up to (excluding) firstTransition[s+1]
+    private final IntBuffer firstTransition;
+    // The characters of the transitions, sorted for each state
+    private final CharBuffer labels;
+    // The target states of the transitions
+    private final IntBuffer targets;
+    // The accepting states as bit set, one bit per state
+    private final IntBuffer accepting;
+    private final int stateCount;
+
+    // The alphabet, computed on demand
+    private Set<Character> alphabet = null;
+
+    /**
+     * Constructor constructing the automaton based on a dictionary read from file
+     *
+     * @param f the dictionary file
+     */
+    public CompactDictionaryAutomaton(File f) {
+        this(DictionaryAutomaton.readFileAsList(f));
+    }
+
+    /**
+     * Constructor constructing the automaton based on a dictionary read from file
+     *
+     * @param is the dictionary file
+     */
+    public CompactDictionaryAutomaton(InputStream is) {
+        this(DictionaryAutomaton.readInputStreamAsList(is));
+    }
+
+    /**
+     * Constructor constructing the automaton based on a dictionary represented by a list of strings. Neither the
+     * order of the words nor duplicates matter
+     *
+     * @param dict the dictionary
+     */
+    public CompactDictionaryAutomaton(List<String> dict) {
+        Builder builder = new Builder();
+        // Minimising while adding the words requires them to be sorted
+        List<String> sorted = new ArrayList<>(dict);
+        Collections.sort(sorted);
+        for (String word : sorted) {
+            builder.add(word);
+        }
+        // Number the states breadth-first starting with the initial state as 0
+        Node root = builder.finish();
+        Map<Node, Integer> ids = new IdentityHashMap<>();
+        List<Node> nodes = new ArrayList<>();
+        ids.put(root, 0);
+        nodes.add(root);
+        int transitionCount = 0;
+        for (int i = 0; i < nodes.size(); i++) {
+            Node node = nodes.get(i);
+            transitionCount += node.size;
+            for (int t = 0; t < node.size; t++) {
+                if (!ids.containsKey(node.targets[t])) {
+                    ids.put(node.targets[t], nodes.size());
+                    nodes.add(node.targets[t]);
+                }
+            }
+        }
+        stateCount = nodes.size();
+        int[] first = new int[stateCount + 1];
+        char[] chars = new char[transitionCount];
+        int[] to = new int[transitionCount];
+        int[] bits = new int[bitSetSize(stateCount)];
+        int t = 0;
+        for (int s = 0; s < stateCount; s++) {
+            Node node = nodes.get(s);
+            first[s] = t;
+            if (node.accepting) {
+                bits[s >>> 5] |= 1 << (s & 31);
+            }
+            for (int i = 0; i < node.size; i++) {
+                chars[t] = node.labels[i];
+                to[t] = ids.get(node.targets[i]);
+                t++;
+            }
+        }
+        first[stateCount] = t;
+        firstTransition = IntBuffer.wrap(first);
+        labels = CharBuffer.wrap(chars);
+        targets = IntBuffer.wrap(to);
+        accepting = IntBuffer.wrap(bits);
+    }
+
+    /**
+     * Constructor for an automaton loaded from a file
+     */
+    private CompactDictionaryAutomaton(int stateCount, IntBuffer firstTransition, CharBuffer labels,
+                                       IntBuffer targets, IntBuffer accepting) {
+        this.stateCount = stateCount;
+        this.firstTransition = firstTransition;
+        this.labels = labels;
+        this.targets = targets;
+        this.accepting = accepting;
+    }
+
+    /**
+     * Loads an automaton previously saved using save. The file is memory-mapped, i.e. only the parts of the
+     * automaton actually used are read
+     *
+     * @param path the file
+     * @return the automaton
+     * @throws IOException if the file cannot be read or is not a saved automaton
+     */
+    public static CompactDictionaryAutomaton load(Path path) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping stays valid after closing the channel
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a dictionary automaton: " + path);
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported dictionary automaton version " + buffer.getInt(4) + ": " + path);
+        }
+        int states = buffer.getInt(8);
+        int transitions = buffer.getInt(12);
+        int firstSize = states + 1;
+        int bitsSize = bitSetSize(states);
+        if (states < 1 || transitions < 0 || buffer.capacity() != fileSize(states, transitions)) {
+            throw new IOException("Corrupt dictionary automaton: " + path);
+        }
+        int offset = HEADER_SIZE;
+        IntBuffer first = slice(buffer, offset, Integer.BYTES * firstSize).asIntBuffer();
+        offset += Integer.BYTES * firstSize;
+        IntBuffer bits = slice(buffer, offset, Integer.BYTES * bitsSize).asIntBuffer();
+        offset += Integer.BYTES * bitsSize;
+        IntBuffer to = slice(buffer, offset, Integer.BYTES * transitions).asIntBuffer();
+        offset += Integer.BYTES * transitions;
+        CharBuffer chars = slice(buffer, offset, Character.BYTES * transitions).asCharBuffer();
+        return new CompactDictionaryAutomaton(states, first, chars, to, bits);
+    }
+
+    /**
+     * Gets an automaton from a file which either is a saved automaton or a dictionary with one word per line
+     *
+     * @param f the file
+     * @return the automaton
+     * @throws IOException if the file cannot be read
+     */
+    public static CompactDictionaryAutomaton open(File f) throws IOException {
+        if (isSavedAutomaton(f.toPath())) {
+            return load(f.toPath());
+        }
+        return new CompactDictionaryAutomaton(f);
+    }
+
+    /**
+     * Checks if a file is an automaton saved using save. Besides the magic number, the version and the size
+     * given in the header have to match, so a dictionary whose first word starts with DAWG is not mistaken
+     * for an automaton
+     *
+     * @param path the file
+     * @return if the file has the header of a saved automaton matching its size
+     * @throws IOException if the file cannot be read
+     */
+    public static boolean isSavedAutomaton(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return false;
+            }
+            int states = in.readInt();
+            int transitions = in.readInt();
+            return states >= 1 && transitions >= 0 && Files.size(path) == fileSize(states, transitions);
+        }
+        catch (EOFException e) {
+            return false;
+        }
+    }
+
+    // The size of a saved automaton in bytes
+    private static long fileSize(int states, int transitions) {
+        return HEADER_SIZE + (long) Integer.BYTES * (states + 1 + bitSetSize(states) + transitions)
+                + (long) Character.BYTES * transitions;
+    }
+
+    /**
+     * Saves the automaton to a file to be loaded later using load
+     *
+     * @param path the file
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path path) throws IOException {
+        int transitions = getTransitionCount();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(stateCount);
+            out.writeInt(transitions);
+            // The int arrays first to keep them aligned
+            for (int i = 0; i <= stateCount; i++) {
+                out.writeInt(firstTransition.get(i));
+            }
+            for (int i = 0; i < accepting.limit(); i++) {
+                out.writeInt(accepting.get(i));
+            }
+            for (int i = 0; i < transitions; i++) {
+                out.writeInt(targets.get(i));
+            }
+            for (int i = 0; i < transitions; i++) {
+                out.writeChar(labels.get(i));
+            }
+        }
+    }
+
+    /**
+     * Function to get the initial state
+     * @return the initial state
+     */
+    public int getInitialState() {
+        return 0;
+    }
+
+    /**
+     * Function to check if a given state is one of the accepting states
+     * @param state the state to be checked
+     * @return if the state is one of the accepting states
+     */
+    public boolean isAcceptingState(int state) {
+        return state >= 0 && state < stateCount && (accepting.get(state >>> 5) & (1 << (state & 31))) != 0;
+    }
+
+    /**
+     * Function to follow a transition in the automaton from one state to another determined by the next character
+     *
+     * @param state the first state
+     * @param input the input character
+     * @return the new state, or NO_STATE if no valid transition for the character in the state
+     */
+    public int transition(int state, char input) {
+        if (state < 0 || state >= stateCount) {
+            return NO_STATE;
+        }
+        // Binary search in the sorted transitions of the state
+        int low = firstTransition.get(state);
+        int high = firstTransition.get(state + 1) - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char c = labels.get(mid);
+            if (c < input) {
+                low = mid + 1;
+            }
+            else if (c > input) {
+                high = mid - 1;
+            }
+            else {
+                return targets.get(mid);
+            }
+        }
+        return NO_STATE;
+    }
+
+    /**
+     * Function to match a string with the automaton
+     * @param s the string
+     * @return if the string can be matched using the automaton
+     */
+    public boolean match(String s) {
+        int state = getInitialState();
+        for (int i = 0; i < s.length() && state != NO_STATE; i++) {
+            state = transition(state, s.charAt(i));
+        }
+        return isAcceptingState(state);
+    }
+
+    /**
+     * Gets the index of the first transition of a state. Together with getTransitionEnd, getLabel and getTarget
+     * this allows to iterate over the outgoing transitions of a state, sorted by character
+     * @param state the state
+     * @return the index of the first transition
+     */
+    public int getTransitionStart(int state) {
+        return firstTransition.get(state);
+    }
+
+    /**
+     * Gets the index after the last transition of a state
+     * @param state the state
+     * @return the index after the last transition
+     */
+    public int getTransitionEnd(int state) {
+        return firstTransition.get(state + 1);
+    }
+
+    /**
+     * Gets the character of a transition
+     * @param transition the index of the transition
+     * @return the character
+     */
+    public char getLabel(int transition) {
+        return labels.get(transition);
+    }
+
+    /**
+     * Gets the target state of a transition
+     * @param transition the index of the transition
+     * @return the target state
+     */
+    public int getTarget(int transition) {
+        return targets.get(transition);
+    }
+
+    /**
+     * Gets the number of states in the automaton
+     * @return the number of states
+     */
+    public int getStateCount() {
+        return stateCount;
+    }
+
+    /**
+     * Gets the number of transitions in the automaton
+     * @return the number of transitions
+     */
+    public int getTransitionCount() {
+        return firstTransition.get(stateCount);
+    }
+
+    /**
+     * Function to get the complete alphabet known to the automaton
+     * @return the alphabet
+     */
+    public synchronized Set<Character> getAlphabet() {
+        if (alphabet == null) {
+            Set<Character> chars = new HashSet<>();
+            for (int i = 0; i < getTransitionCount(); i++) {
+                chars.add(labels.get(i));
+            }
+            alphabet = Collections.unmodifiableSet(chars);
+        }
+        return alphabet;
+    }
+
+    private static int bitSetSize(int states) {
+        return (states + 31) >>> 5;
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int offset, int length) {
+        ByteBuffer copy = buffer.duplicate();
+        copy.position(offset);
+        copy.limit(offset + length);
+        return copy.slice();
+    }
+
+    /**
+     * State of the automaton while it is built
+     */
+    private static class Node {
+        char[] labels = new char[0];
+        Node[] targets = new Node[0];
+        int size = 0;
+        boolean accepting = false;
+
+        void add(char c, Node target) {
+            if (size == labels.length) {
+                int capacity = Math.max(2, size * 2);
+                labels = Arrays.copyOf(labels, capacity);
+                targets = Arrays.copyOf(targets, capacity);
+            }
+            labels[size] = c;
+            targets[size] = target;
+            size++;
+        }
+
+        // Two finished nodes are equivalent if they have the same transitions to the same (already unique) nodes
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Node)) {
+                return false;
+            }
+            Node other = (Node) o;
+            if (accepting != other.accepting || size != other.size) {
+                return false;
+            }
+            for (int i = 0; i < size; i++) {
+                if (labels[i] != other.labels[i] || targets[i] != other.targets[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = accepting ? 1 : 0;
+            for (int i = 0; i < size; i++) {
+                hash = 31 * hash + labels[i];
+                hash = 31 * hash + System.identityHashCode(targets[i]);
+            }
+            return hash;
+        }
+    }
+
+    /**
+     * Builds a minimal automaton from sorted words, replacing equivalent states as soon as no more words can
+     * be added below them (Daciuk et al. 2000)
+     */
+    private static class Builder {
+        // The unique finished nodes
+        private final Map<Node, Node> register = new HashMap<>();
+        // The nodes on the path of the previous word, path.get(i) is reached after i characters
+        private final List<Node> path = new ArrayList<>();
+        private String previous = "";
+
+        Builder() {
+            path.add(new Node());
+        }
+
+        void add(String word) {
+            // DictionaryAutomaton does not accept the empty word either
+            if (word.isEmpty() || word.equals(previous)) {
+                return;
+            }
+            int prefix = 0;
+            while (prefix < word.length() && prefix < previous.length()
+                    && word.charAt(prefix) == previous.charAt(prefix)) {
+                prefix++;
+            }
+            // The part of the previous word after the common prefix is finished
+            minimise(prefix);
+            for (int i = prefix; i < word.length(); i++) {
+                Node node = new Node();
+                path.get(i).add(word.charAt(i), node);
+                path.add(node);
+            }
+            path.get(word.length()).accepting = true;
+            previous = word;
+        }
+
+        Node finish() {
+            minimise(0);
+            return path.get(0);
+        }
+
+        private void minimise(int length) {
+            for (int i = path.size() - 1; i > length; i--) {
+                Node node = path.remove(i);
+                Node parent = path.get(i - 1);
+                Node unique = register.putIfAbsent(node, node);
+                if (unique != null) {
+                    // Due to the sorting, the node is always the target of the last transition of its parent
+                    parent.targets[parent.size - 1] = unique;
+                }
+            }
+        }
+    }
+
+    /**
+     * Compiles a dictionary with one word per line into an automaton file
+     * @param args the dictionary file and the automaton file
+     */
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.err.println("Usage: CompactDictionaryAutomaton DICTIONARY OUTPUT");
+            System.exit(1);
+        }
+        try {
+            CompactDictionaryAutomaton automaton = new CompactDictionaryAutomaton(new File(args[0]));
+            automaton.save(new File(args[1]).toPath());
+            System.out.println("Saved " + automaton.getStateCount() + " states and " +
+                    automaton.getTransitionCount() + " transitions");
+        }
+        catch (IOException e) {
+            System.err.println("Error saving dictionary: " + e);
+            System.exit(1);
+        }
+    }
+}
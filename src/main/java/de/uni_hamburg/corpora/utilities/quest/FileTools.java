@@ -1,6 +1,6 @@
 package de.uni_hamburg.corpora.utilities.quest;
 
-import java.io.File;
+import de.uni_hamburg.corpora.utilities.CorpusFileIndex;
 import java.net.URI;
 import java.nio.file.Path;
 import java.util.HashSet;
@@ -9,23 +9,19 @@ import java.util.Set;
 public class FileTools {
 
         /**
-     * List all files given a path
+     * List all files given a path. The files are taken from the shared file index, so the directory is only
+     * walked once
      * @param path the path all files are listed in
      * @return the set of all files in path
      */
     public static Set<URI> listFiles(Path path) {
         // The set of all files
         Set<URI> allFiles = new HashSet<>();
-        // Add all files in directory
-        File[] dirFiles = path.toFile().listFiles();
-        if (dirFiles != null)
-            for (File f : dirFiles) {
-                allFiles.add(f.toURI().normalize());
-                // Recurse into directory
-                if (f.isDirectory()) {
-                    allFiles.addAll(listFiles(f.toPath()));
-                }
-            }
+        // Add all files and directories below the path
+        CorpusFileIndex index = CorpusFileIndex.get(path);
+        for (Path f : index.getEntries().keySet()) {
+            allFiles.add(index.toURI(f).normalize());
+        }
         return allFiles;
     }
 }
@@ -1,76 +1,180 @@
 package de.uni_hamburg.corpora.utilities.quest;
 
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collection;
 import java.util.List;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 /**
- * A class providing means of segmenting a string into given chunks
+ * A class providing means of segmenting a string into given chunks.
+ *
+ * The chunks are compiled into an automaton once, which is then used for all words. A word is segmented using
+ * dynamic programming over the positions in the word, i.e. in time linear in the length of the word times the
+ * length of the longest chunk. If there are several segmentations, the one with the fewest segments is chosen,
+ * preferring longer segments at the beginning of the word.
+ *
+ * Single code point chunks can also be given as a CodePointSet, which avoids compiling large character classes
+ * such as all alphabetic characters into the automaton.
+ *
+ * The object keeps the result of the last segmentation and is therefore not thread-safe. The automaton however
+ * can be shared between several objects.
+ *
  * @author bba1792, Dr. Herbert Lange
- * @version 20220909
+ * @version 20261017
  */
 public class StringSegmentation {
 
-    // The list of segments as a result of the last segmentation
-    private ArrayList<String> segments;
+    // Marks positions from which the rest of the word cannot be segmented
+    private static final int UNSEGMENTABLE = Integer.MAX_VALUE;
+
+    // The automaton accepting all chunks
+    private final CompactDictionaryAutomaton chunks;
+    // Additional chunks consisting of a single code point, can be null
+    private final CodePointSet codePoints;
+
+    // The list of segments as a result of the last segmentation, created on demand
+    private List<String> segments;
+    // The last segmented word
+    private String word;
+    // For each position, the minimal number of segments for the rest of the word and where the next segment ends.
+    // Kept between words to avoid allocations
+    private int[] segmentCount = new int[16];
+    private int[] segmentEnd = new int[16];
 
     /**
-     * Default constructor
+     * Default constructor, for use with segmentWord(String, List)
      */
     public StringSegmentation() {
+        this(null, null);
+    }
+
+    /**
+     * Constructor for a segmentation based on a fixed set of chunks
+     * @param chunks candidates for chunks, empty strings are ignored
+     */
+    public StringSegmentation(Collection<String> chunks) {
+        this(compile(chunks));
+    }
 
+    /**
+     * Constructor for a segmentation based on chunks already compiled using compile
+     * @param chunks the automaton accepting all chunks
+     */
+    public StringSegmentation(CompactDictionaryAutomaton chunks) {
+        this(chunks, null);
     }
 
     /**
-     * Method to check if a word is segmentable into chunks
+     * Constructor for a segmentation based on chunks already compiled using compile and additional single code
+     * point chunks
+     * @param chunks the automaton accepting all chunks
+     * @param codePoints the single code point chunks, can be null
+     */
+    public StringSegmentation(CompactDictionaryAutomaton chunks, CodePointSet codePoints) {
+        this.chunks = chunks;
+        this.codePoints = codePoints;
+    }
+
+    /**
+     * Compiles chunks into an automaton that can be shared between segmentations
+     * @param chunks candidates for chunks, empty strings are ignored
+     * @return the automaton accepting all chunks
+     */
+    public static CompactDictionaryAutomaton compile(Collection<String> chunks) {
+        return new CompactDictionaryAutomaton(new ArrayList<>(chunks));
+    }
+
+    /**
+     * Method to check if a word is segmentable into chunks. Compiles the chunks for each call, so if the chunks
+     * are the same for several words, use segmentWord(String) instead
      * @param token the word to be segmented
      * @param chunks candidates for chunks
      * @return if the word can be segmented
      */
     public boolean segmentWord(String token, List<String> chunks) {
-        // Filter out blank strings, remove duplicates and sort by length
-        chunks = new ArrayList<>(chunks.stream().filter((s) -> !s.isEmpty())
-                .collect(Collectors.toSet()));
-        chunks.sort(Comparator.comparingInt(String::length).reversed());
-        // List of states to remember and initial state with nothing matched and all remaining
-        List<Pair<List<String>,String>> states = new ArrayList<>();
-        List<String> matched = new ArrayList<>();
-        String remaining;
-        states.add(new Pair<>(matched,token));
-        // Continue as long as we have states
-        while (!states.isEmpty()) {
-            // Get the first remaining state and recover both matched and remaining
-            Pair<List<String>, String> state = states.remove(0);
-            matched = state.getFirst().stream().collect(Collectors.toList());
-            remaining = state.getSecond();
-            // Check all possible chunks if remaining string starts with it
-            for (String c : chunks) {
-                if (remaining.startsWith(c)) {
-                    // Copy matched and add new chunk
-                    List<String> newMatched = matched.stream().collect(Collectors.toList());
-                    newMatched.add(c);
-                    // Remove matched prefix from remaining
-                    String newRemaining = remaining.replaceFirst(Pattern.quote(c), "");
-                    // If nothing remains we are done
-                    if (newRemaining.isEmpty()) {
-                        segments = new ArrayList<>();
-                        segments.addAll(newMatched);
-                        return true;
-                    }
-                    else {
-                        // Otherwise, store where to continue
-                        states.add(new Pair<>(newMatched, newRemaining));
-                    }
+        StringSegmentation segmentation = new StringSegmentation(chunks);
+        boolean segmentable = segmentation.segmentWord(token);
+        segments = segmentable ? segmentation.getSegments() : null;
+        word = null;
+        return segmentable;
+    }
+
+    /**
+     * Method to check if a word is segmentable into the chunks given in the constructor
+     * @param token the word to be segmented
+     * @return if the word can be segmented
+     */
+    public boolean segmentWord(String token) {
+        if (chunks == null) {
+            throw new IllegalStateException("No chunks given");
+        }
+        segments = null;
+        word = null;
+        int length = token.length();
+        if (length == 0) {
+            return false;
+        }
+        if (segmentCount.length <= length) {
+            int capacity = Math.max(length + 1, segmentCount.length * 2);
+            segmentCount = new int[capacity];
+            segmentEnd = new int[capacity];
+        }
+        segmentCount[length] = 0;
+        // Find the best segmentation for each suffix of the word, starting with the shortest one
+        for (int start = length - 1; start >= 0; start--) {
+            int best = UNSEGMENTABLE;
+            int end = -1;
+            if (codePoints != null) {
+                int codePoint = token.codePointAt(start);
+                int next = start + Character.charCount(codePoint);
+                if (codePoints.contains(codePoint) && segmentCount[next] != UNSEGMENTABLE) {
+                    best = segmentCount[next] + 1;
+                    end = next;
+                }
+            }
+            int state = chunks.getInitialState();
+            for (int i = start; i < length; i++) {
+                state = chunks.transition(state, token.charAt(i));
+                if (state == CompactDictionaryAutomaton.NO_STATE) {
+                    break;
+                }
+                // Prefer the longer chunk if the number of segments is the same
+                if (chunks.isAcceptingState(state) && segmentCount[i + 1] != UNSEGMENTABLE
+                        && segmentCount[i + 1] + 1 <= best) {
+                    best = segmentCount[i + 1] + 1;
+                    end = i + 1;
                 }
             }
+            segmentCount[start] = best;
+            segmentEnd[start] = end;
         }
-        // Return if failed
-        return false;
+        if (segmentCount[0] == UNSEGMENTABLE) {
+            return false;
+        }
+        word = token;
+        return true;
+    }
+
+    /**
+     * Gets the end of a segment found by the last successful segmentation, to iterate over the segments without
+     * creating them, e.g. for (int start = 0; start &lt; word.length(); start = getSegmentEnd(start))
+     * @param start the start of the segment, either 0 or the end of the previous segment
+     * @return the end of the segment
+     */
+    public int getSegmentEnd(int start) {
+        return segmentEnd[start];
     }
 
+    /**
+     * Gets the segments found by the last successful segmentation
+     * @return the segments or null if the last word could not be segmented
+     */
     public List<String> getSegments() {
+        if (segments == null && word != null) {
+            segments = new ArrayList<>(segmentCount[0]);
+            for (int start = 0; start < word.length(); start = segmentEnd[start]) {
+                segments.add(word.substring(start, segmentEnd[start]));
+            }
+        }
         return segments;
     }
 }
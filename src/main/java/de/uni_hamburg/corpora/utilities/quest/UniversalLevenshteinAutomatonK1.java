@@ -153,6 +153,60 @@ public class UniversalLevenshteinAutomatonK1 {
         return matched ;
     }
 
+    /**
+     * Class representing the current state when matching in universal Levenshtein and compact dictionary automaton
+     * in parallel
+     */
+    static class CompactState {
+        // Character index
+        int index ;
+        // The partial word matched against the pattern
+        String word ;
+        // State in the universal Levenshtein automaton
+        String uLevenshteinState;
+        // State in the dictionary automaton
+        int dictionaryState;
+
+        // Constructor setting all parameters
+        public CompactState(int index, String word, int dictionaryState, String uLevenshteinState) {
+            this.index = index;
+            this.word = word;
+            this.uLevenshteinState = uLevenshteinState;
+            this.dictionaryState = dictionaryState;
+        }
+    }
+
+    /**
+     * Function to find all similar words (Levenshtein distance less or equal k=1) in a dictionary based on a pattern.
+     * Only the transitions actually present in the dictionary are followed instead of trying the whole alphabet
+     *
+     * @param pattern the word to be compared to the dictionary
+     * @param da the compact automaton representing the dictionary
+     * @return the list of all similar words in the dictionary
+     */
+    public static List<String> matchDictionary(String pattern, CompactDictionaryAutomaton da) {
+        List<String> matched = new ArrayList<>();
+        ULevenshteinAutomatonK1 ula = new ULevenshteinAutomatonK1();
+        Stack<CompactState> stack = new Stack<>();
+        stack.push(new CompactState(0,"",da.getInitialState(),ula.initialState));
+        while (!stack.isEmpty()) {
+            CompactState current = stack.pop();
+            for (int t = da.getTransitionStart(current.dictionaryState);
+                 t < da.getTransitionEnd(current.dictionaryState); t++) {
+                char c = da.getLabel(t);
+                String newULState = ula.transition(current.uLevenshteinState,toBitString(c,pattern,current.index));
+                if (newULState != null) {
+                    int newDictState = da.getTarget(t);
+                    String newWord = current.word + c;
+                    stack.push(new CompactState(current.index + 1 , newWord, newDictState, newULState)) ;
+                    if (da.isAcceptingState(newDictState) && ula.acceptingStates.contains(newULState))
+                        matched.add(newWord);
+                }
+            }
+        }
+        return matched ;
+    }
+
     /**
      * Class representing the universal Levenshtein automaton for k=1
      */
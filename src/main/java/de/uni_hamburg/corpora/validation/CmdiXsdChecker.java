@@ -12,20 +12,18 @@ package de.uni_hamburg.corpora.validation;
 
 
 import de.uni_hamburg.corpora.Report;
+import de.uni_hamburg.corpora.utilities.SchemaCache;
 import de.uni_hamburg.corpora.utilities.TypeConverter;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.net.URL;
 import java.util.ArrayList;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.xml.transform.Source;
 import javax.xml.validation.Schema;
-import javax.xml.validation.SchemaFactory;
 import javax.xml.validation.Validator;
-import javax.xml.XMLConstants;
 import org.apache.commons.cli.Option;
 import org.xml.sax.SAXException;
 
@@ -39,7 +37,7 @@ public class CmdiXsdChecker {
 
 
     /**
-     * Validate a coma file with XML schema from internet.
+     * Validate a CMDI file with the XML schema of its profile.
      *
      * @return true, if file is passable (valid enough for HZSK),
      *         false otherwise.
@@ -74,11 +72,9 @@ public class CmdiXsdChecker {
         } else {
             cmdiProfileXsdURL = xsdmatch.group(1);
         }
-        URL cmdiXsdURL = new URL(cmdiProfileXsdURL);
         Source xmlStream = TypeConverter.String2StreamSource(data);
-        SchemaFactory schemaFactory =
-            SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
-        Schema schema = schemaFactory.newSchema(cmdiXsdURL);
+        // The profile schema is only downloaded and compiled once
+        Schema schema = SchemaCache.get(cmdiProfileXsdURL);
         Validator validator = schema.newValidator();
         CmdiXsdErrorReportGenerator eh = new CmdiXsdErrorReportGenerator();
         validator.setErrorHandler(eh);
@@ -4,6 +4,7 @@ import de.uni_hamburg.corpora.*;
 
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.net.URL;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
@@ -22,7 +23,7 @@ import org.xml.sax.SAXException;
  *
  * Last update
  * @author Herbert Lange
- * @version 20241004
+ * @version 20261017
  */
 public class ComaApostropheChecker extends Checker implements CorpusFunction {
 
@@ -92,4 +93,12 @@ public class ComaApostropheChecker extends Checker implements CorpusFunction {
         stats = function(cd, fix);
         return stats;
     }
+
+    /**
+     * The check only depends on the coma file
+     */
+    @Override
+    public Collection<URL> getInputs(Corpus c) {
+        return Collections.singleton(c.getComaData().getURL());
+    }
 }
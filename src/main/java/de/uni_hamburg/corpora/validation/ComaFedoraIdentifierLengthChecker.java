@@ -11,6 +11,7 @@ package de.uni_hamburg.corpora.validation;
 import de.uni_hamburg.corpora.*;
 
 import java.io.IOException;
+import java.net.URL;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
@@ -34,7 +35,7 @@ import javax.xml.xpath.XPathExpressionException;
  *
  * Last update
  * @author Herbert Lange
- * @version 20241004
+ * @version 20261017
  */
 public class ComaFedoraIdentifierLengthChecker extends Checker implements CorpusFunction {
 
@@ -152,4 +153,11 @@ public class ComaFedoraIdentifierLengthChecker extends Checker implements Corpus
         return stats;
     }
 
+    /**
+     * The check only depends on the coma file
+     */
+    @Override
+    public Collection<URL> getInputs(Corpus c) {
+        return Collections.singleton(c.getComaData().getURL());
+    }
 }
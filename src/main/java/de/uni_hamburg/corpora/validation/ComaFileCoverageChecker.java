@@ -14,6 +14,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -26,6 +27,7 @@ import org.w3c.dom.NodeList;
 import org.w3c.dom.Text;
 import org.xml.sax.SAXException;
 
+import de.uni_hamburg.corpora.utilities.CorpusFileIndex;
 import de.uni_hamburg.corpora.utilities.TypeConverter;
 import java.net.URISyntaxException;
 
@@ -99,103 +101,13 @@ public class ComaFileCoverageChecker extends Checker implements CorpusFunction {
                 }
                 Set<String> allFilesPaths = new HashSet<String>();
                 if (settings.getDataDirectory() != null) {
-                    Stack<File> dirs = new Stack<File>();
-                    dirs.add(settings.getDataDirectory());
-                    String prefix = settings.getDataDirectory().getCanonicalPath();
-                    while (!dirs.empty()) {
-                        File files[] = dirs.pop().listFiles();
-                        for (File a : files) {
-                            if (whitelist.contains(a.getName()) || fileendingwhitelist.contains(getFileExtension(a)) || directorywhitelist.contains(a.getParentFile().getName()) || directorywhitelist.contains(a.getParentFile().getParentFile().getName())) {
-                                continue;
-                            } else if (a.isDirectory()) {
-                                dirs.add(a);
-                            } else if (a.getName().endsWith(".coma")) {
-                                comacounter++;
-                                if (comacounter > 1) {
-                                    stats.addCritical(function, cd, "There is more than one coma file in your corpus " + a.getName());
-                                }
-                                System.out.println(comacounter);
-                                continue;
-                            } else {
-                                String relPath = stripPrefix(a.getCanonicalPath(),
-                                        prefix);
-                                if (relPath.equals(a.getCanonicalPath())) {
-                                    System.out.println("Cannot figure out relative path"
-                                            + " for: " + a.getCanonicalPath());
-                                    stats.addCritical(function, cd, "Cannot figure out relative path"
-                                            + " for: " + a.getCanonicalPath());
-                                } else {
-                                    allFilesPaths.add(relPath);
-                                }
-                            }
-                        }
-                    }
+                    collectFilePaths(settings.getDataDirectory(), allFilesPaths, stats, cd);
                 }
                 if (settings.getBaseDirectory() != null) {
-                    Stack<File> dirs = new Stack();
-                    dirs.add(settings.getBaseDirectory());
-                    String prefix = settings.getBaseDirectory().getCanonicalPath();
-                    while (!dirs.empty()) {
-                        File files[] = dirs.pop().listFiles();
-                        for (File b : files) {
-                            if (whitelist.contains(b.getName()) || fileendingwhitelist.contains(getFileExtension(b)) || directorywhitelist.contains(b.getParentFile().getName()) || directorywhitelist.contains(b.getParentFile().getParentFile().getName())) {
-                                continue;
-                            } else if (b.isDirectory()) {
-                                dirs.add(b);
-                            } else if (b.getName().endsWith(".coma")) {
-                                comacounter++;
-                                if (comacounter > 1) {
-                                    stats.addCritical(function, cd, "There is more than one coma file in your corpus " + b.getName());
-                                }
-                                System.out.println(comacounter);
-                                continue;
-                            } else {
-                                String relPath = stripPrefix(b.getCanonicalPath(),
-                                        prefix);
-                                if (relPath.equals(b.getCanonicalPath())) {
-                                    System.out.println("Cannot figure out relative path"
-                                            + " for: " + b.getCanonicalPath());
-                                     stats.addCritical(function, cd, "Cannot figure out relative path"
-                                            + " for: " + b.getCanonicalPath());
-                                } else {
-                                    allFilesPaths.add(relPath);
-                                }
-                            }
-                        }
-                    }
+                    collectFilePaths(settings.getBaseDirectory(), allFilesPaths, stats, cd);
                 }
-                if (allFilesPaths.size() == 0) {
-                    Stack<File> dirs = new Stack();
-                    dirs.add(referenceFile);
-                    String prefix = referencePath;
-                    while (!dirs.empty()) {
-                        File files[] = dirs.pop().listFiles();
-                        for (File c : files) {
-                            if (whitelist.contains(c.getName()) || fileendingwhitelist.contains(getFileExtension(c)) || directorywhitelist.contains(c.getParentFile().getName()) || directorywhitelist.contains(c.getParentFile().getParentFile().getName())) {
-                                continue;
-                            } else if (c.isDirectory()) {
-                                dirs.add(c);
-                            } else if (c.getName().endsWith(".coma")) {
-                                comacounter++;
-                                if (comacounter > 1) {
-                                    stats.addCritical(function, cd, "There is more than one coma file in your corpus " + c.getName());
-                                }
-                                System.out.println(comacounter);
-                                continue;
-                            } else {
-                                String relPath = stripPrefix(c.getCanonicalPath(),
-                                        prefix);
-                                if (relPath.equals(c.getCanonicalPath())) {
-                                    System.out.println("Cannot figure out relative path"
-                                            + " for: " + c.getCanonicalPath());
-                                     stats.addCritical(function, cd, "Cannot figure out relative path"
-                                            + " for: " + c.getCanonicalPath());
-                                } else {
-                                    allFilesPaths.add(relPath);
-                                }
-                            }
-                        }
-                    }
+                if (allFilesPaths.size() == 0 && referenceFile != null) {
+                    collectFilePaths(referenceFile, allFilesPaths, stats, cd);
                 }
                 Set<String> NSLinksPaths = new HashSet<String>();
                 DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
@@ -260,10 +172,46 @@ public class ComaFileCoverageChecker extends Checker implements CorpusFunction {
         return stats;
     }
 
-    private String stripPrefix(String path, String prefix) {
-        return path.replaceFirst("^" + prefix.replace("\\", "\\\\")
-                + File.separator.replace("\\", "\\\\"), "");
+    /**
+     * Collects the paths of all files in a directory that are not whitelisted, relative to the directory. The files
+     * are taken from the shared file index instead of walking the directory again
+     */
+    private void collectFilePaths(File directory, Set<String> allFilesPaths, Report stats, CorpusData cd) {
+        CorpusFileIndex index = CorpusFileIndex.get(directory.toPath());
+        Path root = index.getRoot();
+        // Whitelisted directories, whose content is skipped
+        Map<Path, Boolean> skipped = new HashMap<>();
+        for (Path file : index.getFiles()) {
+            boolean skip = false;
+            // Check the file and all directories between the root and the file
+            for (Path p = file; !skip && !p.equals(root); p = p.getParent()) {
+                skip = p.equals(file) ? isWhitelisted(p) : skipped.computeIfAbsent(p, this::isWhitelisted);
+            }
+            if (skip) {
+                continue;
+            }
+            if (file.getFileName().toString().endsWith(".coma")) {
+                comacounter++;
+                if (comacounter > 1) {
+                    stats.addCritical(function, cd, "There is more than one coma file in your corpus " + file.getFileName());
+                }
+                System.out.println(comacounter);
+            } else {
+                allFilesPaths.add(root.relativize(file).toString());
+            }
+        }
+    }
 
+    /**
+     * Checks if a file or directory is whitelisted by its name, its extension or one of its parent directories
+     */
+    private boolean isWhitelisted(Path p) {
+        File a = p.toFile();
+        File parent = a.getParentFile();
+        File grandparent = parent == null ? null : parent.getParentFile();
+        return whitelist.contains(a.getName()) || fileendingwhitelist.contains(getFileExtension(a))
+                || (parent != null && directorywhitelist.contains(parent.getName()))
+                || (grandparent != null && directorywhitelist.contains(grandparent.getName()));
     }
 
     /**
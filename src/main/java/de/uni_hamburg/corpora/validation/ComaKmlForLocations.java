@@ -38,6 +38,8 @@ public class ComaKmlForLocations extends Checker implements CorpusFunction {
     HashMap<String, String> domicile; // hash map for storing the residences of speakers 
     HashMap<String, String> commLocation; // hash map for holding locations where the communications took place
     HashMap<String, String> lngLat; // hash map for holding coordinates of locations
+    // Used to read the kml file and to write the fixed files
+    private final CorpusIO cio = new CorpusIO();
 
     final String KEYBIRTHPLACE = "1a Place of birth";
     final String KEYBIRTHPLACELL = "1c Place of birth (LngLat)";
@@ -261,7 +263,6 @@ public class ComaKmlForLocations extends Checker implements CorpusFunction {
                     commLocation.put(communicationID, new String(settlement + ", " + region + ", " + country));
                 }
                 if (fix) {
-                    CorpusIO cio = new CorpusIO();
                     cd.updateUnformattedString(TypeConverter.W3cDocument2String(doc));
                     cio.write(cd, cd.getURL());
                 }
@@ -291,7 +292,6 @@ public class ComaKmlForLocations extends Checker implements CorpusFunction {
     public Report getCoordinates() throws ParserConfigurationException, SAXException, IOException, JDOMException, URISyntaxException {
         Report stats = new Report();
         Document doc = null;
-        CorpusIO cio = new CorpusIO();
         if (kmlFile != null) {
             URL url = Paths.get(kmlFile).toUri().toURL();
             String kmlString = cio.readExternalResourceAsString(url.toString());
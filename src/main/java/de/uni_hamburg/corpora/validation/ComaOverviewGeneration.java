@@ -6,7 +6,6 @@
 package de.uni_hamburg.corpora.validation;
 
 import de.uni_hamburg.corpora.*;
-import de.uni_hamburg.corpora.utilities.TypeConverter;
 import de.uni_hamburg.corpora.utilities.XSLTransformer;
 import java.io.IOException;
 import java.net.MalformedURLException;
@@ -46,11 +45,8 @@ public class ComaOverviewGeneration extends Checker implements CorpusFunction {
     @Override
     public Report function(CorpusData cd, Boolean fix) {
         Report r = new Report();
-        String xsl;
         try {
 
-            // get the XSLT stylesheet as String
-            xsl = TypeConverter.InputStream2String(getClass().getResourceAsStream(xslpath));
             // create XSLTransformer and set the parameters 
             XSLTransformer xt = new XSLTransformer();
             //set an parameter for INEL
@@ -58,7 +54,7 @@ public class ComaOverviewGeneration extends Checker implements CorpusFunction {
                 xt.setParameter("mode", "inel");
             }
             // perform XSLT transformation
-            String result = xt.transform(cd.toSaveableString(), xsl);
+            String result = xt.transformWithResource(cd.toSaveableString(), xslpath);
             //get location to save new result
             URL overviewurl = new URL(cd.getParentURL(), "curation/coma_overview.html");
             CorpusIO cio = new CorpusIO();
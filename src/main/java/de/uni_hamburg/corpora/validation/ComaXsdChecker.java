@@ -10,6 +10,7 @@
 package de.uni_hamburg.corpora.validation;
 
 import de.uni_hamburg.corpora.*;
+import de.uni_hamburg.corpora.utilities.SchemaCache;
 import de.uni_hamburg.corpora.utilities.TypeConverter;
 import java.io.IOException;
 import java.net.URL;
@@ -19,9 +20,7 @@ import java.util.Properties;
 import javax.xml.transform.Source;
 import javax.xml.transform.stream.StreamSource;
 import javax.xml.validation.Schema;
-import javax.xml.validation.SchemaFactory;
 import javax.xml.validation.Validator;
-import javax.xml.XMLConstants;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.TransformerException;
 import javax.xml.xpath.XPathExpressionException;
@@ -36,25 +35,25 @@ import org.xml.sax.SAXException;
  *
  * Last updated
  * @author Herbert Lange
- * @version 20240322
+ * @version 20261017
  */
 public class ComaXsdChecker extends Checker implements CorpusFunction {
 
+    static final String COMA_XSD = "http://www.exmaralda.org/xml/comacorpus.xsd";
+
     public ComaXsdChecker(Properties properties) {
         super(false, properties);
     }
     
     /**
-    * Main functionality of the feature; validates a coma file with XML schema from internet.
+    * Main functionality of the feature; validates a coma file with XML schema. The bundled copy of the
+    * schema is used instead of downloading it, see SchemaCache.
     */
     public Report function(CorpusData cd, Boolean fix)
             throws SAXException, JDOMException, IOException, JexmaraldaException, TransformerException, ParserConfigurationException, XPathExpressionException{
         System.out.println("Checking COMA file against schema...");
-        URL COMA_XSD = new URL("http://www.exmaralda.org/xml/comacorpus.xsd");
         Source xmlStream = new StreamSource(TypeConverter.String2InputStream(cd.toSaveableString()));
-        SchemaFactory schemaFactory =
-            SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
-        Schema schema = schemaFactory.newSchema(COMA_XSD);
+        Schema schema = SchemaCache.get(COMA_XSD);
         Validator validator = schema.newValidator();
         ComaErrorReportGenerator eh = new ComaErrorReportGenerator();
         validator.setErrorHandler(eh);
@@ -88,4 +87,11 @@ public class ComaXsdChecker extends Checker implements CorpusFunction {
         return stats;
     }
 
+    /**
+     * The check only depends on the coma file
+     */
+    @Override
+    public Collection<URL> getInputs(Corpus c) {
+        return Collections.singleton(c.getComaData().getURL());
+    }
 }
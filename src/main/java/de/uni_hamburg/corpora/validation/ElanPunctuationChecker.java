@@ -6,27 +6,25 @@
 package de.uni_hamburg.corpora.validation;
 
 import de.uni_hamburg.corpora.*;
+import de.uni_hamburg.corpora.utilities.EafStreamReader;
 
 import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 import java.util.regex.Pattern;
-import org.jdom2.Document;
-import org.jdom2.JDOMException;
-import org.jdom2.filter.Filters;
-import org.jdom2.xpath.XPathBuilder;
-import org.jdom2.xpath.XPathExpression;
-import org.jdom2.xpath.XPathFactory;
-import org.jdom2.xpath.jaxen.JaxenXPathFactory;
-import org.xml.sax.SAXException;
-import de.uni_hamburg.corpora.utilities.TypeConverter;
-import java.net.URISyntaxException;
-import java.util.List;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.TransformerException;
 import javax.xml.xpath.XPathExpressionException;
-import org.jdom2.Element;
+import org.jdom2.JDOMException;
+import org.xml.sax.SAXException;
 
 
 /**
@@ -35,14 +33,16 @@ import org.jdom2.Element;
  *
  * Last updated
  * @author Herbert Lange
- * @version 20240322
+ * @version 20261017
  */
-public class ElanPunctuationChecker extends Checker implements CorpusFunction {
+public class ElanPunctuationChecker extends Checker implements CorpusFunction, StreamingCorpusFunction {
 
-    boolean badPunctuation = false;
-    String xpathContext = "/ANNOTATION_DOCUMENT/TIER[@LINGUISTIC_TYPE_REF!='no']/ANNOTATION/*";
-    Document doc;
-    private final XPathFactory xpathFactory = new JaxenXPathFactory();
+    //Pattern colonPattern = Pattern.compile(":$");
+    private static final Pattern dotPattern = Pattern.compile("(?<=[^\\.])\\.{1,}(?=[^\\.\\\"“»”]).+?");
+    private static final Pattern fourDotPattern = Pattern.compile("(?<=[^\\.])\\.{4,}(?=[^\\.\\\"“»”]).+?");
+    private static final Pattern qmarkPattern = Pattern.compile("(?<=[^\\?])\\?{1,3}(?=[^\\?]).+?");
+    private static final Pattern paragraphPattern = Pattern.compile("§.+$");
+    private static final Pattern exclamPattern = Pattern.compile("!.+$");
 
     public ElanPunctuationChecker(Properties properties) {
         //fixing option not available
@@ -55,79 +55,103 @@ public class ElanPunctuationChecker extends Checker implements CorpusFunction {
      */
     @Override
     public Report function(CorpusData cd, Boolean fix) 
-            throws SAXException, IOException, ParserConfigurationException, URISyntaxException, JDOMException, TransformerException, XPathExpressionException {
-        Report stats = new Report();         // create a new report
-        doc = TypeConverter.String2JdomDocument(cd.toSaveableString()); // read the file as a doc
-        //Pattern colonPattern = Pattern.compile(":$");
-        Pattern dotPattern = Pattern.compile("(?<=[^\\.])\\.{1,}(?=[^\\.\\\"“»”]).+?");
-        Pattern fourDotPattern = Pattern.compile("(?<=[^\\.])\\.{4,}(?=[^\\.\\\"“»”]).+?");
-        Pattern qmarkPattern = Pattern.compile("(?<=[^\\?])\\?{1,3}(?=[^\\?]).+?");
-        Pattern paragraphPattern = Pattern.compile("§.+$");
-        Pattern exclamPattern = Pattern.compile("!.+$");
-        XPathExpression<Element> context = new XPathBuilder<>(xpathContext, Filters.element()).compileWith(xpathFactory);
-        List allContextInstances = context.evaluate(doc);
-        String start = "";
-        String finish = "";
-        if (!allContextInstances.isEmpty()) {
-            for (int i = 0; i < allContextInstances.size(); i++) {
-                Object o = allContextInstances.get(i);
-                if (o instanceof Element) {
-                    Element e = (Element) o;
-                    String s = e.getChildText("ANNOTATION_VALUE");
-                    if (dotPattern.matcher(s).find()||fourDotPattern.matcher(s).find() || qmarkPattern.matcher(s).find() || paragraphPattern.matcher(s).find() || exclamPattern.matcher(s).find()) {
-                        Object a = "";
-                        System.out.println(e.getAttributeValue("ANNOTATION_REF"));
-                        if (e.getAttributeValue("ANNOTATION_REF") != null) {
-                            String att = e.getAttributeValue("ANNOTATION_REF");
-                            String xpathAnnID = "//ALIGNABLE_ANNOTATION[@ANNOTATION_ID='" + att + "']";
-                            XPathExpression<Element> annID = new XPathBuilder<>(xpathAnnID, Filters.element()).compileWith(xpathFactory);
-                            a = annID.evaluateFirst(doc);
-                        } else {
-                            a = o;
-                        }
-                        if (a instanceof Element) {
-                            Element ee = (Element) a;
-                            String begin = ee.getAttributeValue("TIME_SLOT_REF1");
-                            String end = ee.getAttributeValue("TIME_SLOT_REF2");
-                            String xpathBegTime = "//TIME_SLOT[@TIME_SLOT_ID='" + begin + "']";
-                            String xpathEndTime = "//TIME_SLOT[@TIME_SLOT_ID='" + end + "']";
-                            XPathExpression<Element> beginTime = new XPathBuilder<>(xpathBegTime, Filters.element()).compileWith(xpathFactory);
-                            Object bt = beginTime.evaluateFirst(doc);
-                            if (bt instanceof Element) {
-                                Element eb = (Element) bt;
-                                start = eb.getAttributeValue("TIME_VALUE");
-                                int startTime = Integer.parseInt(start);
-                                int startSeconds = (startTime / 1000) % 60;
-                                int startMinutes =  (startTime/ (1000*60)) % 60;
-                                int startHours  = (startTime / (1000*60*60)) % 24;
-                                String startFormatted = String.format("%d:%d:%d", startHours, startMinutes, startSeconds);
-                                System.out.println(startFormatted);
-                                XPathExpression<Element> endTime = new XPathBuilder<>(xpathEndTime, Filters.element()).compileWith(xpathFactory);
-                                Object et = endTime.evaluateFirst(doc);
-                                if (et instanceof Element) {
-                                    Element ec = (Element) et;
-                                    finish = ec.getAttributeValue("TIME_VALUE");
-                                    int finishTime = Integer.parseInt(finish);
-                                    int finishSeconds = (finishTime / 1000) % 60;
-                                    int finishMinutes =  (finishTime/ (1000*60)) % 60;
-                                    int finishHours  = (finishTime / (1000*60*60)) % 24;
-                                    String finishFormatted = String.format("%d:%d:%d", finishHours, finishMinutes, finishSeconds);
-                                    System.out.println(finishFormatted);
-                                    badPunctuation = true;
-                                    stats.addWarning(function, cd, "Bad punctuation in : " + s + " Start: " + startFormatted +  " Finish: " + finishFormatted);
-                                }  
-                            }
-                        }
-                    } 
+            throws SAXException, IOException {
+        CorpusDataVisitor visitor = createVisitor(cd);
+        EafStreamReader.read(cd, visitor);
+        return visitor.getReport();
+    }
+
+    /**
+     * Creates the visitor checking the annotations of a single file, which can share one pass over the file
+     * with other checks
+     */
+    @Override
+    public CorpusDataVisitor createVisitor(CorpusData cd) {
+        return new CorpusDataVisitor() {
+            // Only the alignment and the annotations with bad punctuation are kept while reading the file
+            private final Map<String, String> timeValues = new HashMap<>();
+            private final Map<String, String[]> timeSlotRefs = new HashMap<>();
+            private final Map<String, String> annotationRefs = new HashMap<>();
+            private final List<EafStreamReader.Annotation> bad = new ArrayList<>();
+            private int annotationCount = 0;
+
+            @Override
+            public void timeSlot(String id, String value) {
+                timeValues.put(id, value);
+            }
+
+            @Override
+            public void annotation(EafStreamReader.Tier tier, EafStreamReader.Annotation annotation) {
+                if (annotation.getRef() != null) {
+                    annotationRefs.put(annotation.getId(), annotation.getRef());
+                }
+                else {
+                    timeSlotRefs.put(annotation.getId(),
+                            new String[]{annotation.getTimeSlotRef1(), annotation.getTimeSlotRef2()});
+                }
+                // Only tiers with a linguistic type other than no are checked
+                if (tier.getLinguisticTypeRef() == null || tier.getLinguisticTypeRef().equals("no")) {
+                    return;
+                }
+                annotationCount++;
+                String s = annotation.getValue() == null ? "" : annotation.getValue();
+                if (dotPattern.matcher(s).find() || fourDotPattern.matcher(s).find() || qmarkPattern.matcher(s).find() || paragraphPattern.matcher(s).find() || exclamPattern.matcher(s).find()) {
+                    bad.add(annotation);
                 }
             }
-            if (!badPunctuation) {
-                stats.addCorrect(function, cd, "Punctuation OK");
+
+            @Override
+            public Report getReport() {
+                Report stats = new Report();         // create a new report
+                if (annotationCount == 0) {
+                    stats.addCorrect(function, cd, "The file does not contain any tiers");
+                    return stats;
+                }
+                boolean badPunctuation = false;
+                // Annotations can refer to annotations later in the file, so the times are resolved at the end
+                for (EafStreamReader.Annotation annotation : bad) {
+                    String[] slots = resolveTimeSlots(annotation.getId(), timeSlotRefs, annotationRefs);
+                    if (slots != null) {
+                        badPunctuation = true;
+                        stats.addWarning(function, cd, "Bad punctuation in : " + annotation.getValue() + " Start: "
+                                + formatTime(timeValues.get(slots[0])) + " Finish: " + formatTime(timeValues.get(slots[1])));
+                    }
+                }
+                if (!badPunctuation) {
+                    stats.addCorrect(function, cd, "Punctuation OK");
+                }
+                return stats;
+            }
+        };
+    }
+
+    /**
+     * Follows the references of an annotation to the alignable annotation giving its time slots
+     * @return the ids of the start and end time slot or null if the references cannot be resolved
+     */
+    private String[] resolveTimeSlots(String id, Map<String, String[]> timeSlotRefs, Map<String, String> annotationRefs) {
+        Set<String> seen = new HashSet<>();
+        while (id != null && seen.add(id)) {
+            if (timeSlotRefs.containsKey(id)) {
+                return timeSlotRefs.get(id);
             }
-        } else {
-            stats.addCorrect(function, cd, "The file does not contain any tiers");
+            id = annotationRefs.get(id);
         }
-        return stats;
+        return null;
+    }
+
+    /**
+     * Formats a time value given in milliseconds as hours, minutes and seconds
+     */
+    private String formatTime(String value) {
+        if (value == null || !value.matches("[0-9]+")) {
+            return "unknown";
+        }
+        long time = Long.parseLong(value);
+        long seconds = (time / 1000) % 60;
+        long minutes = (time / (1000 * 60)) % 60;
+        long hours = (time / (1000 * 60 * 60)) % 24;
+        return String.format("%d:%d:%d", hours, minutes, seconds);
     }
 
     /**
@@ -159,4 +183,8 @@ public class ElanPunctuationChecker extends Checker implements CorpusFunction {
         return stats;
     }
 
-}
\ No newline at end of file
+    @Override
+    public Boolean getIsThreadSafe() {
+        return true;
+    }
+}
@@ -6,7 +6,7 @@
 package de.uni_hamburg.corpora.validation;
 
 import de.uni_hamburg.corpora.*;
-import de.uni_hamburg.corpora.utilities.TypeConverter;
+import de.uni_hamburg.corpora.utilities.ExbStreamReader;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.util.*;
@@ -18,9 +18,6 @@ import org.xml.sax.SAXException;
 
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
 import static de.uni_hamburg.corpora.CorpusMagician.exmaError;
 
 /**
@@ -32,9 +29,9 @@ import static de.uni_hamburg.corpora.CorpusMagician.exmaError;
  *
  * Last updated
  * @author Herbert Lange
- * @version 20240322
+ * @version 20261017
  */
-public class ExbForbiddenSymbolsChecker extends Checker implements CorpusFunction {
+public class ExbForbiddenSymbolsChecker extends Checker implements CorpusFunction, StreamingCorpusFunction {
     ArrayList<String> lsTiersToCheck = new ArrayList<>(
         Arrays.asList("ts", "tx", "stl", "st")); 
     // This is a list of transcription tiers in the Selkup corpus
@@ -44,7 +41,6 @@ public class ExbForbiddenSymbolsChecker extends Checker implements CorpusFunctio
     }
     
     static Pattern forbSymbEx = Pattern.compile("[$§&]"); //the list of symbols to check for
-    boolean forbidden = false;
     
     public ExbForbiddenSymbolsChecker(Properties properties){
         // fixing option not available
@@ -53,46 +49,44 @@ public class ExbForbiddenSymbolsChecker extends Checker implements CorpusFunctio
     
     @Override
     public Report function (CorpusData cd, Boolean fix) throws IOException, SAXException {
-        Document doc = null;
-        XMLData xml = (XMLData)cd;
-        doc = TypeConverter.JdomDocument2W3cDocument(xml.getJdom());
-        Report stats = new Report();
-        
-        NodeList tiers = doc.getElementsByTagName("tier");
-        ArrayList<Element> relevantTiers = new ArrayList();
-        for (int i = 0; i < tiers.getLength(); i++) {
-            Element tier = (Element)tiers.item(i);
-            String category = tier.getAttribute("category");
-            if (lsTiersToCheck.contains(category)) {
-                relevantTiers.add(tier);
-            } 
-        }
-        for (int i = 0; i < relevantTiers.size(); i++) {
-            Element curTier = relevantTiers.get(i);
-            NodeList events = curTier.getElementsByTagName("event");
-            String tierId = curTier.getAttribute("id");
-            
-            for (int j = 0; j < events.getLength(); j++) {
-                Element event = (Element)events.item(j);
-                String eventStart = event.getAttribute("start");
-                String eventEnd = event.getAttribute("end");
-                String eventText = event.getTextContent();
-                Matcher m = forbSymbEx.matcher(eventText);
+        CorpusDataVisitor visitor = createVisitor(cd);
+        ExbStreamReader.read(cd, visitor);
+        return visitor.getReport();
+    }
+
+    /**
+     * Creates the visitor checking the events of a single file, which can share one pass over the file with
+     * other checks
+     */
+    @Override
+    public CorpusDataVisitor createVisitor(CorpusData cd) {
+        return new CorpusDataVisitor() {
+            private final Report stats = new Report();
+            private boolean forbidden = false;
+
+            @Override
+            public void event(ExbStreamReader.Tier tier, ExbStreamReader.Event event) {
+                if (!lsTiersToCheck.contains(tier.getCategory())) {
+                    return;
+                }
+                Matcher m = forbSymbEx.matcher(event.getText());
                 if (m.find()) {
                     forbidden = true;
-                    String error = "Forbidden symbol '" + m.group() + "' was found in an event: " 
-                        + eventStart + "/" + eventEnd + ", tier '" + tierId + "'";
-                    exmaError.addError(function, cd.getURL().getFile(), tierId, eventStart, false, error);
+                    String error = "Forbidden symbol '" + m.group() + "' was found in an event: "
+                        + event.getStart() + "/" + event.getEnd() + ", tier '" + tier.getId() + "'";
+                    exmaError.addError(function, cd.getURL().getFile(), tier.getId(), event.getStart(), false, error);
                     stats.addCritical(function, cd, error);
-                    }
                 }
             }
-        
-        if (!forbidden) {
-            stats.addCorrect(function, cd, "CorpusData file does not contain forbidden symbols");
-        }
-        
-        return stats;
+
+            @Override
+            public Report getReport() {
+                if (!forbidden) {
+                    stats.addCorrect(function, cd, "CorpusData file does not contain forbidden symbols");
+                }
+                return stats;
+            }
+        };
     }
     
      /**
@@ -119,5 +113,9 @@ public class ExbForbiddenSymbolsChecker extends Checker implements CorpusFunctio
         }
         return stats;
     }
-    
+
+    @Override
+    public Boolean getIsThreadSafe() {
+        return true;
+    }
 }
@@ -6,7 +6,6 @@
 package de.uni_hamburg.corpora.validation;
 
 import de.uni_hamburg.corpora.*;
-import de.uni_hamburg.corpora.utilities.TypeConverter;
 import de.uni_hamburg.corpora.utilities.XSLTransformer;
 import java.io.IOException;
 import java.net.URISyntaxException;
@@ -42,13 +41,11 @@ public class ExbMP3Next2WavAdder extends Checker implements CorpusFunction {
     @Override
     public Report function(CorpusData cd, Boolean fix) throws TransformerConfigurationException, TransformerException, ParserConfigurationException, SAXException, IOException, JDOMException {
         Report r = new Report();
-        // get the XSLT stylesheet
-        String xsl = TypeConverter.InputStream2String(getClass().getResourceAsStream("/xsl/AddMP3next2WavExb.xsl"));
         // create XSLTransformer and set the parameters 
         XSLTransformer xt = new XSLTransformer();
 
         // perform XSLT transformation
-        String result = xt.transform(cd.toSaveableString(), xsl);
+        String result = xt.transformWithResource(cd.toSaveableString(), "/xsl/AddMP3next2WavExb.xsl");
         CorpusIO cio = new CorpusIO();
         //update the xml of the cd object
 
@@ -19,7 +19,6 @@ import javax.xml.xpath.XPathExpressionException;
 import org.jdom2.Document;
 import org.jdom2.JDOMException;
 import org.exmaralda.partitureditor.jexmaralda.BasicTranscription;
-import org.jdom2.input.SAXBuilder;
 import org.xml.sax.SAXException;
 
 /**
@@ -57,7 +56,6 @@ public class ExbMakeTimelineConsistent extends Checker implements CorpusFunction
                 bt.getBody().getCommonTimeline().completeTimes();
             }
 
-            btd.setReadbtasjdom(new SAXBuilder().build(bt.toXML()));
             btd.setOriginalString(bt.toXML(bt.getTierFormatTable()));
             //btd.updateReadbtasjdom();
             cd = (CorpusData) btd;
@@ -19,7 +19,6 @@ import javax.xml.xpath.XPathExpressionException;
 import org.jdom2.Document;
 import org.jdom2.JDOMException;
 import org.exmaralda.partitureditor.jexmaralda.BasicTranscription;
-import org.jdom2.input.SAXBuilder;
 import org.xml.sax.SAXException;
 
 /**
@@ -38,6 +37,8 @@ public class ExbNormalize extends Checker implements CorpusFunction {
     Document doc = null;
     EXMARaLDATranscriptionData btd = null;
     Boolean fixWhiteSpaces = false;
+    // Used to write the fixed files
+    private final CorpusIO cio = new CorpusIO();
 
     public ExbNormalize(Properties properties) {
         super(true, properties);
@@ -53,11 +54,9 @@ public class ExbNormalize extends Checker implements CorpusFunction {
             if (fixWhiteSpaces) {
                 bt.normalizeWhiteSpace();
             }
-            btd.setReadbtasjdom(new SAXBuilder().build(bt.toXML()));
             btd.setOriginalString(bt.toXML());
             //btd.updateReadbtasjdom();
             cd = (CorpusData) btd;
-            CorpusIO cio = new CorpusIO();
             cio.write(cd, cd.getURL());
             if (cd != null) {
                 report.addFix(function, cd, "normalized the file");
@@ -10,21 +10,17 @@
 package de.uni_hamburg.corpora.validation;
 
 import de.uni_hamburg.corpora.*;
+import de.uni_hamburg.corpora.utilities.SchemaCache;
 import de.uni_hamburg.corpora.utilities.TypeConverter;
-import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
-import java.net.URL;
-import java.nio.file.Paths;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Properties;
 import javax.xml.transform.Source;
 import javax.xml.transform.stream.StreamSource;
 import javax.xml.validation.Schema;
-import javax.xml.validation.SchemaFactory;
 import javax.xml.validation.Validator;
-import javax.xml.XMLConstants;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.TransformerException;
 import javax.xml.xpath.XPathExpressionException;
@@ -58,13 +54,8 @@ public class ExbSchemaChecker extends Checker implements CorpusFunction {
     public Report function(CorpusData cd, Boolean fix)
             throws SAXException, JDOMException, IOException, JexmaraldaException, TransformerException, ParserConfigurationException, XPathExpressionException{
         System.out.println("Checking the exb file against DTD...");
-        String exbSchemaPath = new File("src/main/java/de/uni_hamburg/corpora/validation/resources/schemas" +
-                "/exb_schema.xsd").getAbsolutePath();
-        URL exbSchema = Paths.get(exbSchemaPath).toUri().toURL();//;new URL(exbSchemaPath);
         Source xmlStream = new StreamSource(TypeConverter.String2InputStream(cd.toSaveableString()));
-        SchemaFactory schemaFactory =
-            SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
-        Schema schema = schemaFactory.newSchema(exbSchema);
+        Schema schema = SchemaCache.fromResource("/schemas/exb_schema.xsd");
         Validator validator = schema.newValidator();
         ExbErrorReportGenerator eh = new ExbErrorReportGenerator(cd.getFilename());
         validator.setErrorHandler(eh);
@@ -98,5 +89,10 @@ public class ExbSchemaChecker extends Checker implements CorpusFunction {
         }
         return stats;
     }
+
+    @Override
+    public Boolean getIsThreadSafe() {
+        return true;
+    }
 }
 
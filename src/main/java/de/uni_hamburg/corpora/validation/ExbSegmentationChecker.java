@@ -88,10 +88,11 @@ public class ExbSegmentationChecker extends Checker implements CorpusFunction {
             segmentation.pathToExternalFSM = path2ExternalFSM;
         }
         CorpusIO cio = new CorpusIO();
-        List v = segmentation.getSegmentationErrors(btd.getEXMARaLDAbt());
+        BasicTranscription bt = btd.getEXMARaLDAbt();
+        List v = segmentation.getSegmentationErrors(bt);
             if (v.isEmpty()) {
                 if (fix){
-                SegmentedTranscription st = segmentation.BasicToSegmented(btd.getEXMARaLDAbt());
+                SegmentedTranscription st = segmentation.BasicToSegmented(bt);
                 st.setEXBSource(cd.getFilename());
                 //add the udMetadata!!!!
                 //finally found the missing method :) :)
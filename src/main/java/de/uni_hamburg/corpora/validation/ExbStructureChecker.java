@@ -13,7 +13,6 @@ import de.uni_hamburg.corpora.*;
 import de.uni_hamburg.corpora.EXMARaLDATranscriptionData;
 
 import java.io.IOException;
-import java.io.File;
 import java.util.Collections;
 import java.util.Hashtable;
 import java.util.Collection;
@@ -37,10 +36,7 @@ import org.jdom2.JDOMException;
  */
 public class ExbStructureChecker extends Checker implements CorpusFunction {
 
-    BasicTranscription bt;
-    File exbfile;
     ValidatorSettings settings;
-    String filename;
 
     public ExbStructureChecker(Properties properties) {
         //fixing is not possible
@@ -56,8 +52,8 @@ public class ExbStructureChecker extends Checker implements CorpusFunction {
             throws SAXException, JDOMException, IOException, JexmaraldaException {
         Report stats = new Report();
         EXMARaLDATranscriptionData btd = (EXMARaLDATranscriptionData) cd;
-        filename = cd.getFilename();
-        bt = btd.getEXMARaLDAbt();
+        String filename = cd.getFilename();
+        BasicTranscription bt = btd.getEXMARaLDAbt();
 
         String[] duplicateTranscriptionTiers
                 = bt.getDuplicateTranscriptionTiers();
@@ -142,4 +138,9 @@ public class ExbStructureChecker extends Checker implements CorpusFunction {
         }
         return stats;
     }
+
+    @Override
+    public Boolean getIsThreadSafe() {
+        return true;
+    }
 }
@@ -6,26 +6,22 @@
 package de.uni_hamburg.corpora.validation;
 
 import de.uni_hamburg.corpora.*;
+import de.uni_hamburg.corpora.utilities.ExbStreamReader;
 
 import java.io.IOException;
-import java.util.Collection;
-import org.jdom2.Document;
-import org.jdom2.JDOMException;
-import org.jdom2.filter.Filters;
-import org.jdom2.xpath.XPathBuilder;
-import org.jdom2.xpath.XPathExpression;
-import org.jdom2.xpath.XPathFactory;
-import org.jdom2.xpath.jaxen.JaxenXPathFactory;
-import org.xml.sax.SAXException;
-import de.uni_hamburg.corpora.utilities.TypeConverter;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.TransformerException;
 import javax.xml.xpath.XPathExpressionException;
-import org.jdom2.Element;
+import org.jdom2.JDOMException;
+import org.xml.sax.SAXException;
 import static de.uni_hamburg.corpora.CorpusMagician.exmaError;
 
 /**
@@ -36,14 +32,10 @@ import static de.uni_hamburg.corpora.CorpusMagician.exmaError;
  *
  * Last updated
  * @author Herbert Lange
- * @version 20240322
+ * @version 20261017
  */
 
-public class ExbTimestampsChecker extends Checker implements CorpusFunction {
-
-    boolean missingTimestamp = false;
-    Document doc;
-    private final XPathFactory xpathFactory = new JaxenXPathFactory();
+public class ExbTimestampsChecker extends Checker implements CorpusFunction, StreamingCorpusFunction {
 
     public ExbTimestampsChecker(Properties properties) {
         //fixing option not available
@@ -55,46 +47,62 @@ public class ExbTimestampsChecker extends Checker implements CorpusFunction {
      * exs file has missing timestamps at the beginnings or ends of a segment chain.  
      */
     @Override
-    public Report function(CorpusData cd, Boolean fix) // check whether there's any illegal apostrophes '
-            throws SAXException, IOException, ParserConfigurationException, URISyntaxException, JDOMException, TransformerException, XPathExpressionException {
-        Report stats = new Report();         // create a new report
-        doc = TypeConverter.String2JdomDocument(cd.toSaveableString()); 
-        String xpathSegment = "//segmentation/ts";
-        XPathExpression<Element> segment = new XPathBuilder<>(xpathSegment, Filters.element()).compileWith(xpathFactory);
-        List<Element> allSegments = segment.evaluate(doc);
-        CorpusIO cio = new CorpusIO();
-        for (Element e : allSegments) {
-            String start = e.getAttributeValue("s");
-            String end = e.getAttributeValue("e");
-            String xpathStart = "//tli[@id='" + start + "']";
-            XPathExpression<Element> timelineStart = new XPathBuilder<>(xpathStart, Filters.element()).compileWith(xpathFactory);
-            List<Element> tliStart = timelineStart.evaluate(doc);
-            Element el = tliStart.get(0);
-            String id = el.getAttributeValue("id");
-            String time = el.getAttributeValue("time");
-            if (time == null) {
-                missingTimestamp = true;
-                String message = "Missing timestamp at the start of the segment chain at " + id;
-                exmaError.addError(function, cd.getURL().getFile(), "", id, false, message);
-                stats.addWarning(function, cd, message);
+    public Report function(CorpusData cd, Boolean fix)
+            throws SAXException, IOException {
+        CorpusDataVisitor visitor = createVisitor(cd);
+        ExbStreamReader.read(cd, visitor);
+        return visitor.getReport(); // return the report with warnings
+    }
+
+    /**
+     * Creates the visitor checking the segment chains of a single file, which can share one pass over the file
+     * with other checks
+     */
+    @Override
+    public CorpusDataVisitor createVisitor(CorpusData cd) {
+        return new CorpusDataVisitor() {
+            // Only the times of the timeline items and the boundaries of the segment chains are kept
+            private final Map<String, String> times = new HashMap<>();
+            private final List<String[]> chains = new ArrayList<>();
+
+            @Override
+            public void timelineItem(String id, String time) {
+                // Keep the first item like the xpath used before
+                if (!times.containsKey(id)) {
+                    times.put(id, time);
+                }
             }
-            String xpathEnd = "//tli[@id='" + end + "']";
-            XPathExpression<Element> timelineEnd = new XPathBuilder<>(xpathEnd, Filters.element()).compileWith(xpathFactory);
-            List<Element> tliEnd = timelineEnd.evaluate(doc);
-            el = tliEnd.get(0);
-            id = el.getAttributeValue("id");
-            time = el.getAttributeValue("time");
-            if (time == null) {
-                missingTimestamp = true;
-                String message = "Missing timestamp at the end of the segment chain at " + id;
-                exmaError.addError(function, cd.getURL().getFile(), "", id, false, message);
-                stats.addWarning(function, cd, message);
+
+            @Override
+            public void segmentChain(String id, String start, String end) {
+                chains.add(new String[]{start, end});
             }
-        }
-        if (!missingTimestamp) {
-            stats.addCorrect(function, cd, "Timestamps OK");
-        }
-        return stats; // return the report with warnings
+
+            @Override
+            public Report getReport() {
+                Report stats = new Report();         // create a new report
+                boolean missingTimestamp = false;
+                for (String[] chain : chains) {
+                    // Unknown timeline items do not have a timestamp either
+                    if (times.get(chain[0]) == null) {
+                        missingTimestamp = true;
+                        String message = "Missing timestamp at the start of the segment chain at " + chain[0];
+                        exmaError.addError(function, cd.getURL().getFile(), "", chain[0], false, message);
+                        stats.addWarning(function, cd, message);
+                    }
+                    if (times.get(chain[1]) == null) {
+                        missingTimestamp = true;
+                        String message = "Missing timestamp at the end of the segment chain at " + chain[1];
+                        exmaError.addError(function, cd.getURL().getFile(), "", chain[1], false, message);
+                        stats.addWarning(function, cd, message);
+                    }
+                }
+                if (!missingTimestamp) {
+                    stats.addCorrect(function, cd, "Timestamps OK");
+                }
+                return stats;
+            }
+        };
     }
 
     /**
@@ -121,11 +129,14 @@ public class ExbTimestampsChecker extends Checker implements CorpusFunction {
     @Override
     public Report function(Corpus c, Boolean fix) throws SAXException, IOException, ParserConfigurationException, URISyntaxException, JDOMException, TransformerException, XPathExpressionException {
         Report stats = new Report();
-        for (CorpusData cdata : c.getBasicTranscriptionData()) {
+        for (CorpusData cdata : c.getSegmentedTranscriptionData()) {
             stats.merge(function(cdata, fix));
         }
         return stats;
     }
 
+    @Override
+    public Boolean getIsThreadSafe() {
+        return true;
+    }
 }
- 
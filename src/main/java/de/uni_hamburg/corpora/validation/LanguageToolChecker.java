@@ -10,26 +10,20 @@
 package de.uni_hamburg.corpora.validation;
 
 import de.uni_hamburg.corpora.*;
-import de.uni_hamburg.corpora.EXMARaLDATranscriptionData;
 
 import static de.uni_hamburg.corpora.CorpusMagician.exmaError;
 
 import de.uni_hamburg.corpora.utilities.TypeConverter;
+import de.uni_hamburg.corpora.utilities.XPathRegistry;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.util.*;
-import java.util.stream.Collectors;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.TransformerException;
 import javax.xml.xpath.XPathExpressionException;
 
 import org.jdom2.filter.Filters;
-import org.jdom2.xpath.XPathBuilder;
 import org.jdom2.xpath.XPathExpression;
-import org.jdom2.xpath.XPathFactory;
-import org.jdom2.xpath.jaxen.JaxenXPathFactory;
-import org.reflections.Reflections;
-import org.reflections.scanners.SubTypesScanner;
 import org.xml.sax.SAXException;
 
 import org.exmaralda.partitureditor.jexmaralda.JexmaraldaException;
@@ -39,31 +33,24 @@ import org.jdom2.Element;
 
 import org.languagetool.rules.RuleMatch;
 import org.languagetool.JLanguageTool;
-import org.languagetool.language.GermanyGerman;
-import org.languagetool.language.BritishEnglish;
-import org.languagetool.language.Russian;
 
 /**
  * A grammar and spelling error checker for EXB tiers mainly.
  *
  * Last updated
  * @author Herbert Lange
- * @version 20240510
+ * @version 20261017
  */
 public class LanguageToolChecker extends Checker implements CorpusFunction {
-    static EXMARaLDATranscriptionData btd;
     String tierToCheck = "fg";
     String language = "de";
-    JLanguageTool langTool;
-    private final XPathFactory xpathFactory = new JaxenXPathFactory();
+
+    // Separates the events of a tier when checking them together, ends a paragraph for LanguageTool
+    private static final String EVENT_SEPARATOR = "\n\n";
 
     public LanguageToolChecker(Properties properties) {
         //fixing is not possible
         super(false, properties);
-        Reflections reflections = new Reflections("org.languagetool.language", new SubTypesScanner(false));
-        System.out.println("LANGS: " + reflections.getSubTypesOf(Object.class)
-                .stream()
-                .collect(Collectors.toSet()));
     }
 
     /**
@@ -74,58 +61,74 @@ public class LanguageToolChecker extends Checker implements CorpusFunction {
     public Report function(CorpusData cd, Boolean fix)
             throws SAXException, IOException, ParserConfigurationException, JexmaraldaException, JDOMException, XPathExpressionException, TransformerException {
         Report stats = new Report();
-        btd = new EXMARaLDATranscriptionData(cd.getURL());
-        if (language.equals("de")) {
-            langTool = new JLanguageTool(new GermanyGerman());
-            System.out.println("Language set to German");
-
-        } else if (language.equals("en")) {
-            //needs to be English!
-            langTool = new JLanguageTool(new BritishEnglish());
-            System.out.println("Language set to English");
-        } else if (language.equals("ru")) {
-            //needs to be Russian!
-            langTool = new JLanguageTool(new Russian());
-            System.out.println("Language set to Russian");
-        } else {
-            Report report = new Report();
-            report.addCritical(function, cd, "Missing languagetool resource for language "
+        if (!LanguageToolPool.isSupported(language)) {
+            stats.addCritical(function, cd, "Missing languagetool resource for language "
                     + language);
             return stats;
         }
+        // The instances are shared between files and threads, so LanguageTool is only initialised once. The
+        // warm-up time is reported once at the end of the run, see CorpusMagician
+        JLanguageTool langTool = LanguageToolPool.borrow(language);
+        try {
+            checkTiers(cd, langTool, stats);
+        }
+        finally {
+            LanguageToolPool.release(language, langTool);
+        }
+        return stats;
+    }
+
+    private void checkTiers(CorpusData cd, JLanguageTool langTool, Report stats) throws IOException {
         boolean spellingError = false;
-        Document jDoc = TypeConverter.String2JdomDocument(cd.toSaveableString());
-        List<RuleMatch> matches = new ArrayList<>();
-        String xpathTier = "//tier[@category='" + tierToCheck + "']";
-        XPathExpression<Element> xTier = new XPathBuilder<>(xpathTier, Filters.element()).compileWith(xpathFactory);
+        Document jDoc = cd instanceof XMLData ? ((XMLData) cd).getJdom()
+                : TypeConverter.String2JdomDocument(cd.toSaveableString());
+        XPathExpression<Element> xTier = XPathRegistry.compile("//tier[@category=$category]", Filters.element(), "category");
+        xTier.setVariable("category", tierToCheck);
         List<Element> tierList = xTier.evaluate(jDoc);
+        // The first ref event for each start, looked up once instead of once per event
+        Map<String, String> refTexts = new HashMap<>();
+        for (Element refEvent : XPathRegistry.compile("//tier[@category='ref']/event", Filters.element())
+                .evaluate(jDoc)) {
+            refTexts.putIfAbsent(refEvent.getAttributeValue("start"), refEvent.getText());
+        }
         //extra for loop to get the tier id value for exmaError
         for (Element tier : tierList) {
             String tierId = tier.getAttributeValue("id");
-            String xpathEvent = "//tier[@id='" + tierId + "']/event";
-            XPathExpression<Element> xEvent = new XPathBuilder<>(xpathEvent, Filters.element()).compileWith(xpathFactory);
-            List<Element> eventList = xEvent.evaluate(tier);
+            List<Element> eventList = tier.getChildren("event");
+            // Check all events of the tier at once, remembering where each event starts
+            List<String> eventTexts = new ArrayList<>(eventList.size());
             for (Element e : eventList) {
+                eventTexts.add(e.getText());
+            }
+            int[] eventStarts = new int[eventList.size()];
+            String tierText = joinEvents(eventTexts, eventStarts);
+            List<List<RuleMatch>> eventMatches = new ArrayList<>();
+            for (int i = 0; i < eventList.size(); i++) {
+                eventMatches.add(new ArrayList<>());
+            }
+            if (!eventList.isEmpty()) {
+                for (RuleMatch match : langTool.check(tierText)) {
+                    eventMatches.get(findEvent(eventStarts, match.getFromPos())).add(match);
+                }
+            }
+            for (int i = 0; i < eventList.size(); i++) {
+                Element e = eventList.get(i);
                 String eventText = e.getText();
                 String start = e.getAttributeValue("start");
-                matches.addAll(langTool.check(eventText));
-                String xpathStart = "//tier[@category='ref']/event[@start='" + start + "']";
-                XPathExpression<Element> xpathRef = new XPathBuilder<>(xpathStart, Filters.element()).compileWith(xpathFactory);
-                List<Element> refList = xpathRef.evaluate(jDoc);
-                if (refList.isEmpty()) {
+                String refText = refTexts.get(start);
+                if (refText == null) {
                     String emptyMessage = "Ref tier information seems to be missing for event '" + eventText + "'";
                     stats.addCritical(function, cd, emptyMessage);
                     exmaError.addError(function, cd.getURL().getFile(), tierId, start, false, emptyMessage);
                     continue;
                 }
-                Element refEl =  refList.get(0);
-                String refText = refEl.getText();
-                for (RuleMatch match : matches) {
+                for (RuleMatch match : eventMatches.get(i)) {
+                    int from = toEventPosition(eventStarts, i, match.getFromPos(), eventText.length());
+                    int to = toEventPosition(eventStarts, i, match.getToPos(), eventText.length());
                     String message = "Potential error at characters "
-                            + match.getFromPos() + "-" + match.getToPos() + ": "
+                            + from + "-" + to + ": "
                             + match.getMessage() + ": \""
-                            + eventText.substring(match.getFromPos(),
-                            match.getToPos()) + "\" "
+                            + eventText.substring(from, to) + "\" "
                             + "Suggested correction(s): "
                             + match.getSuggestedReplacements()
                             + ". Reference tier id: " + refText;
@@ -139,10 +142,52 @@ public class LanguageToolChecker extends Checker implements CorpusFunction {
                 stats.addCorrect(function, cd, "No spelling errors found.");
             }
         }
-        return stats;
+    }
+
+    /**
+     * Joins the texts of the events of a tier so they can be checked at once
+     * @param eventTexts the texts of the events
+     * @param eventStarts filled with the position of each event in the result
+     * @return the text of the tier
+     */
+    static String joinEvents(List<String> eventTexts, int[] eventStarts) {
+        StringBuilder tierText = new StringBuilder();
+        for (int i = 0; i < eventTexts.size(); i++) {
+            if (i > 0) {
+                tierText.append(EVENT_SEPARATOR);
+            }
+            eventStarts[i] = tierText.length();
+            tierText.append(eventTexts.get(i));
         }
-        
-    
+        return tierText.toString();
+    }
+
+    /**
+     * Finds the event containing a position in the text of a tier. A position in the separator belongs to the
+     * event before it
+     * @param eventStarts the position of each event in the text of the tier
+     * @param pos the position in the text of the tier
+     * @return the index of the event
+     */
+    static int findEvent(int[] eventStarts, int pos) {
+        int event = Arrays.binarySearch(eventStarts, pos);
+        // Not the start of an event, so the index of the event it is in
+        return event < 0 ? Math.max(0, -event - 2) : event;
+    }
+
+    /**
+     * Converts a position in the text of a tier to a position in an event. A match cannot extend beyond the
+     * event, so the position is clamped to the event
+     * @param eventStarts the position of each event in the text of the tier
+     * @param event the index of the event
+     * @param pos the position in the text of the tier
+     * @param eventLength the length of the event text
+     * @return the position in the event
+     */
+    static int toEventPosition(int[] eventStarts, int event, int pos, int eventLength) {
+        return Math.max(0, Math.min(pos - eventStarts[event], eventLength));
+    }
+
     /**
      * Default function which determines for what type of files (basic
      * transcription, segmented transcription, coma etc.) this feature can be
@@ -168,6 +213,11 @@ public class LanguageToolChecker extends Checker implements CorpusFunction {
         tierToCheck = ttc;
     }
 
+    @Override
+    public Boolean getIsThreadSafe() {
+        return true;
+    }
+
     @Override
     public Report function(Corpus c, Boolean fix) throws SAXException, IOException, ParserConfigurationException, URISyntaxException, JDOMException, TransformerException, XPathExpressionException, JexmaraldaException {
         Report stats = new Report();
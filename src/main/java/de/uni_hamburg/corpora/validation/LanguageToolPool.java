@@ -0,0 +1,122 @@
+package de.uni_hamburg.corpora.validation;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import org.languagetool.JLanguageTool;
+import org.languagetool.Language;
+import org.languagetool.language.BritishEnglish;
+import org.languagetool.language.GermanyGerman;
+import org.languagetool.language.Russian;
+
+/**
+ * Process-wide pool of initialised LanguageTool instances per language. Creating a JLanguageTool and running
+ * its first check loads dictionaries and rules, which takes much longer than checking a file. A JLanguageTool
+ * must not be used by several threads at the same time, so each thread borrows an instance and returns it
+ * afterwards. New instances are only created if all existing ones for the language are in use:
+ *
+ * <pre>
+ * JLanguageTool langTool = LanguageToolPool.borrow("de");
+ * try {
+ *     ... langTool.check(text) ...
+ * }
+ * finally {
+ *     LanguageToolPool.release("de", langTool);
+ * }
+ * </pre>
+ *
+ * @author Herbert Lange
+ * @version 20261017
+ */
+public class LanguageToolPool {
+
+    // The instances currently not in use by language code
+    private static final Map<String, Queue<JLanguageTool>> idle = new ConcurrentHashMap<>();
+
+    // The time it took to initialise the first instance for each language, in milliseconds
+    private static final Map<String, Long> warmUpMillis = new ConcurrentHashMap<>();
+
+    private LanguageToolPool() {
+    }
+
+    /**
+     * Checks if LanguageTool resources are available for a language
+     * @param language the language code, i.e. de, en or ru
+     * @return if the language is supported
+     */
+    public static boolean isSupported(String language) {
+        return getLanguage(language) != null;
+    }
+
+    /**
+     * Gets an initialised instance for a language, creating a new one if all are in use
+     * @param language the language code, i.e. de, en or ru
+     * @return the instance, which has to be returned using release afterwards
+     * @throws IOException if LanguageTool cannot be initialised
+     * @throws IllegalArgumentException if the language is not supported
+     */
+    public static JLanguageTool borrow(String language) throws IOException {
+        JLanguageTool langTool = idle.computeIfAbsent(language, (l) -> new ConcurrentLinkedQueue<>()).poll();
+        if (langTool == null) {
+            langTool = create(language);
+        }
+        return langTool;
+    }
+
+    /**
+     * Returns an instance to the pool so it can be used by other threads
+     * @param language the language code of the instance
+     * @param langTool the instance
+     */
+    public static void release(String language, JLanguageTool langTool) {
+        idle.computeIfAbsent(language, (l) -> new ConcurrentLinkedQueue<>()).add(langTool);
+    }
+
+    /**
+     * Gets the time it took to initialise LanguageTool for a language
+     * @param language the language code
+     * @return the time in milliseconds or null if no instance has been created yet
+     */
+    public static Long getWarmUpMillis(String language) {
+        return warmUpMillis.get(language);
+    }
+
+    /**
+     * Gets the time it took to initialise LanguageTool for all languages used so far
+     * @return the time in milliseconds by language code, sorted by language code
+     */
+    public static Map<String, Long> getWarmUpMillis() {
+        return new TreeMap<>(warmUpMillis);
+    }
+
+    private static JLanguageTool create(String language) throws IOException {
+        Language lang = getLanguage(language);
+        if (lang == null) {
+            throw new IllegalArgumentException("Missing languagetool resource for language " + language);
+        }
+        long start = System.nanoTime();
+        JLanguageTool langTool = new JLanguageTool(lang);
+        // The rules and dictionaries are loaded when they are used the first time
+        langTool.check("Warm-up.");
+        warmUpMillis.putIfAbsent(language, (System.nanoTime() - start) / 1000000);
+        return langTool;
+    }
+
+    private static Language getLanguage(String language) {
+        switch (language) {
+            case "de":
+                return new GermanyGerman();
+            case "en":
+                //needs to be English!
+                return new BritishEnglish();
+            case "ru":
+                //needs to be Russian!
+                return new Russian();
+            default:
+                return null;
+        }
+    }
+}
@@ -51,6 +51,8 @@ import org.xml.sax.SAXException;
 public class PrettyPrintData extends Checker implements CorpusFunction {
 
     String prettyCorpusData = "";
+    // Used to write the fixed files
+    private final CorpusIO cio = new CorpusIO();
 
     public PrettyPrintData(Properties properties) {
         //fixing is possible
@@ -68,7 +70,6 @@ public class PrettyPrintData extends Checker implements CorpusFunction {
                 report.addCritical(function, cd, "Could not create the unformatted String!");
             } else {
                 //save it instead of the old file
-                CorpusIO cio = new CorpusIO();
                 cio.write(prettyCorpusData, cd.getURL());
                 cd.updateUnformattedString(prettyCorpusData);
                 report.addFix(function, cd, "CorpusData was pretty printed and saved.");
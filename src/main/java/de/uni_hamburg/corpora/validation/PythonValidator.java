@@ -4,7 +4,6 @@ import de.uni_hamburg.corpora.*;
 import org.exmaralda.partitureditor.fsm.FSMException;
 import org.exmaralda.partitureditor.jexmaralda.JexmaraldaException;
 import org.jdom2.JDOMException;
-import org.reflections.Reflections;
 import org.xml.sax.SAXException;
 
 import javax.xml.parsers.ParserConfigurationException;
@@ -12,14 +11,12 @@ import javax.xml.transform.TransformerException;
 import javax.xml.xpath.XPathExpressionException;
 import java.io.File;
 import java.io.IOException;
-import java.lang.reflect.Modifier;
 import java.net.URISyntaxException;
 import java.nio.file.Paths;
 import java.security.NoSuchAlgorithmException;
 import java.util.Collection;
 import java.util.Properties;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
 /***
  * Runs some python script as a  validator
@@ -89,9 +86,7 @@ public class PythonValidator extends Checker implements CorpusFunction {
 
     @Override
     public Collection<Class<? extends CorpusData>> getIsUsableFor() {
-        // Use reflections to get all corpus data classes
-        Reflections reflections = new Reflections("de.uni_hamburg.corpora");
-        // Get all classes derived from CorpusData
-        return reflections.getSubTypesOf(CorpusData.class).stream().filter((c) -> !Modifier.isAbstract(c.getModifiers())).collect(Collectors.toSet());
+        // All corpus data classes, indexed at build time
+        return CorpusRegistry.getInstance().getCorpusDataTypes();
     }
 }
@@ -44,6 +44,8 @@ public class RemoveAbsolutePaths extends Checker implements CorpusFunction {
     String nameOfCorpusFolder;
     String nameOfExbFolder;
     private final XPathFactory xpathFactory = new JaxenXPathFactory();
+    // Used to write the fixed files
+    private final CorpusIO cio = new CorpusIO();
 
     public RemoveAbsolutePaths(Properties properties) {
         //fixing is possible
@@ -79,7 +81,6 @@ public class RemoveAbsolutePaths extends Checker implements CorpusFunction {
                                 a.setValue(pathRelative.toString());
                                 //then save file
                                 //add a report message
-                                CorpusIO cio = new CorpusIO();
                                 cd.updateUnformattedString(TypeConverter.JdomDocument2String(doc));
                                 cio.write(cd, cd.getURL());
                                 report.addFix(function, cd, "removed absolute path");
@@ -122,7 +123,6 @@ public class RemoveAbsolutePaths extends Checker implements CorpusFunction {
                                 ae.setText(pathRelative.toString());
                                 //then save file
                                 //add a report message
-                                CorpusIO cio = new CorpusIO();
                                 cd.updateUnformattedString(TypeConverter.JdomDocument2String(doc));
                                 cio.write(cd, cd.getURL());
                                 report.addFix(function, cd, "removed absolute path");
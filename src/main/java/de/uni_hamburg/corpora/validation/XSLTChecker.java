@@ -41,9 +41,10 @@ import org.jdom2.Element;
 public class XSLTChecker extends Checker implements CorpusFunction {
 
     String xslresource = "/xsl/nslc-checks.xsl";
-    String filename = "";
     String UTTERANCEENDSYMBOLS = "[.!?…:]";
     String FSMpath = "";
+    // True once the symbols have been read from the FSM, so parallel runs read it only once
+    private boolean symbolsLoaded = false;
 
     public XSLTChecker(Properties parameters) {
         //fixing is not possible
@@ -54,22 +55,15 @@ public class XSLTChecker extends Checker implements CorpusFunction {
     public Report function(CorpusData cd, Boolean fix) throws SAXException, JexmaraldaException, TransformerException, ParserConfigurationException, IOException, JDOMException, URISyntaxException, XPathExpressionException {
 
         Report r = new Report();
-        filename = cd.getURL().getFile().subSequence(cd.getURL().getFile().lastIndexOf('/') + 1, cd.getURL().getFile().lastIndexOf('.')).toString();
-
-            //get UtteranceEndSymbols form FSM if supplied
-            if (!FSMpath.isEmpty()) {
-                setUtteranceEndSymbols(FSMpath);
-            }
-            // get the XSLT stylesheet
-            String xsl = TypeConverter.InputStream2String(getClass().getResourceAsStream(xslresource));
+        String filename = cd.getURL().getFile().subSequence(cd.getURL().getFile().lastIndexOf('/') + 1, cd.getURL().getFile().lastIndexOf('.')).toString();
 
             // create XSLTransformer and set the parameters 
             XSLTransformer xt = new XSLTransformer();
 
             xt.setParameter("filename", filename);
-            xt.setParameter("UTTERANCEENDSYMBOL", UTTERANCEENDSYMBOLS);
+            xt.setParameter("UTTERANCEENDSYMBOL", getUtteranceEndSymbols());
             // perform XSLT transformation
-            String result = xt.transform(cd.toSaveableString(), xsl);
+            String result = xt.transformWithResource(cd.toSaveableString(), xslresource);
 
             //read lines and add to Report
             Scanner scanner = new Scanner(result);
@@ -137,7 +131,19 @@ public class XSLTChecker extends Checker implements CorpusFunction {
         return IsUsableFor;
     }
 
-    public void setUtteranceEndSymbols(String fsmPath) throws JDOMException, IOException, URISyntaxException {
+    /**
+     * Gets the utterance end symbols as a regular expression, reading them from the FSM on first use if an FSM
+     * is supplied
+     * @return the regular expression matching the symbols
+     */
+    public synchronized String getUtteranceEndSymbols() throws JDOMException, IOException, URISyntaxException {
+        if (!symbolsLoaded && !FSMpath.isEmpty()) {
+            setUtteranceEndSymbols(FSMpath);
+        }
+        return UTTERANCEENDSYMBOLS;
+    }
+
+    public synchronized void setUtteranceEndSymbols(String fsmPath) throws JDOMException, IOException, URISyntaxException {
         //now get the UtteranceEndSymbols from the FSM XML file
         //XPath: "//fsm/char-set[@id='UtteranceEndSymbols']/char"
         StringBuilder newSymbols = new StringBuilder();
@@ -150,18 +156,17 @@ public class XSLTChecker extends Checker implements CorpusFunction {
         List<Element> allContextInstances = xpath.evaluate(fsmdoc);
 
             for (Element e : allContextInstances) {
-                    String symbol = e.getText();
-                    System.out.println(symbol);
-                    newSymbols.append(symbol);
+                    newSymbols.append(e.getText());
             }
 
         //needs to be a RegEx (set)
         UTTERANCEENDSYMBOLS = "[" + newSymbols + "]";
-        System.out.println(UTTERANCEENDSYMBOLS);
+        symbolsLoaded = true;
     }
 
-    public void setFSMpath(String s) {
+    public synchronized void setFSMpath(String s) {
         FSMpath = s;
+        symbolsLoaded = false;
     }
 
     /**
@@ -187,4 +192,9 @@ public class XSLTChecker extends Checker implements CorpusFunction {
         }
         return stats;
     }
+
+    @Override
+    public Boolean getIsThreadSafe() {
+        return true;
+    }
 }
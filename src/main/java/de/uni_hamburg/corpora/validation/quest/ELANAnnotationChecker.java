@@ -3,15 +3,9 @@ package de.uni_hamburg.corpora.validation.quest;
 import de.uni_hamburg.corpora.CorpusData;
 import de.uni_hamburg.corpora.ELANData;
 import de.uni_hamburg.corpora.Report;
-import de.uni_hamburg.corpora.utilities.quest.XMLTools;
 import org.exmaralda.partitureditor.fsm.FSMException;
 import org.exmaralda.partitureditor.jexmaralda.JexmaraldaException;
-import org.jdom2.Document;
-import org.jdom2.Element;
 import org.jdom2.JDOMException;
-import org.jdom2.filter.Filters;
-import org.jdom2.xpath.XPathBuilder;
-import org.jdom2.xpath.jaxen.JaxenXPathFactory;
 import org.xml.sax.SAXException;
 
 import javax.xml.parsers.ParserConfigurationException;
@@ -73,12 +67,7 @@ public class ELANAnnotationChecker extends AnnotationChecker {
 
     @Override
     public String getTierText(CorpusData cd, String tierId) throws JDOMException {
-        // Get the XML document
-        Document dom = ((ELANData) cd).getJdom();
-        // Get all matching tier elements
-        List<Element> tiers =
-        		new XPathBuilder<Element>(String.format("//TIER[@TIER_ID=\"%s\"]", tierId),Filters.element()).compileWith(new JaxenXPathFactory()).evaluate(dom);
-        // Convert tiers to strings and return
-        return tiers.stream().map(XMLTools::showAllText).collect(Collectors.joining(" "));
+        // Get the annotations of the tier from the index and join them
+        return String.join(" ", ((ELANData) cd).getIndex().getAnnotationValues(tierId)).trim();
     }
 }
@@ -3,12 +3,9 @@ package de.uni_hamburg.corpora.validation.quest;
 import de.uni_hamburg.corpora.CorpusData;
 import de.uni_hamburg.corpora.ELANData;
 
-import org.jdom2.Document;
+import org.jdom2.Element;
 import org.jdom2.Text;
 import org.jdom2.filter.Filters;
-import org.jdom2.xpath.XPathBuilder;
-import org.jdom2.xpath.XPathExpression;
-import org.jdom2.xpath.jaxen.JaxenXPathFactory;
 
 import java.util.*;
 
@@ -31,14 +28,15 @@ public class ELANGlossChecker extends GlossChecker {
     @Override
     List<Text> getTextsInTierByID(CorpusData cd, String tierId) {
         ArrayList<Text> texts = new ArrayList<>();
-        Document d = ((ELANData) cd).getJdom();
-        if (d == null)
+        if (((ELANData) cd).getJdom() == null)
             return texts;
         else {
-            XPathExpression<Text> xpath = new XPathBuilder<Text>(String.format("//TIER[@TIER_ID=\"%s\"]//ANNOTATION_VALUE/text()", tierId), 
-            		Filters.text()).compileWith(new JaxenXPathFactory());
-                texts.addAll(xpath.evaluate(d));
-                return texts;
+            for (Element annotation : ((ELANData) cd).getIndex().getAnnotations(tierId)) {
+                for (Element value : annotation.getChildren("ANNOTATION_VALUE")) {
+                    texts.addAll(value.getContent(Filters.text()));
+                }
+            }
+            return texts;
         }
     }
 
@@ -2,16 +2,11 @@ package de.uni_hamburg.corpora.validation.quest;
 
 import de.uni_hamburg.corpora.CorpusData;
 import de.uni_hamburg.corpora.ELANData;
-import org.jdom2.Attribute;
-import org.jdom2.Document;
+import de.uni_hamburg.corpora.ELANIndex;
+import org.jdom2.Element;
 import org.jdom2.JDOMException;
-import org.jdom2.filter.Filters;
-import org.jdom2.xpath.XPathBuilder;
-import org.jdom2.xpath.XPathExpression;
-import org.jdom2.xpath.jaxen.JaxenXPathFactory;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * Finds tiers in an ELAN corpus based on a pattern
@@ -41,13 +36,17 @@ public class ELANTierFinder extends TierFinder {
 
     @Override
     void findTiers(CorpusData cd, String patterns) throws JDOMException {
-        Document dom = ((ELANData) cd).getJdom();
-        // Get all id attributes for tiers matching the pattern, get the values and add them to a new list
+        ELANIndex index = ((ELANData) cd).getIndex();
+        // Get all ids for tiers matching the pattern
         for (String pattern : patterns.split(", *")) {
-        	XPathExpression<Attribute> tierIdXPath = new XPathBuilder<Attribute>(String.format("//TIER[contains(@%s,\"%s\")]/@TIER_ID",
-                    attribute_name, pattern),Filters.attribute()).compileWith(new JaxenXPathFactory());
-            List<String> tierIds = new ArrayList<>(tierIdXPath.evaluate(dom))
-                    .stream().map(Attribute::getValue).collect(Collectors.toList());
+            List<String> tierIds = new ArrayList<>();
+            for (Element tier : index.getTiers()) {
+                String value = tier.getAttributeValue(attribute_name);
+                String tierId = tier.getAttributeValue("TIER_ID");
+                if (value != null && tierId != null && value.contains(pattern)) {
+                    tierIds.add(tierId);
+                }
+            }
             // Add found tiers to frequency list
             tiers.putAll(tierIds);
         }
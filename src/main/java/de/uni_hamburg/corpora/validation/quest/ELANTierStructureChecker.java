@@ -1,16 +1,11 @@
 package de.uni_hamburg.corpora.validation.quest;
 
-import com.google.common.collect.Lists;
 import de.uni_hamburg.corpora.*;
 import org.exmaralda.partitureditor.fsm.FSMException;
 import org.exmaralda.partitureditor.jexmaralda.JexmaraldaException;
 import org.jdom2.Attribute;
 import org.jdom2.Element;
 import org.jdom2.JDOMException;
-import org.jdom2.filter.Filters;
-import org.jdom2.xpath.XPathBuilder;
-import org.jdom2.xpath.XPathFactory;
-import org.jdom2.xpath.jaxen.JaxenXPathFactory;
 import org.xml.sax.SAXException;
 
 import javax.xml.parsers.ParserConfigurationException;
@@ -33,7 +28,6 @@ public class ELANTierStructureChecker extends TierStructureChecker {
 
     // The list of speakers in the copus
     private final Set<String> speakers = new HashSet<>();
-	private final XPathFactory xpathFactory = new JaxenXPathFactory();
 
     public ELANTierStructureChecker(Properties properties) {
         super(properties);
@@ -62,10 +56,8 @@ public class ELANTierStructureChecker extends TierStructureChecker {
     Set<Map<String, String>> getTierStructure(Report report, CorpusData cd) {
         Set<Map<String,String>> tiers = new HashSet<>();
         if (cd instanceof ELANData) {
-            List<Element> tierElements =
-                    Lists.newArrayList(new XPathBuilder<Element>("//TIER",Filters.element()).compileWith(xpathFactory )
-                            .evaluate(((ELANData) cd).getJdom()));
-            for (Element e : tierElements) {
+            ELANIndex index = ((ELANData) cd).getIndex();
+            for (Element e : index.getTiers()) {
                 Map<String,String> tierAttribs = new HashMap<>();
                 {
                     Attribute id = e.getAttribute("TIER_ID");
@@ -77,9 +69,7 @@ public class ELANTierStructureChecker extends TierStructureChecker {
                             tierAttribs.put("id", id.getValue().replaceAll(
                                     String.join("|", speakers),"speaker"));
                         // Also get constraints
-                        Element linguisticTypeElement =
-                                new XPathBuilder<Element>("//LINGUISTIC_TYPE[@LINGUISTIC_TYPE_ID=\"" + id.getValue() + "\"]",Filters.element())
-                                        .compileWith(xpathFactory).evaluateFirst(((ELANData) cd).getJdom());
+                        Element linguisticTypeElement = index.getLinguisticType(id.getValue());
                         if (linguisticTypeElement != null) {
                             Attribute constraints = linguisticTypeElement.getAttribute("CONSTRAINTS");
                             if (constraints != null)
@@ -3,15 +3,10 @@ package de.uni_hamburg.corpora.validation.quest;
 import de.uni_hamburg.corpora.CorpusData;
 import de.uni_hamburg.corpora.ELANData;
 import de.uni_hamburg.corpora.Report;
+import de.uni_hamburg.corpora.utilities.EafStreamReader;
 import org.exmaralda.partitureditor.fsm.FSMException;
 import org.exmaralda.partitureditor.jexmaralda.JexmaraldaException;
-import org.jdom2.Document;
-import org.jdom2.Element;
 import org.jdom2.JDOMException;
-import org.jdom2.filter.ElementFilter;
-import org.jdom2.xpath.XPathBuilder;
-import org.jdom2.xpath.XPathExpression;
-import org.jdom2.xpath.jaxen.JaxenXPathFactory;
 import org.xml.sax.SAXException;
 
 import javax.xml.parsers.ParserConfigurationException;
@@ -29,7 +24,7 @@ import java.util.stream.Collectors;
  *
  * Last updated
  * @author Herbert Lange
- * @version 20240322
+ * @version 20261017
  */
 public class ELANTranscriptionChecker extends TranscriptionChecker {
 
@@ -75,26 +70,46 @@ public class ELANTranscriptionChecker extends TranscriptionChecker {
     }
 
     @Override
-    List<Element> getTranscriptionTiers(CorpusData cd) throws JDOMException {
-        List<Element> tiers = new ArrayList<>();
-        Document dom = ((ELANData) cd).getJdom();
-        // Explicit list of tiers
-        if (!tierIds.isEmpty()) {
-            for (String id : tierIds) {
-            	XPathExpression<Element> xpath = new XPathBuilder<Element>(String.format("//TIER[@TIER_ID=\"%s\"]", id), new ElementFilter()).compileWith(new JaxenXPathFactory());
-                Element tier =
-                		xpath.evaluateFirst(dom);
-                if (tier != null)
-                    tiers.add(tier);
+    List<String> getTranscriptionTexts(CorpusData cd) throws IOException, SAXException {
+        boolean hiat = props.containsKey("transcription-method") &&
+                props.getProperty("transcription-method").equalsIgnoreCase("hiat");
+        // Texts of the explicitly listed tiers, using the first tier for each id
+        Map<String, String> explicitTexts = new HashMap<>();
+        List<String> hiatTexts = new ArrayList<>();
+        EafStreamReader.read(cd, new EafStreamReader.Handler() {
+            @Override
+            public boolean needsText(EafStreamReader.Tier tier) {
+                return isExplicit(tier) || isHiat(tier);
             }
+
+            @Override
+            public void endTier(EafStreamReader.Tier tier, String text) {
+                if (text == null)
+                    return;
+                // A tier can be both in the explicit list and a HIAT tier
+                if (isExplicit(tier))
+                    explicitTexts.put(tier.getId(), text);
+                if (isHiat(tier))
+                    hiatTexts.add(text);
+            }
+
+            private boolean isExplicit(EafStreamReader.Tier tier) {
+                return tierIds.contains(tier.getId()) && !explicitTexts.containsKey(tier.getId());
+            }
+
+            // HIAT tiers of category v (verbal)
+            private boolean isHiat(EafStreamReader.Tier tier) {
+                return hiat && "v".equals(tier.getLinguisticTypeRef());
+            }
+        });
+        List<String> texts = new ArrayList<>();
+        // Explicit list of tiers
+        for (String id : tierIds) {
+            if (explicitTexts.containsKey(id))
+                texts.add(explicitTexts.get(id));
         }
-        // HIAT tiers of category v (verbal)
-        if (props.containsKey("transcription-method") &&
-                props.getProperty("transcription-method").equalsIgnoreCase("hiat")) {
-        	XPathExpression<Element> xpath = new XPathBuilder<Element>("//TIER[@LINGUISTIC_TYPE_REF=\"v\"]", new ElementFilter()).compileWith(new JaxenXPathFactory());
-            tiers.addAll(xpath.evaluate(dom));
-        }
-        return tiers;
+        texts.addAll(hiatTexts);
+        return texts;
     }
 
 }
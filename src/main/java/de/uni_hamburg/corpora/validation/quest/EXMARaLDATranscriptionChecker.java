@@ -1,14 +1,10 @@
 package de.uni_hamburg.corpora.validation.quest;
 
 import de.uni_hamburg.corpora.*;
+import de.uni_hamburg.corpora.utilities.ExbStreamReader;
 import org.exmaralda.partitureditor.fsm.FSMException;
 import org.exmaralda.partitureditor.jexmaralda.JexmaraldaException;
-import org.jdom2.Document;
-import org.jdom2.Element;
 import org.jdom2.JDOMException;
-import org.jdom2.filter.Filters;
-import org.jdom2.xpath.XPathBuilder;
-import org.jdom2.xpath.jaxen.JaxenXPathFactory;
 import org.xml.sax.SAXException;
 
 import javax.xml.parsers.ParserConfigurationException;
@@ -26,12 +22,11 @@ import java.util.stream.Collectors;
  *
  * Last updated
  * @author Herbert Lange
- * @version 20240322
+ * @version 20261017
  */
 public class EXMARaLDATranscriptionChecker extends TranscriptionChecker {
 
     private final Logger logger = Logger.getLogger(getFunction());
-	private final JaxenXPathFactory xpathFactory = new JaxenXPathFactory();
 
     public EXMARaLDATranscriptionChecker(Properties properties) {
         super(properties);
@@ -75,28 +70,43 @@ public class EXMARaLDATranscriptionChecker extends TranscriptionChecker {
     }
 
     @Override
-    List<Element> getTranscriptionTiers(CorpusData cd) throws JDOMException {
-        List<Element> tiers = new ArrayList<>();
-        Document dom = ((EXMARaLDATranscriptionData) cd).getJdom();
-        // Explicit list of tiers
-        if (!tierIds.isEmpty())
+    List<String> getTranscriptionTexts(CorpusData cd) throws IOException, SAXException {
+        boolean hiat = props.containsKey("transcription-method") &&
+                props.getProperty("transcription-method").equalsIgnoreCase("hiat");
+        // Texts of the explicitly listed tiers, using the first tier for each id
+        Map<String, String> explicitTexts = new HashMap<>();
+        List<String> hiatTexts = new ArrayList<>();
+        ExbStreamReader.read(cd, new ExbStreamReader.Handler() {
+            @Override
+            public boolean needsText(ExbStreamReader.Tier tier) {
+                // Explicit list of tiers
+                if (!tierIds.isEmpty())
+                    return tierIds.contains(tier.getId()) && !explicitTexts.containsKey(tier.getId());
+                // HIAT tiers of category v (verbal)
+                return hiat && "v".equals(tier.getCategory());
+            }
+
+            @Override
+            public void endTier(ExbStreamReader.Tier tier, String text) {
+                if (text == null)
+                    return;
+                if (!tierIds.isEmpty())
+                    explicitTexts.put(tier.getId(), text);
+                else
+                    hiatTexts.add(text);
+            }
+        });
+        if (!tierIds.isEmpty()) {
+            List<String> texts = new ArrayList<>();
             for (String id : tierIds) {
-                Element tier =
-                		new XPathBuilder<Element>(String.format("//tier[@id=\"%s\"]",id), Filters.element()).compileWith(xpathFactory ).evaluateFirst(dom);
-                if (tier != null)
-                    tiers.add(tier);
+                if (explicitTexts.containsKey(id))
+                    texts.add(explicitTexts.get(id));
             }
-            // HIAT tiers of category v (verbal)
-        else if (props.containsKey("transcription-method") &&
-                props.getProperty("transcription-method").equalsIgnoreCase("hiat")) {
-            logger.info("HIAT");
-            tiers.addAll(
-            		new XPathBuilder<Element>("//tier[@category=\"v\"]", Filters.element()).compileWith(xpathFactory).evaluate(dom)
-            		);
+            return texts;
         }
-        return tiers;
-
-
+        if (hiat)
+            logger.info("HIAT");
+        return hiatTexts;
     }
 
 }
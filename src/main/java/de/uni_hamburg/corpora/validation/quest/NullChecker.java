@@ -2,12 +2,9 @@ package de.uni_hamburg.corpora.validation.quest;
 
 import de.uni_hamburg.corpora.*;
 import de.uni_hamburg.corpora.validation.Checker;
-import org.reflections.Reflections;
 
-import java.lang.reflect.Modifier;
 import java.util.Collection;
 import java.util.Properties;
-import java.util.stream.Collectors;
 
 public class NullChecker extends Checker implements CorpusFunction {
 
@@ -40,9 +37,7 @@ public class NullChecker extends Checker implements CorpusFunction {
 
     @Override
     public Collection<Class<? extends CorpusData>> getIsUsableFor() {
-        // Use reflections to get all corpus data classes
-        Reflections reflections = new Reflections("de.uni_hamburg.corpora");
-        // Get all classes derived from CorpusData
-        return reflections.getSubTypesOf(CorpusData.class).stream().filter((c) -> !Modifier.isAbstract(c.getModifiers())).collect(Collectors.toSet());
+        // All corpus data classes, indexed at build time
+        return CorpusRegistry.getInstance().getCorpusDataTypes();
     }
 }
@@ -8,18 +8,16 @@ import com.fasterxml.jackson.databind.SerializationFeature;
 import com.google.common.collect.Sets;
 import com.google.common.primitives.Chars;
 import de.uni_hamburg.corpora.*;
+import de.uni_hamburg.corpora.utilities.XPathRegistry;
 import de.uni_hamburg.corpora.utilities.quest.*;
 import de.uni_hamburg.corpora.validation.Checker;
-import org.apache.commons.lang3.time.DurationFormatUtils;
 import org.exmaralda.partitureditor.fsm.FSMException;
 import org.exmaralda.partitureditor.jexmaralda.JexmaraldaException;
 import org.jdom2.*;
 import org.jdom2.filter.Filters;
 import org.jdom2.input.SAXBuilder;
 import org.jdom2.output.XMLOutputter;
-import org.jdom2.xpath.XPathBuilder;
-import org.jdom2.xpath.XPathFactory;
-import org.jdom2.xpath.jaxen.JaxenXPathFactory;
+import org.jdom2.xpath.XPathExpression;
 import org.xml.sax.SAXException;
 
 import jakarta.xml.bind.JAXBContext;
@@ -101,11 +99,15 @@ public class RefcoChecker extends Checker implements CorpusFunction {
     // Flag if locations should be skipped
     private boolean skipLocations = false;
     // Flag if we want segment and time in the location
-    private final boolean detailedLocations = false;
+    private boolean detailedLocations = false;
     // Flag if we have a dictionary to check lexical glosses
     private boolean hasDict = false;
     // Automaton for lexeme checking in gloss tiers
-    DictionaryAutomaton dict;
+    CompactDictionaryAutomaton dict;
+    // Flag if similar lexemes are looked up using the bit-parallel instead of the universal Levenshtein automaton
+    private boolean bitParallelLookup = false;
+    // Maximum edit distance of similar lexemes, only used by the bit-parallel automaton
+    private int dictDistance = 1;
 
     /**
      * The filename of the RefCo spreadsheet
@@ -118,7 +120,6 @@ public class RefcoChecker extends Checker implements CorpusFunction {
      * The XML DOM of the RefCo spreadsheet
      */
     private Document refcoDoc ;
-    private final XPathFactory xpathFactory = new JaxenXPathFactory();
 
     public RefcoCriteria getCriteria() {
         return criteria;
@@ -221,7 +222,7 @@ public class RefcoChecker extends Checker implements CorpusFunction {
         }
         if (properties.containsKey("detailed-locations") && properties.getProperty("detailed-locations")
                 .equalsIgnoreCase("true")) {
-            skipLocations = true;
+            detailedLocations = true;
         }
         if (properties.containsKey("dict")) {
             logger.info("Load dict " + properties.getProperty("dict"));
@@ -229,15 +230,28 @@ public class RefcoChecker extends Checker implements CorpusFunction {
             try {
                 URL resourceUrl = this.getClass().getClassLoader().getResource(properties.getProperty("dict"));
                 if (resourceUrl != null) {
-                    dict = new DictionaryAutomaton(resourceUrl.openStream());
+                    dict = new CompactDictionaryAutomaton(resourceUrl.openStream());
                 } else {
-                    dict = new DictionaryAutomaton(new File(properties.getProperty("dict")));
+                    dict = CompactDictionaryAutomaton.open(new File(properties.getProperty("dict")));
                 }
             } catch (IOException e) {
                 logger.info("Error loading dictionary " + properties.getProperty("dict"));
             }
 
         }
+        if (properties.containsKey("dict-engine") && properties.getProperty("dict-engine")
+                .equalsIgnoreCase("bit-parallel")) {
+            bitParallelLookup = true;
+        }
+        if (properties.containsKey("dict-distance")) {
+            String distance = properties.getProperty("dict-distance").trim();
+            if (distance.equals("1") || distance.equals("2")) {
+                dictDistance = Integer.parseInt(distance);
+            } else {
+                report.addWarning(getFunction(), "Invalid dict-distance " + distance + ", has to be 1 or 2. " +
+                        "Using the default of " + dictDistance);
+            }
+        }
     }
 
     /**
@@ -523,7 +537,7 @@ public class RefcoChecker extends Checker implements CorpusFunction {
     private void expandTableCells(Document document) {
         // Find all cells that have the attribute number-columns-repeated
         for (Element node :
-                new XPathBuilder<>("//table:table-cell[@table:number-columns-repeated]", Filters.element()).compileWith(xpathFactory).evaluate(document)) {
+                XPathRegistry.compile("//table:table-cell[@table:number-columns-repeated]", Filters.element()).evaluate(document)) {
             // Generate as many blank cells as neede
             ArrayList<Element> replacement = new ArrayList<>();
             int colCount = 0;
@@ -547,7 +561,7 @@ public class RefcoChecker extends Checker implements CorpusFunction {
         }
         // Expand rows as well
         for (Element node :
-                new XPathBuilder<>("//table:table-row[@table:number-rows-repeated]", Filters.element()).compileWith(xpathFactory).evaluate(document)) {
+                XPathRegistry.compile("//table:table-row[@table:number-rows-repeated]", Filters.element()).evaluate(document)) {
             // Generate as many blank cells as neede
             ArrayList<Element> replacement = new ArrayList<>();
             int rowCount = 0;
@@ -580,14 +594,14 @@ public class RefcoChecker extends Checker implements CorpusFunction {
         while (deleted) {
             deleted = false;
             for (Element node :
-                    new XPathBuilder<>("//table:table-cell[not(text:p) and " +
-                            "position() = last()]", Filters.element()).compileWith(xpathFactory).evaluate(document)) {
+                    XPathRegistry.compile("//table:table-cell[not(text:p) and " +
+                            "position() = last()]", Filters.element()).evaluate(document)) {
                 node.detach();
                 deleted = true;
             }
             for (Element node :
-                    new XPathBuilder<>("//table:table-row[not" +
-                            "(table:table-cell) and position() = last()]", Filters.element()).compileWith(xpathFactory).evaluate(document)) {
+                    XPathRegistry.compile("//table:table-row[not" +
+                            "(table:table-cell) and position() = last()]", Filters.element()).evaluate(document)) {
                 node.detach();
                 deleted = true;
             }
@@ -625,7 +639,7 @@ public class RefcoChecker extends Checker implements CorpusFunction {
     /**
      * Function that gets the text from a certain cell in a row given its index
      *
-     * @param path the xpath expression to find the cell
+     * @param path the xpath expression to find the cell, using the variables $title and $pos
      * @param e the root element
      * @param title the text contained in the first cell
      * @param pos the cell in the row
@@ -635,8 +649,11 @@ public class RefcoChecker extends Checker implements CorpusFunction {
         if (path == null || e == null)
             return "" ;
         else {
-            Element cell =
-                    new XPathBuilder<>(String.format(path, title, pos), Filters.element()).compileWith(xpathFactory).evaluateFirst(e);
+            XPathExpression<Element> xpath = XPathRegistry.compile(path, Filters.element(), "title", "pos");
+            xpath.setVariable("title", title);
+            // XPath numbers are doubles
+            xpath.setVariable("pos", (double) pos);
+            Element cell = xpath.evaluateFirst(e);
             return safeGetText(cell);
         }
     }
@@ -666,9 +683,9 @@ public class RefcoChecker extends Checker implements CorpusFunction {
 
             // Read Overview tab
             Element overviewTable =
-                    new XPathBuilder<>("//table:table[@table:name='Overview']", Filters.element()).compileWith(xpathFactory).evaluateFirst(refcoDoc);
+                    XPathRegistry.compile("//table:table[@table:name='Overview']", Filters.element()).evaluateFirst(refcoDoc);
             String cellXPath =
-                    "//table:table-row[table:table-cell[text:p=\"%s\"]]/table:table-cell[position()=%d]/text:p";
+                    "//table:table-row[table:table-cell[text:p=$title]]/table:table-cell[position()=$pos]/text:p";
             criteria.setCorpusTitle(getCellText(cellXPath, overviewTable,  "Corpus Title"));
             criteria.setSubjectLanguages(getCellText(cellXPath, overviewTable, "Subject Language(s)"));
             criteria.setArchive(getCellText(cellXPath, overviewTable, "Archive"));
@@ -684,7 +701,7 @@ public class RefcoChecker extends Checker implements CorpusFunction {
             criteria.setNumberAnnotatedWords(getInformationNotes(cellXPath, overviewTable, "Total number of morphologically analyzed words"));
             // Read CorpusComposition tab
             Element sessionTable =
-                    new XPathBuilder<>("//table:table[@table:name='CorpusComposition']", Filters.element()).compileWith(xpathFactory).evaluateFirst(refcoDoc);
+                    XPathRegistry.compile("//table:table[@table:name='CorpusComposition']", Filters.element()).evaluateFirst(refcoDoc);
             if (sessionTable == null)
                 report.addCritical(getFunction(),ReportItem.newParamMap(
                         new ReportItem.Field[]{ReportItem.Field.Function, ReportItem.Field.Filename, ReportItem.Field.Description, ReportItem.Field.HowToFix},
@@ -724,7 +741,7 @@ public class RefcoChecker extends Checker implements CorpusFunction {
             }
             // Read AnnotationTiers tab
             Element tierTable =
-                    new XPathBuilder<>("//table:table[@table:name='AnnotationTiers']", Filters.element()).compileWith(xpathFactory).evaluateFirst(refcoDoc);
+                    XPathRegistry.compile("//table:table[@table:name='AnnotationTiers']", Filters.element()).evaluateFirst(refcoDoc);
             if (tierTable == null)
                 report.addCritical(getFunction(),ReportItem.newParamMap(
                         new ReportItem.Field[]{ReportItem.Field.Function, ReportItem.Field.Filename, ReportItem.Field.Description, ReportItem.Field.HowToFix},
@@ -759,7 +776,7 @@ public class RefcoChecker extends Checker implements CorpusFunction {
             }
             // Read Transcription tab
             Element transcriptionTable =
-                    new XPathBuilder<>("//table:table[@table:name='Transcription']", Filters.element()).compileWith(xpathFactory).evaluateFirst(refcoDoc);
+                    XPathRegistry.compile("//table:table[@table:name='Transcription']", Filters.element()).evaluateFirst(refcoDoc);
             if (transcriptionTable == null)
                 report.addCritical(getFunction(),
                         ReportItem.newParamMap(
@@ -792,7 +809,7 @@ public class RefcoChecker extends Checker implements CorpusFunction {
             }
             // Read Glosses tab
             Element glossesTable =
-                    new XPathBuilder<>("//table:table[starts-with(@table:name,'Gloss')]", Filters.element()).compileWith(xpathFactory).evaluateFirst(refcoDoc);
+                    XPathRegistry.compile("//table:table[starts-with(@table:name,'Gloss')]", Filters.element()).evaluateFirst(refcoDoc);
             if (glossesTable == null)
                 report.addCritical(getFunction(),ReportItem.newParamMap(
                         new ReportItem.Field[]{ReportItem.Field.Function, ReportItem.Field.Filename, ReportItem.Field.Description, ReportItem.Field.HowToFix},
@@ -827,7 +844,7 @@ public class RefcoChecker extends Checker implements CorpusFunction {
             }
             // Read Punctuation tab
             Element punctuationsTable =
-                    new XPathBuilder<>("//table:table[@table:name='Punctuations']", Filters.element()).compileWith(xpathFactory).evaluateFirst(refcoDoc);
+                    XPathRegistry.compile("//table:table[@table:name='Punctuations']", Filters.element()).evaluateFirst(refcoDoc);
             if (punctuationsTable == null)
                 report.addCritical(getFunction(),ReportItem.newParamMap(
                         new ReportItem.Field[]{ReportItem.Field.Function, ReportItem.Field.Filename, ReportItem.Field.Description, ReportItem.Field.HowToFix},
@@ -1611,8 +1628,8 @@ public class RefcoChecker extends Checker implements CorpusFunction {
         int missing = 0 ;
         // Indicator if a word contains missing characters
         boolean mismatch ;
-        // Object used to segment string
-        StringSegmentation sm = new StringSegmentation();
+        // Object used to segment string using the chunks and glosses
+        StringSegmentation sm = new StringSegmentation(Sets.union(new HashSet<>(chunks), glosses));
         for (Text t : text) {
             // Tokenize text
             for (String token : t.getText().split(tokenSeparator)) {
@@ -1627,8 +1644,7 @@ public class RefcoChecker extends Checker implements CorpusFunction {
                 // Token is not one of the glosses
                 else {
                     // Check if we can segment the token using the chunks and glosses
-                    if (sm.segmentWord(token,
-                            new ArrayList<>(Sets.union(new HashSet<>(chunks), glosses)))) {
+                    if (sm.segmentWord(token)) {
                         matched += token.length();
                     }
                     else {
@@ -1820,7 +1836,7 @@ public class RefcoChecker extends Checker implements CorpusFunction {
         // All invalid tokens in the text
         int missing = 0 ;
         // Object used to segment string
-        StringSegmentation sm = new StringSegmentation();
+        StringSegmentation sm = new StringSegmentation(chunks);
         for (Text t : text) {
             // Tokenize text
             for (String token : t.getText().split(tokenSeparator)) {
@@ -1838,7 +1854,7 @@ public class RefcoChecker extends Checker implements CorpusFunction {
                     segments.add(token);
                 // Check all the segments
                 for (String s : segments) {
-                    if (sm.segmentWord(s,chunks)) {
+                    if (sm.segmentWord(s)) {
                         List<String> segmented = sm.getSegments();
                         // TODO this is hacky
                         // Remove e.g. digits and punctuation
@@ -1863,7 +1879,9 @@ public class RefcoChecker extends Checker implements CorpusFunction {
                                         // Keep track of the non-matched lexeme
                                         missingLexicalFreq.put(tmpSegment);
                                         // Check if we have any approximate matches
-                                        List<String> candidates = UniversalLevenshteinAutomatonK1.matchDictionary(tmpSegment, dict);
+                                        List<String> candidates = bitParallelLookup
+                                                ? BitParallelLevenshteinAutomaton.matchDictionary(tmpSegment, dictDistance, dict)
+                                                : UniversalLevenshteinAutomatonK1.matchDictionary(tmpSegment, dict);
                                         // Also add all candidates if we pad the segment
                                         // candidates.addAll(UniversalLevenshteinAutomatonK1.matchDictionary(tmpSegment + "#", dict));
                                         // report.addNote(getFunction(),"Failed to find word " + tmpSegment + " in dictionary: " + candidates);
@@ -2189,8 +2207,10 @@ public class RefcoChecker extends Checker implements CorpusFunction {
         if (d == null)
             return new ArrayList<>();
         else {
-            String path = String.format("//TIER[@LINGUISTIC_TYPE_REF=\"%s\"]//ANNOTATION_VALUE/text()", tier);
-            return new XPathBuilder<>(path, Filters.text()).compileWith(xpathFactory).evaluate(d);
+            XPathExpression<Text> xpath = XPathRegistry.compile(
+                    "//TIER[@LINGUISTIC_TYPE_REF=$type]//ANNOTATION_VALUE/text()", Filters.text(), "type");
+            xpath.setVariable("type", tier);
+            return xpath.evaluate(d);
         }
     }
 
@@ -2205,8 +2225,10 @@ public class RefcoChecker extends Checker implements CorpusFunction {
         if (d == null)
             return new ArrayList<>();
         else {
-            return new XPathBuilder<>(String.format("//TIER[@TIER_ID=\"%s\"]//ANNOTATION_VALUE/text()", tier),
-                    Filters.text()).compileWith(xpathFactory).evaluate(d);
+            XPathExpression<Text> xpath = XPathRegistry.compile("//TIER[@TIER_ID=$id]//ANNOTATION_VALUE/text()",
+                    Filters.text(), "id");
+            xpath.setVariable("id", tier);
+            return xpath.evaluate(d);
         }
     }
 
@@ -2292,9 +2314,14 @@ public class RefcoChecker extends Checker implements CorpusFunction {
         params.put("skip-gloss-check", "Flag to skip the gloss check");
         params.put("gloss-stats", "Includes stats about all glosses");
         params.put("skip-locations", "Flag to skip determining the location of an error");
-        params.put("detailed-locations", "Flag to include details such as segment and time slot in location (takes a " +
-                "lot of time!)");
-        params.put("dict", "Dictionary to be used to check lexemes in gloss tiers");
+        params.put("detailed-locations", "Flag to include details such as segment and time slot in location " +
+                "(default false)");
+        params.put("dict", "Dictionary to be used to check lexemes in gloss tiers, either one word per line or " +
+                "compiled using CompactDictionaryAutomaton");
+        params.put("dict-engine", "Automaton used to find similar lexemes missing in the dictionary, either universal " +
+                "or bit-parallel (default universal)");
+        params.put("dict-distance", "Maximum edit distance of similar lexemes when using the bit-parallel engine, " +
+                "1 or 2 (default 1)");
         return params;
     }
 
@@ -2313,10 +2340,10 @@ public class RefcoChecker extends Checker implements CorpusFunction {
      */
     private Map<String, Set<String>> getTierIDs() {
         Map<String,Set<String>> allTiers = new HashMap<>();
+        XPathExpression<Attribute> xpath = XPathRegistry.compile("//TIER/@TIER_ID", Filters.attribute());
         for (ELANData cd : refcoCorpus.getELANData()) {
             for (String tier_id :
-                    new XPathBuilder<>("//TIER/@TIER_ID", Filters.attribute()).compileWith(xpathFactory)
-                            .evaluate(cd.getJdom())
+                    xpath.evaluate(cd.getJdom())
                             .stream().map(Attribute::getValue).toList()) {
                 if (allTiers.containsKey(tier_id) && allTiers.get(tier_id) != null) {
                     allTiers.get(tier_id).add(cd.getFilename());
@@ -2332,71 +2359,27 @@ public class RefcoChecker extends Checker implements CorpusFunction {
      * Gives the location of a text token in a corpus document
      * @param cd the corpus document
      * @param token the token to be looked up
-     * @throws JDOMException on problems with the xpath expressions
      * @return the list of all location consisting of a tier and a segment
      */
-    private List<CorpusData.Location> getLocations(ELANData cd, List<String> validTiers, String token) throws JDOMException {
+    private List<CorpusData.Location> getLocations(ELANData cd, List<String> validTiers, String token) {
         List<CorpusData.Location> locations = new ArrayList<>();
         if (token == null || token.isEmpty() || validTiers == null || validTiers.isEmpty())
             return locations;
         String normalizedToken = token.replaceAll("\"", "'");
-        List<Element> tiers =
-                new XPathBuilder<>(String.format("/ANNOTATION_DOCUMENT/TIER[contains(string(.),\"%s\")]",
-                                normalizedToken), Filters.element()).compileWith(xpathFactory)
-                        .evaluate(cd.getJdom());
-        for (Element tier : tiers.stream().filter((t) ->
-                validTiers.contains(t.getAttributeValue("TIER_ID"))).toList()) {
-            Attribute tier_id = tier.getAttribute("TIER_ID");
-            assert tier_id != null : "Tier id is null";
-            // TODO finding the segment and time takes too long
+        ELANIndex index = cd.getIndex();
+        for (String tierId : index.getTierIds()) {
+            if (!validTiers.contains(tierId))
+                continue;
+            List<Element> annotations = index.findAnnotations(tierId, normalizedToken);
+            if (annotations.isEmpty())
+                continue;
             if (detailedLocations) {
-                Element annotation_segment = null;
-                // All elements are ANNOTATION tags here
-                for (Element e : tier.getChildren()) {
-                    if (e.getChild("ALIGNABLE_ANNOTATION") != null)
-                        annotation_segment = e.getChild("ALIGNABLE_ANNOTATION");
-                    else if (e.getChild("REF_ANNOTATION") != null)
-                        annotation_segment = e.getChild("REF_ANNOTATION");
-                    assert annotation_segment != null : "Annotation segment is null";
-                    if (XMLTools.showAllText(annotation_segment).contains(normalizedToken)) {
-                        String annotation_id = annotation_segment.getAttributeValue("ANNOTATION_ID");
-                        if (!annotation_segment.getName().equals("ALIGNABLE_ANNOTATION")) {
-                            if (annotation_segment.getName().equals("REF_ANNOTATION")) {
-                                // Resolve reference first
-                                annotation_segment =
-                                        new XPathBuilder<>(String.format("//ALIGNABLE_ANNOTATION[@ANNOTATION_ID=\"%s\"]",
-                                                annotation_segment.getAttributeValue("ANNOTATION_REF")), Filters.element()).compileWith(xpathFactory)
-                                                .evaluateFirst(tier);
-                                assert annotation_segment != null : "Annotation segment is null after resolving reference";
-                            } else {
-                                locations.add(new CorpusData.Location("Tier:" + tier_id.getValue(),
-                                        "Segment:" + annotation_segment.getAttributeValue("ANNOTATION_ID=")));
-                            }
-                        }
-                        Attribute start_ref = annotation_segment.getAttribute("TIME_SLOT_REF1");
-                        Attribute end_ref = annotation_segment.getAttribute("TIME_SLOT_REF2");
-                        assert start_ref != null : "Start ref is null";
-                        assert end_ref != null : "End ref is null";
-                        Attribute start_time =
-                                new XPathBuilder<>(String.format("//TIME_SLOT[@TIME_SLOT_ID=\"%s\"]/@TIME_VALUE",
-                                        start_ref.getValue()), Filters.attribute()).compileWith(xpathFactory)
-                                        .evaluateFirst(cd.getJdom());
-                        assert start_time != null : "Start time is null";
-                        Attribute end_time =
-                                new XPathBuilder<>(String.format("//TIME_SLOT[@TIME_SLOT_ID=\"%s\"]/@TIME_VALUE",
-                                                end_ref.getValue()), Filters.attribute()).compileWith(xpathFactory)
-                                        .evaluateFirst(cd.getJdom());
-                        assert end_time != null : "End time is null";
-                        locations.add(new CorpusData.Location("Tier:" + tier_id.getValue(),
-                                "Segment:" + annotation_id + ", Time:" +
-                                        DurationFormatUtils.formatDuration(start_time.getIntValue(), "mm:ss.SSSS") + "-" +
-                                        DurationFormatUtils.formatDuration(end_time.getIntValue(), "mm:ss.SSSS"))
-                        );
-                    }
+                for (Element annotation : annotations) {
+                    locations.add(index.getLocation(annotation));
                 }
             }
             else {
-                locations.add(new CorpusData.Location("Tier:" + tier_id.getValue(), ""));
+                locations.add(new CorpusData.Location("Tier:" + tierId, ""));
             }
         }
         if (locations.isEmpty())
@@ -2414,8 +2397,9 @@ public class RefcoChecker extends Checker implements CorpusFunction {
     public boolean containsTier(ELANData cd, String tierId) {
         // Check if node list for tier is empty
         try {
-            return !new XPathBuilder<>(String.format("//TIER[@TIER_ID=\"%s\"]", tierId), Filters.text()).compileWith(xpathFactory)
-                            .evaluate(cd.getJdom()).isEmpty();
+            XPathExpression<Text> xpath = XPathRegistry.compile("//TIER[@TIER_ID=$id]", Filters.text(), "id");
+            xpath.setVariable("id", tierId);
+            return !xpath.evaluate(cd.getJdom()).isEmpty();
         }
         // Exception also means that tier does not exist
         catch (Exception e) {
@@ -1,15 +1,15 @@
 package de.uni_hamburg.corpora.validation.quest;
 
-import com.google.common.collect.Sets;
 import de.uni_hamburg.corpora.*;
+import de.uni_hamburg.corpora.utilities.quest.CodePointFrequencyList;
+import de.uni_hamburg.corpora.utilities.quest.CodePointSet;
+import de.uni_hamburg.corpora.utilities.quest.CompactDictionaryAutomaton;
 import de.uni_hamburg.corpora.utilities.quest.FrequencyList;
 import de.uni_hamburg.corpora.utilities.quest.StringSegmentation;
 import de.uni_hamburg.corpora.utilities.quest.UnicodeTools;
-import de.uni_hamburg.corpora.utilities.quest.XMLTools;
 import de.uni_hamburg.corpora.validation.Checker;
 import org.exmaralda.partitureditor.fsm.FSMException;
 import org.exmaralda.partitureditor.jexmaralda.JexmaraldaException;
-import org.jdom2.Element;
 import org.jdom2.JDOMException;
 import org.xml.sax.SAXException;
 
@@ -21,7 +21,6 @@ import java.net.URISyntaxException;
 import java.security.NoSuchAlgorithmException;
 import java.util.*;
 import java.util.logging.Logger;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 /**
@@ -29,7 +28,7 @@ import java.util.stream.Collectors;
  *
  * Last updated
  * @author Herbert Lange
- * @version 20240322
+ * @version 20261017
  */
 abstract class TranscriptionChecker extends Checker implements CorpusFunction {
 
@@ -47,19 +46,22 @@ abstract class TranscriptionChecker extends Checker implements CorpusFunction {
     // Regex to split tokens
     private final String tokenSeparator = " ";
 
-    // All known graphemes
+    // All known graphemes consisting of more than one code point
     private final Set<String> knownGraphemes = new HashSet<>();
+    // All known graphemes consisting of a single code point
+    private CodePointSet knownCodePoints = CodePointSet.EMPTY;
+    // The known graphemes compiled for segmentation and sorted for removal, created on demand
+    private CompactDictionaryAutomaton graphemeAutomaton = null;
+    private List<String> sortedGraphemes = null;
 
-    // Maps to keep track of encountered chars
-    private final FrequencyList allGraphemeFreq = new FrequencyList();
-    private final FrequencyList knownGraphemeFreq = new FrequencyList();
-    private final FrequencyList unknownGraphemeFreq = new FrequencyList();
+    // Counters to keep track of encountered graphemes, single code points and longer graphemes separately
+    private final CodePointFrequencyList codePointFreq = new CodePointFrequencyList();
+    private final FrequencyList graphemeFreq = new FrequencyList();
 
-    // Define character groups
-    private final Set<String> alphaChars = getAlphaChars();
-    private final Set<String> digitChars = new HashSet<>(
+    // Define character groups, shared by all checkers
+    private static final CodePointSet digitChars = CodePointSet.of(
             Arrays.asList("01234567890".split("")));
-    private final Set<String> hiatSpecial = new HashSet<>(
+    private static final Set<String> hiatSpecial = new HashSet<>(
             Arrays.stream(new String[]{
                     "U+002E", // Punkt .
                     "U+003F", // Fragezeichen ?
@@ -90,11 +92,11 @@ abstract class TranscriptionChecker extends Checker implements CorpusFunction {
                     // "))"  // doppelte runde schließende Klammer
             }).map((c) -> String.valueOf(Character.toChars(Integer.decode(c.replace("U+","0x")))))
                     .collect(Collectors.toList()));
-    private final Set<String> didaSpecial = new HashSet<>(
+    private static final Set<String> didaSpecial = new HashSet<>(
             Arrays.asList("←", "→", "*")
     );
 
-    private final Set<String> gatSpecial = new HashSet<>(
+    private static final Set<String> gatSpecial = new HashSet<>(
             Arrays.asList(
                     "(", ".", ")",
                     "(","-",")",
@@ -116,13 +118,13 @@ abstract class TranscriptionChecker extends Checker implements CorpusFunction {
                     "<", ">")
     );
 
-    private final Set<String> ipaSpecial = new HashSet<>(
+    private static final Set<String> ipaSpecial = new HashSet<>(
             Arrays.asList("ɐ", "ɑ", "ɒ", "ɓ", "ɔ", "ɕ", "ɖ", "ɗ", "ɘ", "ə", "ɚ", "ɛ", "ɜ", "ɝ", "ɞ", "ɟ", "ɠ", "ɡ",
                     "ɢ", "ɣ", "ɤ", "ɥ", "ɦ", "ɧ", "ɨ", "ɩ", "ɪ", "ɫ", "ɬ", "ɭ", "ɮ", "ɯ", "ɰ", "ɱ", "ɲ", "ɳ", "ɴ", "ŋ",
                     "ɵ", "ɶ", "ɷ", "ɸ", "ɹ", "ɺ", "ɻ", "ɼ", "ɽ", "ɾ", "ɿ", "ʀ", "ʁ", "ʂ", "ʃ", "ʄ", "ʅ", "ʆ", "ʇ",
                     "ʈ", "ʉ", "ʊ", "ʋ", "ʌ", "ʍ", "ʎ", "ʏ", "ʐ", "ʑ", "ʒ", "ʓ", "ʔ", "ʕ", "ʖ", "ʗ", "ʘ", "ʙ", "ʚ", "ʛ",
                     "ʜ", "ʝ", "ʞ", "ʟ", "ʠ", "ʡ", "ʢ", "ʣ", "ʤ", "ʥ", "ʦ", "ʧ", "ʨ"));
-    private final Set<String> ipaSpecialSuper = new HashSet<>(
+    private static final Set<String> ipaSpecialSuper = new HashSet<>(
             Arrays.asList("ᵐ", "ᶬ", "ⁿ", "ᶯ", "ᶮ", "ᵑ", "ᶰ", "ᵖ", "ᵇ", "ᵗ", "ᵈ", "\uD801\uDFAF", "\uD801\uDF8B", "ᶜ",
                     "ᶡ", "ᵏ", "ᶢ", "ᵍ", "\uD801\uDFA5", "\uD801\uDF92", "\uD801\uDFB3", "ˀ", "\uD801\uDFAC",
                     "\uD801\uDF87", "\uD801\uDFAE", "\uD801\uDFAB", "\uD801\uDF8A", "\uD801\uDF89", "\uD801\uDFAD",
@@ -137,28 +139,15 @@ abstract class TranscriptionChecker extends Checker implements CorpusFunction {
                     "\uD801\uDFA2", "\uD801\uDF8E", "ᶱ", "\uD801\uDF91", "ᵒ", "ᵊ", "ᵋ", "ꟹ", "ᶟ", "\uD801\uDF8F", "ᶺ",
                     "ᵓ", "\uD801\uDF83", "\uD801\uDFA3", "ᵄ", "ᵅ", "ᶛ", "ᵃ", "́", "᷆", "᷄"
             ));
-    private final Set<String> ipaSpecialAccent = new HashSet<>(
+    private static final Set<String> ipaSpecialAccent = new HashSet<>(
             Arrays.asList("̄","̀","̀", "̂"));
-    private final Set<String> ipaSpecialSupra = new HashSet<>(
+    private static final Set<String> ipaSpecialSupra = new HashSet<>(
             Arrays.asList("ː", "ˑ", "ˈ", "̆","ˌ"));
-    /**
-     * Function to enumerate all alphabetic characters
-     * @return all alphabetic characters in the unicode standard
-     */
-    private Set<String> getAlphaChars() {
-        Set<String> cs = new HashSet<>();
-        for (int i = Character.MIN_CODE_POINT; i < Character.MAX_CODE_POINT; i ++ ) {
-            if (Character.isAlphabetic(i))
-                cs.add(String.valueOf(Character.toChars(i)));
-        }
-        return cs;
-    }
-
     public TranscriptionChecker(Properties properties) {
         super(false, properties);
         if (properties.containsKey("transcription-graphemes")) {
             // Split characters but treat comma and colon in quotes specially
-            knownGraphemes.addAll(Arrays.stream(properties.getProperty("transcription-graphemes")
+            addKnownGraphemes(Arrays.stream(properties.getProperty("transcription-graphemes")
                             .replace("','","COMMA")
                             .replace("':'","COLON")
                     .split(",\\s*"))
@@ -169,26 +158,26 @@ abstract class TranscriptionChecker extends Checker implements CorpusFunction {
         if (properties.containsKey("transcription-method")) {
             setUp = true;
             if (properties.getProperty("transcription-method").equalsIgnoreCase("hiat")) {
-                knownGraphemes.addAll(alphaChars);
-                knownGraphemes.addAll(digitChars);
-                knownGraphemes.addAll(hiatSpecial);
+                knownCodePoints = knownCodePoints.union(CodePointSet.alphabetic());
+                knownCodePoints = knownCodePoints.union(digitChars);
+                addKnownGraphemes(hiatSpecial);
             } else if (properties.getProperty("transcription-method").equalsIgnoreCase("dida")) {
-                knownGraphemes.addAll(alphaChars);
-                knownGraphemes.addAll(digitChars);
-                knownGraphemes.addAll(didaSpecial);
+                knownCodePoints = knownCodePoints.union(CodePointSet.alphabetic());
+                knownCodePoints = knownCodePoints.union(digitChars);
+                addKnownGraphemes(didaSpecial);
             } else if (properties.getProperty("transcription-method").equalsIgnoreCase("gat")) {
-                knownGraphemes.addAll(alphaChars);
-                knownGraphemes.addAll(digitChars);
-                knownGraphemes.addAll(gatSpecial);
+                knownCodePoints = knownCodePoints.union(CodePointSet.alphabetic());
+                knownCodePoints = knownCodePoints.union(digitChars);
+                addKnownGraphemes(gatSpecial);
             } else if (properties.getProperty("transcription-method").equalsIgnoreCase("ipa")) {
-                knownGraphemes.addAll(ipaSpecial);
-                knownGraphemes.addAll(ipaSpecialSuper);
-                knownGraphemes.addAll(ipaSpecialSupra);
-                knownGraphemes.addAll(ipaSpecialAccent);
-                knownGraphemes.addAll(
+                addKnownGraphemes(ipaSpecial);
+                addKnownGraphemes(ipaSpecialSuper);
+                addKnownGraphemes(ipaSpecialSupra);
+                addKnownGraphemes(ipaSpecialAccent);
+                addKnownGraphemes(
                         Arrays.asList("abcdefghijklmnopqrstuvwzyz".split(""))
                 );
-                knownGraphemes.addAll(
+                addKnownGraphemes(
                         Arrays.asList("abcdefghijklmnopqrstuvwzyz".toUpperCase().split(""))
                 );
             }
@@ -211,20 +200,15 @@ abstract class TranscriptionChecker extends Checker implements CorpusFunction {
         if (setUp) {
             try {
                 logger.info("Checking " + cd.getFilename());
-                // Find transcription tiers
-                List<Element> transcriptionTiers = getTranscriptionTiers(cd);
-                if (transcriptionTiers.isEmpty()) {
+                // Find transcription tiers and get their content
+                List<String> transcriptionText = getTranscriptionTexts(cd);
+                if (transcriptionText.isEmpty()) {
                     report.addCritical(getFunction(),ReportItem.newParamMap(
                             new ReportItem.Field[]{ReportItem.Field.Function, ReportItem.Field.Description,ReportItem.Field.HowToFix},
                             new Object[]{getFunction(), "No transcription tiers found in file: " + cd.getFilename(),
                                     "Check the definition of transcription tiers"}
                     ));
                 }
-                // Get transcription content
-                List<String> transcriptionText = new ArrayList<>();
-                for (Element tier : transcriptionTiers) {
-                    transcriptionText.add(getTranscriptionText(tier));
-                }
                 if (transcriptionText.isEmpty()) {
                     report.addCritical(getFunction(),
                             ReportItem.newParamMap(
@@ -234,29 +218,19 @@ abstract class TranscriptionChecker extends Checker implements CorpusFunction {
                                             "Check the definition of transcription tiers"
                                     }));
                 }
-                // Object used to segment string
-                StringSegmentation sm = new StringSegmentation();
+                // Object used to segment string, reusing the graphemes compiled for earlier files
+                StringSegmentation sm = createSegmentation();
                 // Do the analysis
                 for (String text : transcriptionText) {
                     for (String token : text.split(tokenSeparator)) {
                         // Split the word into graphemes
                         // Check if we can segment the token
-                        if (sm.segmentWord(token,new ArrayList<>(knownGraphemes))) {
+                        if (sm.segmentWord(token)) {
                             // Update the stats using the segments
-                            updateSimpleStats(new HashSet<>(sm.getSegments()));
+                            countGraphemes(token, sm);
                         }
                         else {
-                            String missing = token;
-                            // Sort the list first by using natural order followed by string length (reversed)
-                            Comparator<String> cp = Comparator.naturalOrder();
-                            for (String g :
-                                new ArrayList<>(knownGraphemes).stream()
-                                        .sorted(
-                                                cp.thenComparingInt(String::length).reversed()
-                                        )
-                                        .collect(Collectors.toList())) {
-                                missing = missing.replaceAll(Pattern.quote(g), "");
-                            }
+                            String missing = removeKnownGraphemes(token);
                             report.addWarning(getFunction(),
                                     ReportItem.newParamMap(
                                             new ReportItem.Field[]{ReportItem.Field.Function, ReportItem.Field.Description, ReportItem.Field.Filename},
@@ -270,7 +244,7 @@ abstract class TranscriptionChecker extends Checker implements CorpusFunction {
                         }
                     }
                 }
-            } catch (JDOMException e) {
+            } catch (SAXException e) {
                 report.addCritical(getFunction(),
                         ReportItem.newParamMap(
                                 new ReportItem.Field[]{ReportItem.Field.Function, ReportItem.Field.Exception, ReportItem.Field.Description},
@@ -285,22 +259,14 @@ abstract class TranscriptionChecker extends Checker implements CorpusFunction {
     }
 
     /**
-     * Finds all transcription tiers based both on tierIds
+     * Finds all transcription tiers based both on tierIds and the transcription method and extracts their text.
+     * The file is streamed, so only the text of the transcription tiers is kept in memory
      * @param cd the corpus file
-     * @return the list of tiers as elements
-     * @throws JDOMException if there is a problem reading the xml document
+     * @return the text of each tier as given by XMLTools.showAllText
+     * @throws IOException if the file cannot be read
+     * @throws SAXException if there is a problem reading the xml document
      */
-    abstract List<Element> getTranscriptionTiers(CorpusData cd) throws JDOMException;
-
-    /**
-     * Extracts all text from a tier
-     * @param tier the tier
-     * @return the text as a string
-     * @throws JDOMException if there is a problem reading the xml document
-     */
-    public String getTranscriptionText(Element tier) throws JDOMException {
-        return XMLTools.showAllText(tier);
-    }
+    abstract List<String> getTranscriptionTexts(CorpusData cd) throws IOException, SAXException;
 
     @Override
     public Report function(Corpus c, Boolean fix) throws NoSuchAlgorithmException, ClassNotFoundException, FSMException, URISyntaxException, SAXException, IOException, ParserConfigurationException, JexmaraldaException, TransformerException, XPathExpressionException, JDOMException {
@@ -313,27 +279,140 @@ abstract class TranscriptionChecker extends Checker implements CorpusFunction {
             }
         }
         if (props.containsKey("transcription-statistics") && props.getProperty("transcription-statistics").equalsIgnoreCase("true"))
-        report.addNote(getFunction(),"Statistics:\n" +
-                "All characters encountered: \n" + allGraphemeFreq + "\n" +
-                "of which known: \n" + knownGraphemeFreq + "\n" +
-                "and unknown: \n" + unknownGraphemeFreq
-        );
+        report.addNote(getFunction(),getStatistics());
 
         return report;
     }
 
     public void updateSimpleStats(Set<String> chars) {
         // Keep track of all characters we have seen in transcription tokens
-        allGraphemeFreq.putAll(chars);
-        // Count chars we know
-        knownGraphemeFreq.putAll(Sets.intersection(chars, knownGraphemes).stream().map((s) -> " " + s).collect(Collectors.toSet()));
-        // Count chars we don't know
-        unknownGraphemeFreq.putAll(Sets.difference(chars, knownGraphemes).stream().map((s) -> " " + s).collect(Collectors.toSet()));
+        for (String c : chars) {
+            if (CodePointSet.isSingleCodePoint(c))
+                codePointFreq.put(c.codePointAt(0));
+            else
+                graphemeFreq.put(c);
+        }
     }
 
-    public void setKnownGraphemes(Collection<String> graphemes) {
+    /**
+     * Counts the graphemes of a segmented token, each grapheme once per token
+     * @param token the token
+     * @param sm the segmentation of the token
+     */
+    private void countGraphemes(String token, StringSegmentation sm) {
+        for (int start = 0; start < token.length(); start = sm.getSegmentEnd(start)) {
+            int end = sm.getSegmentEnd(start);
+            if (!occursBefore(token, sm, start, end)) {
+                int codePoint = token.codePointAt(start);
+                if (Character.charCount(codePoint) == end - start)
+                    codePointFreq.put(codePoint);
+                else
+                    graphemeFreq.put(token.substring(start, end));
+            }
+        }
+    }
+
+    /**
+     * Checks if a segment of a token is the same as one of the segments before
+     */
+    private static boolean occursBefore(String token, StringSegmentation sm, int start, int end) {
+        for (int s = 0; s < start; s = sm.getSegmentEnd(s)) {
+            if (sm.getSegmentEnd(s) - s == end - start && token.regionMatches(s, token, start, end - start))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Summarises the graphemes encountered so far
+     * @return the summary
+     */
+    private String getStatistics() {
+        FrequencyList allGraphemeFreq = new FrequencyList();
+        FrequencyList knownGraphemeFreq = new FrequencyList();
+        FrequencyList unknownGraphemeFreq = new FrequencyList();
+        codePointFreq.addTo(allGraphemeFreq, "", (c) -> true);
+        codePointFreq.addTo(knownGraphemeFreq, " ", knownCodePoints::contains);
+        codePointFreq.addTo(unknownGraphemeFreq, " ", (c) -> !knownCodePoints.contains(c));
+        for (Map.Entry<String, Integer> entry : graphemeFreq.getMap().entrySet()) {
+            allGraphemeFreq.getMap().merge(entry.getKey(), entry.getValue(), Integer::sum);
+            FrequencyList freq = isKnownGrapheme(entry.getKey()) ? knownGraphemeFreq : unknownGraphemeFreq;
+            freq.getMap().merge(" " + entry.getKey(), entry.getValue(), Integer::sum);
+        }
+        return "Statistics:\n" +
+                "All characters encountered: \n" + allGraphemeFreq + "\n" +
+                "of which known: \n" + knownGraphemeFreq + "\n" +
+                "and unknown: \n" + unknownGraphemeFreq;
+    }
+
+    public synchronized void setKnownGraphemes(Collection<String> graphemes) {
         knownGraphemes.clear();
-        knownGraphemes.addAll(graphemes);
+        knownCodePoints = CodePointSet.EMPTY;
+        addKnownGraphemes(graphemes);
+    }
+
+    /**
+     * Adds graphemes to the known graphemes, keeping single code points separately
+     * @param graphemes the graphemes
+     */
+    private synchronized void addKnownGraphemes(Collection<String> graphemes) {
+        knownCodePoints = knownCodePoints.union(CodePointSet.of(graphemes));
+        for (String g : graphemes) {
+            if (!g.isEmpty() && !CodePointSet.isSingleCodePoint(g))
+                knownGraphemes.add(g);
+        }
+        graphemeAutomaton = null;
+        sortedGraphemes = null;
+    }
+
+    /**
+     * Checks if a grapheme is one of the known graphemes
+     * @param grapheme the grapheme
+     * @return if the grapheme is known
+     */
+    private boolean isKnownGrapheme(String grapheme) {
+        return knownCodePoints.contains(grapheme) || knownGraphemes.contains(grapheme);
+    }
+
+    /**
+     * Creates an object to segment tokens into the known graphemes, compiling the graphemes the first time
+     * @return the segmentation
+     */
+    private synchronized StringSegmentation createSegmentation() {
+        if (graphemeAutomaton == null) {
+            graphemeAutomaton = StringSegmentation.compile(knownGraphemes);
+        }
+        return new StringSegmentation(graphemeAutomaton, knownCodePoints);
+    }
+
+    /**
+     * Removes all known graphemes from a token, leaving the unknown ones
+     * @param token the token
+     * @return the rest of the token
+     */
+    private String removeKnownGraphemes(String token) {
+        String missing = token;
+        for (String g : getSortedGraphemes()) {
+            missing = missing.replace(g, "");
+        }
+        StringBuilder rest = new StringBuilder();
+        missing.codePoints().filter((c) -> !knownCodePoints.contains(c)).forEach(rest::appendCodePoint);
+        return rest.toString();
+    }
+
+    /**
+     * Gets the known graphemes in the order they are removed from tokens that cannot be segmented
+     * @return the sorted graphemes
+     */
+    private synchronized List<String> getSortedGraphemes() {
+        if (sortedGraphemes == null) {
+            // Sort the list first by using natural order followed by string length (reversed)
+            Comparator<String> cp = Comparator.naturalOrder();
+            sortedGraphemes = knownGraphemes.stream()
+                    .sorted(cp.thenComparingInt(String::length).reversed())
+                    .collect(Collectors.toList());
+        }
+        return sortedGraphemes;
     }
 
 
@@ -1,12 +1,12 @@
 package de.uni_hamburg.corpora.validation.quest;
 
-import com.google.common.collect.Sets;
 import de.uni_hamburg.corpora.*;
+import de.uni_hamburg.corpora.utilities.SchemaCache;
+import de.uni_hamburg.corpora.utilities.XMLStreamTools;
 import de.uni_hamburg.corpora.validation.Checker;
 import org.exmaralda.partitureditor.fsm.FSMException;
 import org.exmaralda.partitureditor.jexmaralda.JexmaraldaException;
 import org.jdom2.JDOMException;
-import org.reflections.Reflections;
 import org.xml.sax.ErrorHandler;
 import org.xml.sax.SAXException;
 import org.xml.sax.SAXParseException;
@@ -15,17 +15,16 @@ import javax.xml.XMLConstants;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.transform.TransformerException;
-import javax.xml.transform.stream.StreamSource;
-import javax.xml.validation.SchemaFactory;
 import javax.xml.xpath.XPathExpressionException;
 import java.io.*;
-import java.lang.reflect.Modifier;
 import java.net.URISyntaxException;
 import java.security.NoSuchAlgorithmException;
 import java.util.*;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
 /**
  * Checks if an XML file conforms to a XSD schema
@@ -65,12 +64,15 @@ public class XsdChecker  extends Checker implements CorpusFunction {
         dbf.setNamespaceAware(true);
         try {
             // Add external schema if necessary
+            String schemaLocation = schemas.containsKey(cd.getClass().getSimpleName()) ? null :
+                    getSchemaLocation(cd);
             if (schemas.containsKey(cd.getClass().getSimpleName())) {
                 logger.info(schemas.get(cd.getClass().getSimpleName()));
-                InputStream is =
-                        this.getClass().getClassLoader().getResourceAsStream(schemas.get(cd.getClass().getSimpleName()));
-                dbf.setSchema(SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI)
-                        .newSchema(new StreamSource(is)));
+                dbf.setSchema(SchemaCache.fromResource("/" + schemas.get(cd.getClass().getSimpleName())));
+            }
+            else if (schemaLocation != null) {
+                // Use the compiled schema linked in the file instead of loading it for every file
+                dbf.setSchema(SchemaCache.get(schemaLocation));
             }
             else {
                 // Otherwise set the schema language
@@ -105,6 +107,46 @@ public class XsdChecker  extends Checker implements CorpusFunction {
         return report;
     }
 
+    /**
+     * Gets the location of the schema linked in a file, either as xsi:noNamespaceSchemaLocation or as the only
+     * location in xsi:schemaLocation
+     * @param cd the corpus file
+     * @return the absolute URI of the schema or null if there is no single schema linked in the file
+     */
+    private String getSchemaLocation(CorpusData cd) {
+        try {
+            XMLStreamReader reader = XMLStreamTools.createReader(cd);
+            try {
+                while (reader.hasNext()) {
+                    if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+                        String location = reader.getAttributeValue(XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI,
+                                "noNamespaceSchemaLocation");
+                        if (location == null) {
+                            String locations = reader.getAttributeValue(
+                                    XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI, "schemaLocation");
+                            // Pairs of namespace and location
+                            String[] parts = locations == null ? new String[0] : locations.trim().split("\\s+");
+                            if (parts.length == 2) {
+                                location = parts[1];
+                            }
+                        }
+                        if (location == null || location.isEmpty()) {
+                            return null;
+                        }
+                        return cd.getURL().toURI().resolve(location.trim()).toString();
+                    }
+                }
+            }
+            finally {
+                reader.close();
+            }
+        }
+        catch (XMLStreamException | IOException | URISyntaxException | IllegalArgumentException e) {
+            // Leave it to the validating parser
+        }
+        return null;
+    }
+
     @Override
     public Report function(Corpus c, Boolean fix) throws NoSuchAlgorithmException, ClassNotFoundException, FSMException, URISyntaxException, SAXException, IOException, ParserConfigurationException, JexmaraldaException, TransformerException, XPathExpressionException, JDOMException {
         Report report = new Report();
@@ -119,12 +161,9 @@ public class XsdChecker  extends Checker implements CorpusFunction {
     @Override
     public Collection<Class<? extends CorpusData>> getIsUsableFor() {
         List<Class<? extends CorpusData>> usable = new ArrayList<>();
-        Reflections reflections = new Reflections("de.uni_hamburg.corpora");
-        // Get all classes derived from both XMLData and CorpusData
-        for (Class c : Sets.intersection(reflections.getSubTypesOf(XMLData.class),
-                reflections.getSubTypesOf(CorpusData.class)).stream().collect(Collectors.toSet())) {
-            // Check if it is a proper class, ie public and not abstract
-            if (Modifier.isPublic(c.getModifiers()) && !Modifier.isAbstract(c.getModifiers())) {
+        // Get all corpus data classes also derived from XMLData, indexed at build time
+        for (Class<? extends CorpusData> c : CorpusRegistry.getInstance().getCorpusDataTypes()) {
+            if (XMLData.class.isAssignableFrom(c)) {
                 usable.add(c);
             }
         }
@@ -7,7 +7,6 @@ package de.uni_hamburg.corpora.visualization;
 
 import de.uni_hamburg.corpora.*;
 import de.uni_hamburg.corpora.EXMARaLDATranscriptionData;
-import de.uni_hamburg.corpora.utilities.TypeConverter;
 import de.uni_hamburg.corpora.utilities.XSLTransformer;
 import java.io.IOException;
 import java.net.MalformedURLException;
@@ -51,12 +50,9 @@ public class CorpusHTML extends Visualizer {
             String corpusPrefix = coma.split("<Key Name=\"inel:corpusPrefix\">")[1].split("</Key>")[0];
             String corpusVersion = coma.split("<Key Name=\"inel:corpusVersion\">")[1].split("</Key>")[0];
 
-            // read the XSL stylesheet into a String
-            String xsl = TypeConverter.InputStream2String(getClass().getResourceAsStream(STYLESHEET_PATH));
-
             XSLTransformer xt = new XSLTransformer();
             xt.setParameter("identifier", "spoken-corpus:" + corpusPrefix + "-" + corpusVersion);
-            result = xt.transform(coma, xsl);
+            result = xt.transformWithResource(coma, STYLESHEET_PATH);
         } catch (TransformerConfigurationException ex) {
             stats.addException(SERVICE_NAME, ex, cd, "Unknown TransformerConfigurationException");
         } catch (TransformerException ex) {
@@ -75,8 +75,6 @@ public class HScoreHTML extends Visualizer {
         BasicTranscription bt = basicTranscription;
         bt.normalize();
         basicTranscriptionString = bt.toXML();
-        String xsl = TypeConverter.InputStream2String(getClass().getResourceAsStream(STYLESHEET_PATH));
-
         // perform XSLT transformation
         XSLTransformer xt = new XSLTransformer();
         xt.setParameter("EMAIL_ADDRESS", EMAIL_ADDRESS);
@@ -88,7 +86,7 @@ public class HScoreHTML extends Visualizer {
             xt.setParameter("RECORDING_PATH", referencedRecording);
             xt.setParameter("RECORDING_TYPE", "wav");
         }
-        result = xt.transform(basicTranscriptionString, xsl);
+        result = xt.transformWithResource(basicTranscriptionString, STYLESHEET_PATH);
 
         setHTML(result);
 
@@ -97,19 +97,15 @@ public class ListHTML extends Visualizer {
         createUtteranceList();
         if (getUtteranceList() != null) {
             // get the XSLT stylesheet
-            String xsl = "";
+            String xsl;
             if (segmAlgorithm.equals("HIAT")) {
-                xsl = TypeConverter.InputStream2String(
-                        getClass().getResourceAsStream(STYLESHEET_PATH));
+                xsl = STYLESHEET_PATH;
             } else if (segmAlgorithm.equals("GAT")) {
-                xsl = TypeConverter.InputStream2String(
-                        getClass().getResourceAsStream(GAT_STYLESHEET_PATH));
+                xsl = GAT_STYLESHEET_PATH;
             } else if (segmAlgorithm.equals("GENERIC")) {
-                xsl = TypeConverter.InputStream2String(
-                        getClass().getResourceAsStream(GENERIC_STYLESHEET_PATH));
+                xsl = GENERIC_STYLESHEET_PATH;
             } else {
-                xsl = TypeConverter.InputStream2String(
-                        getClass().getResourceAsStream(GENERIC_STYLESHEET_PATH));
+                xsl = GENERIC_STYLESHEET_PATH;
             }
 
             // create XSLTransformer and set the parameters
@@ -123,7 +119,7 @@ public class ListHTML extends Visualizer {
                 xt.setParameter("CORPUS_NAME", corpusname);
             }
             // perform XSLT transformation
-            result = xt.transform(getUtteranceList(), xsl);
+            result = xt.transformWithResource(getUtteranceList(), xsl);
             if (result != null) {
 
                 // replace JS/CSS placeholders from XSLT output
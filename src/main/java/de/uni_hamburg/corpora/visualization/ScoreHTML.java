@@ -158,8 +158,6 @@ public class ScoreHTML extends Visualizer {
         XMLOutputter xmOut = new XMLOutputter();
         String xml = xmOut.outputString(itDocument);
 
-        String xsl = TypeConverter.InputStream2String(getClass().getResourceAsStream(STYLESHEET_PATH));
-
         XSLTransformer xt = new XSLTransformer();
         xt.setParameter("EMAIL_ADDRESS", EMAIL_ADDRESS);
         xt.setParameter("WEBSERVICE_NAME", SERVICE_NAME);
@@ -171,7 +169,7 @@ public class ScoreHTML extends Visualizer {
         }
 
         // perform XSLT transformation
-        result = xt.transform(xml, xsl);
+        result = xt.transformWithResource(xml, STYLESHEET_PATH);
 
         // insert JavaScript for highlighting
         // replace JS/CSS placeholders from XSLT output  
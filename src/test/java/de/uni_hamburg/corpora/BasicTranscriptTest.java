@@ -10,7 +10,7 @@ package de.uni_hamburg.corpora;
  *
  * Last updated
  * @author Herbert Lange
- * @version 20240510
+ * @version 20261017
  */
 
 import java.io.UnsupportedEncodingException;
@@ -22,6 +22,8 @@ import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.net.URL;
 
+import org.exmaralda.partitureditor.jexmaralda.BasicTranscription;
+import org.jdom2.Document;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -61,4 +63,30 @@ public class BasicTranscriptTest {
             fail("Unexpected exception " + ioe);
         }
     }
+
+    @Test
+    public void sharedModel() throws IOException {
+        String exbFilename = "src/test/java/de/uni_hamburg/corpora/resources/example/HardTalk.exb";
+        URL url = new File(exbFilename).toURI().toURL();
+        EXMARaLDATranscriptionData btd = new EXMARaLDATranscriptionData(url);
+        // Both views are only parsed once
+        BasicTranscription bt = btd.getEXMARaLDAbt();
+        assertNotNull(bt);
+        assertSame(bt, btd.getEXMARaLDAbt());
+        Document jdom = btd.getJdom();
+        assertNotNull(jdom);
+        assertSame(jdom, btd.getJdom());
+        // Changing the JDOM document invalidates the string and the transcription
+        jdom.getRootElement().getChild("head").getChild("meta-information").getChild("project-name")
+                .setText("ChangedProjectName");
+        btd.setJdom(jdom);
+        assertTrue(btd.toUnformattedString().contains("ChangedProjectName"));
+        assertNotSame(bt, btd.getEXMARaLDAbt());
+        assertEquals("ChangedProjectName", btd.getEXMARaLDAbt().getHead().getMetaInformation().getProjectName());
+        // Changing the string invalidates the JDOM document
+        btd.updateUnformattedString(btd.toUnformattedString().replace("ChangedProjectName", "ChangedAgain"));
+        assertNotSame(jdom, btd.getJdom());
+        assertEquals("ChangedAgain", btd.getJdom().getRootElement().getChild("head")
+                .getChild("meta-information").getChildText("project-name"));
+    }
 }
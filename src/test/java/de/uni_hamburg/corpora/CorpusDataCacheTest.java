@@ -0,0 +1,98 @@
+package de.uni_hamburg.corpora;
+
+import java.io.File;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for lazily loading corpus data through the cache
+ *
+ * Last updated
+ * @author Herbert Lange
+ * @version 20261017
+ */
+public class CorpusDataCacheTest {
+
+    static final String EXAMPLE = "src/test/java/de/uni_hamburg/corpora/resources/example/";
+
+    URL hardTalk;
+    URL almal;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        hardTalk = new File(EXAMPLE + "HardTalk.exb").toURI().toURL();
+        almal = new File(EXAMPLE + "AlmalIsNFreak.exb").toURI().toURL();
+    }
+
+    @Test
+    public void testGetIsCached() throws Exception {
+        CorpusDataCache cache = new CorpusDataCache(Long.MAX_VALUE);
+        CorpusDataHandle handle = CorpusDataHandle.fromURL(hardTalk, EXMARaLDATranscriptionData.class);
+        CorpusData first = cache.get(handle);
+        assertTrue(first instanceof EXMARaLDATranscriptionData);
+        assertEquals(hardTalk, first.getURL());
+        assertSame(first, cache.get(handle), "The file should only be read once");
+    }
+
+    @Test
+    public void testMemoryIsBounded() throws Exception {
+        CorpusDataHandle first = CorpusDataHandle.fromURL(hardTalk, EXMARaLDATranscriptionData.class);
+        CorpusDataHandle second = CorpusDataHandle.fromURL(almal, EXMARaLDATranscriptionData.class);
+        // Enough memory for one of the files only
+        long max = Math.max(first.getSize(), second.getSize()) * CorpusDataCache.MEMORY_PER_FILE_BYTE;
+        CorpusDataCache cache = new CorpusDataCache(max);
+        cache.get(first);
+        cache.get(second);
+        assertTrue(cache.getUsedBytes() <= max, "The cache should evict documents when it is full");
+    }
+
+    @Test
+    public void testPinned() throws Exception {
+        CorpusDataCache cache = new CorpusDataCache(0);
+        EXMARaLDATranscriptionData btd = new EXMARaLDATranscriptionData(hardTalk);
+        assertSame(btd, cache.get(new CorpusDataHandle(btd)));
+        assertEquals(0, cache.getUsedBytes());
+    }
+
+    @Test
+    public void testLazyCollection() throws Exception {
+        CorpusDataCache cache = new CorpusDataCache(0);
+        CorpusIO cio = new CorpusIO();
+        LazyCorpusDataCollection<CorpusData> cdc = cio.readLazily(new File(EXAMPLE).toURI().toURL(),
+                Collections.singleton(EXMARaLDATranscriptionData.class), new Report(), cache);
+        List<URL> urls = new ArrayList<>();
+        for (CorpusData cd : cdc) {
+            urls.add(cd.getURL());
+        }
+        assertTrue(urls.contains(hardTalk));
+        assertTrue(urls.contains(almal));
+        Corpus corpus = new Corpus(cdc);
+        assertEquals(2, corpus.getBasicTranscriptionData().size());
+        assertEquals(0, corpus.getELANData().size());
+    }
+
+    @Test
+    public void testUnreadableFile() throws Exception {
+        CorpusDataCache cache = new CorpusDataCache(Long.MAX_VALUE);
+        // The interface cannot be instantiated, so the file cannot be read
+        CorpusDataHandle unreadable = CorpusDataHandle.fromURL(almal, CorpusData.class);
+        LazyCorpusDataCollection<CorpusData> cdc = new LazyCorpusDataCollection<>(List.of(
+                CorpusDataHandle.fromURL(hardTalk, EXMARaLDATranscriptionData.class), unreadable), cache);
+        assertEquals(2, cdc.size());
+        List<CorpusData> read = new ArrayList<>(cdc);
+        assertEquals(1, read.size());
+        assertEquals(hardTalk, read.get(0).getURL());
+        // The skipped file is not counted anymore and can be reported
+        assertEquals(1, cdc.size());
+        assertEquals(1, cdc.toArray().length);
+        assertTrue(cache.isUnreadable(almal));
+        assertEquals(List.of(almal), new ArrayList<>(cache.getUnreadable().keySet()));
+        cache.invalidate(almal);
+        assertEquals(2, cdc.size());
+    }
+}
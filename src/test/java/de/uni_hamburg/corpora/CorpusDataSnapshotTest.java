@@ -0,0 +1,80 @@
+package de.uni_hamburg.corpora;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for sharing file content between corpus data and its clones
+ *
+ * Last updated
+ * @author Herbert Lange
+ * @version 20261017
+ */
+public class CorpusDataSnapshotTest {
+
+    @TempDir
+    Path tmp;
+
+    Path file;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        file = Files.writeString(tmp.resolve("test.xml"), "<?xml version=\"1.0\"?><root><child/></root>",
+                StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testSnapshot() throws Exception {
+        CorpusDataSnapshot snapshot = CorpusDataSnapshot.read(file.toUri().toURL());
+        assertTrue(snapshot.isCurrent());
+        assertSame(snapshot.getString(), snapshot.getString());
+        // Each caller gets its own document
+        Document first = snapshot.getDocument();
+        first.getRootElement().removeContent();
+        assertEquals(1, snapshot.getDocument().getRootElement().getChildren().size());
+        assertNotSame(snapshot.getDocument(), snapshot.getDocument());
+        CorpusDataSnapshot.invalidate(file);
+        assertFalse(snapshot.isCurrent());
+        assertTrue(CorpusDataSnapshot.read(file.toUri().toURL()).isCurrent());
+    }
+
+    @Test
+    public void testChangedFile() throws Exception {
+        CorpusDataSnapshot snapshot = CorpusDataSnapshot.read(file.toUri().toURL());
+        // Not written through CorpusIO, but the size changes
+        Files.writeString(file, "<?xml version=\"1.0\"?><root/>", StandardCharsets.UTF_8);
+        assertFalse(snapshot.isCurrent());
+        Files.delete(file);
+        assertFalse(snapshot.isCurrent());
+    }
+
+    @Test
+    public void testCloneIsIndependent() throws Exception {
+        UnspecifiedXMLData original = new UnspecifiedXMLData(file.toUri().toURL());
+        String content = original.toUnformattedString();
+        UnspecifiedXMLData clone = (UnspecifiedXMLData) original.clone();
+        assertSame(content, clone.toUnformattedString(), "The content is shared");
+        clone.getJdom().getRootElement().addContent(new Element("added"));
+        assertEquals(1, original.getJdom().getRootElement().getChildren().size());
+        assertEquals(1, ((UnspecifiedXMLData) original.clone()).getJdom().getRootElement().getChildren().size());
+    }
+
+    @Test
+    public void testCloneAfterWrite() throws Exception {
+        ELANData original = new ELANData(file.toUri().toURL());
+        ELANData clone = (ELANData) original.clone();
+        assertSame(original.toUnformattedString(), clone.toUnformattedString());
+        // Same size as before, the change is noticed even if the modification time stays the same
+        new CorpusIO().write("<?xml version=\"1.0\"?><root><other/></root>", file.toUri().toURL());
+        ELANData reread = (ELANData) original.clone();
+        assertEquals("other", reread.getJdom().getRootElement().getChildren().get(0).getName());
+        assertEquals("child", original.getJdom().getRootElement().getChildren().get(0).getName());
+    }
+}
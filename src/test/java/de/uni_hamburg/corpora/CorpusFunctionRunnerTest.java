@@ -0,0 +1,76 @@
+package de.uni_hamburg.corpora;
+
+import de.uni_hamburg.corpora.validation.ExbForbiddenSymbolsChecker;
+import de.uni_hamburg.corpora.validation.ExbStructureChecker;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for running several corpus functions together
+ *
+ * Last updated
+ * @author Herbert Lange
+ * @version 20261017
+ */
+public class CorpusFunctionRunnerTest {
+
+    @Test
+    public void testFusedIsSameAsSequential() throws Exception {
+        Collection<CorpusData> cdc = new ArrayList<>();
+        for (String name : new String[]{"HardTalk.exb", "AlmalIsNFreak.exb"}) {
+            cdc.add(new EXMARaLDATranscriptionData(
+                    new File("src/test/java/de/uni_hamburg/corpora/resources/example/" + name).toURI().toURL()));
+        }
+        Properties props = new Properties();
+        List<CorpusFunction> cfs = Arrays.asList(new ExbForbiddenSymbolsChecker(props),
+                new ExbStructureChecker(props));
+        for (int threads : new int[]{1, 2}) {
+            CorpusFunctionRunner runner = new CorpusFunctionRunner(threads);
+            Report sequential = new Report();
+            for (CorpusFunction cf : cfs) {
+                sequential.merge(runner.run(cdc, cf, false));
+            }
+            Report fused = runner.run(cdc, cfs, false);
+            assertEquals(descriptions(sequential), descriptions(fused));
+        }
+    }
+
+    @Test
+    public void testMemoryIsBounded(@TempDir Path tmp) throws Exception {
+        Path source = Path.of("src/test/java/de/uni_hamburg/corpora/resources/example/HardTalk.exb");
+        int files = 5;
+        for (int i = 0; i < files; i++) {
+            Files.copy(source, tmp.resolve("HardTalk" + i + ".exb"));
+        }
+        // Enough memory for two of the files only
+        long max = 2 * Files.size(source) * CorpusDataCache.MEMORY_PER_FILE_BYTE;
+        for (int threads : new int[]{1, 2}) {
+            CorpusDataCache cache = new CorpusDataCache(max);
+            LazyCorpusDataCollection<CorpusData> cdc = new CorpusIO().readLazily(tmp.toUri().toURL(),
+                    Collections.singleton(EXMARaLDATranscriptionData.class), new Report(), cache);
+            assertEquals(files, cdc.size());
+            CorpusFunctionRunner runner = new CorpusFunctionRunner(threads);
+            Report report = runner.run(cdc, new ExbStructureChecker(new Properties()), false);
+            assertEquals(files, report.getRawStatistics().stream().map(ReportItem::getFilename).distinct()
+                    .filter((f) -> f != null && f.contains("HardTalk")).count());
+            assertTrue(cache.getUsedBytes() <= cache.getMaxBytes(), "The cache should evict documents when it is full");
+        }
+    }
+
+    private static List<String> descriptions(Report report) {
+        return report.getRawStatistics().stream().map((ri) -> ri.getFunction() + ": " + ri.getWhat())
+                .collect(Collectors.toList());
+    }
+}
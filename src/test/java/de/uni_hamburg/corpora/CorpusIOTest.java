@@ -0,0 +1,77 @@
+package de.uni_hamburg.corpora;
+
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.TreeSet;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for determining the corpus data type of files
+ *
+ * Last updated
+ * @author Herbert Lange
+ * @version 20261017
+ */
+public class CorpusIOTest {
+
+    static final String EXAMPLE = "src/test/java/de/uni_hamburg/corpora/resources/example/";
+
+    @TempDir
+    Path tmp;
+
+    @Test
+    public void testGetCorpusDataTypeByExtension() throws Exception {
+        CorpusIO cio = new CorpusIO();
+        Collection<Class<? extends CorpusData>> all = CorpusRegistry.getInstance().getCorpusDataTypes();
+        assertEquals(EXMARaLDATranscriptionData.class,
+                cio.getCorpusDataType(Paths.get(EXAMPLE, "HardTalk.exb").toUri().toURL(), all));
+        // Only the types given are considered
+        assertNull(cio.getCorpusDataType(Paths.get(EXAMPLE, "HardTalk.exb").toUri().toURL(),
+                Collections.singleton(ComaData.class)));
+        Path unknown = Files.writeString(tmp.resolve("notes.txt"), "Nothing to see");
+        assertNull(cio.getCorpusDataType(unknown.toUri().toURL(), all));
+        assertNull(cio.getCorpusDataType(tmp.resolve("missing.exb").toUri().toURL(), all));
+    }
+
+    @Test
+    public void testGetCorpusDataTypeByRootElement() throws Exception {
+        CorpusIO cio = new CorpusIO();
+        Path spec = tmp.resolve("spec.xml");
+        Files.copy(Paths.get(EXAMPLE, "annotation_panel_Nganasan21.xml"), spec);
+        Path other = Files.writeString(tmp.resolve("other.xml"), "<?xml version=\"1.0\"?><root/>",
+                StandardCharsets.UTF_8);
+        Path broken = Files.writeString(tmp.resolve("broken.xml"), "not xml", StandardCharsets.UTF_8);
+        Collection<Class<? extends CorpusData>> withSpec = Arrays.asList(AnnotationSpecification.class,
+                UnspecifiedXMLData.class);
+        assertEquals(AnnotationSpecification.class, cio.getCorpusDataType(spec.toUri().toURL(), withSpec));
+        assertEquals(UnspecifiedXMLData.class, cio.getCorpusDataType(other.toUri().toURL(), withSpec));
+        assertEquals(UnspecifiedXMLData.class, cio.getCorpusDataType(broken.toUri().toURL(), withSpec));
+        // Without annotation specifications the file is not looked into
+        assertEquals(UnspecifiedXMLData.class, cio.getCorpusDataType(spec.toUri().toURL(),
+                Collections.singleton(UnspecifiedXMLData.class)));
+        CorpusData cd = cio.readFileURL(spec.toUri().toURL(), withSpec);
+        assertTrue(cd instanceof AnnotationSpecification);
+    }
+
+    @Test
+    public void testListFiles() throws Exception {
+        Files.writeString(tmp.resolve("a.exb"), "");
+        Files.writeString(tmp.resolve("b.txt"), "");
+        Files.createDirectories(tmp.resolve("sub.coma"));
+        Files.writeString(tmp.resolve("sub.coma").resolve("c.eaf"), "");
+        Collection<String> names = new TreeSet<>();
+        for (URL url : new CorpusIO().listFiles(tmp, new Report())) {
+            names.add(Paths.get(url.toURI()).getFileName().toString());
+        }
+        assertEquals(new TreeSet<>(Arrays.asList("a.exb", "c.eaf")), names);
+    }
+}
@@ -0,0 +1,76 @@
+package de.uni_hamburg.corpora;
+
+import de.uni_hamburg.corpora.validation.ExbStructureChecker;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the registry of corpus data types and corpus functions
+ *
+ * Last updated
+ * @author Herbert Lange
+ * @version 20261017
+ */
+public class CorpusRegistryTest {
+
+    @TempDir
+    Path tmp;
+
+    @Test
+    public void testScan() {
+        CorpusRegistry registry = CorpusRegistry.scan();
+        assertFalse(registry.isIndexed());
+        assertTrue(registry.getCorpusDataTypes().contains(EXMARaLDATranscriptionData.class));
+        assertTrue(registry.getFileExtensions(EXMARaLDATranscriptionData.class).contains("exb"));
+        assertFalse(registry.getCorpusDataTypes().contains(XMLData.class), "Abstract types are not included");
+        assertTrue(registry.getCorpusFunctions().contains(ExbStructureChecker.class));
+    }
+
+    @Test
+    public void testIndexUpToDate() {
+        // The index is generated in the process-classes phase, so it should describe the current classes
+        CorpusRegistry registry = CorpusRegistry.getInstance();
+        CorpusRegistry scanned = CorpusRegistry.scan();
+        assertEquals(new ArrayList<>(scanned.getCorpusDataTypes()), new ArrayList<>(registry.getCorpusDataTypes()));
+        for (Class<? extends CorpusData> c : scanned.getCorpusDataTypes()) {
+            assertEquals(scanned.getFileExtensions(c), registry.getFileExtensions(c));
+        }
+        assertEquals(scanned.getCorpusFunctions(), registry.getCorpusFunctions());
+    }
+
+    @Test
+    public void testWriteAndLoad() throws Exception {
+        CorpusRegistry scanned = CorpusRegistry.scan();
+        scanned.writeIndex(tmp);
+        assertTrue(Files.exists(tmp.resolve(CorpusRegistry.DATA_INDEX)));
+        // Unknown classes in the index are skipped
+        Files.writeString(tmp.resolve(CorpusRegistry.FUNCTION_INDEX), "de.uni_hamburg.corpora.DoesNotExist\n",
+                StandardOpenOption.APPEND);
+        // Only finds the index in the temporary directory, but the classes from the test class path
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{tmp.toUri().toURL()}, null) {
+            @Override
+            protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+                return CorpusRegistryTest.class.getClassLoader().loadClass(name);
+            }
+        }) {
+            CorpusRegistry loaded = CorpusRegistry.load(loader);
+            assertNotNull(loaded);
+            assertTrue(loaded.isIndexed());
+            assertEquals(new ArrayList<>(scanned.getCorpusDataTypes()), new ArrayList<>(loaded.getCorpusDataTypes()));
+            assertEquals(scanned.getFileExtensions(ComaData.class), loaded.getFileExtensions(ComaData.class));
+            assertEquals(scanned.getCorpusFunctions(), loaded.getCorpusFunctions());
+        }
+        // No index at all
+        try (URLClassLoader empty = new URLClassLoader(new URL[]{tmp.resolve("empty").toUri().toURL()}, null)) {
+            assertNull(CorpusRegistry.load(empty));
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package de.uni_hamburg.corpora;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for writing fixed files at the end of a run
+ *
+ * Last updated
+ * @author Herbert Lange
+ * @version 20261017
+ */
+public class CorpusWriteBackTest {
+
+    @TempDir
+    Path tmp;
+
+    @AfterEach
+    public void tearDown() {
+        CorpusWriteBack writeBack = CorpusWriteBack.getActive();
+        if (writeBack != null) {
+            writeBack.finish();
+        }
+    }
+
+    @Test
+    public void testWriteFile() throws Exception {
+        Path file = tmp.resolve("a.xml");
+        assertTrue(CorpusWriteBack.writeFile(file, "äöü"));
+        assertEquals("äöü", Files.readString(file, StandardCharsets.UTF_8));
+        // Identical content is not written again
+        FileTime old = FileTime.fromMillis(0);
+        Files.setLastModifiedTime(file, old);
+        assertFalse(CorpusWriteBack.writeFile(file, "äöü"));
+        assertEquals(old, Files.getLastModifiedTime(file));
+        assertTrue(CorpusWriteBack.writeFile(file, "äöü!"));
+        assertTrue(CorpusWriteBack.writeFile(file, "äö"));
+        assertEquals("äö", Files.readString(file, StandardCharsets.UTF_8));
+        // No temporary files are left behind
+        try (var files = Files.list(tmp)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    public void testCoalesce() throws Exception {
+        Path existing = Files.writeString(tmp.resolve("a.xml"), "<a/>");
+        Path unchanged = Files.writeString(tmp.resolve("b.xml"), "<b/>");
+        CorpusIO cio = new CorpusIO();
+        CorpusWriteBack writeBack = CorpusWriteBack.begin();
+        assertSame(writeBack, CorpusWriteBack.getActive());
+        cio.write("<a>1</a>", existing.toUri().toURL());
+        cio.write("<a>2</a>", existing.toUri().toURL());
+        cio.write("<b/>", unchanged.toUri().toURL());
+        // New files are written immediately
+        Path created = tmp.resolve("c.xml");
+        cio.write("<c/>", created.toUri().toURL());
+        assertEquals("<c/>", Files.readString(created));
+        // The changes are not on disk yet, but visible when reading the file as corpus data
+        assertEquals("<a/>", Files.readString(existing));
+        assertEquals("<a>2</a>", new UnspecifiedXMLData(existing.toUri().toURL()).toUnformattedString());
+        assertEquals(2, writeBack.getPendingCount());
+        // The pending content is kept in one temporary file per changed file
+        try (var files = Files.list(tmp)) {
+            assertEquals(5, files.count());
+        }
+        Map<Path, IOException> errors = writeBack.finish();
+        assertTrue(errors.isEmpty());
+        assertNull(CorpusWriteBack.getActive());
+        assertEquals("<a>2</a>", Files.readString(existing));
+        assertEquals(1, writeBack.getWritten());
+        assertEquals(1, writeBack.getUnchanged());
+        try (var files = Files.list(tmp)) {
+            assertEquals(3, files.count());
+        }
+    }
+
+    @Test
+    public void testBeginRemovesTemporaryFiles() throws Exception {
+        Path file = Files.writeString(tmp.resolve("a.xml"), "<a/>");
+        Path leftover = Files.writeString(tmp.resolve(".a.xml.1x2y3z.tmp"), "<a>1</a>");
+        Path other = Files.writeString(tmp.resolve("b.tmp"), "");
+        CorpusWriteBack.begin(tmp);
+        assertFalse(Files.exists(leftover));
+        assertTrue(Files.exists(file));
+        assertTrue(Files.exists(other));
+    }
+}
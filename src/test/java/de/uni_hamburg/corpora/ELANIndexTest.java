@@ -0,0 +1,92 @@
+package de.uni_hamburg.corpora;
+
+import de.uni_hamburg.corpora.utilities.quest.XMLTools;
+import java.io.File;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the index over ELAN documents
+ *
+ * Last updated
+ * @author Herbert Lange
+ * @version 20261017
+ */
+public class ELANIndexTest {
+
+    private static ELANData cd;
+
+    @BeforeAll
+    public static void setUp() throws Exception {
+        cd = new ELANData(new File("src/test/java/de/uni_hamburg/corpora/validation/quest/resources/" +
+                "T1_15-12-2013_Levetbao_Aven_Waet-Masta_1089.eaf").toURI().toURL());
+    }
+
+    @Test
+    public void testTiersAndAnnotations() {
+        ELANIndex index = cd.getIndex();
+        assertSame(index, cd.getIndex());
+        List<Element> tiers = cd.getJdom().getRootElement().getChildren("TIER");
+        assertEquals(tiers, index.getTiers());
+        for (Element tier : tiers) {
+            String tierId = tier.getAttributeValue("TIER_ID");
+            assertSame(tier, index.getTier(tierId));
+            List<String> values = tier.getChildren("ANNOTATION").stream().map(XMLTools::showAllText)
+                    .collect(Collectors.toList());
+            assertEquals(values, index.getAnnotationValues(tierId));
+            for (Element annotation : index.getAnnotations(tierId)) {
+                String annotationId = annotation.getAttributeValue("ANNOTATION_ID");
+                assertSame(annotation, index.getAnnotation(annotationId));
+                assertEquals(tierId, index.getTierId(annotationId));
+                assertNotNull(index.getAlignableAnnotation(annotationId));
+            }
+        }
+    }
+
+    @Test
+    public void testReferencesAndTimes() {
+        ELANIndex index = cd.getIndex();
+        Element alignable = index.getAlignableAnnotation("a212");
+        assertEquals("a1", alignable.getAttributeValue("ANNOTATION_ID"));
+        assertSame(index.getAnnotation("a1"), index.getAlignableAnnotation("a1"));
+        assertEquals(1738L, index.getTime("ts1"));
+        assertNull(index.getTime("no-such-slot"));
+        CorpusData.Location location = index.getLocation(index.getAnnotation("a212"));
+        assertEquals("Tier:" + index.getTierId("a212"), location.tier);
+        assertTrue(location.segment.startsWith("Segment:a212, Time:"));
+    }
+
+    @Test
+    public void testFindAnnotations() {
+        ELANIndex index = cd.getIndex();
+        String tierId = index.getTierId("a212");
+        assertTrue(index.findAnnotations(tierId, "T1.2013.1").contains(index.getAnnotation("a212")));
+        // Parts of tokens are found as well
+        List<Element> found = index.findAnnotations(tierId, "2013.1");
+        assertTrue(found.contains(index.getAnnotation("a212")));
+        for (Element annotation : found) {
+            assertTrue(XMLTools.showAllText(annotation).contains("2013.1"));
+        }
+        assertTrue(index.findAnnotations("no-such-tier", "T1.2013.1").isEmpty());
+    }
+
+    @Test
+    public void testFindWholeAndPartialTokens() {
+        Element tier = new Element("TIER").setAttribute("TIER_ID", "tx");
+        for (String[] annotation : new String[][]{{"a1", "foo"}, {"a2", "foobar"}, {"a3", "bar"}}) {
+            tier.addContent(new Element("ANNOTATION").addContent(new Element("ALIGNABLE_ANNOTATION")
+                    .setAttribute("ANNOTATION_ID", annotation[0])
+                    .addContent(new Element("ANNOTATION_VALUE").setText(annotation[1]))));
+        }
+        ELANIndex index = new ELANIndex(new Document(new Element("ANNOTATION_DOCUMENT").addContent(tier)));
+        // A whole token does not hide annotations containing it as part of a longer word
+        assertEquals(List.of(index.getAnnotation("a1"), index.getAnnotation("a2")), index.findAnnotations("tx", "foo"));
+        assertEquals(List.of(index.getAnnotation("a2"), index.getAnnotation("a3")), index.findAnnotations("tx", "bar"));
+        assertEquals(List.of(index.getAnnotation("a2")), index.findAnnotations("tx", "oba"));
+    }
+}
@@ -124,6 +124,41 @@ public class ReportTest {
         assertEquals("All reports\nMergeTest:\n: Note 1. No known fixes. \n: Note 2. No known fixes. \n", r1.getFullReports(), "Report should be combination of the two reports");
     }
 
+    @Test
+    public void testReportLimit() {
+        logger.info("Run report limit test");
+        int oldLimit = Report.reportLimit;
+        try {
+            Report.reportLimit = 3;
+            Report r = new Report();
+            for (int i = 0; i < 10; i++) {
+                r.addWarning("LimitTest", "Warning " + i);
+                r.addCorrect("LimitTest", "Correct " + i);
+            }
+            // Three warnings, the note about the limit and all correct items, which do not count towards the limit
+            assertEquals(3, r.getCount("LimitTest", ReportItem.Severity.WARNING));
+            assertEquals(10, r.getCount("LimitTest", ReportItem.Severity.CORRECT));
+            assertEquals(1, r.getCount("LimitTest", ReportItem.Severity.CRITICAL));
+            assertEquals(14, r.getBuckets().get("LimitTest").size());
+            assertEquals("Warning 2", r.getItems("LimitTest", ReportItem.Severity.WARNING).get(2).getWhat());
+            assertEquals("Correct 9", r.getItems("LimitTest", ReportItem.Severity.CORRECT).get(9).getWhat());
+            assertTrue(r.getItems("LimitTest", ReportItem.Severity.NOTE).isEmpty());
+            // Merged items count towards the limit as well
+            Report merged = new Report();
+            merged.addWarning("LimitTest", "Earlier warning");
+            merged.merge(r);
+            assertEquals(3, merged.getCount("LimitTest", ReportItem.Severity.WARNING));
+            assertEquals(10, merged.getCount("LimitTest", ReportItem.Severity.CORRECT));
+            assertEquals(1, merged.getCount("LimitTest", ReportItem.Severity.CRITICAL));
+            assertEquals(14, merged.getBuckets().get("LimitTest").size());
+            assertEquals("  LimitTest: 71 %: 10 OK, 1 bad, 3 warnings and 0 unknown. = 14 items.\n",
+                    merged.getSummaryLine("LimitTest"));
+        }
+        finally {
+            Report.reportLimit = oldLimit;
+        }
+    }
+
     @Test
     public void testAddReportItem() {
         logger.info("Run addReportItem test");
@@ -0,0 +1,80 @@
+package de.uni_hamburg.corpora;
+
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the streaming report writers
+ *
+ * Last updated
+ * @author Herbert Lange
+ * @version 20261017
+ */
+public class ReportWriterTest {
+
+    private static final String BASE = "file:/corpora/example/";
+
+    private Report createReport() {
+        Report report = new Report();
+        report.addCorrect("Test", BASE + "a.exb", "Everything fine");
+        report.addCritical("Test", "Broken file " + BASE + "b.exb");
+        report.addWarning("Test", "Suspicious");
+        return report;
+    }
+
+    @Test
+    public void testCSV() throws Exception {
+        StringWriter out = new StringWriter();
+        Report report = createReport();
+        try (CSVReportWriter writer = new CSVReportWriter(out, BASE, false)) {
+            report.addListener(writer);
+            // Items added later are streamed as well
+            report.addNote("Test", "Late note");
+            writer.finish(report.getSummaryLines());
+            assertEquals(4, writer.getCount());
+        }
+        String csv = out.toString();
+        assertTrue(csv.startsWith("Type\"Function\""));
+        assertFalse(csv.contains(BASE), "Paths are relative");
+        assertTrue(csv.contains("Broken file b.exb"));
+        assertTrue(csv.contains("Late note"));
+    }
+
+    @Test
+    public void testErrorsOnly() throws Exception {
+        StringWriter out = new StringWriter();
+        try (HTMLReportWriter writer = new HTMLReportWriter(out, BASE, true)) {
+            createReport().addListener(writer);
+            writer.finish("");
+            assertEquals(1, writer.getCount());
+        }
+        String html = out.toString();
+        assertTrue(html.contains("Broken file b.exb"));
+        assertFalse(html.contains("Suspicious"));
+        assertTrue(html.endsWith("</html>"));
+    }
+
+    @Test
+    public void testJSONCanBeLoaded() throws Exception {
+        Path tmp = Files.createTempFile("report", ".json");
+        try {
+            try (ReportWriter writer = ReportWriter.create(tmp.toUri().toURL(), BASE, false)) {
+                assertTrue(writer instanceof JSONReportWriter);
+                createReport().addListener(writer);
+                writer.finish("");
+            }
+            List<ReportItem> items = Report.load(tmp.toString());
+            assertEquals(3, items.size());
+            assertEquals(ReportItem.Severity.CRITICAL, items.get(1).getSeverity());
+            assertEquals("Broken file b.exb", items.get(1).getWhat());
+        }
+        finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+}
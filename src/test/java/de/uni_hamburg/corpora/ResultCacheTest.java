@@ -0,0 +1,51 @@
+package de.uni_hamburg.corpora;
+
+import de.uni_hamburg.corpora.validation.ExbStructureChecker;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Properties;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the result cache used in incremental mode
+ *
+ * Last updated
+ * @author Herbert Lange
+ * @version 20261017
+ */
+public class ResultCacheTest {
+
+    @TempDir
+    Path tmp;
+
+    @Test
+    public void testStoreAndLookup() throws Exception {
+        Path exb = tmp.resolve("HardTalk.exb");
+        Files.copy(Paths.get("src/test/java/de/uni_hamburg/corpora/resources/example/HardTalk.exb"), exb);
+        EXMARaLDATranscriptionData cd = new EXMARaLDATranscriptionData(exb.toUri().toURL());
+        CorpusFunction cf = new ExbStructureChecker(new Properties());
+        ResultCache cache = new ResultCache(tmp.resolve("cache"), new Properties());
+        assertNull(cache.lookup(cf, cd), "Nothing should be cached yet");
+        Report report = new Report();
+        report.addCritical("ExbStructureChecker", cd, "Something is wrong");
+        report.addCorrect("ExbStructureChecker", cd, "Something is right");
+        cache.store(cf, cd, report, new ArrayList<>());
+        Report cached = cache.lookup(cf, cd);
+        assertNotNull(cached);
+        assertEquals(report.getRawStatistics().size(), cached.getRawStatistics().size());
+        assertEquals("Something is wrong", cached.getErrorStatistics().get(0).getWhat());
+        // Other properties invalidate the results
+        Properties props = new Properties();
+        props.setProperty("mode", "inel");
+        assertNull(new ResultCache(tmp.resolve("cache"), props).lookup(cf, cd));
+        // Changing the file invalidates the results
+        Files.write(exb, (cd.toUnformattedString() + "\n").getBytes(StandardCharsets.UTF_8));
+        assertNull(cache.lookup(cf, cd));
+    }
+}
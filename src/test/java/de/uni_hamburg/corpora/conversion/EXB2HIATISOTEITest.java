@@ -0,0 +1,83 @@
+package de.uni_hamburg.corpora.conversion;
+
+import de.uni_hamburg.corpora.ComaData;
+import de.uni_hamburg.corpora.Report;
+import de.uni_hamburg.corpora.ReportItem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for converting the transcriptions of a corpus to ISO TEI in parallel
+ *
+ * Last updated
+ * @author Herbert Lange
+ * @version 20261017
+ */
+public class EXB2HIATISOTEITest {
+
+    @TempDir
+    Path tmp;
+
+    ComaData coma;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        Path comaFile = Files.writeString(tmp.resolve("test.coma"), "<?xml version=\"1.0\"?><Corpus/>");
+        coma = new ComaData(comaFile.toUri().toURL());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        EXB2HIATISOTEI.FSM = "";
+    }
+
+    @Test
+    public void testBatchIsolatesFailures() throws Exception {
+        // None of the files can be converted, but each of them is reported in the order of the coma file
+        Files.writeString(tmp.resolve("broken.exb"), "<basic-transcription>");
+        Files.writeString(tmp.resolve("empty.exb"), "");
+        String[] files = {"missing.exb", "broken.exb", "empty.exb", "missing2.exb"};
+        Element communication = new Element("Communication");
+        for (int i = 0; i < files.length; i++) {
+            communication.addContent(new Element("Transcription").setAttribute("Id", "T" + i)
+                    .addContent(new Element("Filename").setText(files[i]))
+                    .addContent(new Element("NSLink").setText(files[i])));
+        }
+        Document comaDoc = new Document(new Element("Corpus").addContent(communication));
+        Properties properties = new Properties();
+        properties.setProperty("batch-threads", "3");
+        EXB2HIATISOTEI converter = new EXB2HIATISOTEI(properties);
+        Report report = converter.convertBatch(comaDoc, communication.getChildren("Transcription"), coma);
+        List<ReportItem> failures = report.getItems("EXB2HIATISOTEI", ReportItem.Severity.CRITICAL);
+        assertEquals(files.length, failures.size());
+        for (int i = 0; i < files.length; i++) {
+            assertTrue(failures.get(i).getWhat().contains(files[i] + " failed"), failures.get(i).getWhat());
+        }
+        assertTrue(report.getItems("EXB2HIATISOTEI", ReportItem.Severity.CORRECT).isEmpty());
+        // Nothing is written for failed files
+        try (var written = Files.list(tmp)) {
+            assertEquals(0, written.filter(p -> p.toString().endsWith("_tei.xml")).count());
+        }
+    }
+
+    @Test
+    public void testBatchMissingFSM() throws Exception {
+        EXB2HIATISOTEI.FSM = tmp.resolve("missing-fsm.xml").toString();
+        Element communication = new Element("Communication").addContent(new Element("Transcription")
+                .setAttribute("Id", "T0").addContent(new Element("NSLink").setText("a.exb")));
+        Document comaDoc = new Document(new Element("Corpus").addContent(communication));
+        Report report = new EXB2HIATISOTEI(new Properties())
+                .convertBatch(comaDoc, communication.getChildren("Transcription"), coma);
+        List<ReportItem> failures = report.getItems("EXB2HIATISOTEI", ReportItem.Severity.CRITICAL);
+        assertEquals(1, failures.size());
+        assertTrue(failures.get(0).getWhat().startsWith("Segmentation FSM not found"));
+    }
+}
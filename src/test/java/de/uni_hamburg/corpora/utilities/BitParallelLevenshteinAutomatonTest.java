@@ -0,0 +1,47 @@
+package de.uni_hamburg.corpora.utilities;
+
+import java.util.Arrays;
+import java.util.List;
+import de.uni_hamburg.corpora.utilities.quest.BitParallelLevenshteinAutomaton;
+import de.uni_hamburg.corpora.utilities.quest.CompactDictionaryAutomaton;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the bit-parallel Levenshtein automaton
+ *
+ * Last updated
+ * @author Herbert Lange
+ * @version 20261017
+ */
+public class BitParallelLevenshteinAutomatonTest {
+
+    private static final List<String> WORDS = Arrays.asList("foo", "bar", "baz", "bla", "blubb", "barn", "ba",
+            "abr", "bark", "fo");
+
+    @Test
+    public void testMatch() {
+        BitParallelLevenshteinAutomaton k1 = new BitParallelLevenshteinAutomaton("bar", 1);
+        assertTrue(k1.match("bar"), "Same word");
+        assertTrue(k1.match("baz"), "Substitution");
+        assertTrue(k1.match("barn"), "Insertion");
+        assertTrue(k1.match("ba"), "Deletion");
+        assertFalse(k1.match("abr"), "Transposition counts as two errors");
+        assertFalse(k1.match("foo"));
+        assertTrue(new BitParallelLevenshteinAutomaton("bar", 2).match("abr"));
+        assertTrue(new BitParallelLevenshteinAutomaton("bar", 0).match("bar"));
+        assertFalse(new BitParallelLevenshteinAutomaton("bar", 0).match("baz"));
+    }
+
+    @Test
+    public void testMatchDictionary() {
+        CompactDictionaryAutomaton cda = new CompactDictionaryAutomaton(WORDS);
+        assertEquals(Arrays.asList("ba", "bar", "bark", "barn", "baz"),
+                BitParallelLevenshteinAutomaton.matchDictionary("bar", 1, cda), "Sorted matches for distance 1");
+        assertEquals(Arrays.asList("abr", "ba", "bar", "bark", "barn", "baz", "bla"),
+                BitParallelLevenshteinAutomaton.matchDictionary("bar", 2, cda), "Sorted matches for distance 2");
+        assertEquals(Arrays.asList("fo", "foo"), BitParallelLevenshteinAutomaton.matchDictionary("fo", 1, cda));
+        assertTrue(BitParallelLevenshteinAutomaton.matchDictionary("xyz", 1, cda).isEmpty());
+    }
+}
@@ -0,0 +1,72 @@
+package de.uni_hamburg.corpora.utilities;
+
+import java.util.Arrays;
+import de.uni_hamburg.corpora.utilities.quest.CodePointFrequencyList;
+import de.uni_hamburg.corpora.utilities.quest.CodePointSet;
+import de.uni_hamburg.corpora.utilities.quest.FrequencyList;
+import de.uni_hamburg.corpora.utilities.quest.StringSegmentation;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for code point classes and counters
+ *
+ * Last updated
+ * @author Herbert Lange
+ * @version 20261017
+ */
+public class CodePointSetTest {
+
+    @Test
+    public void testAlphabetic() {
+        CodePointSet alpha = CodePointSet.alphabetic();
+        assertSame(alpha, CodePointSet.alphabetic(), "The set is shared");
+        assertTrue(alpha.contains('a'));
+        assertTrue(alpha.contains('ß'));
+        assertTrue(alpha.contains("ɐ"));
+        assertTrue(alpha.contains(0x10480), "Characters outside the basic plane");
+        assertFalse(alpha.contains('1'));
+        assertFalse(alpha.contains("ab"), "Not a single code point");
+        assertFalse(alpha.contains(-1));
+    }
+
+    @Test
+    public void testOfAndUnion() {
+        CodePointSet set = CodePointSet.of(Arrays.asList("a", "ch", "𐞯", ""));
+        assertEquals(2, set.size(), "Only single code points are kept");
+        assertTrue(set.contains(0x107AF));
+        CodePointSet union = set.union(CodePointSet.of(Arrays.asList("b")));
+        assertEquals(3, union.size());
+        assertEquals(2, set.size(), "The sets are immutable");
+        assertTrue(CodePointSet.isSingleCodePoint("𐞯"));
+        assertFalse(CodePointSet.isSingleCodePoint(""));
+    }
+
+    @Test
+    public void testSegmentation() {
+        StringSegmentation sm = new StringSegmentation(StringSegmentation.compile(Arrays.asList("ch", "sch")),
+                CodePointSet.alphabetic());
+        assertTrue(sm.segmentWord("schach"));
+        assertEquals(Arrays.asList("sch", "a", "ch"), sm.getSegments());
+        assertFalse(sm.segmentWord("schach!"));
+    }
+
+    @Test
+    public void testFrequencyList() {
+        CodePointFrequencyList freq = new CodePointFrequencyList();
+        "abracadabra".codePoints().forEach(freq::put);
+        // Enough code points to grow the table
+        for (int c = 0x400; c < 0x500; c++) {
+            freq.put(c);
+        }
+        assertEquals(5, freq.get('a'));
+        assertEquals(0, freq.get('z'));
+        assertEquals(5 + 256, freq.size());
+        FrequencyList list = new FrequencyList();
+        freq.addTo(list, " ", (c) -> c < 0x400);
+        assertEquals(5, list.get(" a"));
+        assertEquals(2, list.get(" b"));
+        assertEquals(5, list.getMap().size());
+    }
+}
@@ -0,0 +1,103 @@
+package de.uni_hamburg.corpora.utilities;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import de.uni_hamburg.corpora.utilities.quest.CompactDictionaryAutomaton;
+import de.uni_hamburg.corpora.utilities.quest.DictionaryAutomaton;
+import de.uni_hamburg.corpora.utilities.quest.UniversalLevenshteinAutomatonK1;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the minimised dictionary automaton
+ *
+ * Last updated
+ * @author Herbert Lange
+ * @version 20261017
+ */
+public class CompactDictionaryAutomatonTest {
+
+    private static final List<String> WORDS = Arrays.asList("foo", "bar", "baz", "bla", "blubb", "tapped", "taps",
+            "tops", "topped", "bar", "");
+
+    @Test
+    public void testMatch() {
+        CompactDictionaryAutomaton cda = new CompactDictionaryAutomaton(WORDS);
+        DictionaryAutomaton da = new DictionaryAutomaton(WORDS);
+        for (String word : Arrays.asList("foo", "bar", "blubb", "taps", "topped", "blu", "blub", "foobar", "tap",
+                "tapps", "", "x")) {
+            assertEquals(da.match(word), cda.match(word), "Same result as the prefix tree for " + word);
+        }
+        assertEquals(da.getAlphabet(), cda.getAlphabet(), "Same alphabet");
+    }
+
+    @Test
+    public void testMinimised() {
+        CompactDictionaryAutomaton cda = new CompactDictionaryAutomaton(Arrays.asList("tapped", "taps", "tops",
+                "topped"));
+        // t, a|o, p, s|p, e, d and the final state
+        assertEquals(7, cda.getStateCount(), "Suffixes are shared");
+        assertEquals(8, cda.getTransitionCount());
+    }
+
+    @Test
+    public void testTransition() {
+        CompactDictionaryAutomaton cda = new CompactDictionaryAutomaton(WORDS);
+        int state = cda.getInitialState();
+        for (char c : "bla".toCharArray()) {
+            state = cda.transition(state, c);
+            assertNotEquals(CompactDictionaryAutomaton.NO_STATE, state);
+        }
+        assertTrue(cda.isAcceptingState(state), "After the end of the word we are in an accepting state");
+        assertEquals(CompactDictionaryAutomaton.NO_STATE, cda.transition(state, 'w'));
+        assertFalse(cda.isAcceptingState(CompactDictionaryAutomaton.NO_STATE));
+    }
+
+    @Test
+    public void testSaveAndLoad() throws IOException {
+        Path tmp = Files.createTempFile("dict", ".dawg");
+        try {
+            CompactDictionaryAutomaton cda = new CompactDictionaryAutomaton(WORDS);
+            cda.save(tmp);
+            assertTrue(CompactDictionaryAutomaton.isSavedAutomaton(tmp));
+            CompactDictionaryAutomaton loaded = CompactDictionaryAutomaton.open(tmp.toFile());
+            assertEquals(cda.getStateCount(), loaded.getStateCount());
+            assertEquals(cda.getTransitionCount(), loaded.getTransitionCount());
+            for (String word : Arrays.asList("foo", "blubb", "topped", "blub", "tap")) {
+                assertEquals(cda.match(word), loaded.match(word), "Same result after loading for " + word);
+            }
+            assertEquals(Arrays.asList("bar", "baz"), UniversalLevenshteinAutomatonK1.matchDictionary("bax", loaded)
+                    .stream().sorted().collect(Collectors.toList()));
+        }
+        finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    @Test
+    public void testOpenWordList() throws IOException {
+        File tmp = Files.createTempFile("dict", ".txt").toFile();
+        try {
+            Files.write(tmp.toPath(), WORDS);
+            assertFalse(CompactDictionaryAutomaton.isSavedAutomaton(tmp.toPath()));
+            assertTrue(CompactDictionaryAutomaton.open(tmp).match("blubb"));
+            // Words starting with the magic number are not mistaken for a saved automaton
+            Files.write(tmp.toPath(), Arrays.asList("DAWGS", "dog"));
+            assertFalse(CompactDictionaryAutomaton.isSavedAutomaton(tmp.toPath()));
+            assertTrue(CompactDictionaryAutomaton.open(tmp).match("DAWGS"));
+            // Broken files are rejected
+            Files.write(tmp.toPath(), new byte[]{0x44, 0x41, 0x57, 0x47, 0, 0, 0, 1});
+            assertFalse(CompactDictionaryAutomaton.isSavedAutomaton(tmp.toPath()));
+            assertThrows(IOException.class, () -> CompactDictionaryAutomaton.load(tmp.toPath()));
+        }
+        finally {
+            Files.deleteIfExists(tmp.toPath());
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package de.uni_hamburg.corpora.utilities;
+
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the shared index of corpus files
+ *
+ * Last updated
+ * @author Herbert Lange
+ * @version 20261017
+ */
+public class CorpusFileIndexTest {
+
+    @TempDir
+    Path tmp;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        Files.createDirectories(tmp.resolve("b/c"));
+        Files.createDirectories(tmp.resolve("b-c"));
+        Files.writeString(tmp.resolve("a.coma"), "");
+        Files.writeString(tmp.resolve("b/c/x.exb"), "");
+        Files.writeString(tmp.resolve("b/y.cmdi"), "");
+        Files.writeString(tmp.resolve("b-c/z.exb"), "content");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        CorpusFileIndex.clear();
+    }
+
+    @Test
+    public void testFiles() {
+        CorpusFileIndex index = CorpusFileIndex.build(tmp, 2);
+        assertEquals(files("a.coma", "b-c/z.exb", "b/c/x.exb", "b/y.cmdi"), index.getFiles());
+        assertEquals(files("b", "b-c", "b/c"), index.getDirectories());
+        assertEquals(files("b-c/z.exb", "b/c/x.exb"), index.getFiles("**.exb", null));
+        assertEquals(files("a.coma", "b-c/z.exb", "b/c/x.exb"), index.getFiles(null, "**.cmdi"));
+        assertEquals(7, index.getAttributes(tmp.resolve("b-c/z.exb")).size());
+        assertTrue(index.getErrors().isEmpty());
+        for (Path p : index.getEntries().keySet()) {
+            assertEquals(p.toFile().toURI(), index.toURI(p), "Same URI as for a File");
+        }
+    }
+
+    @Test
+    public void testShared() throws Exception {
+        CorpusFileIndex index = CorpusFileIndex.get(tmp);
+        assertSame(index, CorpusFileIndex.get(tmp.resolve("b").resolve("..")));
+        // Subdirectories are taken from the existing index
+        Files.writeString(tmp.resolve("b/new.exb"), "");
+        CorpusFileIndex sub = CorpusFileIndex.get(tmp.resolve("b"));
+        assertEquals(tmp.resolve("b"), sub.getRoot());
+        assertEquals(files("b/c/x.exb", "b/y.cmdi"), sub.getFiles());
+        // Until the index is invalidated
+        CorpusFileIndex.invalidate(tmp.resolve("b/new.exb"));
+        assertEquals(files("b/c/x.exb", "b/new.exb", "b/y.cmdi"), CorpusFileIndex.get(tmp.resolve("b")).getFiles());
+        assertNotSame(index, CorpusFileIndex.refresh(tmp));
+    }
+
+    @Test
+    public void testMissingDirectory() {
+        CorpusFileIndex index = CorpusFileIndex.build(tmp.resolve("missing"), 2);
+        assertTrue(index.getFiles().isEmpty());
+        assertTrue(index.getErrors().get(index.getRoot()) instanceof NoSuchFileException);
+    }
+
+    private List<Path> files(String... names) {
+        return Arrays.stream(names).map(tmp::resolve).toList();
+    }
+}
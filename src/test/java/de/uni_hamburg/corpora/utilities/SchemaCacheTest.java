@@ -0,0 +1,40 @@
+package de.uni_hamburg.corpora.utilities;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import javax.xml.validation.Schema;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the cache of compiled XML schemas
+ *
+ * Last updated
+ * @author Herbert Lange
+ * @version 20261017
+ */
+public class SchemaCacheTest {
+
+    @Test
+    public void testBundledSchemaOffline() throws Exception {
+        Path dir = Files.createTempDirectory("schema-cache-test");
+        Path oldDir = SchemaCache.getCacheDirectory();
+        try {
+            SchemaCache.setCacheDirectory(dir);
+            SchemaCache.setOffline(true);
+            // The Coma schema is bundled, so it is neither downloaded nor stored in the cache directory
+            Schema schema = SchemaCache.get("http://www.exmaralda.org/xml/comacorpus.xsd");
+            assertSame(schema, SchemaCache.get("http://www.exmaralda.org/xml/comacorpus.xsd"));
+            assertSame(SchemaCache.fromResource("/schemas/exb_schema.xsd"),
+                    SchemaCache.fromResource("/schemas/exb_schema.xsd"));
+            // Schemas that are neither bundled nor cached cannot be used offline
+            assertThrows(IOException.class, () -> SchemaCache.get("http://example.org/missing.xsd"));
+        }
+        finally {
+            SchemaCache.setOffline(false);
+            SchemaCache.setCacheDirectory(oldDir);
+        }
+    }
+}
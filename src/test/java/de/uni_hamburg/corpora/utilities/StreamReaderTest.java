@@ -0,0 +1,77 @@
+package de.uni_hamburg.corpora.utilities;
+
+import de.uni_hamburg.corpora.ELANData;
+import de.uni_hamburg.corpora.EXMARaLDATranscriptionData;
+import de.uni_hamburg.corpora.utilities.quest.XMLTools;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import org.jdom2.Element;
+import org.jdom2.filter.Filters;
+import org.jdom2.xpath.XPathFactory;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the streaming readers for EXMARaLDA and ELAN files
+ *
+ * Last updated
+ * @author Herbert Lange
+ * @version 20261017
+ */
+public class StreamReaderTest {
+
+    @Test
+    public void testExbTierText() throws Exception {
+        EXMARaLDATranscriptionData btd = new EXMARaLDATranscriptionData(
+                new File("src/test/java/de/uni_hamburg/corpora/resources/example/HardTalk.exb").toURI().toURL());
+        List<String> expected = new ArrayList<>();
+        for (Element tier : XPathFactory.instance().compile("//tier", Filters.element()).evaluate(btd.getJdom())) {
+            expected.add(XMLTools.showAllText(tier));
+        }
+        List<String> texts = new ArrayList<>();
+        int[] events = {0};
+        ExbStreamReader.read(btd, new ExbStreamReader.Handler() {
+            @Override
+            public boolean needsText(ExbStreamReader.Tier tier) {
+                return true;
+            }
+
+            @Override
+            public void event(ExbStreamReader.Tier tier, ExbStreamReader.Event event) {
+                events[0]++;
+            }
+
+            @Override
+            public void endTier(ExbStreamReader.Tier tier, String text) {
+                texts.add(text);
+            }
+        });
+        assertEquals(expected, texts, "The tier text should be the same as for the document tree");
+        assertEquals(XPathFactory.instance().compile("//event").evaluate(btd.getJdom()).size(), events[0]);
+    }
+
+    @Test
+    public void testEafTierText() throws Exception {
+        ELANData ed = new ELANData(new File("src/test/java/de/uni_hamburg/corpora/validation/quest/resources/" +
+                "T1_15-12-2013_Levetbao_Aven_Waet-Masta_1089.eaf").toURI().toURL());
+        List<String> expected = new ArrayList<>();
+        for (Element tier : XPathFactory.instance().compile("//TIER", Filters.element()).evaluate(ed.getJdom())) {
+            expected.add(XMLTools.showAllText(tier));
+        }
+        List<String> texts = new ArrayList<>();
+        EafStreamReader.read(ed, new EafStreamReader.Handler() {
+            @Override
+            public boolean needsText(EafStreamReader.Tier tier) {
+                return true;
+            }
+
+            @Override
+            public void endTier(EafStreamReader.Tier tier, String text) {
+                texts.add(text);
+            }
+        });
+        assertEquals(expected, texts, "The tier text should be the same as for the document tree");
+    }
+}
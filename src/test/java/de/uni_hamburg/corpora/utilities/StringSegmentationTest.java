@@ -0,0 +1,54 @@
+package de.uni_hamburg.corpora.utilities;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import de.uni_hamburg.corpora.utilities.quest.StringSegmentation;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for segmenting words into known chunks
+ *
+ * Last updated
+ * @author Herbert Lange
+ * @version 20261017
+ */
+public class StringSegmentationTest {
+
+    private static final List<String> GRAPHEMES = Arrays.asList("a", "b", "c", "ch", "sch", "s", "");
+
+    @Test
+    public void testSegmentWord() {
+        StringSegmentation sm = new StringSegmentation(GRAPHEMES);
+        assertTrue(sm.segmentWord("schach"));
+        // The fewest segments, longer ones first
+        assertEquals(Arrays.asList("sch", "a", "ch"), sm.getSegments());
+        assertTrue(sm.segmentWord("cab"));
+        assertEquals(Arrays.asList("c", "a", "b"), sm.getSegments());
+        assertFalse(sm.segmentWord("schx"));
+        assertNull(sm.getSegments());
+        assertFalse(sm.segmentWord(""), "The empty word cannot be segmented");
+    }
+
+    @Test
+    public void testSameAsSegmentationWithChunks() {
+        StringSegmentation compiled = new StringSegmentation(GRAPHEMES);
+        StringSegmentation sm = new StringSegmentation();
+        for (String word : Arrays.asList("schach", "sch", "chs", "ahcs", "bx")) {
+            assertEquals(sm.segmentWord(word, GRAPHEMES), compiled.segmentWord(word), word);
+            assertEquals(sm.getSegments(), compiled.getSegments(), word);
+        }
+    }
+
+    @Test
+    public void testLongWord() {
+        // Many ways to segment the prefix, none for the complete word
+        StringSegmentation sm = new StringSegmentation(Arrays.asList("a", "aa", "aaa"));
+        String word = String.join("", Collections.nCopies(2000, "a"));
+        assertFalse(sm.segmentWord(word + "b"));
+        assertTrue(sm.segmentWord(word));
+        assertEquals(667, sm.getSegments().size());
+    }
+}
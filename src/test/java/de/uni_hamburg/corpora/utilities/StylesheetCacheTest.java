@@ -0,0 +1,75 @@
+package de.uni_hamburg.corpora.utilities;
+
+import javax.xml.transform.Templates;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the stylesheet cache
+ *
+ * Last updated
+ * @author Herbert Lange
+ * @version 20261017
+ */
+public class StylesheetCacheTest {
+
+    static final String XSL = "<xsl:stylesheet version=\"2.0\" xmlns:xsl=\"http://www.w3.org/1999/XSL/Transform\">" +
+            "<xsl:output method=\"text\"/>" +
+            "<xsl:template match=\"/\"><xsl:value-of select=\"count(//a)\"/></xsl:template>" +
+            "</xsl:stylesheet>";
+
+    TransformerFactory factory;
+
+    @BeforeEach
+    public void setUp() {
+        StylesheetCache.clear();
+        factory = TransformerFactory.newInstance("net.sf.saxon.TransformerFactoryImpl", null);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        StylesheetCache.setMaxSize(64);
+        StylesheetCache.clear();
+    }
+
+    @Test
+    public void testFromStringIsCached() throws TransformerConfigurationException {
+        Templates first = StylesheetCache.fromString(factory, XSL);
+        Templates second = StylesheetCache.fromString(factory, new String(XSL));
+        assertSame(first, second, "The same stylesheet should only be compiled once");
+        assertEquals(1, StylesheetCache.size());
+    }
+
+    @Test
+    public void testFromResourceIsCached() throws TransformerConfigurationException {
+        Templates first = StylesheetCache.fromResource(factory, "/xsl/pretty-print-sort-elements.xsl");
+        Templates second = StylesheetCache.fromResource(factory, "/xsl/pretty-print-sort-elements.xsl");
+        assertSame(first, second, "The same resource should only be compiled once");
+    }
+
+    @Test
+    public void testMissingResource() {
+        assertThrows(TransformerConfigurationException.class,
+                () -> StylesheetCache.fromResource(factory, "/xsl/does-not-exist.xsl"));
+    }
+
+    @Test
+    public void testEviction() throws TransformerConfigurationException {
+        StylesheetCache.setMaxSize(1);
+        StylesheetCache.fromString(factory, XSL);
+        StylesheetCache.fromString(factory, XSL.replace("//a", "//b"));
+        assertEquals(1, StylesheetCache.size(), "The cache should not grow beyond its maximum size");
+    }
+
+    @Test
+    public void testTransformUsesCache() throws TransformerException {
+        XSLTransformer xt = new XSLTransformer();
+        assertEquals("2", xt.transform("<r><a/><a/></r>", XSL));
+        assertEquals("1", xt.transform("<r><a/></r>", XSL));
+        assertEquals(1, StylesheetCache.size());
+    }
+}
@@ -0,0 +1,36 @@
+package de.uni_hamburg.corpora.utilities;
+
+import java.io.File;
+import java.util.List;
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.jdom2.filter.Filters;
+import org.jdom2.input.SAXBuilder;
+import org.jdom2.xpath.XPathExpression;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the registry of compiled XPath expressions
+ *
+ * Last updated
+ * @author Herbert Lange
+ * @version 20261017
+ */
+public class XPathRegistryTest {
+
+    @Test
+    public void testCompile() throws Exception {
+        Document doc = new SAXBuilder().build(
+                new File("src/test/java/de/uni_hamburg/corpora/resources/example/HardTalk.exb"));
+        XPathExpression<Element> xpath = XPathRegistry.compile("//tier[@id=$id]", Filters.element(), "id");
+        assertSame(xpath, XPathRegistry.compile("//tier[@id=$id]", Filters.element(), "id"));
+        assertNotSame(xpath, XPathRegistry.compile("//tier[@id=$id]", Filters.element()));
+        List<Element> tiers = doc.getRootElement().getChild("basic-body").getChildren("tier");
+        for (Element tier : tiers) {
+            xpath.setVariable("id", tier.getAttributeValue("id"));
+            assertEquals(List.of(tier), xpath.evaluate(doc));
+        }
+    }
+}
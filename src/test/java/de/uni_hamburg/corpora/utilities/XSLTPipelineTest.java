@@ -0,0 +1,70 @@
+package de.uni_hamburg.corpora.utilities;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.xml.transform.TransformerConfigurationException;
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.jdom2.Namespace;
+import org.jdom2.filter.Filters;
+import org.jdom2.xpath.XPathExpression;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for chaining stylesheets in memory
+ *
+ * Last updated
+ * @author Herbert Lange
+ * @version 20261017
+ */
+public class XSLTPipelineTest {
+
+    private static final Namespace TEI = Namespace.getNamespace("tei", "http://www.tei-c.org/ns/1.0");
+
+    private static final String REMOVE_TIME = "/xsl/removeTimepointsWithoutAbsolute.xsl";
+
+    private static final String XML = "<TEI xmlns=\"http://www.tei-c.org/ns/1.0\"><text>" +
+            "<timeline><when xml:id=\"T0\" interval=\"0.0\" since=\"T0\"/><when xml:id=\"T1\"/>" +
+            "<when xml:id=\"T2\"/></timeline>" +
+            "<body><u start=\"T0\" end=\"T2\"><anchor synch=\"T0\"/>word<anchor synch=\"T1\"/></u></body>" +
+            "</text></TEI>";
+
+    @Test
+    public void testSameAsXSLTransformer() throws Exception {
+        Document input = TypeConverter.String2JdomDocument(XML);
+        Document expected = TypeConverter.String2JdomDocument(
+                new XSLTransformer().transformWithResource(XML, REMOVE_TIME));
+        Document result = new XSLTPipeline().addStylesheet(REMOVE_TIME).transform(input);
+        assertEquals(ids(expected), ids(result));
+        // T1 is neither absolute nor referenced
+        assertEquals(List.of("T0", "T2"), ids(result));
+        // The input is not changed
+        assertEquals(List.of("T0", "T1", "T2"), ids(input));
+    }
+
+    @Test
+    public void testChain() throws Exception {
+        XSLTPipeline pipeline = new XSLTPipeline().addStylesheet(REMOVE_TIME).addStylesheet(REMOVE_TIME);
+        assertEquals(2, pipeline.size());
+        Document result = pipeline.transform(TypeConverter.String2JdomDocument(XML));
+        assertEquals(List.of("T0", "T2"), ids(result));
+        Element u = XPathRegistry.compile("//tei:u", Filters.element(), List.of(TEI)).evaluateFirst(result);
+        assertEquals("word", u.getText());
+        // Only the anchor at the absolute time point is left
+        assertEquals(1, u.getChildren("anchor", Namespace.getNamespace(TEI.getURI())).size());
+    }
+
+    @Test
+    public void testMissingStylesheet() {
+        assertThrows(TransformerConfigurationException.class,
+                () -> new XSLTPipeline().addStylesheet("/xsl/does-not-exist.xsl"));
+    }
+
+    private static List<String> ids(Document doc) {
+        XPathExpression<Element> xpath = XPathRegistry.compile("//tei:when", Filters.element(), List.of(TEI));
+        return xpath.evaluate(doc).stream().map((e) -> e.getAttributeValue("id", Namespace.XML_NAMESPACE))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,41 @@
+package de.uni_hamburg.corpora.validation;
+
+import java.util.List;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for mapping LanguageTool matches in the text of a tier back to the events
+ *
+ * Last updated
+ * @author Herbert Lange
+ * @version 20261017
+ */
+public class LanguageToolCheckerTest {
+
+    @Test
+    public void testEventPositions() {
+        List<String> events = List.of("Das ist gut.", "Ein Fehlr hier.");
+        int[] eventStarts = new int[events.size()];
+        String tierText = LanguageToolChecker.joinEvents(events, eventStarts);
+        assertEquals(0, eventStarts[0]);
+        assertEquals(events.get(0).length() + 2, eventStarts[1]);
+        // A match in the second event
+        int from = tierText.indexOf("Fehlr");
+        int to = from + "Fehlr".length();
+        int event = LanguageToolChecker.findEvent(eventStarts, from);
+        assertEquals(1, event);
+        int eventFrom = LanguageToolChecker.toEventPosition(eventStarts, event, from, events.get(1).length());
+        int eventTo = LanguageToolChecker.toEventPosition(eventStarts, event, to, events.get(1).length());
+        assertEquals("Fehlr", events.get(1).substring(eventFrom, eventTo));
+        // Matches at the start of an event belong to that event
+        assertEquals(0, LanguageToolChecker.findEvent(eventStarts, 0));
+        assertEquals(1, LanguageToolChecker.findEvent(eventStarts, eventStarts[1]));
+        // A match extending into the separator is clamped to the end of the event
+        int end = events.get(0).length() + 1;
+        assertEquals(0, LanguageToolChecker.findEvent(eventStarts, end));
+        assertEquals(events.get(0).length(),
+                LanguageToolChecker.toEventPosition(eventStarts, 0, end, events.get(0).length()));
+    }
+}